@@ -1,9 +1,12 @@
 package org.mobicents.servlet.restcomm;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.media.mscontrol.MsControlException;
 import javax.media.mscontrol.MsControlFactory;
@@ -23,14 +26,19 @@ import org.apache.commons.configuration.interpol.ConfigurationInterpolator;
 import org.apache.log4j.Logger;
 import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.InstanceId;
 import org.mobicents.servlet.restcomm.entities.shiro.ShiroResources;
+import org.mobicents.servlet.restcomm.http.HttpClientPool;
+import org.mobicents.servlet.restcomm.interpreter.NotificationDigests;
+import org.mobicents.servlet.restcomm.interpreter.ServicePools;
 import org.mobicents.servlet.restcomm.loader.ObjectFactory;
 import org.mobicents.servlet.restcomm.loader.ObjectInstantiationException;
 import org.mobicents.servlet.restcomm.mgcp.PowerOnMediaGateway;
 import org.mobicents.servlet.restcomm.mscontrol.MediaServerControllerFactory;
 import org.mobicents.servlet.restcomm.mscontrol.MediaServerInfo;
 import org.mobicents.servlet.restcomm.mscontrol.jsr309.Jsr309ControllerFactory;
+import org.mobicents.servlet.restcomm.mscontrol.mgcp.MediaGatewayPool;
 import org.mobicents.servlet.restcomm.mscontrol.mgcp.MmsControllerFactory;
 import org.mobicents.servlet.restcomm.telephony.config.ConfigurationStringLookup;
 
@@ -43,6 +51,9 @@ import akka.actor.Props;
 import akka.actor.UntypedActor;
 import akka.actor.UntypedActorFactory;
 
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
 import com.telestax.servlet.MonitoringService;
 
 /**
@@ -56,6 +67,8 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
     private static final Logger logger = Logger.getLogger(Bootstrapper.class);
 
     private ActorSystem system;
+    // The media gateways of the mms compatibility mode, their draining flag follows restcomm.xml.
+    private volatile MediaGatewayPool pool;
 
     public Bootstrapper() {
         super();
@@ -65,6 +78,7 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
     public void destroy() {
         system.shutdown();
         system.awaitTermination();
+        HttpClientPool.shutdown();
     }
 
     private MediaServerControllerFactory mediaServerControllerFactory(final Configuration configuration, ClassLoader loader)
@@ -75,11 +89,10 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
         MediaServerControllerFactory factory;
         switch (compatibility) {
             case "mms":
-                ActorRef gateway;
                 try {
                     settings = configuration.subset("media-server-manager");
-                    gateway = gateway(settings, loader);
-                    factory = new MmsControllerFactory(this.system, gateway);
+                    this.pool = gateways(settings, loader);
+                    factory = new MmsControllerFactory(this.system, this.pool);
                 } catch (UnknownHostException e) {
                     throw new ServletException(e);
                 }
@@ -166,34 +179,70 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
         return result;
     }
 
-    private ActorRef gateway(final Configuration settings, final ClassLoader loader) throws UnknownHostException {
-        final ActorRef gateway = system.actorOf(new Props(new UntypedActorFactory() {
+    private MediaGatewayPool gateways(final Configuration settings, final ClassLoader loader) throws UnknownHostException {
+        final int count = settings.getList("mgcp-server[@class]").size();
+        final List<MediaGatewayPool.Member> members = new ArrayList<MediaGatewayPool.Member>(count);
+        for (int index = 0; index < count; index++) {
+            final String server = "mgcp-server(" + index + ")";
+            final ActorRef gateway = gateway(settings, server, loader);
+            final String name = settings.getString(server + "[@name]");
+            final int weight = settings.getInt(server + "[@weight]", 1);
+            final boolean draining = settings.getBoolean(server + "[@draining]", false);
+            members.add(new MediaGatewayPool.Member(name, gateway, weight, draining));
+        }
+        final String selection = settings.getString("selection", "least-active");
+        final long retryInterval = settings.getLong("retry-interval", 30000);
+        return new MediaGatewayPool(members, MediaGatewayPool.Selection.valueOf(selection.toUpperCase().replace('-', '_')),
+                retryInterval);
+    }
+
+    // Applies the draining flag of the media servers, a media server added or renamed needs a restart.
+    private void drain(final Configuration settings) {
+        final MediaGatewayPool pool = this.pool;
+        if (pool == null) {
+            return;
+        }
+        final int count = settings.getList("mgcp-server[@class]").size();
+        for (int index = 0; index < count; index++) {
+            final String server = "mgcp-server(" + index + ")";
+            final String name = settings.getString(server + "[@name]");
+            if (!pool.drain(name, settings.getBoolean(server + "[@draining]", false))) {
+                logger.warn("Media server " + name + " is not in use, restart RestComm to add it");
+            }
+        }
+    }
+
+    private ActorRef gateway(final Configuration settings, final String server, final ClassLoader loader)
+            throws UnknownHostException {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public UntypedActor create() throws Exception {
-                final String classpath = settings.getString("mgcp-server[@class]");
+                final String classpath = settings.getString(server + "[@class]");
                 return (UntypedActor) new ObjectFactory(loader).getObjectInstance(classpath);
             }
-        }));
+        });
+        final ActorRef gateway = system.actorOf(RestcommDispatchers.withDispatcher(system, props,
+                RestcommDispatchers.MEDIA_CONTROL));
         final PowerOnMediaGateway.Builder builder = PowerOnMediaGateway.builder();
-        builder.setName(settings.getString("mgcp-server[@name]"));
-        String address = settings.getString("mgcp-server.local-address");
+        builder.setName(settings.getString(server + "[@name]"));
+        String address = settings.getString(server + ".local-address");
         builder.setLocalIP(InetAddress.getByName(address));
-        String port = settings.getString("mgcp-server.local-port");
+        String port = settings.getString(server + ".local-port");
         builder.setLocalPort(Integer.parseInt(port));
-        address = settings.getString("mgcp-server.remote-address");
+        address = settings.getString(server + ".remote-address");
         builder.setRemoteIP(InetAddress.getByName(address));
-        port = settings.getString("mgcp-server.remote-port");
+        port = settings.getString(server + ".remote-port");
         builder.setRemotePort(Integer.parseInt(port));
-        address = settings.getString("mgcp-server.external-address");
+        address = settings.getString(server + ".external-address");
         if (address != null) {
             builder.setExternalIP(InetAddress.getByName(address));
             builder.setUseNat(true);
         } else {
             builder.setUseNat(false);
         }
-        final String timeout = settings.getString("mgcp-server.response-timeout");
+        final String timeout = settings.getString(server + ".response-timeout");
         builder.setTimeout(Long.parseLong(timeout));
         final PowerOnMediaGateway powerOn = builder.build();
         gateway.tell(powerOn, null);
@@ -234,6 +283,38 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
         return context.getContextPath();
     }
 
+    // Checks restcomm.xml for changes and replaces the configuration snapshots with the new settings.
+    private void watch(final String path, final ServletContext context, final Configuration configuration) {
+        final int interval = configuration.getInt("runtime-settings.configuration-reload-interval", 10);
+        if (interval <= 0) {
+            return;
+        }
+        final File file = new File(path);
+        final FiniteDuration period = Duration.create(interval, TimeUnit.SECONDS);
+        system.scheduler().schedule(period, period, new Runnable() {
+            private long modified = file.lastModified();
+
+            @Override
+            public void run() {
+                final long modified = file.lastModified();
+                if (modified == this.modified) {
+                    return;
+                }
+                this.modified = modified;
+                try {
+                    final XMLConfiguration xml = new XMLConfiguration(path);
+                    xml.setProperty("runtime-settings.home-directory", home(context));
+                    xml.setProperty("runtime-settings.root-uri", uri(context));
+                    RestcommConfiguration.getInstance().reload(xml);
+                    drain(xml.subset("media-server-manager"));
+                    logger.info("Reloaded the configuration from " + path);
+                } catch (final Exception exception) {
+                    logger.error("Could not reload " + path + ", the previous configuration is kept", exception);
+                }
+            }
+        }, system.dispatcher());
+    }
+
     @Override
     public void servletInitialized(SipServletContextEvent event) {
         if (event.getSipServlet().getClass().equals(Bootstrapper.class)) {
@@ -274,6 +355,10 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
             ShiroResources.getInstance().set(Configuration.class, xml.subset("runtime-settings"));
             // Create high-level restcomm configuration
             RestcommConfiguration.createOnce(xml);
+            watch(path, context, xml);
+            // Create the service actors shared by the interpreters.
+            ServicePools.get(system).start(xml);
+            NotificationDigests.get(system).start(xml);
 
             // Create the media gateway.
 
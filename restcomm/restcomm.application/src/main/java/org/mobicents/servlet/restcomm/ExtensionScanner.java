@@ -20,8 +20,16 @@
  */
 package org.mobicents.servlet.restcomm;
 
+import java.util.List;
+
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.loader.ObjectFactory;
+import org.mobicents.servlet.restcomm.loader.ObjectInstantiationException;
+
+import com.telestax.servlet.ExtensionController;
+import com.telestax.servlet.RestcommExtensionGeneric;
 
 /**
  * @author <a href="mailto:gvagenas@gmail.com">gvagenas</a>
@@ -35,8 +43,36 @@ public class ExtensionScanner {
         this.configuration = configuration;
     }
 
+    /**
+     * Loads the enabled extensions listed in extensions.xml and registers them with the {@link ExtensionController}.
+     */
     public void start() {
-
+        if (!(configuration instanceof HierarchicalConfiguration)) {
+            logger.info("No extensions configured");
+            return;
+        }
+        final ObjectFactory factory = new ObjectFactory(getClass().getClassLoader());
+        @SuppressWarnings("unchecked")
+        final List<HierarchicalConfiguration> extensions = ((HierarchicalConfiguration) configuration)
+                .configurationsAt("extension");
+        for (final HierarchicalConfiguration extension : extensions) {
+            final String name = extension.getString("[@class]");
+            if (!extension.getBoolean("[@enabled]", true)) {
+                logger.info("Extension " + name + " is disabled");
+                continue;
+            }
+            try {
+                final RestcommExtensionGeneric instance = (RestcommExtensionGeneric) factory.getObjectInstance(name);
+                if (instance instanceof Configurable) {
+                    ((Configurable) instance).configure(extension.subset("settings"));
+                }
+                instance.init();
+                ExtensionController.getInstance().register(instance);
+                logger.info("Extension " + name + " loaded");
+            } catch (final ObjectInstantiationException exception) {
+                logger.error("Could not load extension " + name, exception);
+            }
+        }
     }
 
 }
@@ -0,0 +1,14 @@
+--SQL Script for HSQLDB to update DB with the indexes of the keyset pagination
+--Date: Oct 16, 2026
+
+--Stop RestComm and run the script once against WEB-INF/data/hsql with the HSQLDB SqlTool:
+--java -cp hsqldb.jar:sqltool.jar org.hsqldb.cmdline.SqlTool --inlineRc=url=jdbc:hsqldb:file:WEB-INF/data/hsql/restcomm,user=sa,password= update_script_Oct16_2026_keyset_indexes.sql
+--HSQLDB has no CREATE INDEX IF NOT EXISTS, an index that already exists fails with "object name already exists".
+
+--Keyset pagination of the listings, newest first.
+CREATE INDEX "idx_cdr_account_created" ON "restcomm_call_detail_records" ("account_sid", "date_created", "sid");
+CREATE INDEX "idx_sms_account_created" ON "restcomm_sms_messages" ("account_sid", "date_created", "sid");
+CREATE INDEX "idx_notifications_account_created" ON "restcomm_notifications" ("account_sid", "date_created", "sid");
+CREATE INDEX "idx_recordings_account_created" ON "restcomm_recordings" ("account_sid", "date_created", "sid");
+
+COMMIT;
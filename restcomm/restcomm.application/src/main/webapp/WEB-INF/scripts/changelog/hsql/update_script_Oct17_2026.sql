@@ -0,0 +1,16 @@
+--SQL Script for HSQLDB to update DB with the indexes of the call setup lookups
+--Date: Oct 17, 2026
+
+--Stop RestComm and run the script once against WEB-INF/data/hsql with the HSQLDB SqlTool:
+--java -cp hsqldb.jar:sqltool.jar org.hsqldb.cmdline.SqlTool --inlineRc=url=jdbc:hsqldb:file:WEB-INF/data/hsql/restcomm,user=sa,password= update_script_Oct17_2026.sql
+--HSQLDB has no CREATE INDEX IF NOT EXISTS, an index that already exists fails with "object name already exists".
+
+--Lookups done on the call setup path and the call listing filters.
+CREATE INDEX "idx_cdr_account_start" ON "restcomm_call_detail_records" ("account_sid", "start_time");
+CREATE INDEX "idx_cdr_parent_call" ON "restcomm_call_detail_records" ("parent_call_sid");
+CREATE INDEX "idx_incoming_numbers_phone_number" ON "restcomm_incoming_phone_numbers" ("phone_number");
+CREATE INDEX "idx_incoming_numbers_account" ON "restcomm_incoming_phone_numbers" ("account_sid");
+CREATE INDEX "idx_clients_login" ON "restcomm_clients" ("login");
+CREATE INDEX "idx_registrations_user_name" ON "restcomm_registrations" ("user_name");
+
+COMMIT;
@@ -0,0 +1,14 @@
+#SQL Script for MySQL/MariaDB to update DB with the indexes of the keyset pagination
+#Date: Oct 16, 2026
+
+#To run the script use mysql client:
+#mysql -u yourusername -p yourpassword yourdatabase < sql_update_script.sql
+#The script can be run more than once, it needs MariaDB 10.1.4 or later for CREATE INDEX IF NOT EXISTS.
+
+USE restcomm;
+
+#Keyset pagination of the listings, newest first.
+CREATE INDEX IF NOT EXISTS idx_cdr_account_created ON restcomm_call_detail_records (account_sid, date_created, sid);
+CREATE INDEX IF NOT EXISTS idx_sms_account_created ON restcomm_sms_messages (account_sid, date_created, sid);
+CREATE INDEX IF NOT EXISTS idx_notifications_account_created ON restcomm_notifications (account_sid, date_created, sid);
+CREATE INDEX IF NOT EXISTS idx_recordings_account_created ON restcomm_recordings (account_sid, date_created, sid);
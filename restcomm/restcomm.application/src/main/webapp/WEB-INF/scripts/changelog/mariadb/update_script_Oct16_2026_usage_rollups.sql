@@ -0,0 +1,22 @@
+#SQL Script for MySQL/MariaDB to update DB with the usage rollups table
+#Date: Oct 16, 2026
+
+#To run the script use mysql client:
+#mysql -u yourusername -p yourpassword yourdatabase < sql_update_script.sql
+#The script can be run more than once.
+
+USE restcomm;
+
+#Usage of the calls and SMS messages per account, summed by hour and by day.
+#RestComm fills the table from the existing records on its next start.
+CREATE TABLE IF NOT EXISTS restcomm_usage_rollups (
+account_sid VARCHAR(34) NOT NULL,
+category VARCHAR(32) NOT NULL,
+api_version VARCHAR(10) NOT NULL,
+granularity VARCHAR(4) NOT NULL,
+bucket_start DATETIME NOT NULL,
+records BIGINT NOT NULL,
+usage_total BIGINT NOT NULL,
+price_total DECIMAL(20,6) NOT NULL,
+PRIMARY KEY (account_sid, category, granularity, bucket_start, api_version)
+);
@@ -0,0 +1,16 @@
+#SQL Script for MySQL/MariaDB to update DB with the indexes of the call setup lookups
+#Date: Oct 17, 2026
+
+#To run the script use mysql client:
+#mysql -u yourusername -p yourpassword yourdatabase < sql_update_script.sql
+#The script can be run more than once, it needs MariaDB 10.1.4 or later for CREATE INDEX IF NOT EXISTS.
+
+USE restcomm;
+
+#Lookups done on the call setup path and the call listing filters.
+CREATE INDEX IF NOT EXISTS idx_cdr_account_start ON restcomm_call_detail_records (account_sid, start_time);
+CREATE INDEX IF NOT EXISTS idx_cdr_parent_call ON restcomm_call_detail_records (parent_call_sid);
+CREATE INDEX IF NOT EXISTS idx_incoming_numbers_phone_number ON restcomm_incoming_phone_numbers (phone_number);
+CREATE INDEX IF NOT EXISTS idx_incoming_numbers_account ON restcomm_incoming_phone_numbers (account_sid);
+CREATE INDEX IF NOT EXISTS idx_clients_login ON restcomm_clients (login);
+CREATE INDEX IF NOT EXISTS idx_registrations_user_name ON restcomm_registrations (user_name);
@@ -262,3 +262,30 @@ CREATE TABLE "restcomm_gateways" (
 "ttl" INT NOT NULL,
 "uri" LONGVARCHAR NOT NULL
 );
+
+/* Usage of the calls and SMS messages per account, summed by hour and by day. */
+CREATE TABLE "restcomm_usage_rollups" (
+"account_sid" VARCHAR(34) NOT NULL,
+"category" VARCHAR(32) NOT NULL,
+"api_version" VARCHAR(10) NOT NULL,
+"granularity" VARCHAR(4) NOT NULL,
+"bucket_start" DATETIME NOT NULL,
+"records" BIGINT NOT NULL,
+"usage_total" BIGINT NOT NULL,
+"price_total" DECIMAL(20,6) NOT NULL,
+PRIMARY KEY ("account_sid", "category", "granularity", "bucket_start", "api_version")
+);
+
+/* Keyset pagination of the listings, newest first. */
+CREATE INDEX "idx_cdr_account_created" ON "restcomm_call_detail_records" ("account_sid", "date_created", "sid");
+CREATE INDEX "idx_sms_account_created" ON "restcomm_sms_messages" ("account_sid", "date_created", "sid");
+CREATE INDEX "idx_notifications_account_created" ON "restcomm_notifications" ("account_sid", "date_created", "sid");
+CREATE INDEX "idx_recordings_account_created" ON "restcomm_recordings" ("account_sid", "date_created", "sid");
+
+/* Lookups done on the call setup path and the call listing filters. */
+CREATE INDEX "idx_cdr_account_start" ON "restcomm_call_detail_records" ("account_sid", "start_time");
+CREATE INDEX "idx_cdr_parent_call" ON "restcomm_call_detail_records" ("parent_call_sid");
+CREATE INDEX "idx_incoming_numbers_phone_number" ON "restcomm_incoming_phone_numbers" ("phone_number");
+CREATE INDEX "idx_incoming_numbers_account" ON "restcomm_incoming_phone_numbers" ("account_sid");
+CREATE INDEX "idx_clients_login" ON "restcomm_clients" ("login");
+CREATE INDEX "idx_registrations_user_name" ON "restcomm_registrations" ("user_name");
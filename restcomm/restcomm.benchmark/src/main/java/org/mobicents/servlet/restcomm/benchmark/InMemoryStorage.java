@@ -0,0 +1,118 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dao.mybatis.MybatisDaoManager;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumber;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Builds the RestComm DAOs on top of an in-memory HSQLDB database created from the schema shipped with the
+ * application, so the harness measures the call path and not the disk.
+ */
+final class InMemoryStorage {
+    // The administrator account created by the application's database script.
+    static final Sid ACCOUNT = new Sid("ACae6e420f425248d6a26948c17a9e2acf");
+
+    private InMemoryStorage() {
+        super();
+    }
+
+    /**
+     * @param configuration The RestComm configuration, its dao-manager section points at the application files.
+     * @param application The directory holding WEB-INF of the application.
+     */
+    static DaoManager create(final Configuration configuration, final File application) throws IOException,
+            SQLException {
+        final File web = new File(application, "WEB-INF");
+        final Properties properties = new Properties();
+        properties.setProperty("data", new File(web, "data/hsql").getAbsolutePath());
+        properties.setProperty("sql", new File(web, "sql").getAbsolutePath());
+        final Reader reader = new FileReader(new File(web, "conf/mybatis.xml"));
+        final SqlSessionFactory sessions;
+        try {
+            sessions = new SqlSessionFactoryBuilder().build(reader, properties);
+        } finally {
+            reader.close();
+        }
+        // Keep the mappers of the application but swap its file database for a private in-memory one.
+        final PooledDataSource data = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:benchmark"
+                + System.nanoTime(), "sa", "");
+        data.setPoolMaximumActiveConnections(32);
+        data.setPoolMaximumIdleConnections(32);
+        sessions.getConfiguration().setEnvironment(new Environment("benchmark", new JdbcTransactionFactory(), data));
+        final Connection connection = data.getConnection();
+        try {
+            final Statement statement = connection.createStatement();
+            final List<String> script = FileUtils.readLines(new File(web, "data/hsql/restcomm.script"), "UTF-8");
+            for (final String line : script) {
+                if (line.startsWith("CREATE MEMORY TABLE") || line.startsWith("CREATE INDEX")
+                        || line.startsWith("INSERT INTO")) {
+                    statement.execute(line);
+                }
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+        final MybatisDaoManager daos = new MybatisDaoManager();
+        daos.configure(configuration);
+        daos.start(sessions);
+        return daos;
+    }
+
+    /**
+     * Adds a number answered by the application at the given URL.
+     */
+    static void addNumber(final DaoManager daos, final String number, final URI application) {
+        final IncomingPhoneNumber.Builder builder = IncomingPhoneNumber.builder();
+        builder.setSid(Sid.generate(Sid.Type.PHONE_NUMBER));
+        builder.setFriendlyName("Benchmark");
+        builder.setAccountSid(ACCOUNT);
+        builder.setPhoneNumber(number);
+        builder.setApiVersion("2012-04-24");
+        builder.setHasVoiceCallerIdLookup(false);
+        builder.setVoiceUrl(application);
+        builder.setVoiceMethod("POST");
+        builder.setVoiceCapable(true);
+        builder.setPureSip(false);
+        builder.setUri(URI.create("/2012-04-24/Accounts/" + ACCOUNT + "/IncomingPhoneNumbers/benchmark.json"));
+        daos.getIncomingPhoneNumbersDao().addIncomingPhoneNumber(builder.build());
+    }
+}
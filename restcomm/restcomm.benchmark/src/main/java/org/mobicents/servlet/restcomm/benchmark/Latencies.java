@@ -0,0 +1,69 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * Collects latency samples in nanoseconds and reports their percentiles in milliseconds.
+ */
+@ThreadSafe
+final class Latencies {
+    private long[] samples;
+    private int size;
+
+    Latencies(final int capacity) {
+        super();
+        this.samples = new long[Math.max(capacity, 16)];
+        this.size = 0;
+    }
+
+    synchronized void record(final long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    synchronized void clear() {
+        size = 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param percentile A value between 0 and 100.
+     * @return The latency in milliseconds below which the given percentage of the samples fall.
+     */
+    synchronized double percentile(final double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        final long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import static javax.servlet.sip.SipServlet.OUTBOUND_INTERFACES;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.sip.SipURI;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.commons.configuration.interpol.ConfigurationInterpolator;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.text.StrLookup;
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
+import org.mobicents.servlet.restcomm.interpreter.ServicePools;
+import org.mobicents.servlet.restcomm.mgcp.MockMediaGateway;
+import org.mobicents.servlet.restcomm.mgcp.PowerOnMediaGateway;
+import org.mobicents.servlet.restcomm.mscontrol.MediaServerControllerFactory;
+import org.mobicents.servlet.restcomm.mscontrol.mgcp.MmsControllerFactory;
+import org.mobicents.servlet.restcomm.telephony.BridgeManager;
+import org.mobicents.servlet.restcomm.telephony.CallManager;
+import org.mobicents.servlet.restcomm.telephony.ConferenceCenter;
+
+import com.telestax.servlet.MonitoringService;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+
+/**
+ * Drives complete inbound calls through CallManager, Call, VoiceInterpreter and MmsCallController inside one JVM. The
+ * SIP stack is replaced by {@link SyntheticSip}, the media server by {@link MockMediaGateway}, the web application by
+ * {@link RcmlServer} and the database by {@link InMemoryStorage}. Every call plays a prompt and hangs up.
+ *
+ * Arguments are name=value pairs: calls (default 2000), concurrency (default 50), warmup (default 500) and
+ * application, the src/main directory of restcomm.application (default ../restcomm.application/src/main).
+ *
+ * The module is compiled with every build of RestComm but the harness only runs when asked for, from restcomm.benchmark
+ * with: mvn compile exec:java -Dexec.mainClass=org.mobicents.servlet.restcomm.benchmark.LoadHarness
+ * -Dexec.args="calls=5000 concurrency=100"
+ */
+public final class LoadHarness {
+    static final int SIP_PORT = 5080;
+    private static final String NUMBER = "+15559870000";
+    // How long to wait for a call to end before giving up on the run.
+    private static final long TIMEOUT = 60;
+
+    private final ActorRef manager;
+    private final int concurrency;
+
+    private LoadHarness(final ActorRef manager, final int concurrency) {
+        super();
+        this.manager = manager;
+        this.concurrency = concurrency;
+    }
+
+    private String run(final int calls) throws InterruptedException {
+        final Latencies setup = new Latencies(calls);
+        final UserAgent agent = new UserAgent(manager, setup, concurrency);
+        final long allocated = allocated();
+        final long started = System.nanoTime();
+        boolean drained = true;
+        for (int call = 0; call < calls && drained; call++) {
+            drained = agent.call("caller" + call, NUMBER, TIMEOUT, TimeUnit.SECONDS);
+        }
+        drained = drained && agent.drain(TIMEOUT, TimeUnit.SECONDS);
+        final double seconds = (System.nanoTime() - started) / (double) TimeUnit.SECONDS.toNanos(1);
+        final long completed = agent.completed();
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("calls: %d completed, %d failed%s%n", completed, agent.failed(), drained ? ""
+                : ", stopped waiting for the calls still up"));
+        report.append(String.format("throughput: %.1f calls/s%n", completed / seconds));
+        report.append(String.format("setup latency (ms): p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n", setup.percentile(50),
+                setup.percentile(90), setup.percentile(99), setup.percentile(100)));
+        if (completed > 0) {
+            report.append(String.format("allocated: %d KB/call%n", (allocated() - allocated) / completed / 1024));
+        }
+        return report.toString();
+    }
+
+    // The bytes allocated so far by the live threads of the JVM.
+    private static long allocated() {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        long total = 0;
+        for (final long bytes : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threads
+                .getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    public static void main(final String[] arguments) throws Exception {
+        final Map<String, String> options = new HashMap<String, String>();
+        options.put("calls", "2000");
+        options.put("concurrency", "50");
+        options.put("warmup", "500");
+        options.put("application", "../restcomm.application/src/main");
+        for (final String argument : arguments) {
+            final String[] option = argument.split("=", 2);
+            if (option.length != 2 || !options.containsKey(option[0])) {
+                throw new IllegalArgumentException("Unknown option " + argument);
+            }
+            options.put(option[0], option[1]);
+        }
+        BasicConfigurator.configure();
+        Logger.getRootLogger().setLevel(Level.WARN);
+        final File application = new File(options.get("application")).getCanonicalFile();
+        final File web = new File(application, "webapp");
+        final File cache = new File(System.getProperty("java.io.tmpdir"), "restcomm-benchmark-" + System.nanoTime());
+        // The configuration of the application with the caches in a scratch directory.
+        final Map<String, String> strings = new HashMap<String, String>();
+        strings.put("home", web.getPath());
+        strings.put("uri", "/restcomm");
+        ConfigurationInterpolator.registerGlobalLookup("restcomm", StrLookup.mapLookup(strings));
+        final XMLConfiguration xml = new XMLConfiguration(new File(web, "WEB-INF/conf/restcomm.xml"));
+        xml.setProperty("runtime-settings.home-directory", web.getPath());
+        xml.setProperty("runtime-settings.root-uri", "/restcomm");
+        xml.setProperty("runtime-settings.cache-path", cache.getPath());
+        xml.setProperty("runtime-settings.cache-uri", "http://127.0.0.1:8080/restcomm/cache");
+        // Only the downloader has a place in a call that plays a prompt.
+        for (final String service : new String[] { ServicePools.SPEECH_SYNTHESIZER, ServicePools.SPEECH_RECOGNIZER,
+                ServicePools.FAX_SERVICE, ServicePools.SMTP_NOTIFY, ServicePools.SMTP_SERVICE }) {
+            xml.setProperty("service-pools." + service, 0);
+        }
+        final Config settings = ConfigFactory.parseString("akka.loglevel = WARNING\nakka.stdout-loglevel = WARNING")
+                .withFallback(ConfigFactory.parseFile(new File(application, "resources/application.conf")))
+                .withFallback(ConfigFactory.load());
+        final ActorSystem system = ActorSystem.create("RestComm", settings);
+        RestcommConfiguration.createOnce(xml);
+        ServicePools.get(system).start(xml);
+        final RcmlServer rcml = new RcmlServer();
+        rcml.start();
+        final DaoManager storage = InMemoryStorage.create(xml, web);
+        InMemoryStorage.addNumber(storage, NUMBER, rcml.uri().resolve("app"));
+        try {
+            final LoadHarness harness = new LoadHarness(manager(system, xml, web, storage),
+                    Integer.parseInt(options.get("concurrency")));
+            System.out.println("Warm up");
+            System.out.print(harness.run(Integer.parseInt(options.get("warmup"))));
+            System.out.println("Measurement");
+            System.out.print(harness.run(Integer.parseInt(options.get("calls"))));
+            System.out.println(String.format("RCML and media requests: %d", rcml.requests()));
+        } finally {
+            system.shutdown();
+            system.awaitTermination();
+            rcml.stop();
+            storage.shutdown();
+            FileUtils.deleteQuietly(cache);
+        }
+    }
+
+    private static ActorRef manager(final ActorSystem system, final XMLConfiguration xml, final File web,
+            final DaoManager storage) throws Exception {
+        final ActorRef gateway = system.actorOf(RestcommDispatchers.withDispatcher(system, new Props(MockMediaGateway.class),
+                RestcommDispatchers.MEDIA_CONTROL));
+        final PowerOnMediaGateway.Builder builder = PowerOnMediaGateway.builder();
+        builder.setName("benchmark");
+        builder.setLocalIP(InetAddress.getLoopbackAddress());
+        builder.setLocalPort(2727);
+        builder.setRemoteIP(InetAddress.getLoopbackAddress());
+        builder.setRemotePort(2427);
+        builder.setUseNat(false);
+        builder.setTimeout(500);
+        gateway.tell(builder.build(), null);
+        final MediaServerControllerFactory media = new MmsControllerFactory(system, gateway);
+        final Context context = new Context(web);
+        final List<SipURI> interfaces = new ArrayList<SipURI>();
+        interfaces.add(SyntheticSip.parseUri("sip:127.0.0.1:" + SIP_PORT + ";transport=udp"));
+        context.setAttribute(OUTBOUND_INTERFACES, interfaces);
+        context.setAttribute(MonitoringService.class.getName(), system.actorOf(new Props(MonitoringService.class)));
+        final ActorRef conferences = system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public UntypedActor create() throws Exception {
+                return new ConferenceCenter(media);
+            }
+        }));
+        final ActorRef bridges = system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public UntypedActor create() throws Exception {
+                return new BridgeManager(media);
+            }
+        }));
+        final SyntheticSip.Factory factory = new SyntheticSip.Factory();
+        return system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public UntypedActor create() throws Exception {
+                return new CallManager(xml, context.proxy, system, media, conferences, bridges, system.deadLetters(),
+                        factory.proxy, storage);
+            }
+        }));
+    }
+
+    // The servlet context attributes read by the call manager.
+    private static final class Context {
+        final ServletContext proxy = Stub.create(ServletContext.class, this);
+        private final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        private final File root;
+
+        Context(final File root) {
+            super();
+            this.root = root;
+        }
+
+        public Object getAttribute(final String name) {
+            return attributes.get(name);
+        }
+
+        public void setAttribute(final String name, final Object value) {
+            attributes.put(name, value);
+        }
+
+        public void removeAttribute(final String name) {
+            attributes.remove(name);
+        }
+
+        public Iterator<String> getAttributeNames() {
+            return new ArrayList<String>(attributes.keySet()).iterator();
+        }
+
+        public String getRealPath(final String path) {
+            return new File(root, path).getPath();
+        }
+
+        public String getContextPath() {
+            return "/restcomm";
+        }
+    }
+}
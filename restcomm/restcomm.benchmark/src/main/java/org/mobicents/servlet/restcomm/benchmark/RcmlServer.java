@@ -0,0 +1,116 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the RCML application of the synthetic calls and the prompt it plays from the loopback interface.
+ */
+@ThreadSafe
+final class RcmlServer {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+
+    RcmlServer() throws IOException {
+        super();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        executor = Executors.newFixedThreadPool(4);
+        server.setExecutor(executor);
+        final String rcml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Response><Play>" + uri() + "audio/hello.wav"
+                + "</Play><Hangup/></Response>";
+        server.createContext("/app", new Content(rcml.getBytes("UTF-8"), "text/xml"));
+        server.createContext("/audio/hello.wav", new Content(wav(8000), "audio/wav"));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    // Silence, 8 kHz 16 bit mono.
+    private static byte[] wav(final int samples) {
+        final int data = samples * 2;
+        final ByteBuffer buffer = ByteBuffer.allocate(44 + data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(36 + data).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1).putInt(8000).putInt(16000)
+                .putShort((short) 2).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(data);
+        return buffer.array();
+    }
+
+    private final class Content implements HttpHandler {
+        private final byte[] body;
+        private final String type;
+
+        private Content(final byte[] body, final String type) {
+            super();
+            this.body = body;
+            this.type = type;
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            // Read the request parameters so the connection can be reused.
+            final InputStream input = exchange.getRequestBody();
+            final byte[] ignored = new byte[1024];
+            while (input.read(ignored) > 0) {
+                continue;
+            }
+            exchange.getResponseHeaders().set("Content-Type", type);
+            exchange.sendResponseHeaders(200, body.length);
+            final OutputStream output = exchange.getResponseBody();
+            try {
+                output.write(body);
+            } finally {
+                output.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * Implements an interface by calling the public method with the same signature on a plain object. Methods the object
+ * does not have return null, false, 0 or an empty iterator, so a fake only needs the few methods the call path uses.
+ */
+@ThreadSafe
+final class Stub implements InvocationHandler {
+    // The methods of the targets by target class, a missing method maps to the lookup method itself.
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Method, Method>> methods = new ConcurrentHashMap<Class<?>, ConcurrentMap<Method, Method>>();
+    private static final Method missing;
+
+    static {
+        try {
+            missing = Stub.class.getDeclaredMethod("implementation", Method.class);
+        } catch (final NoSuchMethodException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    private final Object target;
+
+    private Stub(final Object target) {
+        super();
+        this.target = target;
+    }
+
+    static <T> T create(final Class<T> type, final Object target) {
+        return type.cast(Proxy.newProxyInstance(Stub.class.getClassLoader(), new Class<?>[] { type }, new Stub(target)));
+    }
+
+    /**
+     * @return The object behind a proxy returned by {@link #create(Class, Object)} or null.
+     */
+    static Object target(final Object proxy) {
+        if (proxy != null && Proxy.isProxyClass(proxy.getClass())) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(proxy);
+            if (handler instanceof Stub) {
+                return ((Stub) handler).target;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] arguments) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            final String name = method.getName();
+            if ("equals".equals(name)) {
+                final Object other = target(arguments[0]);
+                return other != null && target.equals(other);
+            } else if ("hashCode".equals(name)) {
+                return target.hashCode();
+            }
+            return target.toString();
+        }
+        final Method implementation = implementation(method);
+        if (implementation == missing) {
+            return nothing(method.getReturnType());
+        }
+        try {
+            return implementation.invoke(target, arguments);
+        } catch (final InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private Method implementation(final Method method) {
+        final Class<?> type = target.getClass();
+        ConcurrentMap<Method, Method> implementations = methods.get(type);
+        if (implementations == null) {
+            implementations = new ConcurrentHashMap<Method, Method>();
+            final ConcurrentMap<Method, Method> existing = methods.putIfAbsent(type, implementations);
+            if (existing != null) {
+                implementations = existing;
+            }
+        }
+        Method implementation = implementations.get(method);
+        if (implementation == null) {
+            try {
+                implementation = type.getMethod(method.getName(), method.getParameterTypes());
+                implementation.setAccessible(true);
+            } catch (final NoSuchMethodException exception) {
+                implementation = missing;
+            }
+            implementations.putIfAbsent(method, implementation);
+        }
+        return implementation;
+    }
+
+    private static Object nothing(final Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == ListIterator.class || type == Iterator.class) {
+            return Collections.emptyList().listIterator();
+        } else if (type.isPrimitive() && type != void.class) {
+            throw new UnsupportedOperationException("No default value for " + type);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,744 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.sip.Address;
+import javax.servlet.sip.SipApplicationSession;
+import javax.servlet.sip.SipFactory;
+import javax.servlet.sip.SipServletRequest;
+import javax.servlet.sip.SipServletResponse;
+import javax.servlet.sip.SipSession;
+import javax.servlet.sip.SipURI;
+import javax.servlet.sip.URI;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * In memory fakes of the SIP servlet objects used by the call path. Messages sent by RestComm are handed to a
+ * {@link Network} instead of a SIP stack.
+ */
+final class SyntheticSip {
+    private SyntheticSip() {
+        super();
+    }
+
+    /**
+     * Receives the messages RestComm sends.
+     */
+    interface Network {
+        void send(Request request);
+
+        void send(Response response);
+    }
+
+    static SipURI parseUri(final String text) {
+        String value = text.trim();
+        if (value.startsWith("<")) {
+            value = value.substring(1, value.indexOf('>'));
+        }
+        final Uri uri = new Uri();
+        final int colon = value.indexOf(':');
+        if (colon < 0 || !value.substring(0, colon).startsWith("sip")) {
+            throw new IllegalArgumentException("Not a SIP URI " + text);
+        }
+        value = value.substring(colon + 1);
+        final String[] parameters = value.split(";");
+        String address = parameters[0];
+        for (int index = 1; index < parameters.length; index++) {
+            final String[] parameter = parameters[index].split("=", 2);
+            uri.setParameter(parameter[0], parameter.length > 1 ? parameter[1] : "");
+        }
+        final int at = address.indexOf('@');
+        if (at >= 0) {
+            uri.setUser(address.substring(0, at));
+            address = address.substring(at + 1);
+        }
+        final int port = address.indexOf(':');
+        if (port >= 0) {
+            uri.setPort(Integer.parseInt(address.substring(port + 1)));
+            address = address.substring(0, port);
+        }
+        uri.setHost(address);
+        return uri.proxy;
+    }
+
+    static Address parseAddress(final String text) {
+        String value = text.trim();
+        String name = null;
+        final int open = value.indexOf('<');
+        if (open > 0) {
+            name = value.substring(0, open).trim().replace("\"", "");
+        }
+        final Addr address;
+        if (open >= 0) {
+            final int close = value.indexOf('>');
+            address = new Addr(parseUri(value.substring(open, close + 1)), name);
+            value = value.substring(close + 1);
+        } else {
+            final int semicolon = value.indexOf(';');
+            address = new Addr(parseUri(semicolon < 0 ? value : value.substring(0, semicolon)), null);
+            value = semicolon < 0 ? "" : value.substring(semicolon);
+        }
+        for (final String parameter : value.split(";")) {
+            if (!parameter.isEmpty()) {
+                final String[] pair = parameter.split("=", 2);
+                address.setParameter(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        return address.proxy;
+    }
+
+    @NotThreadSafe
+    public static final class Uri {
+        final SipURI proxy = Stub.create(SipURI.class, this);
+        private final Map<String, String> parameters = new LinkedHashMap<String, String>();
+        private String user;
+        private String host;
+        private int port = -1;
+
+        public boolean isSipURI() {
+            return true;
+        }
+
+        public String getScheme() {
+            return "sip";
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public void setUser(final String user) {
+            this.user = user;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(final String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(final int port) {
+            this.port = port;
+        }
+
+        public String getTransportParam() {
+            return parameters.get("transport");
+        }
+
+        public void setTransportParam(final String transport) {
+            parameters.put("transport", transport);
+        }
+
+        public boolean getLrParam() {
+            return parameters.containsKey("lr");
+        }
+
+        public void setLrParam(final boolean flag) {
+            if (flag) {
+                parameters.put("lr", "");
+            } else {
+                parameters.remove("lr");
+            }
+        }
+
+        public String getParameter(final String name) {
+            return parameters.get(name);
+        }
+
+        public void setParameter(final String name, final String value) {
+            parameters.put(name, value);
+        }
+
+        public void removeParameter(final String name) {
+            parameters.remove(name);
+        }
+
+        public Iterator<String> getParameterNames() {
+            return new ArrayList<String>(parameters.keySet()).iterator();
+        }
+
+        public URI clone() {
+            final Uri clone = new Uri();
+            clone.user = user;
+            clone.host = host;
+            clone.port = port;
+            clone.parameters.putAll(parameters);
+            return clone.proxy;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return object instanceof Uri && toString().equals(object.toString());
+        }
+
+        @Override
+        public int hashCode() {
+            return toString().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder("sip:");
+            if (user != null) {
+                buffer.append(user).append('@');
+            }
+            buffer.append(host);
+            if (port > 0) {
+                buffer.append(':').append(port);
+            }
+            for (final Map.Entry<String, String> parameter : parameters.entrySet()) {
+                buffer.append(';').append(parameter.getKey());
+                if (!parameter.getValue().isEmpty()) {
+                    buffer.append('=').append(parameter.getValue());
+                }
+            }
+            return buffer.toString();
+        }
+    }
+
+    @NotThreadSafe
+    public static final class Addr {
+        final Address proxy = Stub.create(Address.class, this);
+        private final Map<String, String> parameters = new LinkedHashMap<String, String>();
+        private URI uri;
+        private String name;
+
+        Addr(final URI uri, final String name) {
+            super();
+            this.uri = uri;
+            this.name = name;
+        }
+
+        public URI getURI() {
+            return uri;
+        }
+
+        public void setURI(final URI uri) {
+            this.uri = uri;
+        }
+
+        public String getDisplayName() {
+            return name;
+        }
+
+        public void setDisplayName(final String name) {
+            this.name = name;
+        }
+
+        public String getParameter(final String name) {
+            return parameters.get(name);
+        }
+
+        public void setParameter(final String name, final String value) {
+            parameters.put(name, value);
+        }
+
+        public void removeParameter(final String name) {
+            parameters.remove(name);
+        }
+
+        public boolean isWildcard() {
+            return false;
+        }
+
+        public Object clone() {
+            final Addr clone = new Addr(uri, name);
+            clone.parameters.putAll(parameters);
+            return clone.proxy;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder();
+            if (name != null) {
+                buffer.append('"').append(name).append("\" ");
+            }
+            buffer.append('<').append(uri).append('>');
+            for (final Map.Entry<String, String> parameter : parameters.entrySet()) {
+                buffer.append(';').append(parameter.getKey()).append('=').append(parameter.getValue());
+            }
+            return buffer.toString();
+        }
+    }
+
+    @ThreadSafe
+    public static final class ApplicationSession {
+        final SipApplicationSession proxy = Stub.create(SipApplicationSession.class, this);
+        private final String id = UUID.randomUUID().toString();
+        private final ConcurrentMap<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        private final long created = System.currentTimeMillis();
+        private volatile boolean valid = true;
+
+        public String getId() {
+            return id;
+        }
+
+        public Object getAttribute(final String name) {
+            return attributes.get(name);
+        }
+
+        public void setAttribute(final String name, final Object value) {
+            attributes.put(name, value);
+        }
+
+        public void removeAttribute(final String name) {
+            attributes.remove(name);
+        }
+
+        public Iterator<String> getAttributeNames() {
+            return new ArrayList<String>(attributes.keySet()).iterator();
+        }
+
+        public long getCreationTime() {
+            return created;
+        }
+
+        public long getLastAccessedTime() {
+            return created;
+        }
+
+        public int setExpires(final int minutes) {
+            return minutes;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public void invalidate() {
+            valid = false;
+        }
+    }
+
+    @ThreadSafe
+    public static final class Session {
+        final SipSession proxy = Stub.create(SipSession.class, this);
+        private final String id = UUID.randomUUID().toString();
+        private final ConcurrentMap<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        private final ApplicationSession application;
+        private final Network network;
+        private final String callId;
+        // The parties as seen by RestComm.
+        private final Address local;
+        private final Address remote;
+        private final SipURI target;
+        private volatile SipSession.State state = SipSession.State.INITIAL;
+        private volatile boolean valid = true;
+        private int sequence = 1;
+
+        Session(final Network network, final String callId, final Address local, final Address remote, final SipURI target) {
+            super();
+            this.application = new ApplicationSession();
+            this.network = network;
+            this.callId = callId;
+            this.local = local;
+            this.remote = remote;
+            this.target = target;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getCallId() {
+            return callId;
+        }
+
+        public Address getLocalParty() {
+            return local;
+        }
+
+        public Address getRemoteParty() {
+            return remote;
+        }
+
+        public SipSession.State getState() {
+            return state;
+        }
+
+        void setState(final SipSession.State state) {
+            this.state = state;
+        }
+
+        public SipApplicationSession getApplicationSession() {
+            return application.proxy;
+        }
+
+        ApplicationSession application() {
+            return application;
+        }
+
+        public Object getAttribute(final String name) {
+            return attributes.get(name);
+        }
+
+        public void setAttribute(final String name, final Object value) {
+            attributes.put(name, value);
+        }
+
+        public void removeAttribute(final String name) {
+            attributes.remove(name);
+        }
+
+        public Iterator<String> getAttributeNames() {
+            return new ArrayList<String>(attributes.keySet()).iterator();
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public void invalidate() {
+            valid = false;
+        }
+
+        public SipServletRequest createRequest(final String method) {
+            return createRequest(method, local, remote, target.clone(), false).proxy;
+        }
+
+        synchronized Request createRequest(final String method, final Address from, final Address to, final URI uri,
+                final boolean initial) {
+            final Request request = new Request(this, method, uri, initial);
+            request.setHeader("From", from.toString());
+            request.setHeader("To", to.toString());
+            request.setHeader("Call-ID", callId);
+            request.setHeader("CSeq", ++sequence + " " + method);
+            return request;
+        }
+
+        Network network() {
+            return network;
+        }
+    }
+
+    @NotThreadSafe
+    abstract static class Message {
+        final Session session;
+        private final Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        private byte[] content;
+        private String type;
+
+        Message(final Session session) {
+            super();
+            this.session = session;
+        }
+
+        public String getHeader(final String name) {
+            final List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        public ListIterator<String> getHeaders(final String name) {
+            final List<String> values = headers.get(name);
+            final List<String> copy = values == null ? Collections.<String> emptyList() : new ArrayList<String>(values);
+            return copy.listIterator();
+        }
+
+        public Iterator<String> getHeaderNames() {
+            return new ArrayList<String>(headers.keySet()).iterator();
+        }
+
+        public void setHeader(final String name, final String value) {
+            final List<String> values = new ArrayList<String>(1);
+            values.add(value);
+            headers.put(name, values);
+        }
+
+        public void addHeader(final String name, final String value) {
+            List<String> values = headers.get(name);
+            if (values == null) {
+                values = new ArrayList<String>(1);
+                headers.put(name, values);
+            }
+            values.add(value);
+        }
+
+        public void removeHeader(final String name) {
+            headers.remove(name);
+        }
+
+        public Address getAddressHeader(final String name) {
+            final String value = getHeader(name);
+            return value == null ? null : parseAddress(value);
+        }
+
+        public Address getFrom() {
+            return getAddressHeader("From");
+        }
+
+        public Address getTo() {
+            return getAddressHeader("To");
+        }
+
+        public String getCallId() {
+            return getHeader("Call-ID");
+        }
+
+        public byte[] getRawContent() {
+            return content;
+        }
+
+        public Object getContent() {
+            return content;
+        }
+
+        public int getContentLength() {
+            return content == null ? 0 : content.length;
+        }
+
+        public String getContentType() {
+            return type;
+        }
+
+        public void setContentType(final String type) {
+            this.type = type;
+            setHeader("Content-Type", type);
+        }
+
+        public void setContent(final Object content, final String type) {
+            this.content = content instanceof byte[] ? (byte[]) content : content.toString().getBytes();
+            setContentType(type);
+        }
+
+        public void setContentLength(final int length) {
+        }
+
+        public Object getAttribute(final String name) {
+            return attributes.get(name);
+        }
+
+        public void setAttribute(final String name, final Object value) {
+            attributes.put(name, value);
+        }
+
+        public void removeAttribute(final String name) {
+            attributes.remove(name);
+        }
+
+        public SipSession getSession() {
+            return session.proxy;
+        }
+
+        public SipSession getSession(final boolean create) {
+            return session.proxy;
+        }
+
+        public SipApplicationSession getApplicationSession() {
+            return session.application().proxy;
+        }
+
+        public SipApplicationSession getApplicationSession(final boolean create) {
+            return session.application().proxy;
+        }
+
+        public String getTransport() {
+            return "UDP";
+        }
+
+        public String getInitialTransport() {
+            return "UDP";
+        }
+
+        public String getRemoteAddr() {
+            return "127.0.0.1";
+        }
+
+        public int getRemotePort() {
+            return UserAgent.PORT;
+        }
+
+        public String getInitialRemoteAddr() {
+            return getRemoteAddr();
+        }
+
+        public int getInitialRemotePort() {
+            return getRemotePort();
+        }
+
+        public String getLocalAddr() {
+            return "127.0.0.1";
+        }
+
+        public int getLocalPort() {
+            return LoadHarness.SIP_PORT;
+        }
+    }
+
+    @NotThreadSafe
+    public static final class Request extends Message {
+        final SipServletRequest proxy = Stub.create(SipServletRequest.class, this);
+        private final String method;
+        private final boolean initial;
+        private URI uri;
+
+        Request(final Session session, final String method, final URI uri, final boolean initial) {
+            super(session);
+            this.method = method;
+            this.uri = uri;
+            this.initial = initial;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public URI getRequestURI() {
+            return uri;
+        }
+
+        public void setRequestURI(final URI uri) {
+            this.uri = uri;
+        }
+
+        public boolean isInitial() {
+            return initial;
+        }
+
+        public int getMaxForwards() {
+            return 70;
+        }
+
+        public SipServletResponse createResponse(final int status) {
+            return createResponse(status, null);
+        }
+
+        public SipServletResponse createResponse(final int status, final String reason) {
+            final Response response = new Response(this, status, reason);
+            response.setHeader("From", getHeader("From"));
+            response.setHeader("To", getHeader("To"));
+            response.setHeader("Call-ID", getHeader("Call-ID"));
+            response.setHeader("CSeq", getHeader("CSeq"));
+            return response.proxy;
+        }
+
+        public SipServletRequest createCancel() {
+            return session.createRequest("CANCEL", getFrom(), getTo(), uri, false).proxy;
+        }
+
+        public void send() {
+            session.network().send(this);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + uri;
+        }
+    }
+
+    @NotThreadSafe
+    public static final class Response extends Message {
+        final SipServletResponse proxy = Stub.create(SipServletResponse.class, this);
+        private final Request request;
+        private int status;
+        private String reason;
+
+        Response(final Request request, final int status, final String reason) {
+            super(request.session);
+            this.request = request;
+            this.status = status;
+            this.reason = reason;
+        }
+
+        public String getMethod() {
+            return request.getMethod();
+        }
+
+        public SipServletRequest getRequest() {
+            return request.proxy;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(final int status) {
+            this.status = status;
+        }
+
+        public String getReasonPhrase() {
+            return reason;
+        }
+
+        public SipServletRequest createAck() {
+            return session.createRequest("ACK", request.getFrom(), getTo(), request.getRequestURI(), false).proxy;
+        }
+
+        public void send() {
+            session.network().send(this);
+        }
+
+        @Override
+        public String toString() {
+            return status + " " + request.getMethod();
+        }
+    }
+
+    @ThreadSafe
+    public static final class Factory {
+        final SipFactory proxy = Stub.create(SipFactory.class, this);
+
+        public SipURI createSipURI(final String user, final String host) {
+            final SipURI uri = parseUri("sip:" + host);
+            uri.setUser(user);
+            return uri;
+        }
+
+        public URI createURI(final String uri) {
+            return parseUri(uri);
+        }
+
+        public Address createAddress(final String address) {
+            return parseAddress(address);
+        }
+
+        public Address createAddress(final URI uri) {
+            return new Addr(uri, null).proxy;
+        }
+
+        public Address createAddress(final URI uri, final String name) {
+            return new Addr(uri, name).proxy;
+        }
+
+        public SipApplicationSession createApplicationSession() {
+            return new ApplicationSession().proxy;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.benchmark;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.sip.Address;
+import javax.servlet.sip.SipServletResponse;
+import javax.servlet.sip.SipSession;
+import javax.servlet.sip.SipURI;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+import akka.actor.ActorRef;
+
+/**
+ * Places the synthetic calls. Every call sends an INVITE with an SDP offer to the call manager, acknowledges the 200 OK
+ * and answers the BYE sent by RestComm when the application hangs up.
+ */
+@ThreadSafe
+final class UserAgent implements SyntheticSip.Network {
+    static final int PORT = 5070;
+    private static final String SDP = "v=0\r\n" + "o=- 1 1 IN IP4 127.0.0.1\r\n" + "s=-\r\n" + "c=IN IP4 127.0.0.1\r\n"
+            + "t=0 0\r\n" + "m=audio 40000 RTP/AVP 0 101\r\n" + "a=rtpmap:0 PCMU/8000\r\n"
+            + "a=rtpmap:101 telephone-event/8000\r\n" + "a=sendrecv\r\n";
+
+    private final ActorRef manager;
+    private final Latencies setup;
+    private final int concurrency;
+    private final Semaphore slots;
+    private final ConcurrentMap<String, Long> calls = new ConcurrentHashMap<String, Long>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    UserAgent(final ActorRef manager, final Latencies setup, final int concurrency) {
+        super();
+        this.manager = manager;
+        this.setup = setup;
+        this.concurrency = concurrency;
+        this.slots = new Semaphore(concurrency);
+    }
+
+    /**
+     * Places a call to the number once fewer than the configured number of calls are up.
+     *
+     * @return false if no call ended before the timeout.
+     */
+    boolean call(final String caller, final String number, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        if (!slots.tryAcquire(timeout, unit)) {
+            return false;
+        }
+        final String callId = sequence.incrementAndGet() + "@benchmark";
+        final Address from = SyntheticSip.parseAddress("<sip:" + caller + "@127.0.0.1:" + PORT + ">;tag=" + callId.hashCode());
+        final Address to = SyntheticSip.parseAddress("<sip:" + number + "@127.0.0.1:" + LoadHarness.SIP_PORT + ">");
+        final SipURI contact = SyntheticSip.parseUri("sip:" + caller + "@127.0.0.1:" + PORT);
+        // RestComm is the local party of the session.
+        final SyntheticSip.Session session = new SyntheticSip.Session(this, callId, to, from, contact);
+        final SyntheticSip.Request invite = session.createRequest("INVITE", from, to, to.getURI().clone(), true);
+        invite.setHeader("Contact", "<" + contact + ">");
+        invite.setContent(SDP.getBytes(), "application/sdp");
+        calls.put(callId, System.nanoTime());
+        manager.tell(invite.proxy, null);
+        return true;
+    }
+
+    /**
+     * Waits until every call placed so far has ended.
+     *
+     * @return false if some calls were still up after the timeout.
+     */
+    boolean drain(final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (slots.tryAcquire(concurrency, timeout, unit)) {
+            slots.release(concurrency);
+            return true;
+        }
+        return false;
+    }
+
+    long completed() {
+        return completed.get();
+    }
+
+    long failed() {
+        return failed.get();
+    }
+
+    @Override
+    public void send(final SyntheticSip.Request request) {
+        final String method = request.getMethod();
+        if ("BYE".equals(method)) {
+            request.session.setState(SipSession.State.TERMINATED);
+            if (calls.remove(request.getCallId()) != null) {
+                completed.incrementAndGet();
+                slots.release();
+            }
+            manager.tell(request.createResponse(SipServletResponse.SC_OK), null);
+        } else if ("INVITE".equals(method)) {
+            manager.tell(request.createResponse(SipServletResponse.SC_OK), null);
+        }
+    }
+
+    @Override
+    public void send(final SyntheticSip.Response response) {
+        if (!"INVITE".equals(response.getMethod())) {
+            return;
+        }
+        final SyntheticSip.Session session = response.session;
+        final int status = response.getStatus();
+        if (status < SipServletResponse.SC_OK) {
+            session.setState(SipSession.State.EARLY);
+        } else if (status < SipServletResponse.SC_MULTIPLE_CHOICES) {
+            final Long started = calls.get(response.getCallId());
+            if (started != null) {
+                setup.record(System.nanoTime() - started);
+            }
+            session.setState(SipSession.State.CONFIRMED);
+            manager.tell(response.createAck(), null);
+        } else {
+            session.setState(SipSession.State.TERMINATED);
+            if (calls.remove(response.getCallId()) != null) {
+                failed.incrementAndGet();
+                slots.release();
+            }
+        }
+    }
+}
@@ -31,36 +31,61 @@ import javax.activation.MimetypesFileTypeMap;
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.HttpMethod;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerConfiguration;
 
 /**
  * @author <a href="mailto:gvagenas@gmail.com">gvagenas</a>
  *
+ * The S3 client and transfer manager are created on first use and shared by all uploads. Files bigger than the
+ * multipart threshold are sent in parallel parts by the transfer manager.
  */
+@ThreadSafe
 public class S3AccessTool {
 
     private static Logger logger = Logger.getLogger(S3AccessTool.class);
+    // Below this size a single PUT is cheaper than a multipart upload.
+    public static final long DEFAULT_MULTIPART_THRESHOLD = 16 * 1024 * 1024;
+
+    private final String accessKey;
+    private final String securityKey;
+    private final String bucketName;
+    private final String folder;
+    private final boolean reducedRedundancy;
+    private final int daysToRetainPublicUrl;
+    private final boolean removeOriginalFile;
+    private final String endpoint;
+    private final long multipartThreshold;
 
-    private String accessKey;
-    private String securityKey;
-    private String bucketName;
-    private String folder;
-    private boolean reducedRedundancy;
-    private int daysToRetainPublicUrl;
-    private boolean removeOriginalFile;
+    private TransferManager transfers;
 
     public S3AccessTool(final String accessKey, final String securityKey, final String bucketName, final String folder,
             final boolean reducedRedundancy, final int daysToRetainPublicUrl, final boolean removeOriginalFile) {
+        this(accessKey, securityKey, bucketName, folder, reducedRedundancy, daysToRetainPublicUrl, removeOriginalFile, null,
+                DEFAULT_MULTIPART_THRESHOLD);
+    }
+
+    /**
+     * @param endpoint The URL of an S3 compatible service to use instead of Amazon S3 or null. Buckets are addressed
+     *        with path style URLs when an endpoint is set.
+     * @param multipartThreshold The size in bytes from which files are uploaded in parts.
+     */
+    public S3AccessTool(final String accessKey, final String securityKey, final String bucketName, final String folder,
+            final boolean reducedRedundancy, final int daysToRetainPublicUrl, final boolean removeOriginalFile,
+            final String endpoint, final long multipartThreshold) {
         this.accessKey = accessKey;
         this.securityKey = securityKey;
         this.bucketName = bucketName;
@@ -68,55 +93,83 @@ public class S3AccessTool {
         this.reducedRedundancy = reducedRedundancy;
         this.daysToRetainPublicUrl = daysToRetainPublicUrl;
         this.removeOriginalFile = removeOriginalFile;
+        this.endpoint = endpoint;
+        this.multipartThreshold = multipartThreshold;
+    }
+
+    private synchronized TransferManager transfers() {
+        if (transfers == null) {
+            AWSCredentials credentials = new BasicAWSCredentials(accessKey, securityKey);
+            final AmazonS3Client s3client = new AmazonS3Client(credentials);
+            if (endpoint != null && !endpoint.isEmpty()) {
+                s3client.setEndpoint(endpoint);
+                s3client.setS3ClientOptions(new S3ClientOptions().withPathStyleAccess(true));
+            }
+            transfers = new TransferManager(s3client);
+            final TransferManagerConfiguration configuration = new TransferManagerConfiguration();
+            configuration.setMultipartUploadThreshold(multipartThreshold);
+            transfers.setConfiguration(configuration);
+        }
+        return transfers;
+    }
+
+    /**
+     * Uploads a file, waiting for the upload to complete. The file is kept, see {@link #removeLocalCopy(File)}.
+     *
+     * @return The public URL of the uploaded file.
+     * @throws AmazonClientException If the upload failed, the caller may retry it.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for the upload.
+     */
+    public URI upload(final File file) throws AmazonClientException, InterruptedException {
+        final TransferManager transfers = transfers();
+        StringBuffer bucket = new StringBuffer();
+        bucket.append(bucketName);
+        if (folder != null && !folder.isEmpty())
+            bucket.append("/").append(folder);
+        //First generate the Presigned URL, buy some time for the file to be written on the disk
+        Date date = new Date();
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        if (daysToRetainPublicUrl > 0) {
+            cal.add(Calendar.DATE, daysToRetainPublicUrl);
+        } else {
+            //By default the Public URL will be valid for 180 days
+            cal.add(Calendar.DATE, 180);
+        }
+        date = cal.getTime();
+        GeneratePresignedUrlRequest generatePresignedUrlRequestGET =
+                new GeneratePresignedUrlRequest(bucket.toString(), file.getName());
+        generatePresignedUrlRequestGET.setMethod(HttpMethod.GET);
+        generatePresignedUrlRequestGET.setExpiration(date);
+
+        URL downloadUrl = transfers.getAmazonS3Client().generatePresignedUrl(generatePresignedUrlRequestGET);
+
+        //Second upload the file to S3
+        PutObjectRequest putRequest = new PutObjectRequest(bucket.toString(), file.getName(), file);
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(new MimetypesFileTypeMap().getContentType(file));
+        putRequest.setMetadata(metadata);
+        if (reducedRedundancy)
+            putRequest.setStorageClass(StorageClass.ReducedRedundancy);
+        transfers.upload(putRequest).waitForCompletion();
+
+        try {
+            return downloadUrl.toURI();
+        } catch (URISyntaxException e) {
+            throw new AmazonClientException("Invalid public URL: " + downloadUrl, e);
+        }
     }
 
     public URI uploadFile(final String fileToUpload) {
-        AWSCredentials credentials = new BasicAWSCredentials(accessKey, securityKey);
-        AmazonS3 s3client = new AmazonS3Client(credentials);
         try {
-            StringBuffer bucket = new StringBuffer();
-            bucket.append(bucketName);
-            if (folder != null && !folder.isEmpty())
-                bucket.append("/").append(folder);
             URI fileUri = URI.create(fileToUpload);
             logger.info("File to upload to S3: "+fileUri.toString());
             File file = new File(fileUri);
-//            while (!file.exists()){}
-//            logger.info("File exist: "+file.exists());
-            //First generate the Presigned URL, buy some time for the file to be written on the disk
-            Date date = new Date();
-            Calendar cal = Calendar.getInstance();
-            cal.setTime(date);
-            if (daysToRetainPublicUrl > 0) {
-                cal.add(Calendar.DATE, daysToRetainPublicUrl);
-            } else {
-                //By default the Public URL will be valid for 180 days
-                cal.add(Calendar.DATE, 180);
-            }
-            date = cal.getTime();
-            GeneratePresignedUrlRequest generatePresignedUrlRequestGET =
-                    new GeneratePresignedUrlRequest(bucket.toString(), file.getName());
-            generatePresignedUrlRequestGET.setMethod(HttpMethod.GET);
-            generatePresignedUrlRequestGET.setExpiration(date);
-
-            URL downloadUrl = s3client.generatePresignedUrl(generatePresignedUrlRequestGET);
-
-            //Second upload the file to S3
-//            while (!file.exists()){}
             while (!FileUtils.waitFor(file, 30)){}
             if (file.exists()) {
-                PutObjectRequest putRequest = new PutObjectRequest(bucket.toString(), file.getName(), file);
-                ObjectMetadata metadata = new ObjectMetadata();
-                metadata.setContentType(new MimetypesFileTypeMap().getContentType(file));
-                putRequest.setMetadata(metadata);
-                if (reducedRedundancy)
-                    putRequest.setStorageClass(StorageClass.ReducedRedundancy);
-                s3client.putObject(putRequest);
-
-                if (removeOriginalFile) {
-                    removeLocalFile(file);
-                }
-                return downloadUrl.toURI();
+                final URI uri = upload(file);
+                removeLocalCopy(file);
+                return uri;
             } else {
                 logger.error("Timeout waiting for the recording file: "+file.getAbsolutePath());
                 return null;
@@ -133,14 +186,28 @@ public class S3AccessTool {
             logger.error("Caught an AmazonClientException, which ");
             logger.error("Error Message: " + ace.getMessage());
             return null;
-        } catch (URISyntaxException e) {
-            logger.error("URISyntaxException: "+e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return null;
         }
     }
 
-    private void removeLocalFile(final File file) {
-        if (!file.delete()) {
+    /**
+     * Releases the threads and connections used for uploads.
+     */
+    public synchronized void shutdown() {
+        if (transfers != null) {
+            transfers.shutdownNow();
+            transfers = null;
+        }
+    }
+
+    /**
+     * Removes an uploaded file if configured to remove the original files. Only call it once the URI returned by
+     * {@link #upload(File)} is stored, the file is the only copy known until then.
+     */
+    public void removeLocalCopy(final File file) {
+        if (removeOriginalFile && !file.delete()) {
             logger.info("Error while trying to delete the file: "+file.toString());
         }
     }
@@ -0,0 +1,258 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.amazonS3;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * Uploads files to S3 in the background so that the caller does not wait for the upload.
+ *
+ * Every pending upload is recorded as a small file in the spool directory, holding the path of the file to upload and,
+ * once uploaded, its S3 URI. The file is only removed once the listener took the URI, the local file is removed after
+ * that if the {@link S3AccessTool} is configured to. Uploads still pending when RestComm stops are resumed by
+ * {@link #start(Listener)} on the next start, without uploading again the files already uploaded. A failed upload or
+ * listener call is retried with an exponential back off, the ones that still fail after the maximum number of attempts
+ * are left in the spool directory with a ".failed" extension.
+ */
+@ThreadSafe
+public final class S3UploadQueue {
+    private static Logger logger = Logger.getLogger(S3UploadQueue.class);
+    private static final String PENDING = ".upload";
+    private static final String FAILED = ".failed";
+
+    private final S3AccessTool s3AccessTool;
+    private final File spool;
+    private final int threads;
+    private final int maxAttempts;
+    private final long retryDelay;
+    private final long maxRetryDelay;
+    private final AtomicInteger pending;
+
+    private volatile Listener listener;
+    private volatile ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Receives the outcome of the uploads. Called from the upload threads.
+     */
+    public interface Listener {
+        /**
+         * Stores the URI of an uploaded file. Called again later if it throws an exception.
+         */
+        void uploaded(String id, URI uri);
+
+        void failed(String id, File file);
+    }
+
+    /**
+     * @param threads The maximum number of concurrent uploads.
+     * @param maxAttempts The number of times an upload is tried before giving up.
+     * @param retryDelay The delay in milliseconds before the first retry, doubled for every further retry.
+     * @param maxRetryDelay The longest delay in milliseconds between two attempts.
+     */
+    public S3UploadQueue(final S3AccessTool s3AccessTool, final File spool, final int threads, final int maxAttempts,
+            final long retryDelay, final long maxRetryDelay) {
+        super();
+        this.s3AccessTool = s3AccessTool;
+        this.spool = spool;
+        this.threads = threads;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.pending = new AtomicInteger();
+    }
+
+    /**
+     * Starts the upload threads and resumes the uploads left over by a previous run.
+     */
+    public synchronized void start(final Listener listener) {
+        if (executor != null) {
+            return;
+        }
+        if (!spool.isDirectory() && !spool.mkdirs()) {
+            throw new IllegalStateException("Can not create the S3 upload spool directory " + spool.getAbsolutePath());
+        }
+        this.listener = listener;
+        final AtomicInteger counter = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "restcomm-s3-upload-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final File[] markers = spool.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                return file.getName().endsWith(PENDING);
+            }
+        });
+        if (markers != null) {
+            for (final File marker : markers) {
+                final String name = marker.getName();
+                final String id = name.substring(0, name.length() - PENDING.length());
+                try {
+                    final String[] lines = FileUtils.readFileToString(marker, "UTF-8").trim().split("\n");
+                    final File file = new File(lines[0].trim());
+                    final URI uri = (lines.length > 1) ? URI.create(lines[1].trim()) : null;
+                    logger.info("Resuming the S3 upload of " + file.getAbsolutePath());
+                    submit(id, file, uri, 1, 0);
+                } catch (final IOException exception) {
+                    logger.error("Can not read the S3 upload " + marker.getAbsolutePath(), exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Uploads the file in the background. The id is passed back to the listener and names the upload in the spool
+     * directory, it must be unique and a valid file name.
+     *
+     * @throws IOException If the upload could not be recorded in the spool directory.
+     */
+    public void enqueue(final String id, final File file) throws IOException {
+        if (executor == null) {
+            throw new IllegalStateException("The S3 upload queue is not started.");
+        }
+        FileUtils.writeStringToFile(marker(id), file.getAbsolutePath(), "UTF-8");
+        submit(id, file, null, 1, 0);
+    }
+
+    /**
+     * @return The number of uploads waiting for a thread or a retry.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the upload threads. Unfinished uploads stay in the spool directory and are resumed on the next start.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        s3AccessTool.shutdown();
+    }
+
+    private File marker(final String id) {
+        return new File(spool, id + PENDING);
+    }
+
+    /**
+     * @param uri The S3 URI of the file if it is already uploaded and only the listener has to be called.
+     */
+    private void submit(final String id, final File file, final URI uri, final int attempt, final long delay) {
+        final ScheduledThreadPoolExecutor executor = this.executor;
+        if (executor == null) {
+            return;
+        }
+        pending.incrementAndGet();
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pending.decrementAndGet();
+                if (uri == null) {
+                    upload(id, file, attempt);
+                } else {
+                    uploaded(id, file, uri, attempt);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void upload(final String id, final File file, final int attempt) {
+        final URI uri;
+        try {
+            if (!file.exists()) {
+                // The recording may not be completely written yet.
+                throw new IOException("The file " + file.getAbsolutePath() + " does not exist.");
+            }
+            uri = s3AccessTool.upload(file);
+        } catch (final InterruptedException exception) {
+            // Shutting down, the upload is resumed on the next start.
+            Thread.currentThread().interrupt();
+            return;
+        } catch (final Exception exception) {
+            if (!retry(id, file, null, attempt, exception)) {
+                listener.failed(id, file);
+            }
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Uploaded " + file.getAbsolutePath() + " to " + uri);
+        }
+        try {
+            FileUtils.writeStringToFile(marker(id), file.getAbsolutePath() + "\n" + uri, "UTF-8");
+        } catch (final IOException exception) {
+            // The file is uploaded again if RestComm stops before the listener took the URI.
+            logger.warn("Can not record the S3 URI of " + file.getAbsolutePath() + ": " + exception.getMessage());
+        }
+        uploaded(id, file, uri, 1);
+    }
+
+    private void uploaded(final String id, final File file, final URI uri, final int attempt) {
+        try {
+            listener.uploaded(id, uri);
+        } catch (final RuntimeException exception) {
+            if (!retry(id, file, uri, attempt, exception)) {
+                logger.error(file.getAbsolutePath() + " was uploaded to " + uri + " but the upload could not be recorded, "
+                        + "the file is kept");
+            }
+            return;
+        }
+        FileUtils.deleteQuietly(marker(id));
+        s3AccessTool.removeLocalCopy(file);
+    }
+
+    /**
+     * Schedules the next attempt of a failed upload or listener call.
+     *
+     * @return false if it was the last attempt, the upload is then moved aside.
+     */
+    private boolean retry(final String id, final File file, final URI uri, final int attempt, final Exception exception) {
+        final String step = (uri == null) ? "S3 upload of " : "Recording of the S3 upload of ";
+        if (attempt < maxAttempts) {
+            final long delay = Math.min(maxRetryDelay, retryDelay << Math.min(attempt - 1, 30));
+            logger.warn(step + file.getAbsolutePath() + " failed, attempt " + attempt + " of " + maxAttempts
+                    + ", retrying in " + delay + "ms: " + exception.getMessage());
+            submit(id, file, uri, attempt + 1, delay);
+            return true;
+        }
+        logger.error("Giving up the " + step + file.getAbsolutePath() + " after " + attempt + " attempts", exception);
+        final File marker = marker(id);
+        if (!marker.renameTo(new File(spool, id + FAILED))) {
+            FileUtils.deleteQuietly(marker);
+        }
+        return false;
+    }
+}
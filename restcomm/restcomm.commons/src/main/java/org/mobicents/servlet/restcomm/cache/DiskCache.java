@@ -21,28 +21,18 @@ package org.mobicents.servlet.restcomm.cache;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
-import java.net.URISyntaxException;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.client.params.ClientPNames;
-import org.apache.http.client.params.CookiePolicy;
-import org.apache.http.client.utils.URIBuilder;
 import org.apache.shiro.crypto.hash.Sha256Hash;
-import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
-import org.mobicents.servlet.restcomm.http.CustomHttpClientBuilder;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
 import akka.actor.ActorRef;
 import akka.actor.UntypedActor;
+import akka.dispatch.OnComplete;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
 
@@ -56,6 +46,7 @@ public final class DiskCache extends UntypedActor {
 
     private final String location;
     private final String uri;
+    private final MediaCache media;
 
     public DiskCache(final String location, final String uri, final boolean create) {
         super();
@@ -82,29 +73,32 @@ public final class DiskCache extends UntypedActor {
             temp += "/";
         }
         this.uri = temp;
+        this.media = MediaCache.getInstance();
+        media.open(path);
     }
 
     public DiskCache(final String location, final String uri) {
         this(location, uri, false);
     }
 
-    private URI cache(final Object message) throws IOException, URISyntaxException {
-        final DiskCacheRequest request = (DiskCacheRequest) message;
-
+    // Answers at once when the media is in the cache, otherwise the response is sent when the download completes.
+    private void cache(final DiskCacheRequest request, final ActorRef sender) throws IOException {
+        final ActorRef self = self();
         if (request.hash() == null) {
             if (request.uri().getScheme().equalsIgnoreCase("file")) {
                 File origFile = new File(request.uri());
                 File destFile = new File(location + origFile.getName());
-                if (!destFile.exists())
+                if (!destFile.exists()) {
                     FileUtils.moveFile(origFile, destFile);
-
-                return URI.create(this.uri + destFile.getName());
-
+                }
+                media.put(destFile);
+                sender.tell(new DiskCacheResponse(URI.create(this.uri + destFile.getName())), self);
             } else {
                 //Handle all the rest
                 // This is a request to cache a URI
                 String hash = null;
                 URI uri = null;
+                boolean revalidate = false;
                 if (request.uri().toString().contains("hash")) {
                     String fragment = request.uri().getFragment();
                     hash = fragment.replace("hash=", "");
@@ -113,79 +107,33 @@ public final class DiskCache extends UntypedActor {
                 } else {
                     uri = request.uri();
                     hash = new Sha256Hash(uri.toString()).toHex();
+                    // The content behind the URI may change.
+                    revalidate = true;
                 }
 
-                final String extension = extension(uri).toLowerCase();
-                final File path = new File(location + hash + "." + extension);
-                if (!path.exists()) {
-                    final File tmp = new File(path + "." + "tmp");
-                    InputStream input = null;
-                    OutputStream output = null;
-                    try {
-                        if (request.uri().getScheme().equalsIgnoreCase("https")) {
-                            //Handle the HTTPS URIs
-                            final HttpClient client = CustomHttpClientBuilder.build(RestcommConfiguration.getInstance().getMain());
-                            client.getParams().setParameter(ClientPNames.COOKIE_POLICY, CookiePolicy.BROWSER_COMPATIBILITY);
-                            URI result = new URIBuilder()
-                                    .setScheme(uri.getScheme())
-                                    .setHost(uri.getHost())
-                                    .setPort(uri.getPort())
-                                    .setPath(uri.getPath())
-                                    .build();
-
-                            HttpGet httpRequest = new HttpGet(result);
-                            HttpResponse httpResponse = client.execute((HttpUriRequest) httpRequest);
-                            int code = httpResponse.getStatusLine().getStatusCode();
-
-                            if (code >= 400) {
-                                String requestUrl = httpRequest.getRequestLine().getUri();
-                                String errorReason = httpResponse.getStatusLine().getReasonPhrase();
-                                String httpErrorMessage = String.format(
-                                        "Error while fetching http resource: %s \n Http error code: %d \n Http error message: %s", requestUrl,
-                                        code, errorReason);
-                                logger.warning(httpErrorMessage);
-                            }
-                            input = httpResponse.getEntity().getContent();
+                final String filename = hash + "." + extension(uri).toLowerCase();
+                final URI result = URI.create(this.uri + filename);
+                final ExecutionContext executor = RestcommDispatchers.lookup(getContext().system(), RestcommDispatchers.BLOCKING_IO);
+                final Future<File> file = media.fetch(uri, new File(location + filename), revalidate, executor);
+                file.onComplete(new OnComplete<File>() {
+                    @Override
+                    public void onComplete(final Throwable failure, final File file) {
+                        if (failure == null) {
+                            sender.tell(new DiskCacheResponse(result), self);
                         } else {
-                            input = uri.toURL().openStream();
-                        }
-                        output = new FileOutputStream(tmp);
-                        final byte[] buffer = new byte[4096];
-                        int read = 0;
-                        do {
-                            read = input.read(buffer, 0, 4096);
-                            if (read > 0) {
-                                output.write(buffer, 0, read);
-                            }
-                        } while (read != -1);
-                        tmp.renameTo(path);
-                    } finally {
-                        if (input != null) {
-                            input.close();
-                        }
-                        if (output != null) {
-                            output.close();
+                            logger.error(failure, "Error while chaching");
+                            sender.tell(new DiskCacheResponse(failure), self);
                         }
                     }
-                }
-                URI result = URI.create(this.uri+ hash + "." + extension);
-                return result;
+                }, executor);
             }
         } else {
             // This is a check cache request
             final String extension = "wav";
             final String hash = request.hash();
             final String filename = hash + "." + extension;
-            File matchedFile = (new File(location)).listFiles(new FilenameFilter() {
-                public boolean accept(File dir, String name) {
-                    // return name.startsWith(hash) && name.endsWith("."+extension);
-                    return name.equalsIgnoreCase(filename);
-                }
-            })[0];
-
-            if (matchedFile.exists()) {
-                // return URI.create(matchedFile.getAbsolutePath());
-                return URI.create(this.uri + filename);
+            if (media.get(new File(location + filename)) != null) {
+                sender.tell(new DiskCacheResponse(URI.create(this.uri + filename)), self);
             } else {
                 throw new FileNotFoundException(filename);
             }
@@ -203,14 +151,12 @@ public final class DiskCache extends UntypedActor {
         final ActorRef self = self();
         final ActorRef sender = sender();
         if (DiskCacheRequest.class.equals(klass)) {
-            DiskCacheResponse response = null;
             try {
-                response = new DiskCacheResponse(cache(message));
+                cache((DiskCacheRequest) message, sender);
             } catch (final Exception exception) {
                 logger.error("Error while chaching", exception);
-                response = new DiskCacheResponse(exception);
+                sender.tell(new DiskCacheResponse(exception), self);
             }
-            sender.tell(response, self);
         }
     }
 }
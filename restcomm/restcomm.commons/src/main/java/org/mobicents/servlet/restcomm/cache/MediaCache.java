@@ -0,0 +1,462 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.MainConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+import org.mobicents.servlet.restcomm.http.HttpClientPool;
+
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import akka.dispatch.Futures;
+
+/**
+ * Process wide index of the media files kept by the {@link DiskCache} actors. The index lets a cache actor answer
+ * without looking at the file system, makes concurrent requests for the same media share one download, evicts the
+ * least recently used files once the cache grows over its maximum size or a file has not been used for too long and
+ * revalidates the files downloaded over HTTP with a conditional request once they get old.
+ *
+ * Each cache directory is scanned the first time it is opened, the files found are indexed from the least to the most
+ * recently modified. The settings are read from the &lt;media-cache&gt; section of restcomm.xml the first time the
+ * index is used.
+ */
+@ThreadSafe
+public final class MediaCache {
+    private static final Logger logger = Logger.getLogger(MediaCache.class);
+    private static final String TMP = ".tmp";
+    private static volatile MediaCache instance;
+
+    private final long maxSize;
+    private final long maxAge;
+    private final long revalidateAfter;
+    // The entries by absolute path, in access order. Guarded by itself like the directories and the size.
+    private final LinkedHashMap<String, Entry> entries;
+    private final Set<String> directories;
+    private long size;
+    // The downloads in progress by absolute path of the file being downloaded.
+    private final ConcurrentMap<String, Future<File>> downloads;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong coalesced;
+    private final AtomicLong revalidations;
+    private final AtomicLong evictions;
+    private final AtomicLong downloaded;
+
+    /**
+     * @param maxSize The maximum number of bytes in the cache.
+     * @param maxAge The number of milliseconds after which a file that has not been used is evicted.
+     * @param revalidateAfter The number of milliseconds after which a downloaded file is revalidated.
+     */
+    MediaCache(final long maxSize, final long maxAge, final long revalidateAfter) {
+        super();
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.revalidateAfter = revalidateAfter;
+        this.entries = new LinkedHashMap<String, Entry>(256, 0.75f, true);
+        this.directories = new HashSet<String>();
+        this.size = 0;
+        this.downloads = new ConcurrentHashMap<String, Future<File>>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.coalesced = new AtomicLong();
+        this.revalidations = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.downloaded = new AtomicLong();
+    }
+
+    public static MediaCache getInstance() {
+        MediaCache cache = instance;
+        if (cache == null) {
+            synchronized (MediaCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    final MainConfigurationSet config = configuration();
+                    cache = new MediaCache(config.getMediaCacheMaxSize() * 1024L * 1024L,
+                            config.getMediaCacheMaxAge() * 1000L, config.getMediaCacheRevalidateAfter() * 1000L);
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static MainConfigurationSet configuration() {
+        try {
+            return RestcommConfiguration.getInstance().getMain();
+        } catch (final IllegalStateException exception) {
+            // Not running inside RestComm (unit tests, tools). Use the defaults.
+            return new MainConfigurationSet(new ConfigurationSource() {
+                @Override
+                public String getProperty(final String key) {
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * @return The hit, miss, coalesced download, revalidation and eviction counts and the size of the cache, for the
+     *         monitoring service. Sizes are in kilobytes.
+     */
+    public static Map<String, Integer> counters() {
+        final MediaCache cache = instance;
+        if (cache == null) {
+            return Collections.emptyMap();
+        }
+        return cache.getCounters();
+    }
+
+    Map<String, Integer> getCounters() {
+        final Map<String, Integer> counters = new TreeMap<String, Integer>();
+        counters.put("MediaCacheHits", clamp(hits.get()));
+        counters.put("MediaCacheMisses", clamp(misses.get()));
+        counters.put("MediaCacheCoalescedDownloads", clamp(coalesced.get()));
+        counters.put("MediaCacheRevalidations", clamp(revalidations.get()));
+        counters.put("MediaCacheEvictions", clamp(evictions.get()));
+        counters.put("MediaCacheDownloadedKB", clamp(downloaded.get() / 1024));
+        synchronized (entries) {
+            counters.put("MediaCacheEntries", entries.size());
+            counters.put("MediaCacheSizeKB", clamp(size / 1024));
+        }
+        return counters;
+    }
+
+    private static int clamp(final long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Indexes the files of a cache directory, only the first call for a directory scans it.
+     */
+    public void open(final File directory) {
+        final String path = directory.getAbsolutePath();
+        synchronized (entries) {
+            if (!directories.add(path)) {
+                return;
+            }
+        }
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(final File first, final File second) {
+                final long difference = first.lastModified() - second.lastModified();
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+        });
+        for (final File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            if (file.getName().endsWith(TMP)) {
+                // Left over by an interrupted download.
+                file.delete();
+            } else {
+                index(file, null, file.lastModified(), file.lastModified());
+            }
+        }
+        trim();
+    }
+
+    /**
+     * @return The file if it is in the cache, null otherwise.
+     */
+    public File get(final File file) {
+        if (touch(file) != null) {
+            hits.incrementAndGet();
+            return file;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds a file that was moved in to a cache directory.
+     */
+    public void put(final File file) {
+        final long now = System.currentTimeMillis();
+        index(file, null, now, now);
+        trim();
+    }
+
+    /**
+     * Downloads a file in to the cache unless it is already there. Concurrent requests for the same file share the same
+     * download.
+     *
+     * @param source Where to download the file from.
+     * @param file Where to keep the file.
+     * @param revalidate Whether a file downloaded over HTTP should be revalidated once it gets old. Files named after the
+     *        hash of their content never change and need not be revalidated.
+     * @param executor Runs the download.
+     * @return The cached file.
+     */
+    public Future<File> fetch(final URI source, final File file, final boolean revalidate, final ExecutionContext executor) {
+        final Entry entry = touch(file);
+        if (entry != null && !(revalidate && http(source) && stale(entry))) {
+            hits.incrementAndGet();
+            return Futures.successful(file);
+        }
+        final String path = file.getAbsolutePath();
+        final Promise<File> promise = Futures.promise();
+        final Future<File> future = promise.future();
+        final Future<File> download = downloads.putIfAbsent(path, future);
+        if (download != null) {
+            coalesced.incrementAndGet();
+            return download;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            revalidations.incrementAndGet();
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    promise.success(download(source, file, entry));
+                } catch (final Throwable exception) {
+                    if (entry != null && file.exists()) {
+                        // Serve the old copy, it will be revalidated again later.
+                        logger.warn("Could not revalidate " + source + ", using the cached copy.", exception);
+                        validated(path, entry.etag);
+                        promise.success(file);
+                    } else {
+                        promise.failure(exception);
+                    }
+                } finally {
+                    downloads.remove(path, future);
+                }
+            }
+        });
+        return future;
+    }
+
+    private File download(final URI source, final File file, final Entry entry) throws IOException, URISyntaxException {
+        if (!http(source)) {
+            final long length = write(source.toURL().openStream(), file);
+            downloaded.addAndGet(length);
+            final long now = System.currentTimeMillis();
+            index(file, null, now, now);
+            trim();
+            return file;
+        }
+        final HttpGet request = new HttpGet(target(source));
+        if (entry != null) {
+            if (entry.etag != null) {
+                request.setHeader("If-None-Match", entry.etag);
+            }
+            request.setHeader("If-Modified-Since", DateUtils.formatDate(new Date(file.lastModified())));
+        }
+        final HttpResponse response = HttpClientPool.getClient().execute(request);
+        final HttpEntity body = response.getEntity();
+        try {
+            final int code = response.getStatusLine().getStatusCode();
+            final Header etag = response.getFirstHeader("ETag");
+            if (code == HttpStatus.SC_NOT_MODIFIED && entry != null) {
+                validated(file.getAbsolutePath(), etag != null ? etag.getValue() : entry.etag);
+                return file;
+            }
+            if (code >= 400 || body == null) {
+                throw new IOException(String.format("Error while fetching http resource: %s \n Http error code: %d \n Http error message: %s",
+                        request.getRequestLine().getUri(), code, response.getStatusLine().getReasonPhrase()));
+            }
+            final long length = write(body.getContent(), file);
+            downloaded.addAndGet(length);
+            final Header modified = response.getFirstHeader("Last-Modified");
+            if (modified != null) {
+                try {
+                    // The next revalidation sends the server's own date back.
+                    file.setLastModified(DateUtils.parseDate(modified.getValue()).getTime());
+                } catch (final DateParseException ignored) {
+                }
+            }
+            index(file, etag != null ? etag.getValue() : null, System.currentTimeMillis(), System.currentTimeMillis());
+            trim();
+            return file;
+        } finally {
+            // Releases the connection back to the pool.
+            EntityUtils.consume(body);
+        }
+    }
+
+    private static boolean http(final URI uri) {
+        final String scheme = uri.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    private static URI target(final URI uri) throws URISyntaxException {
+        if ("https".equalsIgnoreCase(uri.getScheme())) {
+            return new URIBuilder().setScheme(uri.getScheme()).setHost(uri.getHost()).setPort(uri.getPort())
+                    .setPath(uri.getPath()).build();
+        }
+        return uri;
+    }
+
+    private static long write(final InputStream input, final File file) throws IOException {
+        final File tmp = new File(file.getPath() + TMP);
+        OutputStream output = null;
+        long length = 0;
+        try {
+            output = new FileOutputStream(tmp);
+            final byte[] buffer = new byte[4096];
+            int read = 0;
+            do {
+                read = input.read(buffer, 0, 4096);
+                if (read > 0) {
+                    output.write(buffer, 0, read);
+                    length += read;
+                }
+            } while (read != -1);
+        } finally {
+            input.close();
+            if (output != null) {
+                output.close();
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                throw new IOException("Could not move " + tmp + " to " + file);
+            }
+        }
+        return length;
+    }
+
+    private boolean stale(final Entry entry) {
+        return System.currentTimeMillis() - entry.validated >= revalidateAfter;
+    }
+
+    // Marks the entry as used and returns it, files found on disk that are not indexed yet are indexed.
+    private Entry touch(final File file) {
+        final String path = file.getAbsolutePath();
+        Entry entry = null;
+        synchronized (entries) {
+            entry = entries.get(path);
+            if (entry != null) {
+                entry.used = System.currentTimeMillis();
+                return entry;
+            }
+        }
+        if (file.isFile()) {
+            entry = index(file, null, file.lastModified(), System.currentTimeMillis());
+            trim();
+        }
+        return entry;
+    }
+
+    private Entry index(final File file, final String etag, final long validated, final long used) {
+        final Entry entry = new Entry(file.length(), etag, validated, used);
+        synchronized (entries) {
+            final Entry old = entries.put(file.getAbsolutePath(), entry);
+            if (old != null) {
+                size -= old.size;
+            }
+            size += entry.size;
+        }
+        return entry;
+    }
+
+    private void validated(final String path, final String etag) {
+        synchronized (entries) {
+            final Entry entry = entries.get(path);
+            if (entry != null) {
+                entry.etag = etag;
+                entry.validated = System.currentTimeMillis();
+            }
+        }
+    }
+
+    // Evicts the least recently used entries while the cache is too big or they have not been used for too long.
+    private void trim() {
+        final long oldest = System.currentTimeMillis() - maxAge;
+        synchronized (entries) {
+            final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Entry> eldest = iterator.next();
+                final Entry entry = eldest.getValue();
+                if (size <= maxSize && entry.used >= oldest) {
+                    break;
+                }
+                final String path = eldest.getKey();
+                if (downloads.containsKey(path)) {
+                    continue;
+                }
+                iterator.remove();
+                size -= entry.size;
+                evictions.incrementAndGet();
+                if (!new File(path).delete()) {
+                    logger.warn("Could not delete evicted media file " + path);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private volatile String etag;
+        private volatile long validated;
+        private volatile long used;
+
+        private Entry(final long size, final String etag, final long validated, final long used) {
+            super();
+            this.size = size;
+            this.etag = etag;
+            this.validated = validated;
+            this.used = used;
+        }
+    }
+}
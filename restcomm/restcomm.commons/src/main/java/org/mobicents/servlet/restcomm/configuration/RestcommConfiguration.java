@@ -20,38 +20,67 @@
 
 package org.mobicents.servlet.restcomm.configuration;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.configuration.Configuration;
 import org.mobicents.servlet.restcomm.configuration.sets.ConfigurationSet;
 import org.mobicents.servlet.restcomm.configuration.sets.MainConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.MediaConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.OutboundProxyConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.SmsConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.TtsConfigurationSet;
 import org.mobicents.servlet.restcomm.configuration.sources.ApacheConfigurationSource;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
 
 /**
  * Singleton like class that provides access to ConfigurationSets.
  * Use get+() functions to access configuration sets.
  *
+ * The sets are immutable snapshots read once from the configuration source, reload() builds new snapshots and swaps
+ * them in one step. Read a set once and use its fields when several options have to match.
+ *
  * @author orestis.tsakiridis@telestax.com (Orestis Tsakiridis)
  *
  */
 public class RestcommConfiguration {
 
-    private final Map<String,ConfigurationSet> sets = new ConcurrentHashMap<String,ConfigurationSet>();
+    private volatile Map<String,ConfigurationSet> sets = Collections.emptyMap();
 
     public RestcommConfiguration() {
         // No ConfigurationSets added. You'll have to it manually with addConfigurationSet().
     }
 
     public RestcommConfiguration(Configuration apacheConf) {
-        addConfigurationSet("main", new MainConfigurationSet( new ApacheConfigurationSource(apacheConf)));
+        reload(apacheConf);
         // addConfigurationSet("identity", new IdentityConfigurationSet( new DbConfigurationSource(dbConf)));
         // ...
     }
 
-    public void addConfigurationSet(String setKey, ConfigurationSet set ) {
+    public synchronized void addConfigurationSet(String setKey, ConfigurationSet set ) {
+        Map<String,ConfigurationSet> sets = new HashMap<String,ConfigurationSet>(this.sets);
         sets.put(setKey, set);
+        this.sets = Collections.unmodifiableMap(sets);
+    }
+
+    /**
+     * Replaces the sets read from restcomm.xml with new snapshots of the configuration. If an option is not valid an
+     * exception is thrown and the current sets are kept.
+     */
+    public synchronized void reload(Configuration apacheConf) {
+        ConfigurationSource source = new ApacheConfigurationSource(apacheConf);
+        Map<String,ConfigurationSet> sets = new HashMap<String,ConfigurationSet>(this.sets);
+        sets.put("main", new MainConfigurationSet(source));
+        sets.put("runtime", new RuntimeConfigurationSet(source));
+        sets.put("outbound-proxy", new OutboundProxyConfigurationSet(source));
+        sets.put("media", new MediaConfigurationSet(source));
+        sets.put("sms", new SmsConfigurationSet(source));
+        sets.put("tts", new TtsConfigurationSet(source));
+        this.sets = Collections.unmodifiableMap(sets);
     }
+
     public <T extends ConfigurationSet> T get(String key, Class <T> type) {
         return type.cast(sets.get(key));
     }
@@ -59,13 +88,26 @@ public class RestcommConfiguration {
     public MainConfigurationSet getMain() {
         return (MainConfigurationSet) sets.get("main");
     }
-    /*
-    public void reloadMain() {
-        MainConfigurationSet oldMain = getMain();
-        MainConfigurationSet newMain = new MainConfigurationSet(oldMain.getSource());
-        sets.put("main", newMain);
+
+    public RuntimeConfigurationSet getRuntime() {
+        return (RuntimeConfigurationSet) sets.get("runtime");
+    }
+
+    public OutboundProxyConfigurationSet getOutboundProxy() {
+        return (OutboundProxyConfigurationSet) sets.get("outbound-proxy");
+    }
+
+    public MediaConfigurationSet getMedia() {
+        return (MediaConfigurationSet) sets.get("media");
+    }
+
+    public SmsConfigurationSet getSms() {
+        return (SmsConfigurationSet) sets.get("sms");
+    }
+
+    public TtsConfigurationSet getTts() {
+        return (TtsConfigurationSet) sets.get("tts");
     }
-    */
 
     // define getters  for additional ConfigurationSets here
     // ...
@@ -19,6 +19,8 @@
  */
 package org.mobicents.servlet.restcomm.configuration.sets;
 
+import org.apache.commons.lang.BooleanUtils;
+import org.apache.commons.lang.StringUtils;
 import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
 
 /**
@@ -39,4 +41,30 @@ public class ConfigurationSet {
     public ConfigurationSource getSource() {
         return source;
     }
+
+    protected static String getString(ConfigurationSource source, String key, String defaultValue) {
+        String value = source.getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    protected static boolean getBoolean(ConfigurationSource source, String key, boolean defaultValue) {
+        String raw = source.getProperty(key);
+        if (StringUtils.isBlank(raw))
+            return defaultValue;
+        Boolean value = BooleanUtils.toBooleanObject(raw.trim());
+        if (value == null)
+            throw new RuntimeException("Error initializing '" + key + "' configuration setting: '" + raw + "' is not a boolean");
+        return value;
+    }
+
+    protected static int getInt(ConfigurationSource source, String key, int defaultValue) {
+        String raw = source.getProperty(key);
+        if (StringUtils.isBlank(raw))
+            return defaultValue;
+        try {
+            return Integer.parseInt(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Error initializing '" + key + "' configuration setting", e);
+        }
+    }
 }
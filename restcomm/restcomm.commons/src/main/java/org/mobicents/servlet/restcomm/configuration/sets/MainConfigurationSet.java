@@ -46,6 +46,36 @@ public class MainConfigurationSet extends ConfigurationSet {
     private static final boolean RESOLVE_RELATIVE_URL_WITH_HOSTNAME_DEFAULT = true;
     private final boolean useHostnameToResolveRelativeUrls;
     private final String hostname;
+    public static final String MAX_CONN_TOTAL_KEY = "http-client.max-conn-total";
+    private static final int MAX_CONN_TOTAL_DEFAULT = 200;
+    private final int maxConnTotal;
+    public static final String MAX_CONN_PER_ROUTE_KEY = "http-client.max-conn-per-route";
+    private static final int MAX_CONN_PER_ROUTE_DEFAULT = 20;
+    private final int maxConnPerRoute;
+    public static final String CONNECTION_REQUEST_TIMEOUT_KEY = "http-client.connection-request-timeout";
+    private static final int CONNECTION_REQUEST_TIMEOUT_DEFAULT = 5000;
+    private final int connectionRequestTimeout;
+    public static final String CONNECT_TIMEOUT_KEY = "http-client.connect-timeout";
+    private static final int CONNECT_TIMEOUT_DEFAULT = 5000;
+    private final int connectTimeout;
+    public static final String SOCKET_TIMEOUT_KEY = "http-client.socket-timeout";
+    private static final int SOCKET_TIMEOUT_DEFAULT = 30000;
+    private final int socketTimeout;
+    public static final String KEEP_ALIVE_KEY = "http-client.keep-alive";
+    private static final int KEEP_ALIVE_DEFAULT = 30000;
+    private final int keepAlive;
+    public static final String IDLE_TIMEOUT_KEY = "http-client.idle-timeout";
+    private static final int IDLE_TIMEOUT_DEFAULT = 60000;
+    private final int idleTimeout;
+    public static final String MEDIA_CACHE_MAX_SIZE_KEY = "media-cache.max-size";
+    private static final int MEDIA_CACHE_MAX_SIZE_DEFAULT = 1024;
+    private final int mediaCacheMaxSize;
+    public static final String MEDIA_CACHE_MAX_AGE_KEY = "media-cache.max-age";
+    private static final int MEDIA_CACHE_MAX_AGE_DEFAULT = 2592000;
+    private final int mediaCacheMaxAge;
+    public static final String MEDIA_CACHE_REVALIDATE_AFTER_KEY = "media-cache.revalidate-after";
+    private static final int MEDIA_CACHE_REVALIDATE_AFTER_DEFAULT = 3600;
+    private final int mediaCacheRevalidateAfter;
 
     public MainConfigurationSet(ConfigurationSource source) {
         super(source);
@@ -75,6 +105,34 @@ public class MainConfigurationSet extends ConfigurationSet {
         }
         this.useHostnameToResolveRelativeUrls = resolveRelativeUrlWithHostname;
         this.hostname = resolveRelativeUrlHostname;
+
+        // http-client connection pool
+        this.maxConnTotal = positiveInt(source, MAX_CONN_TOTAL_KEY, MAX_CONN_TOTAL_DEFAULT);
+        this.maxConnPerRoute = positiveInt(source, MAX_CONN_PER_ROUTE_KEY, MAX_CONN_PER_ROUTE_DEFAULT);
+        this.connectionRequestTimeout = positiveInt(source, CONNECTION_REQUEST_TIMEOUT_KEY, CONNECTION_REQUEST_TIMEOUT_DEFAULT);
+        this.connectTimeout = positiveInt(source, CONNECT_TIMEOUT_KEY, CONNECT_TIMEOUT_DEFAULT);
+        this.socketTimeout = positiveInt(source, SOCKET_TIMEOUT_KEY, SOCKET_TIMEOUT_DEFAULT);
+        this.keepAlive = positiveInt(source, KEEP_ALIVE_KEY, KEEP_ALIVE_DEFAULT);
+        this.idleTimeout = positiveInt(source, IDLE_TIMEOUT_KEY, IDLE_TIMEOUT_DEFAULT);
+
+        // media-cache
+        this.mediaCacheMaxSize = positiveInt(source, MEDIA_CACHE_MAX_SIZE_KEY, MEDIA_CACHE_MAX_SIZE_DEFAULT);
+        this.mediaCacheMaxAge = positiveInt(source, MEDIA_CACHE_MAX_AGE_KEY, MEDIA_CACHE_MAX_AGE_DEFAULT);
+        this.mediaCacheRevalidateAfter = positiveInt(source, MEDIA_CACHE_REVALIDATE_AFTER_KEY, MEDIA_CACHE_REVALIDATE_AFTER_DEFAULT);
+    }
+
+    private static int positiveInt(ConfigurationSource source, String key, int defaultValue) {
+        int value = defaultValue;
+        try {
+            String raw = source.getProperty(key);
+            if ( ! StringUtils.isEmpty(raw) )
+                value = Integer.parseInt(raw.trim());
+        } catch (Exception e) {
+            throw new RuntimeException("Error initializing '" + key + "' configuration setting", e);
+        }
+        if (value <= 0)
+            throw new RuntimeException("Error initializing '" + key + "' configuration setting: value must be positive");
+        return value;
     }
 
     public SslMode getSslMode() {
@@ -89,4 +147,68 @@ public class MainConfigurationSet extends ConfigurationSet {
         return hostname;
     }
 
+    public int getMaxConnTotal() {
+        return maxConnTotal;
+    }
+
+    public int getMaxConnPerRoute() {
+        return maxConnPerRoute;
+    }
+
+    /**
+     * @return milliseconds to wait for a connection from the pool
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * @return milliseconds to wait for a TCP connection to be established
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return milliseconds to wait for data on an established connection
+     */
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    /**
+     * @return milliseconds to keep an idle connection alive when the server does not send a Keep-Alive timeout
+     */
+    public int getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * @return milliseconds after which idle pooled connections are evicted
+     */
+    public int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return megabytes of media kept in the cache before the least recently used files are evicted
+     */
+    public int getMediaCacheMaxSize() {
+        return mediaCacheMaxSize;
+    }
+
+    /**
+     * @return seconds after which a cached media file that has not been used is evicted
+     */
+    public int getMediaCacheMaxAge() {
+        return mediaCacheMaxAge;
+    }
+
+    /**
+     * @return seconds after which a media file downloaded over HTTP is revalidated with the web server
+     */
+    public int getMediaCacheRevalidateAfter() {
+        return mediaCacheRevalidateAfter;
+    }
+
 }
@@ -0,0 +1,58 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.configuration.sets;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+
+/**
+ * The media server options read while calls are set up.
+ */
+@Immutable
+public class MediaConfigurationSet extends ConfigurationSet {
+
+    public static final String COMPATIBILITY_KEY = "mscontrol.compatibility";
+    private static final String COMPATIBILITY_DEFAULT = "mms";
+    private final String compatibility;
+    public static final String EXTERNAL_ADDRESS_KEY = "media-server-manager.mgcp-server.external-address";
+    private final String externalAddress;
+
+    public MediaConfigurationSet(ConfigurationSource source) {
+        super(source);
+        this.compatibility = getString(source, COMPATIBILITY_KEY, COMPATIBILITY_DEFAULT);
+        this.externalAddress = getString(source, EXTERNAL_ADDRESS_KEY, null);
+    }
+
+    /**
+     * @return mms or xms, the kind of media server controlled
+     */
+    public String getCompatibility() {
+        return compatibility;
+    }
+
+    /**
+     * @return the address patched in the SDP of the media server, the one of the first media server when there are
+     *         several, or null
+     */
+    public String getExternalAddress() {
+        return externalAddress;
+    }
+
+}
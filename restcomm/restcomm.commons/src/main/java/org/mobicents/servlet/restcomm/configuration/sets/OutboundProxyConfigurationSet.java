@@ -0,0 +1,127 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.configuration.sets;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+
+/**
+ * The primary and fallback outbound proxies calls to numbers are sent to.
+ */
+@Immutable
+public class OutboundProxyConfigurationSet extends ConfigurationSet {
+
+    public static final String URI_KEY = "runtime-settings.outbound-proxy.outbound-proxy-uri";
+    private final String uri;
+    public static final String USER_KEY = "runtime-settings.outbound-proxy.outbound-proxy-user";
+    private final String user;
+    public static final String PASSWORD_KEY = "runtime-settings.outbound-proxy.outbound-proxy-password";
+    private final String password;
+    public static final String FALLBACK_URI_KEY = "runtime-settings.outbound-proxy.fallback-outbound-proxy-uri";
+    private final String fallbackUri;
+    public static final String FALLBACK_USER_KEY = "runtime-settings.outbound-proxy.fallback-outbound-proxy-user";
+    private final String fallbackUser;
+    public static final String FALLBACK_PASSWORD_KEY = "runtime-settings.outbound-proxy.fallback-outbound-proxy-password";
+    private final String fallbackPassword;
+    public static final String USER_AT_FROM_HEADER_KEY = "runtime-settings.outbound-proxy.outboudproxy-user-at-from-header";
+    private static final boolean USER_AT_FROM_HEADER_DEFAULT = true;
+    private final boolean userAtFromHeader;
+    public static final String USER_AT_DISPLAYED_NAME_KEY = "runtime-settings.outbound-proxy.user-at-displayed-name";
+    private static final boolean USER_AT_DISPLAYED_NAME_DEFAULT = true;
+    private final boolean userAtDisplayedName;
+    public static final String ALLOW_FALLBACK_KEY = "runtime-settings.outbound-proxy.allow-fallback";
+    private static final boolean ALLOW_FALLBACK_DEFAULT = false;
+    private final boolean allowFallback;
+    public static final String MAX_FAILED_CALLS_KEY = "runtime-settings.outbound-proxy.max-failed-calls";
+    private static final int MAX_FAILED_CALLS_DEFAULT = 20;
+    private final int maxFailedCalls;
+    public static final String ALLOW_FALLBACK_TO_PRIMARY_KEY = "runtime-settings.outbound-proxy.allow-fallback-to-primary";
+    private static final boolean ALLOW_FALLBACK_TO_PRIMARY_DEFAULT = false;
+    private final boolean allowFallbackToPrimary;
+
+    public OutboundProxyConfigurationSet(ConfigurationSource source) {
+        super(source);
+        this.uri = getString(source, URI_KEY, null);
+        this.user = getString(source, USER_KEY, null);
+        this.password = getString(source, PASSWORD_KEY, null);
+        this.fallbackUri = getString(source, FALLBACK_URI_KEY, null);
+        this.fallbackUser = getString(source, FALLBACK_USER_KEY, null);
+        this.fallbackPassword = getString(source, FALLBACK_PASSWORD_KEY, null);
+        this.userAtFromHeader = getBoolean(source, USER_AT_FROM_HEADER_KEY, USER_AT_FROM_HEADER_DEFAULT);
+        this.userAtDisplayedName = getBoolean(source, USER_AT_DISPLAYED_NAME_KEY, USER_AT_DISPLAYED_NAME_DEFAULT);
+        this.allowFallback = getBoolean(source, ALLOW_FALLBACK_KEY, ALLOW_FALLBACK_DEFAULT);
+        this.maxFailedCalls = getInt(source, MAX_FAILED_CALLS_KEY, MAX_FAILED_CALLS_DEFAULT);
+        this.allowFallbackToPrimary = getBoolean(source, ALLOW_FALLBACK_TO_PRIMARY_KEY, ALLOW_FALLBACK_TO_PRIMARY_DEFAULT);
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getFallbackUri() {
+        return fallbackUri;
+    }
+
+    public String getFallbackUser() {
+        return fallbackUser;
+    }
+
+    public String getFallbackPassword() {
+        return fallbackPassword;
+    }
+
+    /**
+     * @return true if the user of the outbound proxy is the user part of the From header of proxied calls
+     */
+    public boolean isUserAtFromHeader() {
+        return userAtFromHeader;
+    }
+
+    /**
+     * @return true if the original caller is the display name of the From header of proxied calls
+     */
+    public boolean isUserAtDisplayedName() {
+        return userAtDisplayedName;
+    }
+
+    public boolean isAllowFallback() {
+        return allowFallback;
+    }
+
+    /**
+     * @return failed calls after which the fallback proxy is used
+     */
+    public int getMaxFailedCalls() {
+        return maxFailedCalls;
+    }
+
+    public boolean isAllowFallbackToPrimary() {
+        return allowFallbackToPrimary;
+    }
+
+}
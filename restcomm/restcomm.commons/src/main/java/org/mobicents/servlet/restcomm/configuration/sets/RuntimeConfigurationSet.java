@@ -0,0 +1,142 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.configuration.sets;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+
+/**
+ * The runtime-settings options read while calls and messages are processed.
+ */
+@Immutable
+public class RuntimeConfigurationSet extends ConfigurationSet {
+
+    public static final String API_VERSION_KEY = "runtime-settings.api-version";
+    private final String apiVersion;
+    public static final String PROMPTS_URI_KEY = "runtime-settings.prompts-uri";
+    private final String promptsUri;
+    public static final String RECORDINGS_PATH_KEY = "runtime-settings.recordings-path";
+    private final String recordingsPath;
+    public static final String RECORDINGS_URI_KEY = "runtime-settings.recordings-uri";
+    private final String recordingsUri;
+    public static final String CACHE_PATH_KEY = "runtime-settings.cache-path";
+    private final String cachePath;
+    public static final String CACHE_URI_KEY = "runtime-settings.cache-uri";
+    private final String cacheUri;
+    public static final String ERROR_DICTIONARY_URI_KEY = "runtime-settings.error-dictionary-uri";
+    private final String errorDictionaryUri;
+    public static final String USE_TO_KEY = "runtime-settings.use-to";
+    private static final boolean USE_TO_DEFAULT = true;
+    private final boolean useTo;
+    public static final String USE_LOCAL_ADDRESS_KEY = "runtime-settings.use-local-address";
+    private static final boolean USE_LOCAL_ADDRESS_DEFAULT = false;
+    private final boolean useLocalAddress;
+    public static final String AUTHENTICATE_KEY = "runtime-settings.authenticate";
+    private static final boolean AUTHENTICATE_DEFAULT = true;
+    private final boolean authenticate;
+    public static final String NORMALIZE_NUMBERS_FOR_OUTBOUND_CALLS_KEY = "runtime-settings.normalize-numbers-for-outbound-calls";
+    private static final boolean NORMALIZE_NUMBERS_FOR_OUTBOUND_CALLS_DEFAULT = false;
+    private final boolean normalizeNumbersForOutboundCalls;
+    public static final String FROM_ADDRESS_TO_PROXIED_CALLS_KEY = "runtime-settings.from-address-to-proxied-calls";
+    private static final boolean FROM_ADDRESS_TO_PROXIED_CALLS_DEFAULT = true;
+    private final boolean fromAddressToProxiedCalls;
+    public static final String PATCH_FOR_NAT_B2BUA_SESSIONS_KEY = "runtime-settings.patch-for-nat-b2bua-sessions";
+    private static final boolean PATCH_FOR_NAT_B2BUA_SESSIONS_DEFAULT = true;
+    private final boolean patchForNatB2BUASessions;
+
+    public RuntimeConfigurationSet(ConfigurationSource source) {
+        super(source);
+        this.apiVersion = getString(source, API_VERSION_KEY, null);
+        this.promptsUri = getString(source, PROMPTS_URI_KEY, null);
+        this.recordingsPath = getString(source, RECORDINGS_PATH_KEY, null);
+        this.recordingsUri = getString(source, RECORDINGS_URI_KEY, null);
+        this.cachePath = getString(source, CACHE_PATH_KEY, null);
+        this.cacheUri = getString(source, CACHE_URI_KEY, null);
+        this.errorDictionaryUri = getString(source, ERROR_DICTIONARY_URI_KEY, null);
+        this.useTo = getBoolean(source, USE_TO_KEY, USE_TO_DEFAULT);
+        this.useLocalAddress = getBoolean(source, USE_LOCAL_ADDRESS_KEY, USE_LOCAL_ADDRESS_DEFAULT);
+        this.authenticate = getBoolean(source, AUTHENTICATE_KEY, AUTHENTICATE_DEFAULT);
+        this.normalizeNumbersForOutboundCalls = getBoolean(source, NORMALIZE_NUMBERS_FOR_OUTBOUND_CALLS_KEY,
+                NORMALIZE_NUMBERS_FOR_OUTBOUND_CALLS_DEFAULT);
+        this.fromAddressToProxiedCalls = getBoolean(source, FROM_ADDRESS_TO_PROXIED_CALLS_KEY,
+                FROM_ADDRESS_TO_PROXIED_CALLS_DEFAULT);
+        this.patchForNatB2BUASessions = getBoolean(source, PATCH_FOR_NAT_B2BUA_SESSIONS_KEY,
+                PATCH_FOR_NAT_B2BUA_SESSIONS_DEFAULT);
+    }
+
+    public String getApiVersion() {
+        return apiVersion;
+    }
+
+    public String getPromptsUri() {
+        return promptsUri;
+    }
+
+    public String getRecordingsPath() {
+        return recordingsPath;
+    }
+
+    public String getRecordingsUri() {
+        return recordingsUri;
+    }
+
+    public String getCachePath() {
+        return cachePath;
+    }
+
+    public String getCacheUri() {
+        return cacheUri;
+    }
+
+    public String getErrorDictionaryUri() {
+        return errorDictionaryUri;
+    }
+
+    /**
+     * @return true if the callee of an incoming call is taken from the To header instead of the Request-URI
+     */
+    public boolean isUseTo() {
+        return useTo;
+    }
+
+    /**
+     * @return true if the From header of proxied calls uses the local address instead of the outbound proxy
+     */
+    public boolean isUseLocalAddress() {
+        return useLocalAddress;
+    }
+
+    public boolean isAuthenticate() {
+        return authenticate;
+    }
+
+    public boolean isNormalizeNumbersForOutboundCalls() {
+        return normalizeNumbersForOutboundCalls;
+    }
+
+    public boolean isFromAddressToProxiedCalls() {
+        return fromAddressToProxiedCalls;
+    }
+
+    public boolean isPatchForNatB2BUASessions() {
+        return patchForNatB2BUASessions;
+    }
+
+}
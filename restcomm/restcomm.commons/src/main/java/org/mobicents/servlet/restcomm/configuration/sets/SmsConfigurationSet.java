@@ -0,0 +1,56 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.configuration.sets;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+
+/**
+ * Where the sms-aggregator sends outbound messages.
+ */
+@Immutable
+public class SmsConfigurationSet extends ConfigurationSet {
+
+    public static final String OUTBOUND_PREFIX_KEY = "sms-aggregator.outbound-prefix";
+    private final String outboundPrefix;
+    public static final String OUTBOUND_ENDPOINT_KEY = "sms-aggregator.outbound-endpoint";
+    private final String outboundEndpoint;
+
+    public SmsConfigurationSet(ConfigurationSource source) {
+        super(source);
+        this.outboundPrefix = getString(source, OUTBOUND_PREFIX_KEY, null);
+        this.outboundEndpoint = getString(source, OUTBOUND_ENDPOINT_KEY, null);
+    }
+
+    /**
+     * @return the prefix added to the destination number, or null
+     */
+    public String getOutboundPrefix() {
+        return outboundPrefix;
+    }
+
+    /**
+     * @return the host:port outbound messages are sent to, null if outbound messages are not sent
+     */
+    public String getOutboundEndpoint() {
+        return outboundEndpoint;
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.configuration.sets;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+
+/**
+ * The text to speech engine of the speech-synthesizer element. The options of the engine itself are read by the engine.
+ */
+@Immutable
+public class TtsConfigurationSet extends ConfigurationSet {
+
+    public static final String SYNTHESIZER_CLASS_KEY = "speech-synthesizer[@class]";
+    private final String synthesizerClass;
+
+    public TtsConfigurationSet(ConfigurationSource source) {
+        super(source);
+        this.synthesizerClass = getString(source, SYNTHESIZER_CLASS_KEY, null);
+    }
+
+    public String getSynthesizerClass() {
+        return synthesizerClass;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dispatch;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * Keeps track of the thread pools created by {@link InstrumentedExecutorConfigurator} so that their load can be
+ * reported by the monitoring service.
+ */
+@ThreadSafe
+public final class DispatcherMetrics {
+    private static final ConcurrentMap<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<String, ThreadPoolExecutor>();
+
+    private DispatcherMetrics() {
+        super();
+    }
+
+    static void register(final String id, final ThreadPoolExecutor executor) {
+        executors.put(id, executor);
+    }
+
+    static void unregister(final String id, final ThreadPoolExecutor executor) {
+        executors.remove(id, executor);
+    }
+
+    /**
+     * @return For every instrumented dispatcher the number of queued tasks, the number of threads running a task and the
+     *         number of threads in the pool. Counters are named after the last element of the dispatcher id, for example
+     *         "blocking-io.QueueDepth".
+     */
+    public static Map<String, Integer> counters() {
+        final Map<String, Integer> counters = new TreeMap<String, Integer>();
+        for (final Map.Entry<String, ThreadPoolExecutor> entry : executors.entrySet()) {
+            final String id = entry.getKey();
+            final String name = id.substring(id.lastIndexOf('.') + 1);
+            final ThreadPoolExecutor executor = entry.getValue();
+            counters.put(name + ".QueueDepth", executor.getQueue().size());
+            counters.put(name + ".BusyThreads", executor.getActiveCount());
+            counters.put(name + ".PoolSize", executor.getPoolSize());
+        }
+        return counters;
+    }
+}
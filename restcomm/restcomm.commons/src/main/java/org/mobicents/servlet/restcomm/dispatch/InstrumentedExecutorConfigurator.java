@@ -0,0 +1,90 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dispatch;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutorServiceConfigurator;
+import akka.dispatch.ExecutorServiceFactory;
+
+import com.typesafe.config.Config;
+
+/**
+ * Creates a fixed size thread pool for a dispatcher and registers it with {@link DispatcherMetrics}. Use it in
+ * application.conf with:
+ *
+ * <pre>
+ * executor = "org.mobicents.servlet.restcomm.dispatch.InstrumentedExecutorConfigurator"
+ * instrumented-executor {
+ *   pool-size = 32
+ *   keep-alive-time = 60s
+ * }
+ * </pre>
+ */
+public final class InstrumentedExecutorConfigurator extends ExecutorServiceConfigurator {
+    private final int poolSize;
+    private final long keepAlive;
+
+    public InstrumentedExecutorConfigurator(final Config config, final DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        final Config settings = config.getConfig("instrumented-executor");
+        this.poolSize = settings.getInt("pool-size");
+        this.keepAlive = settings.getMilliseconds("keep-alive-time");
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("instrumented-executor.pool-size must be positive");
+        }
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(final String id, final ThreadFactory factory) {
+        // Name the threads after the dispatcher so that they can be told apart in thread dumps.
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = factory.newThread(runnable);
+                thread.setName(id + "-" + counter.incrementAndGet());
+                return thread;
+            }
+        };
+        return new ExecutorServiceFactory() {
+            @Override
+            public ExecutorService createExecutorService() {
+                final ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, keepAlive,
+                        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory) {
+                    @Override
+                    protected void terminated() {
+                        super.terminated();
+                        DispatcherMetrics.unregister(id, this);
+                    }
+                };
+                executor.allowCoreThreadTimeOut(true);
+                DispatcherMetrics.register(id, executor);
+                return executor;
+            }
+        };
+    }
+}
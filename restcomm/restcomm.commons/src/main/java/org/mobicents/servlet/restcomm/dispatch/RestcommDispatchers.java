@@ -0,0 +1,77 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dispatch;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+import scala.concurrent.ExecutionContext;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+
+/**
+ * Names of the dispatchers configured in application.conf. Actors that block (HTTP, SMTP, file system, data store) run
+ * on their own dispatchers so that they can not starve the actors handling SIP signaling and media control, which stay
+ * on the default dispatcher.
+ */
+@ThreadSafe
+public final class RestcommDispatchers {
+    /**
+     * Downloader, DiskCache, e-mail, fax, ASR and TTS actors.
+     */
+    public static final String BLOCKING_IO = "restcomm-dispatchers.blocking-io";
+    /**
+     * The pools of TTS, ASR, fax, e-mail and download actors shared by the interpreters. The mailboxes are bounded so
+     * the senders wait when a pool falls behind.
+     */
+    public static final String SERVICES = "restcomm-dispatchers.services";
+    /**
+     * Interpreters and futures that do synchronous data store calls.
+     */
+    public static final String DB = "restcomm-dispatchers.db";
+    /**
+     * The media gateway.
+     */
+    public static final String MEDIA_CONTROL = "restcomm-dispatchers.media-control";
+
+    private RestcommDispatchers() {
+        super();
+    }
+
+    /**
+     * @return The props set to run on the dispatcher, or the props unchanged if the dispatcher is not configured (for
+     *         example in an actor system created by a unit test).
+     */
+    public static Props withDispatcher(final ActorSystem system, final Props props, final String id) {
+        if (system.settings().config().hasPath(id)) {
+            return props.withDispatcher(id);
+        }
+        return props;
+    }
+
+    /**
+     * @return The dispatcher to run futures on, or the default dispatcher if it is not configured.
+     */
+    public static ExecutionContext lookup(final ActorSystem system, final String id) {
+        if (system.settings().config().hasPath(id)) {
+            return system.dispatchers().lookup(id);
+        }
+        return system.dispatcher();
+    }
+}
@@ -21,28 +21,31 @@ package org.mobicents.servlet.restcomm.fsm;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
 import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
 
-import com.google.common.collect.ImmutableMap;
-
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
  */
 @NotThreadSafe
 public class FiniteStateMachine {
-    private final ImmutableMap<State, Map<State, Transition>> transitions;
+    private final TransitionTable transitions;
     private State state;
 
     public FiniteStateMachine(final State initial, final Set<Transition> transitions) {
+        this(initial, TransitionTable.copyOf(transitions));
+    }
+
+    /**
+     * @param transitions A table that may be shared with the machines of the other instances of the same actor.
+     */
+    public FiniteStateMachine(final State initial, final TransitionTable transitions) {
         super();
         checkNotNull(initial, "The initial state for a finite state machine can not be null.");
         checkNotNull(transitions, "A finite state machine can not be created with transitions set to null.");
         this.state = initial;
-        this.transitions = toImmutableMap(transitions);
+        this.transitions = transitions;
     }
 
     public State state() {
@@ -53,20 +56,20 @@ public class FiniteStateMachine {
             TransitionNotFoundException, TransitionRollbackException {
         checkNotNull(event, "The message passed can not be null.");
         checkNotNull(target, "The target state can not be null");
-        if (transitions.get(state) == null || !transitions.get(state).containsKey(target)) {
+        final State source = state;
+        if (!transitions.contains(source, target)) {
             final StringBuilder buffer = new StringBuilder();
-            buffer.append("No transition could be found from a(n) ").append(state.getId()).append(" state to a(n) ")
+            buffer.append("No transition could be found from a(n) ").append(source.getId()).append(" state to a(n) ")
                     .append(target.getId()).append(" state.");
-            throw new TransitionNotFoundException(buffer.toString(), event, state, target);
+            throw new TransitionNotFoundException(buffer.toString(), event, source, target);
         }
-        final Transition transition = transitions.get(state).get(target);
-        final Guard guard = transition.getGuard();
+        final Guard guard = transitions.getGuard(source, target);
         boolean accept = true;
         if (guard != null) {
             try {
-                accept = guard.accept(event, transition);
+                accept = guard.accept(event, new Transition(source, target, guard));
             } catch (final Exception exception) {
-                throw new TransitionFailedException(exception, event, transition);
+                throw new TransitionFailedException(exception, event, new Transition(source, target, guard));
             }
         }
         if (accept) {
@@ -76,7 +79,7 @@ public class FiniteStateMachine {
                 try {
                     actionOnExit.execute(event);
                 } catch (final Exception exception) {
-                    throw new TransitionFailedException(exception, event, transition);
+                    throw new TransitionFailedException(exception, event, new Transition(source, target, guard));
                 }
             }
 
@@ -86,7 +89,7 @@ public class FiniteStateMachine {
                 try {
                     actionOnEnter.execute(event);
                 } catch (final Exception exception) {
-                    throw new TransitionFailedException(exception, event, transition);
+                    throw new TransitionFailedException(exception, event, new Transition(source, target, guard));
                 }
             }
 
@@ -99,27 +102,14 @@ public class FiniteStateMachine {
                 try {
                     actionOnState.execute(event);
                 } catch (final Exception exception) {
-                    throw new TransitionFailedException(exception, event, transition);
+                    throw new TransitionFailedException(exception, event, new Transition(source, target, guard));
                 }
             }
         } else {
             final StringBuilder buffer = new StringBuilder();
-            buffer.append("The condition guarding a transition from a(n) ").append(transition.getStateOnEnter().getId())
-                    .append(" state to a(n) ").append(transition.getStateOnExit().getId()).append(" state has failed.");
-            throw new TransitionRollbackException(buffer.toString(), event, transition);
-        }
-    }
-
-    private ImmutableMap<State, Map<State, Transition>> toImmutableMap(final Set<Transition> transitions) {
-        final Map<State, Map<State, Transition>> map = new HashMap<State, Map<State, Transition>>();
-        for (final Transition transition : transitions) {
-            final State stateOnEnter = transition.getStateOnEnter();
-            if (!map.containsKey(stateOnEnter)) {
-                map.put(stateOnEnter, new HashMap<State, Transition>());
-            }
-            final State stateOnExit = transition.getStateOnExit();
-            map.get(stateOnEnter).put(stateOnExit, transition);
+            buffer.append("The condition guarding a transition from a(n) ").append(source.getId())
+                    .append(" state to a(n) ").append(target.getId()).append(" state has failed.");
+            throw new TransitionRollbackException(buffer.toString(), event, new Transition(source, target, guard));
         }
-        return ImmutableMap.copyOf(map);
     }
 }
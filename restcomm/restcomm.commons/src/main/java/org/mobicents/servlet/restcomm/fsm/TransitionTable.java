@@ -0,0 +1,143 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.fsm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The transitions allowed between the states of a finite state machine, identified by the state ids. A table only
+ * refers to the ids of the states, not to their actions, so the machines of every instance of an actor can share the
+ * same table while each instance binds its own actions to the states:
+ *
+ * <pre>
+ * private static volatile TransitionTable table;
+ *
+ * private TransitionTable transitions() {
+ *     if (table == null) {
+ *         final TransitionTable.Builder transitions = TransitionTable.builder();
+ *         transitions.add(uninitialized, ringing);
+ *         ...
+ *         table = transitions.build();
+ *     }
+ *     return table;
+ * }
+ * </pre>
+ *
+ * The guards of a shared table are shared too and must not keep any per instance state.
+ */
+@Immutable
+public final class TransitionTable {
+    private final ImmutableMap<String, Integer> states;
+    private final boolean[][] transitions;
+    private final Guard[][] guards;
+
+    private TransitionTable(final ImmutableMap<String, Integer> states, final boolean[][] transitions, final Guard[][] guards) {
+        super();
+        this.states = states;
+        this.transitions = transitions;
+        this.guards = guards;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds a table from the transitions of a single machine.
+     */
+    public static TransitionTable copyOf(final Set<Transition> transitions) {
+        checkNotNull(transitions, "A transition table can not be created with transitions set to null.");
+        final Builder builder = new Builder();
+        for (final Transition transition : transitions) {
+            builder.add(transition.getStateOnEnter(), transition.getStateOnExit(), transition.getGuard());
+        }
+        return builder.build();
+    }
+
+    public boolean contains(final State from, final State to) {
+        final Integer source = states.get(from.getId());
+        final Integer target = states.get(to.getId());
+        return source != null && target != null && transitions[source][target];
+    }
+
+    /**
+     * @return The guard of the transition or null if the transition is not guarded or not in the table.
+     */
+    public Guard getGuard(final State from, final State to) {
+        final Integer source = states.get(from.getId());
+        final Integer target = states.get(to.getId());
+        return (source != null && target != null) ? guards[source][target] : null;
+    }
+
+    @NotThreadSafe
+    public static final class Builder {
+        private final Map<String, Integer> states;
+        private final List<Object[]> transitions;
+
+        private Builder() {
+            super();
+            states = new HashMap<String, Integer>();
+            transitions = new ArrayList<Object[]>();
+        }
+
+        public void add(final State from, final State to) {
+            add(from, to, null);
+        }
+
+        public void add(final State from, final State to, final Guard guard) {
+            checkNotNull(from, "A transition can not have a null value for the state on enter.");
+            checkNotNull(to, "A transition can not have a null value for the state on exit.");
+            transitions.add(new Object[] { index(from), index(to), guard });
+        }
+
+        public TransitionTable build() {
+            final int size = states.size();
+            final boolean[][] allowed = new boolean[size][size];
+            final Guard[][] guards = new Guard[size][size];
+            for (final Object[] transition : transitions) {
+                final int from = (Integer) transition[0];
+                final int to = (Integer) transition[1];
+                allowed[from][to] = true;
+                guards[from][to] = (Guard) transition[2];
+            }
+            return new TransitionTable(ImmutableMap.copyOf(states), allowed, guards);
+        }
+
+        private int index(final State state) {
+            Integer index = states.get(state.getId());
+            if (index == null) {
+                index = states.size();
+                states.put(state.getId(), index);
+            }
+            return index;
+        }
+    }
+}
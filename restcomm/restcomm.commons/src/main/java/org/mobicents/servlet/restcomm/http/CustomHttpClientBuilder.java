@@ -31,6 +31,7 @@ import java.util.List;
 
 import org.apache.http.client.HttpClient;
 import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.impl.client.DefaultHttpClient;
@@ -60,8 +61,17 @@ public class CustomHttpClientBuilder {
     }
 
     private static HttpClient buildAllowallClient() {
-        HttpConnectorList httpConnectorList = UriUtils.getHttpConnectorList();
         HttpClient httpClient = new DefaultHttpClient();
+        registerAllowallScheme(httpClient.getConnectionManager().getSchemeRegistry());
+        return httpClient;
+    }
+
+    /**
+     * Registers a socket factory that trusts any peer certificate for the scheme and port of the secure http connector.
+     * Nothing is registered if there is no HTTPS connector.
+     */
+    static void registerAllowallScheme(SchemeRegistry registry) {
+        HttpConnectorList httpConnectorList = UriUtils.getHttpConnectorList();
         //Enable SSL only if we have HTTPS connector
         List<HttpConnector> connectors = httpConnectorList.getConnectors();
         Iterator<HttpConnector> iterator = connectors.iterator();
@@ -80,12 +90,10 @@ public class CustomHttpClientBuilder {
                 } catch (KeyManagementException | UnrecoverableKeyException | NoSuchAlgorithmException | KeyStoreException e) {
                     throw new RuntimeException("Error creating HttpClient", e);
                 }
-                httpClient.getConnectionManager().getSchemeRegistry().register(new Scheme(connector.getScheme(), connector.getPort(), sslsf));
+                registry.register(new Scheme(connector.getScheme(), connector.getPort(), sslsf));
                 break;
             }
         }
-
-        return httpClient;
     }
 
 }
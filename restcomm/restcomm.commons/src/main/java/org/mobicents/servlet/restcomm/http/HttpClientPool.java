@@ -0,0 +1,174 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.http;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.client.params.CookiePolicy;
+import org.apache.http.client.params.HttpClientParams;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.MainConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sources.ConfigurationSource;
+
+/**
+ * Process wide HTTP client backed by a pool of persistent connections. It is shared by every actor that talks to an
+ * external web server (RCML and status callback fetches, media downloads, TTS engines) so that connections, including
+ * TLS sessions, are reused between requests instead of being set up for every request.
+ *
+ * The pool is configured from the &lt;http-client&gt; section of restcomm.xml the first time it is used. Callers must
+ * consume or close the response entity, otherwise the connection is not returned to the pool.
+ *
+ * Cookies are ignored by default since the client is shared between accounts. Callers that need cookies should set a
+ * cookie policy on the request and execute it with their own {@link HttpContext} and cookie store.
+ */
+@ThreadSafe
+public final class HttpClientPool {
+    private static Logger logger = Logger.getLogger(HttpClientPool.class);
+    private static volatile HttpClientPool instance;
+
+    private final PoolingClientConnectionManager connections;
+    private final DefaultHttpClient client;
+    private final ScheduledExecutorService evictor;
+
+    private HttpClientPool(final MainConfigurationSet config) {
+        super();
+        final SchemeRegistry registry = SchemeRegistryFactory.createDefault();
+        if (config.getSslMode() == SslMode.allowall) {
+            CustomHttpClientBuilder.registerAllowallScheme(registry);
+        }
+        connections = new PoolingClientConnectionManager(registry);
+        connections.setMaxTotal(config.getMaxConnTotal());
+        connections.setDefaultMaxPerRoute(config.getMaxConnPerRoute());
+        client = new DefaultHttpClient(connections);
+        final HttpParams params = client.getParams();
+        HttpConnectionParams.setConnectionTimeout(params, config.getConnectTimeout());
+        HttpConnectionParams.setSoTimeout(params, config.getSocketTimeout());
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+        HttpClientParams.setConnectionManagerTimeout(params, config.getConnectionRequestTimeout());
+        params.setParameter(ClientPNames.COOKIE_POLICY, CookiePolicy.IGNORE_COOKIES);
+        final long keepAlive = config.getKeepAlive();
+        client.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+                final long duration = super.getKeepAliveDuration(response, context);
+                // Honor the server's Keep-Alive header but never keep a connection forever.
+                if (duration > 0 && duration < keepAlive) {
+                    return duration;
+                }
+                return keepAlive;
+            }
+        });
+        final long idleTimeout = config.getIdleTimeout();
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "restcomm-http-client-evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final long period = Math.max(1000, idleTimeout / 2);
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                connections.closeExpiredConnections();
+                connections.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Http client pool: " + connections.getTotalStats());
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        logger.info("Http client pool created, max-conn-total: " + config.getMaxConnTotal() + " max-conn-per-route: "
+                + config.getMaxConnPerRoute());
+    }
+
+    private static HttpClientPool instance() {
+        HttpClientPool pool = instance;
+        if (pool == null) {
+            synchronized (HttpClientPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new HttpClientPool(configuration());
+                    instance = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static MainConfigurationSet configuration() {
+        try {
+            return RestcommConfiguration.getInstance().getMain();
+        } catch (final IllegalStateException exception) {
+            // Not running inside RestComm (unit tests, tools). Use the defaults.
+            return new MainConfigurationSet(new ConfigurationSource() {
+                @Override
+                public String getProperty(final String key) {
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * @return The shared pooled client.
+     */
+    public static HttpClient getClient() {
+        return instance().client;
+    }
+
+    /**
+     * @return The number of leased, pending and available connections and the pool size, over all routes.
+     */
+    public static PoolStats getStats() {
+        return instance().connections.getTotalStats();
+    }
+
+    /**
+     * Closes all pooled connections. The next call to {@link #getClient()} creates a new pool.
+     */
+    public static void shutdown() {
+        synchronized (HttpClientPool.class) {
+            final HttpClientPool pool = instance;
+            instance = null;
+            if (pool != null) {
+                pool.evictor.shutdownNow();
+                pool.connections.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+
+/**
+ * A hashed timing wheel. Timeouts are hashed by their deadline into a fixed number of slots, each one tick long, so
+ * scheduling and cancelling a timeout costs a constant time and advancing the wheel only looks at the slots of the ticks
+ * that went by, instead of at every timeout. A deadline further away than one turn of the wheel stays in its slot for
+ * as many turns as needed.
+ *
+ * The wheel is driven by its owner, usually from a periodic message, with {@link #advance(long)}.
+ */
+@NotThreadSafe
+public final class TimingWheel<T> {
+    private final long tick;
+    private final Timeout<T>[] slots;
+    private long current;
+    private int size;
+
+    /**
+     * A scheduled item, can be used to cancel it.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadline;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+        private int slot;
+
+        private Timeout(final T item, final long deadline) {
+            super();
+            this.item = item;
+            this.deadline = deadline;
+            this.slot = -1;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public boolean isScheduled() {
+            return slot >= 0;
+        }
+    }
+
+    /**
+     * @param tick The length of a tick in milliseconds, deadlines are rounded up to it.
+     * @param slots The number of ticks in a turn of the wheel.
+     * @param now The current time in milliseconds.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(final long tick, final int slots, final long now) {
+        super();
+        if (tick <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("The tick and the number of slots must be positive.");
+        }
+        this.tick = tick;
+        this.slots = new Timeout[slots];
+        this.current = now / tick;
+    }
+
+    /**
+     * Schedules an item to be returned by {@link #advance(long)} once the deadline is reached. A deadline in the past
+     * expires on the next tick.
+     *
+     * @param deadline The time in milliseconds.
+     */
+    public Timeout<T> schedule(final T item, final long deadline) {
+        final long ticks = Math.max((deadline + tick - 1) / tick, current + 1);
+        final Timeout<T> timeout = new Timeout<T>(item, ticks);
+        final int slot = (int) (ticks % slots.length);
+        timeout.slot = slot;
+        timeout.next = slots[slot];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        slots[slot] = timeout;
+        size++;
+        return timeout;
+    }
+
+    public void cancel(final Timeout<T> timeout) {
+        if (timeout == null || !timeout.isScheduled()) {
+            return;
+        }
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        size--;
+    }
+
+    /**
+     * Moves the wheel to the current time.
+     *
+     * @param now The current time in milliseconds.
+     * @return The items whose deadline went by, in no particular order.
+     */
+    public List<T> advance(final long now) {
+        final List<T> expired = new ArrayList<T>();
+        final long target = now / tick;
+        if (target <= current) {
+            return expired;
+        }
+        // After a pause longer than a turn every slot is looked at once.
+        final long first = Math.max(current + 1, target - slots.length + 1);
+        for (long ticks = first; ticks <= target; ticks++) {
+            Timeout<T> timeout = slots[(int) (ticks % slots.length)];
+            while (timeout != null) {
+                final Timeout<T> next = timeout.next;
+                if (timeout.deadline <= target) {
+                    cancel(timeout);
+                    expired.add(timeout.item);
+                }
+                timeout = next;
+            }
+        }
+        current = target;
+        return expired;
+    }
+
+    /**
+     * @return The number of scheduled items.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -35,6 +35,7 @@ public final class UriUtils {
     private static Logger logger = Logger.getLogger(UriUtils.class);
     private static HttpConnector httpConnector;
     private static HttpConnectorList httpConnectorList;
+    private static volatile String canonicalHostname;
     /**
      * Default constructor.
      */
@@ -107,6 +108,10 @@ public final class UriUtils {
      * @return The absolute URI
      */
     public static URI resolve(final URI uri) {
+        // An absolute URI is returned as is by the base resolution, no need to look for the HTTP connectors.
+        if (uri.isAbsolute()) {
+            return uri;
+        }
         if (httpConnector == null) {
             if (httpConnectorList == null) {
                 try {
@@ -143,13 +148,16 @@ public final class UriUtils {
         if (RestcommConfiguration.getInstance().getMain().isUseHostnameToResolveRelativeUrls()) {
             restcommAddress = RestcommConfiguration.getInstance().getMain().getHostname();
             if (restcommAddress == null || restcommAddress.isEmpty()) {
-                try {
-                    InetAddress addr = InetAddress.getByName(httpConnector.getAddress());
-                    restcommAddress = addr.getCanonicalHostName();
-                } catch (UnknownHostException e) {
-                    logger.error("Unable to resolve: " + httpConnector + " to hostname: " + e);
-                    restcommAddress = httpConnector.getAddress();
+                // The reverse lookup is done once, it would otherwise block the caller on every call setup.
+                if (canonicalHostname == null) {
+                    try {
+                        InetAddress addr = InetAddress.getByName(httpConnector.getAddress());
+                        canonicalHostname = addr.getCanonicalHostName();
+                    } catch (UnknownHostException e) {
+                        logger.error("Unable to resolve: " + httpConnector + " to hostname: " + e);
+                    }
                 }
+                restcommAddress = (canonicalHostname != null) ? canonicalHostname : httpConnector.getAddress();
             }
         } else {
             restcommAddress = httpConnector.getAddress();
@@ -165,7 +173,13 @@ public final class UriUtils {
 
     public static HttpConnectorList getHttpConnectorList() {
         if (httpConnectorList == null) {
-            getHttpConnectorList();
+            try {
+                httpConnectorList = getHttpConnectors();
+            } catch (MalformedObjectNameException | AttributeNotFoundException | InstanceNotFoundException
+                    | NullPointerException | UnknownHostException | MBeanException | ReflectionException exception) {
+                logger.error("Exception during HTTP Connectors discovery: ", exception);
+                return new HttpConnectorList(new ArrayList<HttpConnector>());
+            }
         }
         return httpConnectorList;
     }
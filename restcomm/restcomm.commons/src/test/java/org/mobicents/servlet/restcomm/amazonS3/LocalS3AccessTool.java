@@ -0,0 +1,66 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.amazonS3;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Stores the uploaded files in a local directory instead of S3. The next uploads can be made to fail to exercise the
+ * retries.
+ */
+public final class LocalS3AccessTool extends S3AccessTool {
+    private final File bucket;
+    private final AtomicInteger failures;
+
+    public LocalS3AccessTool(final File bucket) {
+        this(bucket, false);
+    }
+
+    public LocalS3AccessTool(final File bucket, final boolean removeOriginalFile) {
+        super(null, null, bucket.getName(), null, false, 0, removeOriginalFile);
+        this.bucket = bucket;
+        this.failures = new AtomicInteger();
+    }
+
+    @Override
+    public URI upload(final File file) throws AmazonClientException, InterruptedException {
+        if (failures.getAndDecrement() > 0) {
+            throw new AmazonClientException("Service unavailable");
+        }
+        final File object = new File(bucket, file.getName());
+        try {
+            FileUtils.copyFile(file, object);
+        } catch (final IOException exception) {
+            throw new AmazonClientException(exception.getMessage(), exception);
+        }
+        return object.toURI();
+    }
+
+    public void failNext(final int uploads) {
+        failures.set(uploads);
+    }
+}
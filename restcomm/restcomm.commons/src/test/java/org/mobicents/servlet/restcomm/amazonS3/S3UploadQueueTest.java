@@ -0,0 +1,188 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.amazonS3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class S3UploadQueueTest {
+    private LocalS3AccessTool s3;
+    private File directory;
+    private File spool;
+    private BlockingQueue<String> events;
+
+    public S3UploadQueueTest() {
+        super();
+    }
+
+    @Before
+    public void before() throws Exception {
+        directory = File.createTempFile("recordings", "");
+        directory.delete();
+        final File bucket = new File(directory, "bucket");
+        bucket.mkdirs();
+        s3 = new LocalS3AccessTool(bucket);
+        spool = new File(directory, ".s3-uploads");
+        events = new LinkedBlockingQueue<String>();
+    }
+
+    @After
+    public void after() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private S3UploadQueue queue(final int maxAttempts) {
+        return new S3UploadQueue(s3, spool, 2, maxAttempts, 10, 100);
+    }
+
+    private S3UploadQueue.Listener listener() {
+        return new S3UploadQueue.Listener() {
+            @Override
+            public void uploaded(final String id, final URI uri) {
+                events.add("uploaded " + id + " " + new File(uri).getName());
+            }
+
+            @Override
+            public void failed(final String id, final File file) {
+                events.add("failed " + id);
+            }
+        };
+    }
+
+    private File recording(final String name) throws Exception {
+        final File file = new File(directory, name);
+        FileUtils.writeByteArrayToFile(file, new byte[] { 1, 2, 3, 4 });
+        return file;
+    }
+
+    // The marker and the local file are removed after the listener returned.
+    private boolean removed(final File file) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (file.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return !file.exists();
+    }
+
+    @Test
+    public void failedUploadsAreRetried() throws Exception {
+        final S3UploadQueue queue = queue(5);
+        queue.start(listener());
+        try {
+            s3.failNext(2);
+            queue.enqueue("RE1", recording("RE1.wav"));
+            assertEquals("uploaded RE1 RE1.wav", events.poll(10, TimeUnit.SECONDS));
+            assertArrayEquals(new byte[] { 1, 2, 3, 4 }, FileUtils.readFileToByteArray(new File(directory, "bucket/RE1.wav")));
+            assertTrue(removed(new File(spool, "RE1.upload")));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void uploadsAreAbandonedAfterTheLastAttempt() throws Exception {
+        final S3UploadQueue queue = queue(2);
+        queue.start(listener());
+        try {
+            s3.failNext(100);
+            queue.enqueue("RE2", recording("RE2.wav"));
+            assertEquals("failed RE2", events.poll(10, TimeUnit.SECONDS));
+            assertTrue(new File(spool, "RE2.failed").exists());
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void theLocalFileIsOnlyRemovedOnceTheUploadIsRecorded() throws Exception {
+        s3 = new LocalS3AccessTool(new File(directory, "bucket"), true);
+        final File recording = recording("RE4.wav");
+        final AtomicInteger failures = new AtomicInteger(2);
+        final S3UploadQueue queue = queue(5);
+        queue.start(new S3UploadQueue.Listener() {
+            @Override
+            public void uploaded(final String id, final URI uri) {
+                events.add("uploaded " + id + " " + recording.exists());
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Database unavailable");
+                }
+            }
+
+            @Override
+            public void failed(final String id, final File file) {
+                events.add("failed " + id);
+            }
+        });
+        try {
+            queue.enqueue("RE4", recording);
+            for (int attempt = 0; attempt < 3; attempt++) {
+                assertEquals("uploaded RE4 true", events.poll(10, TimeUnit.SECONDS));
+            }
+            assertTrue(removed(recording));
+            assertFalse(new File(spool, "RE4.upload").exists());
+            assertTrue(new File(directory, "bucket/RE4.wav").exists());
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void uploadedFilesAreNotUploadedAgainOnStart() throws Exception {
+        spool.mkdirs();
+        final File recording = recording("RE5.wav");
+        FileUtils.writeStringToFile(new File(spool, "RE5.upload"), recording.getAbsolutePath() + "\n"
+                + new File(directory, "bucket/RE5.wav").toURI(), "UTF-8");
+        s3.failNext(100);
+        final S3UploadQueue queue = queue(5);
+        queue.start(listener());
+        try {
+            assertEquals("uploaded RE5 RE5.wav", events.poll(10, TimeUnit.SECONDS));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void pendingUploadsAreResumedOnStart() throws Exception {
+        spool.mkdirs();
+        FileUtils.writeStringToFile(new File(spool, "RE3.upload"), recording("RE3.wav").getAbsolutePath(), "UTF-8");
+        final S3UploadQueue queue = queue(5);
+        queue.start(listener());
+        try {
+            assertEquals("uploaded RE3 RE3.wav", events.poll(10, TimeUnit.SECONDS));
+        } finally {
+            queue.shutdown();
+        }
+    }
+}
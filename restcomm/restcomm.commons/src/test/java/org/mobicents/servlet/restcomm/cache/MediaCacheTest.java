@@ -0,0 +1,129 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+import akka.dispatch.ExecutionContexts;
+
+public class MediaCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public MediaCacheTest() {
+        super();
+    }
+
+    // Runs the downloads when the test says so.
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(final Runnable task) {
+            tasks.add(task);
+        }
+
+        private int run() {
+            final int count = tasks.size();
+            for (final Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+            return count;
+        }
+    }
+
+    private File file(final File directory, final String name, final int size, final long modified) throws Exception {
+        final File file = new File(directory, name);
+        FileUtils.writeByteArrayToFile(file, new byte[size]);
+        file.setLastModified(modified);
+        return file;
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final File source = file(folder.newFolder("source"), "prompt.wav", 100, System.currentTimeMillis());
+        final File directory = folder.newFolder("cache");
+        final MediaCache cache = new MediaCache(1024 * 1024, 3600000, 3600000);
+        cache.open(directory);
+        final ManualExecutor tasks = new ManualExecutor();
+        final ExecutionContext executor = ExecutionContexts.fromExecutor(tasks);
+        final File target = new File(directory, "hash.wav");
+        final Future<File> first = cache.fetch(source.toURI(), target, true, executor);
+        final Future<File> second = cache.fetch(source.toURI(), target, true, executor);
+        // Both requests wait for the same download.
+        assertSame(first, second);
+        assertEquals(1, tasks.run());
+        assertEquals(target, Await.result(first, Duration.create(1, TimeUnit.SECONDS)));
+        assertEquals(100, target.length());
+        // The next request is answered from the index.
+        assertTrue(cache.fetch(source.toURI(), target, true, executor).isCompleted());
+        assertEquals(target, cache.get(target));
+        assertEquals(0, tasks.run());
+        final Map<String, Integer> counters = cache.getCounters();
+        assertEquals(Integer.valueOf(1), counters.get("MediaCacheMisses"));
+        assertEquals(Integer.valueOf(1), counters.get("MediaCacheCoalescedDownloads"));
+        assertEquals(Integer.valueOf(2), counters.get("MediaCacheHits"));
+        assertEquals(Integer.valueOf(1), counters.get("MediaCacheEntries"));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final File directory = folder.newFolder("cache");
+        final long now = System.currentTimeMillis();
+        final File old = file(directory, "old.wav", 100, now - 7200000);
+        final File older = file(directory, "older.wav", 100, now - 3000);
+        final File recent = file(directory, "recent.wav", 100, now - 2000);
+        file(directory, "partial.wav.tmp", 100, now);
+        final MediaCache cache = new MediaCache(250, 3600000, 3600000);
+        cache.open(directory);
+        // The file not used for too long and the partial download are gone.
+        assertFalse(old.exists());
+        assertFalse(new File(directory, "partial.wav.tmp").exists());
+        assertEquals(Integer.valueOf(2), cache.getCounters().get("MediaCacheEntries"));
+        // Using the older file makes the recent one the least recently used.
+        assertEquals(older, cache.get(older));
+        final File added = file(directory, "added.wav", 100, now);
+        cache.put(added);
+        assertFalse(recent.exists());
+        assertTrue(older.exists());
+        assertTrue(added.exists());
+        assertNull(cache.get(recent));
+        final Map<String, Integer> counters = cache.getCounters();
+        assertEquals(Integer.valueOf(2), counters.get("MediaCacheEvictions"));
+        assertEquals(Integer.valueOf(2), counters.get("MediaCacheEntries"));
+    }
+}
@@ -12,6 +12,8 @@ import org.apache.commons.configuration.XMLConfiguration;
 import org.junit.Before;
 import org.junit.Test;
 import org.mobicents.servlet.restcomm.configuration.sets.MainConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.OutboundProxyConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.http.SslMode;
 
 public class RestcommConfigurationTest {
@@ -33,6 +35,11 @@ public class RestcommConfigurationTest {
     @Test 
     public void allConfiguraitonSetsAreAvailable() {
         assertNotNull(conf.getMain());
+        assertNotNull(conf.getRuntime());
+        assertNotNull(conf.getOutboundProxy());
+        assertNotNull(conf.getMedia());
+        assertNotNull(conf.getSms());
+        assertNotNull(conf.getTts());
         // add new sets here ...
         // ...
     }
@@ -44,8 +51,47 @@ public class RestcommConfigurationTest {
         assertTrue( main.getSslMode().equals(SslMode.strict));
         assertTrue( main.getHostname().equals(""));
         assertTrue( main.isUseHostnameToResolveRelativeUrls() == true );
+        assertTrue( main.getMaxConnTotal() == 100 );
+        assertTrue( main.getMaxConnPerRoute() == 10 );
+        // not set, defaults are used
+        assertTrue( main.getConnectTimeout() == 5000 );
+        assertTrue( main.getIdleTimeout() == 60000 );
     }
     
+    @Test
+    public void runtimeSetConfigurationOptionsAreValid() {
+        RuntimeConfigurationSet runtime = conf.getRuntime();
+        assertEquals("2012-04-24", runtime.getApiVersion());
+        assertFalse(runtime.isNormalizeNumbersForOutboundCalls());
+        OutboundProxyConfigurationSet proxy = conf.getOutboundProxy();
+        assertEquals("127.0.0.1:5070", proxy.getUri());
+        assertEquals("127.0.0.1:5090", proxy.getFallbackUri());
+        assertEquals("", proxy.getUser());
+        assertEquals("mms", conf.getMedia().getCompatibility());
+        assertEquals("org.mobicents.servlet.restcomm.tts.VoiceRSSSpeechSynthesizer", conf.getTts().getSynthesizerClass());
+    }
+
+    @Test
+    public void reloadSwapsTheSets() {
+        RuntimeConfigurationSet runtime = conf.getRuntime();
+        xml.setProperty("runtime-settings.normalize-numbers-for-outbound-calls", "true");
+        xml.setProperty("runtime-settings.outbound-proxy.max-failed-calls", "5");
+        // snapshots do not follow the source until it is reloaded
+        assertFalse(conf.getRuntime().isNormalizeNumbersForOutboundCalls());
+        conf.reload(xml);
+        assertTrue(conf.getRuntime().isNormalizeNumbersForOutboundCalls());
+        assertEquals(5, conf.getOutboundProxy().getMaxFailedCalls());
+        assertFalse(runtime.isNormalizeNumbersForOutboundCalls());
+        // an invalid value keeps the current sets
+        xml.setProperty("runtime-settings.outbound-proxy.max-failed-calls", "many");
+        try {
+            conf.reload(xml);
+            fail("An invalid option was accepted");
+        } catch (RuntimeException e) {
+            assertEquals(5, conf.getOutboundProxy().getMaxFailedCalls());
+        }
+    }
+
     @Test 
     public void validSingletonOperation() {
         // make sure it is created
@@ -0,0 +1,95 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+
+import com.typesafe.config.ConfigFactory;
+
+public final class InstrumentedExecutorConfiguratorTest {
+    private static final String config = "restcomm-dispatchers.db {\n"
+            + "  executor = \"org.mobicents.servlet.restcomm.dispatch.InstrumentedExecutorConfigurator\"\n"
+            + "  instrumented-executor {\n" + "    pool-size = 2\n" + "    keep-alive-time = 60s\n" + "  }\n" + "}";
+    private ActorSystem system;
+
+    public InstrumentedExecutorConfiguratorTest() {
+        super();
+    }
+
+    @Before
+    public void before() {
+        system = ActorSystem.create("test", ConfigFactory.parseString(config).withFallback(ConfigFactory.load()));
+    }
+
+    @After
+    public void after() {
+        system.shutdown();
+        system.awaitTermination();
+    }
+
+    @Test
+    public void busyThreadsAreReported() throws Exception {
+        final ExecutionContext db = RestcommDispatchers.lookup(system, RestcommDispatchers.DB);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<String> future = Futures.future(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return Thread.currentThread().getName();
+            }
+        }, db);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Map<String, Integer> counters = DispatcherMetrics.counters();
+        assertEquals(Integer.valueOf(1), counters.get("db.BusyThreads"));
+        assertEquals(Integer.valueOf(0), counters.get("db.QueueDepth"));
+        release.countDown();
+        final String thread = Await.result(future, Duration.create(5, TimeUnit.SECONDS));
+        assertTrue(thread, thread.contains("restcomm-dispatchers.db"));
+    }
+
+    @Test
+    public void missingDispatchersFallBackToTheDefault() {
+        final ActorSystem plain = ActorSystem.create("plain");
+        try {
+            assertTrue(RestcommDispatchers.lookup(plain, RestcommDispatchers.BLOCKING_IO) == plain.dispatcher());
+        } finally {
+            plain.shutdown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.fsm;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FiniteStateMachineTest {
+    public FiniteStateMachineTest() {
+        super();
+    }
+
+    // The actions of the states record the transitions of one machine.
+    private static final class Machine {
+        private final List<String> log = new ArrayList<String>();
+        private final State idle = new State("idle", null, null);
+        private final State ringing = new State("ringing", action("enter ringing"), action("exit ringing"));
+        private final State talking = new State("talking", action("talking"));
+
+        private Action action(final String name) {
+            return new Action() {
+                @Override
+                public void execute(final Object message) throws Exception {
+                    log.add(name + " " + message);
+                }
+            };
+        }
+
+        private TransitionTable table() {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            transitions.add(idle, ringing);
+            transitions.add(ringing, talking);
+            transitions.add(talking, idle);
+            return transitions.build();
+        }
+    }
+
+    @Test
+    public void testSharedTable() throws Exception {
+        final Machine first = new Machine();
+        final Machine second = new Machine();
+        final TransitionTable table = first.table();
+        final FiniteStateMachine one = new FiniteStateMachine(first.idle, table);
+        final FiniteStateMachine other = new FiniteStateMachine(second.idle, table);
+        one.transition("invite", first.ringing);
+        one.transition("ok", first.talking);
+        other.transition("invite", second.ringing);
+        // Each machine runs the actions of its own states.
+        assertEquals(first.talking, one.state());
+        assertEquals("[enter ringing invite, exit ringing ok, talking ok]", first.log.toString());
+        assertEquals(second.ringing, other.state());
+        assertEquals("[enter ringing invite]", second.log.toString());
+        try {
+            other.transition("bye", second.idle);
+            fail("There is no transition from ringing to idle.");
+        } catch (final TransitionNotFoundException exception) {
+            assertEquals(second.ringing, exception.getCurrentState());
+            assertEquals(second.idle, exception.getTargetState());
+        }
+        assertEquals(second.ringing, other.state());
+    }
+
+    @Test
+    public void testGuardedTransitions() throws Exception {
+        final Machine machine = new Machine();
+        final Set<Transition> transitions = new HashSet<Transition>();
+        transitions.add(new Transition(machine.idle, machine.ringing, new Guard() {
+            @Override
+            public boolean accept(final Object message, final Transition transition) throws Exception {
+                return "invite".equals(message);
+            }
+        }));
+        final FiniteStateMachine fsm = new FiniteStateMachine(machine.idle, transitions);
+        try {
+            fsm.transition("options", machine.ringing);
+            fail("The guard must reject the transition.");
+        } catch (final TransitionRollbackException exception) {
+            assertEquals(machine.idle, exception.getTransition().getStateOnEnter());
+            assertEquals(machine.ringing, exception.getTransition().getStateOnExit());
+        }
+        assertEquals(machine.idle, fsm.state());
+        fsm.transition("invite", machine.ringing);
+        assertEquals(machine.ringing, fsm.state());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+    public TimingWheelTest() {
+        super();
+    }
+
+    @Test
+    public void testExpiresInOrder() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(1000, 8, 0);
+        wheel.schedule("a", 1500);
+        wheel.schedule("b", 3000);
+        wheel.schedule("c", 3000);
+        assertEquals(3, wheel.size());
+        assertTrue(wheel.advance(999).isEmpty());
+        assertEquals(Arrays.asList("a"), wheel.advance(2000));
+        final List<String> expired = wheel.advance(3000);
+        Collections.sort(expired);
+        assertEquals(Arrays.asList("b", "c"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineLongerThanATurn() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(1000, 4, 0);
+        wheel.schedule("late", 10000);
+        for (long now = 1000; now < 10000; now += 1000) {
+            assertTrue(wheel.advance(now).isEmpty());
+        }
+        assertEquals(Arrays.asList("late"), wheel.advance(10000));
+    }
+
+    @Test
+    public void testPauseLongerThanATurn() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(1000, 4, 0);
+        wheel.schedule("a", 2000);
+        wheel.schedule("b", 30000);
+        wheel.schedule("c", 60000);
+        final List<String> expired = wheel.advance(45000);
+        Collections.sort(expired);
+        assertEquals(Arrays.asList("a", "b"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testCancel() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(1000, 8, 0);
+        final TimingWheel.Timeout<String> first = wheel.schedule("a", 2000);
+        final TimingWheel.Timeout<String> second = wheel.schedule("b", 2000);
+        wheel.cancel(first);
+        assertFalse(first.isScheduled());
+        assertTrue(second.isScheduled());
+        // Cancelling twice is harmless.
+        wheel.cancel(first);
+        assertEquals(1, wheel.size());
+        assertEquals(Arrays.asList("b"), wheel.advance(2000));
+        assertFalse(second.isScheduled());
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextTick() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(1000, 8, 5000);
+        wheel.schedule("a", 1000);
+        assertTrue(wheel.advance(5500).isEmpty());
+        assertEquals(Arrays.asList("a"), wheel.advance(6000));
+    }
+}
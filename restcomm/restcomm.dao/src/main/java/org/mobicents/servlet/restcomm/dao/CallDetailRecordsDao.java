@@ -56,4 +56,13 @@ public interface CallDetailRecordsDao {
     List<CallDetailRecord> getCallDetailRecords(CallDetailRecordFilter filter);
 
     Integer getTotalCallDetailRecords(CallDetailRecordFilter filter);
+
+    /**
+     * Hands the calls of the account created from start, inclusive, to end, exclusive, to the handler oldest first as
+     * they are read from the data store.
+     *
+     * @param start The start of the period or null to start at the oldest call.
+     * @param end The end of the period or null to end at the newest call.
+     */
+    void exportCallDetailRecords(Sid accountSid, DateTime start, DateTime end, RecordHandler<CallDetailRecord> handler);
 }
@@ -23,10 +23,13 @@ import java.math.BigDecimal;
 import java.net.URI;
 import java.util.Currency;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.joda.time.DateTime;
 import org.mobicents.servlet.restcomm.entities.Account;
 import org.mobicents.servlet.restcomm.entities.Application;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
@@ -175,6 +178,36 @@ public final class DaoUtils {
         }
     }
 
+    /**
+     * The parameters of the keyset pagination statements, a page of the listing of an account starting after the
+     * position of the token or at the newest record if there is no token.
+     */
+    public static Map<String, Object> writePage(final Sid accountSid, final PageToken after, final int limit) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("account_sid", writeSid(accountSid));
+        if (after != null) {
+            map.put("cursor_date", writeDateTime(after.getDateCreated()));
+            map.put("cursor_sid", writeSid(after.getSid()));
+        } else {
+            map.put("cursor_date", null);
+            map.put("cursor_sid", null);
+        }
+        map.put("limit", limit);
+        return map;
+    }
+
+    /**
+     * The parameters of the export statements, the records of an account created in a period open on the sides without
+     * a date.
+     */
+    public static Map<String, Object> writePeriod(final Sid accountSid, final DateTime start, final DateTime end) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("account_sid", writeSid(accountSid));
+        map.put("start", writeDateTime(start));
+        map.put("end", writeDateTime(end));
+        return map;
+    }
+
     public static String writeUri(final URI uri) {
         if (uri != null) {
             return uri.toString();
@@ -24,6 +24,7 @@ import java.util.List;
 import org.joda.time.DateTime;
 
 import org.mobicents.servlet.restcomm.entities.Notification;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 
 /**
@@ -36,6 +37,12 @@ public interface NotificationsDao {
 
     List<Notification> getNotifications(Sid accountSid);
 
+    /**
+     * @param after The last notification of the previous page, null for the first page.
+     * @return At most limit notifications of the account, newest first.
+     */
+    List<Notification> getNotifications(Sid accountSid, PageToken after, int limit);
+
     List<Notification> getNotificationsByCall(Sid callSid);
 
     List<Notification> getNotificationsByLogLevel(int logLevel);
@@ -21,6 +21,7 @@ package org.mobicents.servlet.restcomm.dao;
 
 import java.util.List;
 
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Recording;
 import org.mobicents.servlet.restcomm.entities.Sid;
 
@@ -39,6 +40,12 @@ public interface RecordingsDao {
 
     List<Recording> getRecordings(Sid accountSid);
 
+    /**
+     * @param after The last recording of the previous page, null for the first page.
+     * @return At most limit recordings of the account, newest first.
+     */
+    List<Recording> getRecordings(Sid accountSid, PageToken after, int limit);
+
     void removeRecording(Sid sid);
 
     void removeRecordings(Sid accountSid);
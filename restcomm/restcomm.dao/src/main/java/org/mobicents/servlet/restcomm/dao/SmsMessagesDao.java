@@ -21,6 +21,9 @@ package org.mobicents.servlet.restcomm.dao;
 
 import java.util.List;
 
+import org.joda.time.DateTime;
+
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.entities.SmsMessage;
 
@@ -34,6 +37,21 @@ public interface SmsMessagesDao {
 
     List<SmsMessage> getSmsMessages(Sid accountSid);
 
+    /**
+     * @param after The last message of the previous page, null for the first page.
+     * @return At most limit messages of the account, newest first.
+     */
+    List<SmsMessage> getSmsMessages(Sid accountSid, PageToken after, int limit);
+
+    /**
+     * Hands the messages of the account created from start, inclusive, to end, exclusive, to the handler oldest first
+     * as they are read from the data store.
+     *
+     * @param start The start of the period or null to start at the oldest message.
+     * @param end The end of the period or null to end at the newest message.
+     */
+    void exportSmsMessages(Sid accountSid, DateTime start, DateTime end, RecordHandler<SmsMessage> handler);
+
     void removeSmsMessage(Sid sid);
 
     void removeSmsMessages(Sid accountSid);
@@ -0,0 +1,86 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.dao.AccountsDao;
+import org.mobicents.servlet.restcomm.entities.Account;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Caches account lookups by sid and by name. Any write invalidates the whole cache.
+ */
+@ThreadSafe
+public final class CachingAccountsDao implements AccountsDao {
+    private final AccountsDao dao;
+    private final DaoCache<Object, Account> accounts;
+
+    public CachingAccountsDao(final AccountsDao dao, final long maxEntries, final long ttl) {
+        super();
+        this.dao = dao;
+        this.accounts = new DaoCache<Object, Account>(maxEntries, ttl);
+    }
+
+    @Override
+    public void addAccount(final Account account) {
+        dao.addAccount(account);
+        accounts.invalidateAll();
+    }
+
+    @Override
+    public Account getAccount(final Sid sid) {
+        return accounts.get(sid, new Callable<Account>() {
+            @Override
+            public Account call() throws Exception {
+                return dao.getAccount(sid);
+            }
+        });
+    }
+
+    @Override
+    public Account getAccount(final String name) {
+        return accounts.get(name, new Callable<Account>() {
+            @Override
+            public Account call() throws Exception {
+                return dao.getAccount(name);
+            }
+        });
+    }
+
+    @Override
+    public List<Account> getAccounts(final Sid sid) {
+        return dao.getAccounts(sid);
+    }
+
+    @Override
+    public void removeAccount(final Sid sid) {
+        dao.removeAccount(sid);
+        accounts.invalidateAll();
+    }
+
+    @Override
+    public void updateAccount(final Account account) {
+        dao.updateAccount(account);
+        accounts.invalidateAll();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.dao.ApplicationsDao;
+import org.mobicents.servlet.restcomm.entities.Application;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Caches application lookups by sid, used to resolve the RCML URL of numbers and clients bound to an application. Any
+ * write invalidates the whole cache.
+ */
+@ThreadSafe
+public final class CachingApplicationsDao implements ApplicationsDao {
+    private final ApplicationsDao dao;
+    private final DaoCache<Sid, Application> applications;
+
+    public CachingApplicationsDao(final ApplicationsDao dao, final long maxEntries, final long ttl) {
+        super();
+        this.dao = dao;
+        this.applications = new DaoCache<Sid, Application>(maxEntries, ttl);
+    }
+
+    @Override
+    public void addApplication(final Application application) {
+        dao.addApplication(application);
+        applications.invalidateAll();
+    }
+
+    @Override
+    public Application getApplication(final Sid sid) {
+        return applications.get(sid, new Callable<Application>() {
+            @Override
+            public Application call() throws Exception {
+                return dao.getApplication(sid);
+            }
+        });
+    }
+
+    @Override
+    public Application getApplication(final String friendlyName) {
+        return dao.getApplication(friendlyName);
+    }
+
+    @Override
+    public List<Application> getApplications(final Sid accountSid) {
+        return dao.getApplications(accountSid);
+    }
+
+    @Override
+    public void removeApplication(final Sid sid) {
+        dao.removeApplication(sid);
+        applications.invalidateAll();
+    }
+
+    @Override
+    public void removeApplications(final Sid accountSid) {
+        dao.removeApplications(accountSid);
+        applications.invalidateAll();
+    }
+
+    @Override
+    public void updateApplication(final Application application) {
+        dao.updateApplication(application);
+        applications.invalidateAll();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.dao.ClientsDao;
+import org.mobicents.servlet.restcomm.entities.Client;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Caches the client lookups done for every INVITE, MESSAGE and REGISTER. Any write invalidates the whole cache.
+ */
+@ThreadSafe
+public final class CachingClientsDao implements ClientsDao {
+    private final ClientsDao dao;
+    private final DaoCache<Object, Client> clients;
+
+    public CachingClientsDao(final ClientsDao dao, final long maxEntries, final long ttl) {
+        super();
+        this.dao = dao;
+        this.clients = new DaoCache<Object, Client>(maxEntries, ttl);
+    }
+
+    @Override
+    public void addClient(final Client client) {
+        dao.addClient(client);
+        clients.invalidateAll();
+    }
+
+    @Override
+    public Client getClient(final Sid sid) {
+        return clients.get(sid, new Callable<Client>() {
+            @Override
+            public Client call() throws Exception {
+                return dao.getClient(sid);
+            }
+        });
+    }
+
+    @Override
+    public Client getClient(final String user) {
+        return clients.get(user, new Callable<Client>() {
+            @Override
+            public Client call() throws Exception {
+                return dao.getClient(user);
+            }
+        });
+    }
+
+    @Override
+    public List<Client> getClients(final Sid accountSid) {
+        return dao.getClients(accountSid);
+    }
+
+    @Override
+    public void removeClient(final Sid sid) {
+        dao.removeClient(sid);
+        clients.invalidateAll();
+    }
+
+    @Override
+    public void removeClients(final Sid accountSid) {
+        dao.removeClients(accountSid);
+        clients.invalidateAll();
+    }
+
+    @Override
+    public void updateClient(final Client client) {
+        dao.updateClient(client);
+        clients.invalidateAll();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.dao.IncomingPhoneNumbersDao;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumber;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumberFilter;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Caches the phone number lookups done when routing incoming calls and messages. Any write invalidates the whole cache.
+ * <p>
+ * Although {@link IncomingPhoneNumber} is annotated as immutable, its setters change the instance in place, and the
+ * REST API uses them on the numbers it looks up by sid before updating them. Sharing those instances would let a
+ * pending edit leak into the routing of other calls. Only the lookups by value are cached, because the call routing
+ * path never modifies the numbers it gets. Lookups by sid go straight to the data store.
+ */
+@ThreadSafe
+public final class CachingIncomingPhoneNumbersDao implements IncomingPhoneNumbersDao {
+    private final IncomingPhoneNumbersDao dao;
+    private final DaoCache<String, IncomingPhoneNumber> numbers;
+
+    public CachingIncomingPhoneNumbersDao(final IncomingPhoneNumbersDao dao, final long maxEntries, final long ttl) {
+        super();
+        this.dao = dao;
+        this.numbers = new DaoCache<String, IncomingPhoneNumber>(maxEntries, ttl);
+    }
+
+    @Override
+    public void addIncomingPhoneNumber(final IncomingPhoneNumber incomingPhoneNumber) {
+        dao.addIncomingPhoneNumber(incomingPhoneNumber);
+        numbers.invalidateAll();
+    }
+
+    @Override
+    public IncomingPhoneNumber getIncomingPhoneNumber(final Sid sid) {
+        return dao.getIncomingPhoneNumber(sid);
+    }
+
+    @Override
+    public List<IncomingPhoneNumber> getIncomingPhoneNumbers(final Sid accountSid) {
+        return dao.getIncomingPhoneNumbers(accountSid);
+    }
+
+    @Override
+    public List<IncomingPhoneNumber> getIncomingPhoneNumbersByFilter(final IncomingPhoneNumberFilter filter) {
+        return dao.getIncomingPhoneNumbersByFilter(filter);
+    }
+
+    @Override
+    public IncomingPhoneNumber getIncomingPhoneNumber(final String phoneNumber) {
+        return numbers.get(phoneNumber, new Callable<IncomingPhoneNumber>() {
+            @Override
+            public IncomingPhoneNumber call() throws Exception {
+                return dao.getIncomingPhoneNumber(phoneNumber);
+            }
+        });
+    }
+
+    @Override
+    public void removeIncomingPhoneNumber(final Sid sid) {
+        dao.removeIncomingPhoneNumber(sid);
+        numbers.invalidateAll();
+    }
+
+    @Override
+    public void removeIncomingPhoneNumbers(final Sid accountSid) {
+        dao.removeIncomingPhoneNumbers(accountSid);
+        numbers.invalidateAll();
+    }
+
+    @Override
+    public void updateIncomingPhoneNumber(final IncomingPhoneNumber incomingPhoneNumber) {
+        dao.updateIncomingPhoneNumber(incomingPhoneNumber);
+        numbers.invalidateAll();
+    }
+}
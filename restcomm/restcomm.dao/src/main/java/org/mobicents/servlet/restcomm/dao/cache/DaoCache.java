@@ -0,0 +1,81 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded, time limited cache of DAO lookups. Misses are cached as well so that repeated lookups of keys that are not in
+ * the data store (for example a caller that is not a registered client) do not hit the database every time.
+ */
+@ThreadSafe
+final class DaoCache<K, V> {
+    private final Cache<K, Optional<V>> cache;
+
+    DaoCache(final long maxEntries, final long ttl) {
+        super();
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl, TimeUnit.SECONDS).build();
+    }
+
+    V get(final K key, final Callable<V> loader) {
+        if (key == null) {
+            return call(loader);
+        }
+        try {
+            return cache.get(key, new Callable<Optional<V>>() {
+                @Override
+                public Optional<V> call() throws Exception {
+                    return Optional.fromNullable(loader.call());
+                }
+            }).orNull();
+        } catch (final ExecutionException exception) {
+            throw new RuntimeException(exception.getCause());
+        } catch (final UncheckedExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw exception;
+        }
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private V call(final Callable<V> loader) {
+        try {
+            return loader.call();
+        } catch (final RuntimeException exception) {
+            throw exception;
+        } catch (final Exception exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.dao.NotificationsDao;
+import org.mobicents.servlet.restcomm.entities.Notification;
+import org.mobicents.servlet.restcomm.entities.PageToken;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Writes the notifications to the data store behind the callers. The notifications are queued in memory and written
+ * every flush interval in JDBC batches. A call that keeps failing raises the same error again and again, only the first
+ * notification of the call with the same account, log level, error code and request URL is kept within the duplicate
+ * window. Every call keeps its own notification so the notifications of a call can still be listed, only the e-mailed
+ * digests group an error across calls.
+ *
+ * Notifications are not journaled, the ones still queued when RestComm crashes are lost. The reads and the removals
+ * write the queued notifications first.
+ */
+@ThreadSafe
+public final class BufferedNotificationsDao extends WriteBehind implements NotificationsDao {
+    private static final Logger logger = Logger.getLogger(BufferedNotificationsDao.class);
+
+    private final MybatisNotificationsDao dao;
+    private final long duplicateWindow;
+    private final int maxPending;
+    // Guards the queue, the duplicate window and the counters.
+    private final Object lock;
+    private List<Notification> pending;
+    // When the kept notification of each call and error was added.
+    private final Map<String, Long> recent;
+    private int duplicates;
+    private int dropped;
+
+    /**
+     * @param duplicateWindow How long in milliseconds the same error is not written again, 0 to keep every notification.
+     * @param maxPending The maximum number of queued notifications, the next ones are dropped.
+     */
+    public BufferedNotificationsDao(final MybatisNotificationsDao dao, final long flushInterval, final int batchSize,
+            final long duplicateWindow, final int maxPending) {
+        super("notifications", flushInterval, batchSize);
+        this.dao = dao;
+        this.duplicateWindow = duplicateWindow;
+        this.maxPending = maxPending;
+        this.lock = new Object();
+        this.pending = new ArrayList<Notification>();
+        this.recent = new HashMap<String, Long>();
+    }
+
+    /**
+     * Starts writing to the data store in the background.
+     */
+    public void start() {
+        schedule();
+    }
+
+    /**
+     * Writes the queued notifications and stops writing in the background.
+     */
+    public void shutdown() {
+        cancel();
+        flush();
+    }
+
+    @Override
+    protected boolean write() {
+        final List<Notification> notifications;
+        final int duplicates;
+        final int dropped;
+        synchronized (lock) {
+            notifications = pending;
+            pending = new ArrayList<Notification>();
+            duplicates = this.duplicates;
+            dropped = this.dropped;
+            this.duplicates = 0;
+            this.dropped = 0;
+            final long now = System.currentTimeMillis();
+            final Iterator<Long> added = recent.values().iterator();
+            while (added.hasNext()) {
+                if (now - added.next() >= duplicateWindow) {
+                    added.remove();
+                }
+            }
+        }
+        if (duplicates > 0) {
+            logger.info("Did not write " + duplicates + " notifications repeating an error already notified");
+        }
+        if (dropped > 0) {
+            logger.warn("Dropped " + dropped + " notifications, more than " + maxPending + " were waiting to be written");
+        }
+        if (notifications.isEmpty()) {
+            return true;
+        }
+        try {
+            dao.addNotifications(notifications, batchSize);
+            return true;
+        } catch (final PersistenceException exception) {
+            logger.warn("Could not write " + notifications.size() + " notifications, retrying in " + flushInterval
+                    + "ms: " + exception.getMessage());
+            synchronized (lock) {
+                // Keep the order, the notifications queued in the meantime are the newest.
+                notifications.addAll(pending);
+                final int excess = notifications.size() - maxPending;
+                if (excess > 0) {
+                    notifications.subList(0, excess).clear();
+                    this.dropped += excess;
+                }
+                pending = notifications;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void addNotification(final Notification notification) {
+        synchronized (lock) {
+            if (duplicateWindow > 0) {
+                final String key = notification.getCallSid() + " " + notification.getErrorKey();
+                final long now = System.currentTimeMillis();
+                final Long added = recent.get(key);
+                if (added != null && now - added < duplicateWindow) {
+                    duplicates++;
+                    return;
+                }
+                recent.put(key, now);
+            }
+            if (pending.size() >= maxPending) {
+                dropped++;
+                return;
+            }
+            pending.add(notification);
+        }
+    }
+
+    @Override
+    public Notification getNotification(final Sid sid) {
+        synchronized (lock) {
+            for (final Notification notification : pending) {
+                if (notification.getSid().equals(sid)) {
+                    return notification;
+                }
+            }
+        }
+        return dao.getNotification(sid);
+    }
+
+    @Override
+    public List<Notification> getNotifications(final Sid accountSid) {
+        flush();
+        return dao.getNotifications(accountSid);
+    }
+
+    @Override
+    public List<Notification> getNotifications(final Sid accountSid, final PageToken after, final int limit) {
+        flush();
+        return dao.getNotifications(accountSid, after, limit);
+    }
+
+    @Override
+    public List<Notification> getNotificationsByCall(final Sid callSid) {
+        flush();
+        return dao.getNotificationsByCall(callSid);
+    }
+
+    @Override
+    public List<Notification> getNotificationsByLogLevel(final int logLevel) {
+        flush();
+        return dao.getNotificationsByLogLevel(logLevel);
+    }
+
+    @Override
+    public List<Notification> getNotificationsByMessageDate(final DateTime messageDate) {
+        flush();
+        return dao.getNotificationsByMessageDate(messageDate);
+    }
+
+    @Override
+    public void removeNotification(final Sid sid) {
+        flush();
+        dao.removeNotification(sid);
+    }
+
+    @Override
+    public void removeNotifications(final Sid accountSid) {
+        flush();
+        dao.removeNotifications(accountSid);
+    }
+
+    @Override
+    public void removeNotificationsByCall(final Sid callSid) {
+        flush();
+        dao.removeNotificationsByCall(callSid);
+    }
+}
@@ -0,0 +1,666 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
+import org.mobicents.servlet.restcomm.dao.RecordHandler;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecordFilter;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Keeps the state of the calls in memory and writes it to the data store behind the callers. A call changes its record
+ * many times while it is set up and torn down, each change only replaces the state held in memory and the records that
+ * changed are written every flush interval in JDBC batches. A call costs one or two writes instead of one round trip
+ * per state change on the signaling path.
+ *
+ * Every change is appended to a local journal before it returns. The journal is cut in segments that are deleted once
+ * the changes they hold are in the data store, the changes left over by a crash of RestComm are written after the next
+ * {@link #start()}. The journal is handed to the operating system but not synced to the disk, the last changes are lost
+ * when the host crashes. A record the data store rejects is moved to the rejected file of the journal directory.
+ *
+ * Reading a single record is served from memory. The listings by recipient, sender, status, start time and parent call
+ * apply the changes held in memory to the records read from the data store. The reads of an account, which page and
+ * count in the data store, write the pending changes of that account first. The removals write every pending change.
+ */
+@ThreadSafe
+public final class CallDetailRecordJournal extends WriteBehind implements CallDetailRecordsDao {
+    private static final Logger logger = Logger.getLogger(CallDetailRecordJournal.class);
+    private static final String SEGMENT = ".journal";
+    private static final String REJECTED = "rejected";
+    private static final byte RECORD = 1;
+    // The records of calls that never reach a final state are forgotten once written and idle for that long.
+    private static final long IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    private final MybatisCallDetailRecordsDao dao;
+    private final File directory;
+    // Guards the entries and the journal segments.
+    private final Object lock;
+    private final Map<Sid, Entry> entries;
+    private final List<File> segments;
+    private long sequence;
+    private File segment;
+    private DataOutputStream journal;
+
+    /**
+     * @param directory Where the journal segments are kept.
+     */
+    public CallDetailRecordJournal(final MybatisCallDetailRecordsDao dao, final File directory, final long flushInterval,
+            final int batchSize) {
+        super("call detail records", flushInterval, batchSize);
+        this.dao = dao;
+        this.directory = directory;
+        this.lock = new Object();
+        this.entries = new HashMap<Sid, Entry>();
+        this.segments = new ArrayList<File>();
+    }
+
+    /**
+     * Replays the segments left over by the previous run and starts writing to the data store in the background.
+     */
+    public void start() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Can not create the call detail records journal directory "
+                    + directory.getAbsolutePath());
+        }
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                return file.getName().endsWith(SEGMENT);
+            }
+        });
+        final List<File> previous = (files == null) ? new ArrayList<File>() : Arrays.asList(files);
+        // The names are zero padded sequence numbers.
+        Collections.sort(previous);
+        final Map<Sid, CallDetailRecord> recovered = new LinkedHashMap<Sid, CallDetailRecord>();
+        for (final File file : previous) {
+            read(file, recovered);
+            final String name = file.getName();
+            sequence = Math.max(sequence, Long.parseLong(name.substring(0, name.length() - SEGMENT.length())));
+        }
+        synchronized (lock) {
+            roll();
+            // Whether the recovered records made it to the data store is not known.
+            for (final CallDetailRecord cdr : recovered.values()) {
+                append(cdr);
+                change(cdr, null);
+            }
+            if (journal == null) {
+                // Keep the previous segments, the recovered records are not in the new one.
+                segments.addAll(previous);
+            } else {
+                for (final File file : previous) {
+                    delete(file);
+                }
+            }
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered " + recovered.size() + " call detail records from the journal in "
+                    + directory.getAbsolutePath());
+        }
+        schedule();
+    }
+
+    /**
+     * Writes the pending changes and closes the journal.
+     */
+    public void shutdown() {
+        cancel();
+        final boolean written = flush();
+        synchronized (lock) {
+            IOUtils.closeQuietly(journal);
+            journal = null;
+            if (written && segment != null) {
+                delete(segment);
+            }
+        }
+    }
+
+    // Writes the records that changed since the previous flush.
+    @Override
+    protected boolean write() {
+        return flush(null);
+    }
+
+    /**
+     * @param accountSid Only the changes of this account are written when not null, the journal segments are then kept
+     *        until the next flush of every account.
+     */
+    private boolean flush(final String accountSid) {
+        synchronized (flushing) {
+            final List<Pending> pending = new ArrayList<Pending>();
+            final List<File> retired;
+            synchronized (lock) {
+                for (final Entry entry : entries.values()) {
+                    if (entry.version != entry.written
+                            && (accountSid == null || accountSid.equals(String.valueOf(entry.cdr.getAccountSid())))) {
+                        pending.add(new Pending(entry));
+                    }
+                }
+                if (accountSid != null) {
+                    retired = Collections.emptyList();
+                } else {
+                    if (!pending.isEmpty()) {
+                        // The next changes go to a new segment so that the current one can be deleted after the write.
+                        roll();
+                    }
+                    retired = new ArrayList<File>(segments);
+                }
+            }
+            boolean written = true;
+            if (!pending.isEmpty()) {
+                final long start = System.currentTimeMillis();
+                try {
+                    resolve(pending);
+                    written = write(pending);
+                } catch (final PersistenceException exception) {
+                    logger.warn("Could not write " + pending.size() + " call detail records, retrying in "
+                            + flushInterval + "ms: " + exception.getMessage());
+                    written = false;
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Wrote " + pending.size() + " call detail records in "
+                            + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+            synchronized (lock) {
+                final long now = System.currentTimeMillis();
+                for (final Pending change : pending) {
+                    final Entry entry = change.entry;
+                    if (entry.stored == null) {
+                        entry.stored = change.stored;
+                    }
+                    if (change.written) {
+                        entry.stored = Boolean.TRUE;
+                        entry.written = change.version;
+                    } else if (change.rejected && entry.version == change.version) {
+                        // Forget the change, the next change of the call is written again.
+                        entry.written = change.version;
+                    }
+                }
+                final Iterator<Entry> iterator = entries.values().iterator();
+                while (iterator.hasNext()) {
+                    final Entry entry = iterator.next();
+                    if (entry.version == entry.written
+                            && (UsageRollups.isFinal(entry.cdr.getStatus()) || now - entry.touched > IDLE_TIMEOUT)) {
+                        iterator.remove();
+                    }
+                }
+                if (written) {
+                    for (final File file : retired) {
+                        delete(file);
+                    }
+                    segments.removeAll(retired);
+                }
+            }
+            return written;
+        }
+    }
+
+    @Override
+    public void addCallDetailRecord(final CallDetailRecord cdr) {
+        synchronized (lock) {
+            append(cdr);
+            change(cdr, Boolean.FALSE);
+        }
+    }
+
+    @Override
+    public void updateCallDetailRecord(final CallDetailRecord cdr) {
+        synchronized (lock) {
+            append(cdr);
+            change(cdr, null);
+        }
+    }
+
+    @Override
+    public CallDetailRecord getCallDetailRecord(final Sid sid) {
+        synchronized (lock) {
+            final Entry entry = entries.get(sid);
+            if (entry != null) {
+                return entry.cdr;
+            }
+        }
+        return dao.getCallDetailRecord(sid);
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecords(final Sid accountSid) {
+        flush(accountSid.toString());
+        return dao.getCallDetailRecords(accountSid);
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByRecipient(final String recipient) {
+        return merge(dao.getCallDetailRecordsByRecipient(recipient), new Predicate<CallDetailRecord>() {
+            @Override
+            public boolean apply(final CallDetailRecord cdr) {
+                return recipient.equals(cdr.getTo());
+            }
+        });
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsBySender(final String sender) {
+        return merge(dao.getCallDetailRecordsBySender(sender), new Predicate<CallDetailRecord>() {
+            @Override
+            public boolean apply(final CallDetailRecord cdr) {
+                return sender.equals(cdr.getFrom());
+            }
+        });
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByStatus(final String status) {
+        return merge(dao.getCallDetailRecordsByStatus(status), new Predicate<CallDetailRecord>() {
+            @Override
+            public boolean apply(final CallDetailRecord cdr) {
+                return status.equals(cdr.getStatus());
+            }
+        });
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByStartTime(final DateTime startTime) {
+        final DateTime end = startTime.plusDays(1);
+        return merge(dao.getCallDetailRecordsByStartTime(startTime), new Predicate<CallDetailRecord>() {
+            @Override
+            public boolean apply(final CallDetailRecord cdr) {
+                final DateTime start = cdr.getStartTime();
+                return start != null && !start.isBefore(startTime) && start.isBefore(end);
+            }
+        });
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByParentCall(final Sid parentCallSid) {
+        return merge(dao.getCallDetailRecordsByParentCall(parentCallSid), new Predicate<CallDetailRecord>() {
+            @Override
+            public boolean apply(final CallDetailRecord cdr) {
+                return parentCallSid.equals(cdr.getParentCallSid());
+            }
+        });
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecords(final CallDetailRecordFilter filter) {
+        flush(filter.getSid());
+        return dao.getCallDetailRecords(filter);
+    }
+
+    @Override
+    public Integer getTotalCallDetailRecords(final CallDetailRecordFilter filter) {
+        flush(filter.getSid());
+        return dao.getTotalCallDetailRecords(filter);
+    }
+
+    @Override
+    public void exportCallDetailRecords(final Sid accountSid, final DateTime start, final DateTime end,
+            final RecordHandler<CallDetailRecord> handler) {
+        flush(accountSid.toString());
+        dao.exportCallDetailRecords(accountSid, start, end, handler);
+    }
+
+    @Override
+    public void removeCallDetailRecord(final Sid sid) {
+        flush();
+        synchronized (lock) {
+            entries.remove(sid);
+        }
+        dao.removeCallDetailRecord(sid);
+    }
+
+    @Override
+    public void removeCallDetailRecords(final Sid accountSid) {
+        flush();
+        synchronized (lock) {
+            final Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (accountSid.equals(iterator.next().cdr.getAccountSid())) {
+                    iterator.remove();
+                }
+            }
+        }
+        dao.removeCallDetailRecords(accountSid);
+    }
+
+    // The records read from the data store with the state held in memory, the records that match only in memory included.
+    private List<CallDetailRecord> merge(final List<CallDetailRecord> stored, final Predicate<CallDetailRecord> matches) {
+        final Map<Sid, CallDetailRecord> records = new LinkedHashMap<Sid, CallDetailRecord>();
+        for (final CallDetailRecord cdr : stored) {
+            records.put(cdr.getSid(), cdr);
+        }
+        synchronized (lock) {
+            for (final Entry entry : entries.values()) {
+                if (matches.apply(entry.cdr)) {
+                    records.put(entry.cdr.getSid(), entry.cdr);
+                } else {
+                    records.remove(entry.cdr.getSid());
+                }
+            }
+        }
+        return new ArrayList<CallDetailRecord>(records.values());
+    }
+
+    // Must hold the lock.
+    private void change(final CallDetailRecord cdr, final Boolean stored) {
+        Entry entry = entries.get(cdr.getSid());
+        if (entry == null) {
+            entry = new Entry();
+            entry.stored = stored;
+            entries.put(cdr.getSid(), entry);
+        }
+        entry.cdr = cdr;
+        entry.version++;
+        entry.touched = System.currentTimeMillis();
+    }
+
+    // Looks up the records whose presence in the data store is not known yet.
+    private void resolve(final List<Pending> pending) {
+        for (final Pending change : pending) {
+            if (change.stored == null) {
+                change.stored = (dao.getCallDetailRecord(change.cdr.getSid()) != null);
+            }
+        }
+    }
+
+    private boolean write(final List<Pending> pending) {
+        try {
+            write(pending, batchSize);
+            return true;
+        } catch (final PersistenceException exception) {
+            if (pending.size() == 1) {
+                throw exception;
+            }
+        }
+        // Write the records one at a time so that a record the data store rejects does not hold back the others.
+        final List<Pending> rejected = new ArrayList<Pending>();
+        PersistenceException failure = null;
+        for (final Pending change : pending) {
+            try {
+                write(Collections.singletonList(change), 1);
+            } catch (final PersistenceException exception) {
+                rejected.add(change);
+                failure = exception;
+            }
+        }
+        if (rejected.size() == pending.size()) {
+            // Most likely the data store is not available.
+            throw failure;
+        }
+        for (final Pending change : rejected) {
+            reject(change.cdr, failure);
+            change.rejected = true;
+        }
+        return true;
+    }
+
+    // Keeps a record the data store does not take out of the segments, so that it does not hold them back.
+    private void reject(final CallDetailRecord cdr, final PersistenceException failure) {
+        final File file = new File(directory, REJECTED);
+        logger.error("Moving the call detail record " + cdr.getSid() + " rejected by the data store to "
+                + file.getAbsolutePath(), failure);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            out.writeByte(RECORD);
+            write(out, cdr);
+        } catch (final IOException exception) {
+            logger.error("Can not write the rejected call detail record " + cdr.getSid() + " to "
+                    + file.getAbsolutePath(), exception);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private void write(final List<Pending> pending, final int batchSize) {
+        final List<CallDetailRecord> added = new ArrayList<CallDetailRecord>();
+        final List<CallDetailRecord> updated = new ArrayList<CallDetailRecord>();
+        for (final Pending change : pending) {
+            if (change.stored) {
+                updated.add(change.cdr);
+            } else {
+                added.add(change.cdr);
+            }
+        }
+        // The data store tells which updates bring a call to a final state, a replayed change is not counted again.
+        dao.writeCallDetailRecords(added, updated, batchSize);
+        for (final Pending change : pending) {
+            change.written = true;
+        }
+    }
+
+    // Must hold the lock.
+    private void roll() {
+        IOUtils.closeQuietly(journal);
+        journal = null;
+        if (segment != null) {
+            segments.add(segment);
+        }
+        segment = new File(directory, String.format("%020d", ++sequence) + SEGMENT);
+        try {
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segment, true)));
+        } catch (final IOException exception) {
+            logger.error("Can not open the call detail records journal " + segment.getAbsolutePath()
+                    + ", changes are only kept in memory until the next flush", exception);
+            segment = null;
+        }
+    }
+
+    // Must hold the lock.
+    private void append(final CallDetailRecord cdr) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.writeByte(RECORD);
+            write(journal, cdr);
+            // Hand the change to the operating system so that it survives a crash of RestComm.
+            journal.flush();
+        } catch (final IOException exception) {
+            logger.error("Can not write to the call detail records journal " + segment.getAbsolutePath()
+                    + ", changes are only kept in memory until the next flush", exception);
+            IOUtils.closeQuietly(journal);
+            journal = null;
+        }
+    }
+
+    private static void write(final DataOutputStream out, final CallDetailRecord cdr) throws IOException {
+        write(out, cdr.getSid());
+        write(out, cdr.getParentCallSid());
+        write(out, cdr.getDateCreated());
+        write(out, cdr.getDateUpdated());
+        write(out, cdr.getAccountSid());
+        write(out, cdr.getTo());
+        write(out, cdr.getFrom());
+        write(out, cdr.getPhoneNumberSid());
+        write(out, cdr.getStatus());
+        write(out, cdr.getStartTime());
+        write(out, cdr.getEndTime());
+        write(out, cdr.getDuration());
+        write(out, cdr.getPrice());
+        write(out, cdr.getPriceUnit());
+        write(out, cdr.getDirection());
+        write(out, cdr.getAnsweredBy());
+        write(out, cdr.getApiVersion());
+        write(out, cdr.getForwardedFrom());
+        write(out, cdr.getCallerName());
+        write(out, cdr.getUri());
+        write(out, cdr.getCallPath());
+        write(out, cdr.getRingDuration());
+    }
+
+    private static void write(final DataOutputStream out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeUTF((value instanceof DateTime) ? Long.toString(((DateTime) value).getMillis()) : value.toString());
+        }
+    }
+
+    private static void read(final File file, final Map<Sid, CallDetailRecord> records) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            while (true) {
+                final byte type;
+                try {
+                    type = in.readByte();
+                } catch (final EOFException exception) {
+                    break;
+                }
+                if (type != RECORD) {
+                    logger.warn("Ignoring the unreadable end of the call detail records journal " + file.getAbsolutePath());
+                    break;
+                }
+                final CallDetailRecord cdr;
+                try {
+                    cdr = read(in);
+                } catch (final EOFException exception) {
+                    logger.warn("Ignoring the incomplete last change of the call detail records journal "
+                            + file.getAbsolutePath());
+                    break;
+                }
+                records.put(cdr.getSid(), cdr);
+            }
+        } catch (final IOException exception) {
+            logger.error("Can not read the call detail records journal " + file.getAbsolutePath(), exception);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private static CallDetailRecord read(final DataInputStream in) throws IOException {
+        final Sid sid = readSid(in);
+        final Sid parentCallSid = readSid(in);
+        final DateTime dateCreated = readDateTime(in);
+        final DateTime dateUpdated = readDateTime(in);
+        final Sid accountSid = readSid(in);
+        final String to = readString(in);
+        final String from = readString(in);
+        final Sid phoneNumberSid = readSid(in);
+        final String status = readString(in);
+        final DateTime startTime = readDateTime(in);
+        final DateTime endTime = readDateTime(in);
+        final Integer duration = readInteger(in);
+        final String price = readString(in);
+        final String priceUnit = readString(in);
+        final String direction = readString(in);
+        final String answeredBy = readString(in);
+        final String apiVersion = readString(in);
+        final String forwardedFrom = readString(in);
+        final String callerName = readString(in);
+        final String uri = readString(in);
+        final String callPath = readString(in);
+        final Integer ringDuration = readInteger(in);
+        return new CallDetailRecord(sid, parentCallSid, dateCreated, dateUpdated, accountSid, to, from, phoneNumberSid,
+                status, startTime, endTime, duration, (price == null) ? null : new BigDecimal(price),
+                (priceUnit == null) ? null : Currency.getInstance(priceUnit), direction, answeredBy, apiVersion,
+                forwardedFrom, callerName, (uri == null) ? null : URI.create(uri), callPath, ringDuration);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static Sid readSid(final DataInputStream in) throws IOException {
+        final String value = readString(in);
+        return (value == null) ? null : new Sid(value);
+    }
+
+    private static DateTime readDateTime(final DataInputStream in) throws IOException {
+        final String value = readString(in);
+        return (value == null) ? null : new DateTime(Long.parseLong(value));
+    }
+
+    private static Integer readInteger(final DataInputStream in) throws IOException {
+        final String value = readString(in);
+        return (value == null) ? null : Integer.valueOf(value);
+    }
+
+    private static void delete(final File file) {
+        if (file.exists() && !file.delete()) {
+            logger.warn("Can not delete the call detail records journal " + file.getAbsolutePath());
+        }
+    }
+
+    // Guarded by the lock.
+    @NotThreadSafe
+    private static final class Entry {
+        private CallDetailRecord cdr;
+        private long version;
+        // The version in the data store.
+        private long written;
+        // Whether the record is in the data store, null when not known.
+        private Boolean stored;
+        private long touched;
+    }
+
+    // A change being written, only used by the flushing thread.
+    @NotThreadSafe
+    private static final class Pending {
+        private final Entry entry;
+        private final CallDetailRecord cdr;
+        private final long version;
+        private Boolean stored;
+        private boolean written;
+        private boolean rejected;
+
+        private Pending(final Entry entry) {
+            super();
+            this.entry = entry;
+            this.cdr = entry.cdr;
+            this.version = entry.version;
+            this.stored = entry.stored;
+        }
+    }
+}
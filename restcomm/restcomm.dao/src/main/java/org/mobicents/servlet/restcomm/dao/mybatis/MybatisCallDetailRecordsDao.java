@@ -20,13 +20,16 @@
 package org.mobicents.servlet.restcomm.dao.mybatis;
 
 import java.math.BigDecimal;
-import java.net.URI;
 import java.util.ArrayList;
-import java.util.Currency;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.joda.time.DateTime;
@@ -34,9 +37,11 @@ import org.joda.time.DateTime;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.*;
 
 import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
+import org.mobicents.servlet.restcomm.dao.RecordHandler;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecordFilter;
 import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.entities.Usage;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
 /**
@@ -57,6 +62,9 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
         final SqlSession session = sessions.openSession();
         try {
             session.insert(namespace + "addCallDetailRecord", toMap(cdr));
+            if (UsageRollups.isFinal(cdr.getStatus())) {
+                addUsage(session, cdr);
+            }
             session.commit();
         } finally {
             session.close();
@@ -67,12 +75,7 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
     public CallDetailRecord getCallDetailRecord(final Sid sid) {
         final SqlSession session = sessions.openSession();
         try {
-            final Map<String, Object> result = session.selectOne(namespace + "getCallDetailRecord", sid.toString());
-            if (result != null) {
-                return toCallDetailRecord(result);
-            } else {
-                return null;
-            }
+            return session.selectOne(namespace + "getCallDetailRecord", sid.toString());
         } finally {
             session.close();
         }
@@ -100,16 +103,26 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
         final SqlSession session = sessions.openSession();
 
         try {
-            final List<Map<String, Object>> results = session.selectList(namespace + "getCallDetailRecordByUsingFilters",
-                    filter);
-            final List<CallDetailRecord> cdrs = new ArrayList<CallDetailRecord>();
+            return session.selectList(namespace + "getCallDetailRecordByUsingFilters", filter);
+        } finally {
+            session.close();
+        }
+    }
 
-            if (results != null && !results.isEmpty()) {
-                for (final Map<String, Object> result : results) {
-                    cdrs.add(toCallDetailRecord(result));
+    @Override
+    public void exportCallDetailRecords(final Sid accountSid, final DateTime start, final DateTime end,
+            final RecordHandler<CallDetailRecord> handler) {
+        final SqlSession session = sessions.openSession();
+        try {
+            // The rows are read through a forward only cursor and dropped once handled.
+            session.select(namespace + "exportCallDetailRecords", writePeriod(accountSid, start, end), new ResultHandler() {
+                @Override
+                public void handleResult(final ResultContext context) {
+                    if (!handler.handle((CallDetailRecord) context.getResultObject())) {
+                        context.stop();
+                    }
                 }
-            }
-            return cdrs;
+            });
         } finally {
             session.close();
         }
@@ -148,14 +161,7 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
     private List<CallDetailRecord> getCallDetailRecords(final String selector, Object input) {
         final SqlSession session = sessions.openSession();
         try {
-            final List<Map<String, Object>> results = session.selectList(selector, input);
-            final List<CallDetailRecord> cdrs = new ArrayList<CallDetailRecord>();
-            if (results != null && !results.isEmpty()) {
-                for (final Map<String, Object> result : results) {
-                    cdrs.add(toCallDetailRecord(result));
-                }
-            }
-            return cdrs;
+            return session.selectList(selector, input);
         } finally {
             session.close();
         }
@@ -168,7 +174,14 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
 
     @Override
     public void removeCallDetailRecords(final Sid accountSid) {
-        removeCallDetailRecords(namespace + "removeCallDetailRecords", accountSid);
+        final SqlSession session = sessions.openSession();
+        try {
+            session.delete(namespace + "removeCallDetailRecords", accountSid.toString());
+            UsageRollups.remove(session, accountSid, Usage.Category.CALLS);
+            session.commit();
+        } finally {
+            session.close();
+        }
     }
 
     private void removeCallDetailRecords(final String selector, final Sid sid) {
@@ -185,39 +198,130 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
     public void updateCallDetailRecord(final CallDetailRecord cdr) {
         final SqlSession session = sessions.openSession();
         try {
-            session.update(namespace + "updateCallDetailRecord", toMap(cdr));
+            final Map<String, Object> map = toMap(cdr);
+            // Only the update that brings the call to a final state adds it to the usage, even when racing another.
+            if (!UsageRollups.isFinal(cdr.getStatus())) {
+                session.update(namespace + "updateCallDetailRecord", map);
+            } else if (session.update(namespace + "completeCallDetailRecord", map) == 1) {
+                addUsage(session, cdr);
+            } else {
+                updateCompleted(session, cdr);
+            }
             session.commit();
         } finally {
             session.close();
         }
     }
 
-    private CallDetailRecord toCallDetailRecord(final Map<String, Object> map) {
-        final Sid sid = readSid(map.get("sid"));
-        final Sid parentCallSid = readSid(map.get("parent_call_sid"));
-        final DateTime dateCreated = readDateTime(map.get("date_created"));
-        final DateTime dateUpdated = readDateTime(map.get("date_updated"));
-        final Sid accountSid = readSid(map.get("account_sid"));
-        final String to = readString(map.get("recipient"));
-        final String from = readString(map.get("sender"));
-        final Sid phoneNumberSid = readSid(map.get("phone_number_sid"));
-        final String status = readString(map.get("status"));
-        final DateTime startTime = readDateTime(map.get("start_time"));
-        final DateTime endTime = readDateTime(map.get("end_time"));
-        final Integer duration = readInteger(map.get("duration"));
-        final Integer ringDuration = readInteger(map.get("ring_duration"));
-        final BigDecimal price = readBigDecimal(map.get("price"));
-        final Currency priceUnit = readCurrency(map.get("price_unit"));
-        final String direction = readString(map.get("direction"));
-        final String answeredBy = readString(map.get("answered_by"));
-        final String apiVersion = readString(map.get("api_version"));
-        final String forwardedFrom = readString(map.get("forwarded_from"));
-        final String callerName = readString(map.get("caller_name"));
-        final URI uri = readUri(map.get("uri"));
-        final String callPath = readString(map.get("call_path"));
-        return new CallDetailRecord(sid, parentCallSid, dateCreated, dateUpdated, accountSid, to, from, phoneNumberSid, status,
-                startTime, endTime, duration, price, priceUnit, direction, answeredBy, apiVersion, forwardedFrom, callerName,
-                uri, callPath, ringDuration);
+    /**
+     * Writes the records in JDBC batches of at most batchSize statements, in one transaction. The updates to a final
+     * state go through completeCallDetailRecord and only the rows it changed are added to the usage, a record already
+     * in a final state in the data store is not counted again. The driver must report the update count of every
+     * statement of a batch.
+     *
+     * @param added The records to insert.
+     * @param updated The records to update.
+     */
+    void writeCallDetailRecords(final Collection<CallDetailRecord> added, final Collection<CallDetailRecord> updated,
+            final int batchSize) {
+        final SqlSession session = sessions.openSession(ExecutorType.BATCH);
+        try {
+            final List<CallDetailRecord> usage = new ArrayList<CallDetailRecord>();
+            final List<BatchResult> results = new ArrayList<BatchResult>();
+            int pending = 0;
+            for (final CallDetailRecord cdr : added) {
+                session.insert(namespace + "addCallDetailRecord", toMap(cdr));
+                if (UsageRollups.isFinal(cdr.getStatus())) {
+                    usage.add(cdr);
+                }
+                if (++pending >= batchSize) {
+                    results.addAll(session.flushStatements());
+                    pending = 0;
+                }
+            }
+            final Map<String, CallDetailRecord> completing = new HashMap<String, CallDetailRecord>();
+            for (final CallDetailRecord cdr : updated) {
+                if (UsageRollups.isFinal(cdr.getStatus())) {
+                    completing.put(cdr.getSid().toString(), cdr);
+                    session.update(namespace + "completeCallDetailRecord", toMap(cdr));
+                } else {
+                    session.update(namespace + "updateCallDetailRecord", toMap(cdr));
+                }
+                if (++pending >= batchSize) {
+                    results.addAll(session.flushStatements());
+                    pending = 0;
+                }
+            }
+            results.addAll(session.flushStatements());
+            pending = 0;
+            final List<CallDetailRecord> unchanged = new ArrayList<CallDetailRecord>();
+            for (final BatchResult result : results) {
+                if (!result.getMappedStatement().getId().equals(namespace + "completeCallDetailRecord")) {
+                    continue;
+                }
+                final int[] counts = result.getUpdateCounts();
+                final List<Object> parameters = result.getParameterObjects();
+                for (int index = 0; index < counts.length; index++) {
+                    final Object sid = ((Map<?, ?>) parameters.get(index)).get("sid");
+                    final CallDetailRecord cdr = completing.get(sid);
+                    if (counts[index] == 1) {
+                        usage.add(cdr);
+                    } else {
+                        unchanged.add(cdr);
+                    }
+                }
+            }
+            for (final CallDetailRecord cdr : unchanged) {
+                // Already in a final state, the update did not change the row.
+                updateCompleted(session, cdr);
+                pending += 3;
+                if (pending >= batchSize) {
+                    session.flushStatements();
+                    pending = 0;
+                }
+            }
+            for (final CallDetailRecord cdr : usage) {
+                // One statement for the hourly bucket and one for the daily bucket.
+                addUsage(session, cdr);
+                pending += 2;
+                if (pending >= batchSize) {
+                    session.flushStatements();
+                    pending = 0;
+                }
+            }
+            session.commit();
+        } finally {
+            session.close();
+        }
+    }
+
+    // Updates a call counted in the usage already, a change of its duration or price is applied to the usage.
+    private void updateCompleted(final SqlSession session, final CallDetailRecord cdr) {
+        final CallDetailRecord stored = session.selectOne(namespace + "getCallDetailRecord", cdr.getSid().toString());
+        session.update(namespace + "updateCallDetailRecord", toMap(cdr));
+        if (stored == null) {
+            return;
+        }
+        final long duration = value(cdr.getDuration()) - value(stored.getDuration());
+        final BigDecimal price = value(cdr.getPrice()).subtract(value(stored.getPrice()));
+        if (duration != 0 || price.signum() != 0) {
+            UsageRollups.adjust(session, stored.getAccountSid(), Usage.Category.CALLS, stored.getApiVersion(),
+                    stored.getDateCreated(), duration, price);
+        }
+    }
+
+    private static long value(final Integer duration) {
+        return (duration == null) ? 0 : duration;
+    }
+
+    private static BigDecimal value(final BigDecimal price) {
+        return (price == null) ? BigDecimal.ZERO : price;
+    }
+
+    private void addUsage(final SqlSession session, final CallDetailRecord cdr) {
+        final long duration = (cdr.getDuration() == null) ? 0 : cdr.getDuration();
+        UsageRollups.add(session, cdr.getAccountSid(), Usage.Category.CALLS, cdr.getApiVersion(), cdr.getDateCreated(),
+                duration, cdr.getPrice());
     }
 
     private Map<String, Object> toMap(final CallDetailRecord cdr) {
@@ -19,9 +19,11 @@
  */
 package org.mobicents.servlet.restcomm.dao.mybatis;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.Reader;
+import java.net.URI;
 import java.util.Properties;
 
 import org.apache.commons.configuration.Configuration;
@@ -46,7 +48,12 @@ import org.mobicents.servlet.restcomm.dao.ShortCodesDao;
 import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
 import org.mobicents.servlet.restcomm.dao.TranscriptionsDao;
 import org.mobicents.servlet.restcomm.dao.UsageDao;
+import org.mobicents.servlet.restcomm.dao.cache.CachingAccountsDao;
+import org.mobicents.servlet.restcomm.dao.cache.CachingApplicationsDao;
+import org.mobicents.servlet.restcomm.dao.cache.CachingClientsDao;
+import org.mobicents.servlet.restcomm.dao.cache.CachingIncomingPhoneNumbersDao;
 import org.mobicents.servlet.restcomm.amazonS3.S3AccessTool;
+import org.mobicents.servlet.restcomm.amazonS3.S3UploadQueue;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
 /**
@@ -58,6 +65,9 @@ public final class MybatisDaoManager implements DaoManager {
     private Configuration amazonS3Configuration;
     private Configuration runtimeConfiguration;
     private S3AccessTool s3AccessTool;
+    private S3UploadQueue s3UploadQueue;
+    private CallDetailRecordJournal callDetailRecordJournal;
+    private BufferedNotificationsDao bufferedNotificationsDao;
     private AccountsDao accountsDao;
     private ApplicationsDao applicationsDao;
     private AvailablePhoneNumbersDao availablePhoneNumbersDao;
@@ -180,7 +190,15 @@ public final class MybatisDaoManager implements DaoManager {
 
     @Override
     public void shutdown() {
-        // Nothing to do.
+        if (callDetailRecordJournal != null) {
+            callDetailRecordJournal.shutdown();
+        }
+        if (bufferedNotificationsDao != null) {
+            bufferedNotificationsDao.shutdown();
+        }
+        if (s3UploadQueue != null) {
+            s3UploadQueue.shutdown();
+        }
     }
 
     @Override
@@ -212,7 +230,11 @@ public final class MybatisDaoManager implements DaoManager {
                 final boolean reducedRedundancy = amazonS3Configuration.getBoolean("reduced-redundancy");
                 final int daysToRetainPublicUrl = amazonS3Configuration.getInt("days-to-retain-public-url");
                 final boolean removeOriginalFile = amazonS3Configuration.getBoolean("remove-original-file");
-                s3AccessTool = new S3AccessTool(accessKey, securityKey, bucketName, folder, reducedRedundancy, daysToRetainPublicUrl, removeOriginalFile);
+                final String endpoint = amazonS3Configuration.getString("endpoint", null);
+                final long multipartThreshold = amazonS3Configuration.getLong("multipart-threshold",
+                        S3AccessTool.DEFAULT_MULTIPART_THRESHOLD);
+                s3AccessTool = new S3AccessTool(accessKey, securityKey, bucketName, folder, reducedRedundancy,
+                        daysToRetainPublicUrl, removeOriginalFile, endpoint, multipartThreshold);
             }
         }
         start(sessions);
@@ -224,24 +246,72 @@ public final class MybatisDaoManager implements DaoManager {
         applicationsDao = new MybatisApplicationsDao(sessions);
         announcementsDao = new MybatisAnnouncementsDao(sessions);
         availablePhoneNumbersDao = new MybatisAvailablePhoneNumbersDao(sessions);
-        callDetailRecordsDao = new MybatisCallDetailRecordsDao(sessions);
+        final MybatisCallDetailRecordsDao mybatisCallDetailRecordsDao = new MybatisCallDetailRecordsDao(sessions);
+        callDetailRecordsDao = mybatisCallDetailRecordsDao;
         clientsDao = new MybatisClientsDao(sessions);
         httpCookiesDao = new MybatisHttpCookiesDao(sessions);
         incomingPhoneNumbersDao = new MybatisIncomingPhoneNumbersDao(sessions);
-        notificationsDao = new MybatisNotificationsDao(sessions);
+        final MybatisNotificationsDao mybatisNotificationsDao = new MybatisNotificationsDao(sessions);
+        notificationsDao = mybatisNotificationsDao;
+        // Write the notifications behind the calls, without the errors repeated by every call of a failing application.
+        final Configuration notificationsConfiguration = (configuration == null) ? null : configuration
+                .subset("notifications");
+        if (notificationsConfiguration != null && notificationsConfiguration.getBoolean("enabled", false)) {
+            bufferedNotificationsDao = new BufferedNotificationsDao(mybatisNotificationsDao,
+                    notificationsConfiguration.getLong("flush-interval", 1000), notificationsConfiguration.getInt(
+                            "batch-size", 500), notificationsConfiguration.getLong("duplicate-window", 60) * 1000,
+                    notificationsConfiguration.getInt("max-pending", 10000));
+            bufferedNotificationsDao.start();
+            notificationsDao = bufferedNotificationsDao;
+        }
         outgoingCallerIdsDao = new MybatisOutgoingCallerIdsDao(sessions);
         presenceRecordsDao = new MybatisRegistrationsDao(sessions);
         if (s3AccessTool != null) {
             final String recordingPath = runtimeConfiguration.getString("recordings-path");
-            recordingsDao = new MybatisRecordingsDao(sessions, s3AccessTool, recordingPath);
+            // Pending uploads are kept next to the recordings so that they survive a restart.
+            final String spool = amazonS3Configuration.getString("upload-spool", null);
+            final File spoolDirectory = (spool == null || spool.isEmpty()) ? new File(new File(URI.create(recordingPath)),
+                    ".s3-uploads") : new File(spool);
+            s3UploadQueue = new S3UploadQueue(s3AccessTool, spoolDirectory, amazonS3Configuration.getInt("upload-threads", 4),
+                    amazonS3Configuration.getInt("upload-max-attempts", 10),
+                    amazonS3Configuration.getLong("upload-retry-delay", 5000),
+                    amazonS3Configuration.getLong("upload-max-retry-delay", 600000));
+            final MybatisRecordingsDao mybatisRecordingsDao = new MybatisRecordingsDao(sessions, s3UploadQueue,
+                    recordingPath);
+            s3UploadQueue.start(mybatisRecordingsDao.getUploadListener());
+            recordingsDao = mybatisRecordingsDao;
         } else {
             recordingsDao = new MybatisRecordingsDao(sessions);
         }
         shortCodesDao = new MybatisShortCodesDao(sessions);
         smsMessagesDao = new MybatisSmsMessagesDao(sessions);
         usageDao = new MybatisUsageDao(sessions);
+        // Build the usage rollups from the records stored before they existed.
+        UsageRollups.backfill(sessions);
+        // Write the call detail records behind the calls, only once the usage rollups are built.
+        final Configuration journalConfiguration = (configuration == null) ? null : configuration
+                .subset("call-detail-records-journal");
+        if (journalConfiguration != null && journalConfiguration.getBoolean("enabled", false)) {
+            final String directory = journalConfiguration.getString("directory", null);
+            final File journalDirectory = (directory == null || directory.isEmpty()) ? new File(new File(
+                    configuration.getString("data-files")).getParentFile(), "cdr-journal") : new File(directory);
+            callDetailRecordJournal = new CallDetailRecordJournal(mybatisCallDetailRecordsDao, journalDirectory,
+                    journalConfiguration.getLong("flush-interval", 1000), journalConfiguration.getInt("batch-size", 500));
+            callDetailRecordJournal.start();
+            callDetailRecordsDao = callDetailRecordJournal;
+        }
         transcriptionsDao = new MybatisTranscriptionsDao(sessions);
         gatewaysDao = new MybatisGatewaysDao(sessions);
         instanceIdDao = new MybatisInstanceIdDao(sessions);
+        // Cache the lookups done on the call setup path.
+        final Configuration cacheConfiguration = (configuration == null) ? null : configuration.subset("cache");
+        if (cacheConfiguration != null && cacheConfiguration.getBoolean("enabled", false)) {
+            final long maxEntries = cacheConfiguration.getLong("max-entries", 10000);
+            final long ttl = cacheConfiguration.getLong("ttl", 60);
+            accountsDao = new CachingAccountsDao(accountsDao, maxEntries, ttl);
+            applicationsDao = new CachingApplicationsDao(applicationsDao, maxEntries, ttl);
+            clientsDao = new CachingClientsDao(clientsDao, maxEntries, ttl);
+            incomingPhoneNumbersDao = new CachingIncomingPhoneNumbersDao(incomingPhoneNumbersDao, maxEntries, ttl);
+        }
     }
 }
@@ -21,10 +21,12 @@ package org.mobicents.servlet.restcomm.dao.mybatis;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
@@ -33,6 +35,7 @@ import org.joda.time.DateTime;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.*;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
 import org.mobicents.servlet.restcomm.entities.Notification;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
@@ -60,6 +63,26 @@ public final class MybatisNotificationsDao implements NotificationsDao {
         }
     }
 
+    /**
+     * Inserts the notifications in JDBC batches of at most batchSize statements, in one transaction.
+     */
+    void addNotifications(final Collection<Notification> notifications, final int batchSize) {
+        final SqlSession session = sessions.openSession(ExecutorType.BATCH);
+        try {
+            int pending = 0;
+            for (final Notification notification : notifications) {
+                session.insert(namespace + "addNotification", toMap(notification));
+                if (++pending >= batchSize) {
+                    session.flushStatements();
+                    pending = 0;
+                }
+            }
+            session.commit();
+        } finally {
+            session.close();
+        }
+    }
+
     @Override
     public Notification getNotification(final Sid sid) {
         final SqlSession session = sessions.openSession();
@@ -80,6 +103,11 @@ public final class MybatisNotificationsDao implements NotificationsDao {
         return getNotifications(namespace + "getNotifications", accountSid.toString());
     }
 
+    @Override
+    public List<Notification> getNotifications(final Sid accountSid, final PageToken after, final int limit) {
+        return getNotifications(namespace + "getNotificationsPage", writePage(accountSid, after, limit));
+    }
+
     @Override
     public List<Notification> getNotificationsByCall(final Sid callSid) {
         return getNotifications(namespace + "getNotificationsByCall", callSid.toString());
@@ -25,9 +25,12 @@ import static org.mobicents.servlet.restcomm.dao.DaoUtils.readSid;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.readString;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.readUri;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.writeDateTime;
+import static org.mobicents.servlet.restcomm.dao.DaoUtils.writePage;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.writeSid;
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.writeUri;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -37,10 +40,12 @@ import java.util.Map;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
-import org.mobicents.servlet.restcomm.amazonS3.S3AccessTool;
+import org.mobicents.servlet.restcomm.amazonS3.S3UploadQueue;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 import org.mobicents.servlet.restcomm.dao.RecordingsDao;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Recording;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.util.UriUtils;
@@ -50,9 +55,10 @@ import org.mobicents.servlet.restcomm.util.UriUtils;
  */
 @ThreadSafe
 public final class MybatisRecordingsDao implements RecordingsDao {
+    private static Logger logger = Logger.getLogger(MybatisRecordingsDao.class);
     private static final String namespace = "org.mobicents.servlet.sip.restcomm.dao.RecordingsDao.";
     private final SqlSessionFactory sessions;
-    private S3AccessTool s3AccessTool;
+    private S3UploadQueue uploads;
     private String recordingPath;
 
     public MybatisRecordingsDao(final SqlSessionFactory sessions) {
@@ -60,26 +66,63 @@ public final class MybatisRecordingsDao implements RecordingsDao {
         this.sessions = sessions;
     }
 
-    public MybatisRecordingsDao(final SqlSessionFactory sessions, final S3AccessTool s3AccessTool, final String recordingPath) {
+    /**
+     * Recordings are stored with their local URI and uploaded to S3 in the background, the file URI is replaced with
+     * the S3 URI once the upload completed. The queue must be started with {@link #getUploadListener()}.
+     */
+    public MybatisRecordingsDao(final SqlSessionFactory sessions, final S3UploadQueue uploads, final String recordingPath) {
         super();
         this.sessions = sessions;
-        this.s3AccessTool = s3AccessTool;
+        this.uploads = uploads;
         this.recordingPath = recordingPath;
     }
 
+    /**
+     * @return The listener that stores the S3 URI of the uploaded recordings. It throws an exception when the URI could
+     *         not be stored so that the queue keeps the local file and tries again.
+     */
+    S3UploadQueue.Listener getUploadListener() {
+        return new S3UploadQueue.Listener() {
+            @Override
+            public void uploaded(final String id, final URI uri) {
+                updateFileUri(new Sid(id), uri);
+            }
+
+            @Override
+            public void failed(final String id, final File file) {
+                logger.error("Recording " + id + " could not be uploaded to S3, it is served from " + file.getAbsolutePath());
+            }
+        };
+    }
+
     @Override
     public void addRecording(Recording recording) {
-        if (s3AccessTool != null) {
-            URI s3Uri = s3AccessTool.uploadFile(recordingPath+"/"+recording.getSid().toString()+".wav");
-            if (s3Uri != null) {
-                recording = recording.updateFileUri(s3Uri);
+        recording = recording.updateFileUri(generateLocalFileUri("/restcomm/recordings/" + recording.getSid()));
+        final SqlSession session = sessions.openSession();
+        try {
+            session.insert(namespace + "addRecording", toMap(recording));
+            session.commit();
+        } finally {
+            session.close();
+        }
+        if (uploads != null) {
+            final String sid = recording.getSid().toString();
+            try {
+                uploads.enqueue(sid, new File(URI.create(recordingPath + "/" + sid + ".wav")));
+            } catch (final IOException exception) {
+                logger.error("Could not queue the S3 upload of recording " + sid, exception);
             }
-        } else {
-            recording = recording.updateFileUri(generateLocalFileUri("/restcomm/recordings/" + recording.getSid()));
         }
+    }
+
+    private void updateFileUri(final Sid sid, final URI fileUri) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("sid", writeSid(sid));
+        map.put("date_updated", writeDateTime(DateTime.now()));
+        map.put("file_uri", writeUri(fileUri));
         final SqlSession session = sessions.openSession();
         try {
-            session.insert(namespace + "addRecording", toMap(recording));
+            session.update(namespace + "updateRecordingFileUri", map);
             session.commit();
         } finally {
             session.close();
@@ -138,9 +181,18 @@ public final class MybatisRecordingsDao implements RecordingsDao {
 
     @Override
     public List<Recording> getRecordings(final Sid accountSid) {
+        return getRecordings(namespace + "getRecordings", accountSid.toString());
+    }
+
+    @Override
+    public List<Recording> getRecordings(final Sid accountSid, final PageToken after, final int limit) {
+        return getRecordings(namespace + "getRecordingsPage", writePage(accountSid, after, limit));
+    }
+
+    private List<Recording> getRecordings(final String selector, final Object input) {
         final SqlSession session = sessions.openSession();
         try {
-            final List<Map<String, Object>> results = session.selectList(namespace + "getRecordings", accountSid.toString());
+            final List<Map<String, Object>> results = session.selectList(selector, input);
             final List<Recording> recordings = new ArrayList<Recording>();
             if (results != null && !results.isEmpty()) {
                 for (final Map<String, Object> result : results) {
@@ -19,23 +19,24 @@
  */
 package org.mobicents.servlet.restcomm.dao.mybatis;
 
-import java.math.BigDecimal;
-import java.net.URI;
-import java.util.ArrayList;
-import java.util.Currency;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
 import org.joda.time.DateTime;
 
 import static org.mobicents.servlet.restcomm.dao.DaoUtils.*;
+import org.mobicents.servlet.restcomm.dao.RecordHandler;
 import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.entities.SmsMessage;
+import org.mobicents.servlet.restcomm.entities.Usage;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
 /**
@@ -56,6 +57,9 @@ public final class MybatisSmsMessagesDao implements SmsMessagesDao {
         final SqlSession session = sessions.openSession();
         try {
             session.insert(namespace + "addSmsMessage", toMap(smsMessage));
+            if (UsageRollups.isFinal(smsMessage.getStatus())) {
+                addUsage(session, smsMessage);
+            }
             session.commit();
         } finally {
             session.close();
@@ -66,12 +70,7 @@ public final class MybatisSmsMessagesDao implements SmsMessagesDao {
     public SmsMessage getSmsMessage(final Sid sid) {
         final SqlSession session = sessions.openSession();
         try {
-            final Map<String, Object> result = session.selectOne(namespace + "getSmsMessage", sid.toString());
-            if (result != null) {
-                return toSmsMessage(result);
-            } else {
-                return null;
-            }
+            return session.selectOne(namespace + "getSmsMessage", sid.toString());
         } finally {
             session.close();
         }
@@ -79,16 +78,37 @@ public final class MybatisSmsMessagesDao implements SmsMessagesDao {
 
     @Override
     public List<SmsMessage> getSmsMessages(final Sid accountSid) {
+        return getSmsMessages(namespace + "getSmsMessages", accountSid.toString());
+    }
+
+    @Override
+    public List<SmsMessage> getSmsMessages(final Sid accountSid, final PageToken after, final int limit) {
+        return getSmsMessages(namespace + "getSmsMessagesPage", writePage(accountSid, after, limit));
+    }
+
+    @Override
+    public void exportSmsMessages(final Sid accountSid, final DateTime start, final DateTime end,
+            final RecordHandler<SmsMessage> handler) {
         final SqlSession session = sessions.openSession();
         try {
-            final List<Map<String, Object>> results = session.selectList(namespace + "getSmsMessages", accountSid.toString());
-            final List<SmsMessage> smsMessages = new ArrayList<SmsMessage>();
-            if (results != null && !results.isEmpty()) {
-                for (final Map<String, Object> result : results) {
-                    smsMessages.add(toSmsMessage(result));
+            // The rows are read through a forward only cursor and dropped once handled.
+            session.select(namespace + "exportSmsMessages", writePeriod(accountSid, start, end), new ResultHandler() {
+                @Override
+                public void handleResult(final ResultContext context) {
+                    if (!handler.handle((SmsMessage) context.getResultObject())) {
+                        context.stop();
+                    }
                 }
-            }
-            return smsMessages;
+            });
+        } finally {
+            session.close();
+        }
+    }
+
+    private List<SmsMessage> getSmsMessages(final String selector, final Object input) {
+        final SqlSession session = sessions.openSession();
+        try {
+            return session.selectList(selector, input);
         } finally {
             session.close();
         }
@@ -101,7 +121,14 @@ public final class MybatisSmsMessagesDao implements SmsMessagesDao {
 
     @Override
     public void removeSmsMessages(final Sid accountSid) {
-        deleteSmsMessage(namespace + "removeSmsMessages", accountSid);
+        final SqlSession session = sessions.openSession();
+        try {
+            session.delete(namespace + "removeSmsMessages", accountSid.toString());
+            UsageRollups.remove(session, accountSid, Usage.Category.SMS);
+            session.commit();
+        } finally {
+            session.close();
+        }
     }
 
     private void deleteSmsMessage(final String selector, final Sid sid) {
@@ -117,13 +144,24 @@ public final class MybatisSmsMessagesDao implements SmsMessagesDao {
     public void updateSmsMessage(final SmsMessage smsMessage) {
         final SqlSession session = sessions.openSession();
         try {
-            session.update(namespace + "updateSmsMessage", toMap(smsMessage));
+            final Map<String, Object> map = toMap(smsMessage);
+            // Only the update that brings the message to a final state adds it to the usage, even when racing another.
+            if (UsageRollups.isFinal(smsMessage.getStatus()) && session.update(namespace + "completeSmsMessage", map) == 1) {
+                addUsage(session, smsMessage);
+            } else {
+                session.update(namespace + "updateSmsMessage", map);
+            }
             session.commit();
         } finally {
             session.close();
         }
     }
 
+    private void addUsage(final SqlSession session, final SmsMessage smsMessage) {
+        UsageRollups.add(session, smsMessage.getAccountSid(), Usage.Category.SMS, smsMessage.getApiVersion(),
+                smsMessage.getDateCreated(), 1, smsMessage.getPrice());
+    }
+
     private Map<String, Object> toMap(final SmsMessage smsMessage) {
         final Map<String, Object> map = new HashMap<String, Object>();
         map.put("sid", writeSid(smsMessage.getSid()));
@@ -142,23 +180,4 @@ public final class MybatisSmsMessagesDao implements SmsMessagesDao {
         map.put("uri", writeUri(smsMessage.getUri()));
         return map;
     }
-
-    private SmsMessage toSmsMessage(final Map<String, Object> map) {
-        final Sid sid = readSid(map.get("sid"));
-        final DateTime dateCreated = readDateTime(map.get("date_created"));
-        final DateTime dateUpdated = readDateTime(map.get("date_updated"));
-        final DateTime dateSent = readDateTime(map.get("date_sent"));
-        final Sid accountSid = readSid(map.get("account_sid"));
-        final String sender = readString(map.get("sender"));
-        final String recipient = readString(map.get("recipient"));
-        final String body = readString(map.get("body"));
-        final SmsMessage.Status status = SmsMessage.Status.getStatusValue(readString(map.get("status")));
-        final SmsMessage.Direction direction = SmsMessage.Direction.getDirectionValue(readString(map.get("direction")));
-        final BigDecimal price = readBigDecimal(map.get("price"));
-        final Currency priceUnit = readCurrency(map.get("price_unit"));
-        final String apiVersion = readString(map.get("api_version"));
-        final URI uri = readUri(map.get("uri"));
-        return new SmsMessage(sid, dateCreated, dateUpdated, dateSent, accountSid, sender, recipient, body, status, direction,
-                price, priceUnit, apiVersion, uri);
-    }
 }
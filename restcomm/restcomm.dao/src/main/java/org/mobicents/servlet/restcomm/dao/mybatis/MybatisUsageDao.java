@@ -124,16 +124,17 @@ public final class MybatisUsageDao implements UsageDao {
   }
 
   private Usage toUsageRecord(final Sid accountSid, final Map<String, Object> map) {
-    final Usage.Category category = Usage.Category.CALLS;
-    final String description = "Total Calls";
+    final Usage.Category category = Usage.Category.getCategoryValue(readString(map.get("category")));
+    final boolean sms = Usage.Category.SMS == category;
+    final String description = sms ? "Total SMS Messages" : "Total Calls";
     final DateTime startDate = DateTimeFormat.forPattern("yyyyy-MM-dd").parseDateTime(map.get("start_date").toString());
     final DateTime endDate = DateTimeFormat.forPattern("yyyyy-MM-dd").parseDateTime(map.get("end_date").toString());
 
     final Long usage = readLong(map.get("usage"));
-    final String usageUnit = "minutes";
+    final String usageUnit = sms ? "messages" : "minutes";
 
     final Long count = readLong(map.get("count"));
-    final String countUnit = "calls";
+    final String countUnit = sms ? "messages" : "calls";
 
     /* FIXME: readBigDecimal should take Double instead of String ? */
     final BigDecimal price = readBigDecimal(map.get("price").toString());
@@ -148,17 +149,6 @@ public final class MybatisUsageDao implements UsageDao {
     // FIXME: handle no category, meaning all
     if (category == null) category = Usage.Category.CALLS;
     switch (category) {
-      case CALLS:
-      case CALLS_INBOUND:
-      case CALLS_INBOUND_LOCAL:
-      case CALLS_INBOUND_TOLLFREE:
-      case CALLS_OUTBOUND:
-      case CALLS_CLIENT:
-      case CALLS_SIP:
-        params.put("tableName", "restcomm_call_detail_records");
-//        params.put("usageExpr", "CAST(COALESCE(SUM(\"duration\"),0) AS SIGNED)");
-      params.put("usageExpr", "COALESCE(SUM(\"duration\"),0)");
-        break;
       case SMS:
       case SMS_INBOUND:
       case SMS_INBOUND_SHORTCODE:
@@ -166,25 +156,10 @@ public final class MybatisUsageDao implements UsageDao {
       case SMS_OUTBOUND:
       case SMS_OUTBOUND_SHORTCODE:
       case SMS_OUTBOUND_LONGCODE:
-        params.put("tableName", "restcomm_sms_messages");
-        params.put("usageExpr", "COUNT(1)");
+        params.put("category", Usage.Category.SMS.toString());
         break;
-      case PHONENUMBERS:
-      case PHONENUMBERS_TOLLFREE:
-      case PHONENUMBERS_LOCAL:
-      case SHORTCODES:
-      case SHORTCODES_VANITY:
-      case SHORTCODES_RANDOM:
-      case SHORTCODES_CUSTOMEROWNED:
-      case CALLERIDLOOKUPS:
-      case RECORDINGS:
-      case TRANSCRIPTIONS:
-      case RECORDINGSTORAGE:
-      case TOTALPRICE:
       default:
-        params.put("tableName", "restcomm_call_detail_records");
-//        params.put("usageExpr", "CAST(COALESCE(SUM(\"duration\"),0) AS SIGNED)");
-      params.put("usageExpr", "COALESCE(SUM(\"duration\"),0)");
+        params.put("category", Usage.Category.CALLS.toString());
         break;
     }
     return params;
@@ -0,0 +1,146 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import static org.mobicents.servlet.restcomm.dao.DaoUtils.writeDateTime;
+import static org.mobicents.servlet.restcomm.dao.DaoUtils.writeSid;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.entities.SmsMessage;
+import org.mobicents.servlet.restcomm.entities.Usage;
+
+/**
+ * Maintains the restcomm_usage_rollups table, the count, usage and price of the calls and SMS messages of every
+ * account summed by hour and by day. A record is added to its buckets once, when it reaches a final state, in the same
+ * transaction as the record itself. A later change of its usage or price is applied to the buckets as a difference. The usage queries read the daily buckets instead of grouping the records.
+ */
+@ThreadSafe
+final class UsageRollups {
+    private static final Logger logger = Logger.getLogger(UsageRollups.class);
+    private static final String namespace = "org.mobicents.servlet.sip.restcomm.dao.UsageDao.";
+    static final String HOUR = "hour";
+    static final String DAY = "day";
+
+    private static final Set<String> finalCallStatuses = new HashSet<String>(Arrays.asList("canceled", "busy",
+            "not-found", "failed", "no-answer", "completed"));
+
+    private UsageRollups() {
+        super();
+    }
+
+    static boolean isFinal(final String callStatus) {
+        return callStatus != null && finalCallStatuses.contains(callStatus);
+    }
+
+    static boolean isFinal(final SmsMessage.Status smsStatus) {
+        return SmsMessage.Status.SENT == smsStatus || SmsMessage.Status.FAILED == smsStatus
+                || SmsMessage.Status.RECEIVED == smsStatus;
+    }
+
+    /**
+     * Adds a record to its hourly and daily buckets. The caller commits the session.
+     */
+    static void add(final SqlSession session, final Sid accountSid, final Usage.Category category, final String apiVersion,
+            final DateTime dateCreated, final long usage, final BigDecimal price) {
+        update(session, accountSid, category, apiVersion, dateCreated, 1, usage, price);
+    }
+
+    /**
+     * Applies the change of the usage and price of a record already counted to its buckets. The caller commits the
+     * session.
+     */
+    static void adjust(final SqlSession session, final Sid accountSid, final Usage.Category category,
+            final String apiVersion, final DateTime dateCreated, final long usage, final BigDecimal price) {
+        update(session, accountSid, category, apiVersion, dateCreated, 0, usage, price);
+    }
+
+    private static void update(final SqlSession session, final Sid accountSid, final Usage.Category category,
+            final String apiVersion, final DateTime dateCreated, final int records, final long usage, final BigDecimal price) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("account_sid", writeSid(accountSid));
+        map.put("category", category.toString());
+        map.put("api_version", apiVersion);
+        map.put("records", records);
+        map.put("usage", usage);
+        map.put("price", (price == null) ? BigDecimal.ZERO : price);
+        map.put("granularity", HOUR);
+        map.put("bucket_start", writeDateTime(dateCreated.hourOfDay().roundFloorCopy()));
+        session.update(namespace + "addUsageRollup", map);
+        map.put("granularity", DAY);
+        map.put("bucket_start", writeDateTime(dateCreated.withTimeAtStartOfDay()));
+        session.update(namespace + "addUsageRollup", map);
+    }
+
+    /**
+     * Removes the buckets of an account. The caller commits the session.
+     */
+    static void remove(final SqlSession session, final Sid accountSid, final Usage.Category category) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("account_sid", writeSid(accountSid));
+        map.put("category", category.toString());
+        session.delete(namespace + "removeUsageRollups", map);
+    }
+
+    /**
+     * Builds the buckets from the existing records the first time RestComm runs with the rollup table. Must be called
+     * before any record is added or updated.
+     */
+    static void backfill(final SqlSessionFactory sessions) {
+        final SqlSession session = sessions.openSession();
+        try {
+            final Integer rollups = session.selectOne(namespace + "getUsageRollupsCount");
+            if (rollups != null && rollups > 0) {
+                return;
+            }
+            final long start = System.currentTimeMillis();
+            int buckets = 0;
+            final Map<String, Object> map = new HashMap<String, Object>();
+            for (final String granularity : new String[] { HOUR, DAY }) {
+                map.put("granularity", granularity);
+                buckets += session.insert(namespace + "backfillCallUsageRollups", map);
+                buckets += session.insert(namespace + "backfillSmsUsageRollups", map);
+            }
+            session.commit();
+            if (buckets > 0) {
+                logger.info("Built " + buckets + " usage rollups from the existing records in "
+                        + (System.currentTimeMillis() - start) + "ms");
+            }
+        } catch (final PersistenceException exception) {
+            // Another instance sharing the data store did it first.
+            session.rollback();
+            logger.warn("Could not build the usage rollups from the existing records: " + exception.getMessage());
+        } finally {
+            session.close();
+        }
+    }
+}
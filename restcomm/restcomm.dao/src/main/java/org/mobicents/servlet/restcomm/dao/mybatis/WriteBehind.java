@@ -0,0 +1,105 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * The schedule of a DAO that writes to the data store behind its callers. {@link #write()} runs every flush interval
+ * on a daemon thread, and also when a caller flushes, one write at a time.
+ */
+@ThreadSafe
+abstract class WriteBehind {
+    private static final Logger logger = Logger.getLogger(WriteBehind.class);
+
+    // What is written, for the thread name and the log.
+    private final String name;
+    protected final long flushInterval;
+    protected final int batchSize;
+    // Only one flush at a time.
+    protected final Object flushing;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param flushInterval The delay in milliseconds between two writes to the data store.
+     * @param batchSize The maximum number of statements sent to the data store in one JDBC batch.
+     */
+    WriteBehind(final String name, final long flushInterval, final int batchSize) {
+        super();
+        this.name = name;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.flushing = new Object();
+    }
+
+    /**
+     * Starts writing in the background.
+     */
+    protected final void schedule() {
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "restcomm-" + name.replace(' ', '-'));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (final RuntimeException exception) {
+                    logger.error("Could not write the " + name, exception);
+                }
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops writing in the background, a write in progress completes.
+     */
+    protected final void cancel() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Writes what is pending to the data store.
+     *
+     * @return false if some changes could not be written and are kept for the next flush.
+     */
+    public boolean flush() {
+        synchronized (flushing) {
+            return write();
+        }
+    }
+
+    // Called with the flushing lock held.
+    protected abstract boolean write();
+}
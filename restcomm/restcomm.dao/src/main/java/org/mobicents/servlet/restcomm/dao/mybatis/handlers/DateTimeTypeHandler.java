@@ -0,0 +1,63 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis.handlers;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+@ThreadSafe
+public final class DateTimeTypeHandler extends BaseTypeHandler<DateTime> {
+    public DateTimeTypeHandler() {
+        super();
+    }
+
+    @Override
+    public void setNonNullParameter(final PreparedStatement statement, final int index, final DateTime parameter,
+            final JdbcType type) throws SQLException {
+        statement.setTimestamp(index, new Timestamp(parameter.getMillis()));
+    }
+
+    @Override
+    public DateTime getNullableResult(final ResultSet result, final String column) throws SQLException {
+        return read(result.getTimestamp(column));
+    }
+
+    @Override
+    public DateTime getNullableResult(final ResultSet result, final int index) throws SQLException {
+        return read(result.getTimestamp(index));
+    }
+
+    @Override
+    public DateTime getNullableResult(final CallableStatement statement, final int index) throws SQLException {
+        return read(statement.getTimestamp(index));
+    }
+
+    private DateTime read(final Timestamp timestamp) {
+        return timestamp == null ? null : new DateTime(timestamp.getTime());
+    }
+}
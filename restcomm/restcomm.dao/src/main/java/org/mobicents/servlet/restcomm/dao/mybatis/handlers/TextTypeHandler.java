@@ -0,0 +1,70 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis.handlers;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * Maps a value stored in a character column, the conversion from and to the text is left to the subclasses.
+ */
+@ThreadSafe
+public abstract class TextTypeHandler<T> extends BaseTypeHandler<T> {
+    public TextTypeHandler() {
+        super();
+    }
+
+    protected abstract T read(String text);
+
+    protected String write(final T value) {
+        return value.toString();
+    }
+
+    @Override
+    public void setNonNullParameter(final PreparedStatement statement, final int index, final T parameter,
+            final JdbcType type) throws SQLException {
+        statement.setString(index, write(parameter));
+    }
+
+    @Override
+    public T getNullableResult(final ResultSet result, final String column) throws SQLException {
+        return readNullable(result.getString(column));
+    }
+
+    @Override
+    public T getNullableResult(final ResultSet result, final int index) throws SQLException {
+        return readNullable(result.getString(index));
+    }
+
+    @Override
+    public T getNullableResult(final CallableStatement statement, final int index) throws SQLException {
+        return readNullable(statement.getString(index));
+    }
+
+    private T readNullable(final String text) {
+        return text == null ? null : read(text);
+    }
+}
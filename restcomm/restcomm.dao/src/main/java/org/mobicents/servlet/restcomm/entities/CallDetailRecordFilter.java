@@ -21,10 +21,21 @@ public class CallDetailRecordFilter {
     private final String parentCallSid;
     private final Integer limit;
     private final Integer offset;
+    private final PageToken after;
 
     public CallDetailRecordFilter(String accountSid, String recipient, String sender, String status, String startTime,
             String parentCallSid, Integer limit, Integer offset) throws ParseException {
+        this(accountSid, recipient, sender, status, startTime, parentCallSid, limit, offset, null);
+    }
+
+    /**
+     * @param after When set the records following this position are returned, newest first, and the offset is
+     *        ignored.
+     */
+    public CallDetailRecordFilter(String accountSid, String recipient, String sender, String status, String startTime,
+            String parentCallSid, Integer limit, Integer offset, PageToken after) throws ParseException {
         this.accountSid = accountSid;
+        this.after = after;
 
         // The LIKE keyword uses '%' to match any (including 0) number of characters, and '_' to match exactly one character
         // Add here the '%' keyword so +15126002188 will be the same as 15126002188 and 6002188
@@ -79,4 +90,16 @@ public class CallDetailRecordFilter {
         return offset;
     }
 
+    public PageToken getAfter() {
+        return after;
+    }
+
+    public Date getCursorDate() {
+        return (after == null) ? null : after.getDateCreated().toDate();
+    }
+
+    public String getCursorSid() {
+        return (after == null) ? null : after.getSid().toString();
+    }
+
 }
@@ -25,17 +25,88 @@ import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
+ *
+ * One page of call detail records together with the paging state needed to render it, so that the converters do not
+ * have to keep any per request state.
  */
 @NotThreadSafe
 public final class CallDetailRecordList {
+    /**
+     * The total when the records were not counted, counting is skipped on request because its cost grows with the
+     * size of the listing.
+     */
+    public static final int UNKNOWN_TOTAL = -1;
+
     private final List<CallDetailRecord> cdrs;
+    private final int page;
+    private final int pageSize;
+    private final int total;
+    private final String pathUri;
+    private final PageToken nextPageToken;
+    private final String filters;
 
     public CallDetailRecordList(final List<CallDetailRecord> cdrs) {
+        this(cdrs, 0, Math.max(1, cdrs.size()), cdrs.size(), null);
+    }
+
+    public CallDetailRecordList(final List<CallDetailRecord> cdrs, final int page, final int pageSize, final int total,
+            final String pathUri) {
+        this(cdrs, page, pageSize, total, pathUri, null);
+    }
+
+    /**
+     * @param nextPageToken The position of the last record if there may be a next page, null otherwise.
+     */
+    public CallDetailRecordList(final List<CallDetailRecord> cdrs, final int page, final int pageSize, final int total,
+            final String pathUri, final PageToken nextPageToken) {
+        this(cdrs, page, pageSize, total, pathUri, nextPageToken, "");
+    }
+
+    /**
+     * @param filters The query parameters that filtered the records, encoded and each prefixed with an ampersand, so
+     *        that the page URIs list the same records.
+     */
+    public CallDetailRecordList(final List<CallDetailRecord> cdrs, final int page, final int pageSize, final int total,
+            final String pathUri, final PageToken nextPageToken, final String filters) {
         super();
         this.cdrs = cdrs;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.total = total;
+        this.pathUri = pathUri;
+        this.nextPageToken = nextPageToken;
+        this.filters = filters;
     }
 
     public List<CallDetailRecord> getCallDetailRecords() {
         return cdrs;
     }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public String getPathUri() {
+        return pathUri;
+    }
+
+    public PageToken getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public String getFilters() {
+        return filters;
+    }
+
+    public boolean isTotalKnown() {
+        return total != UNKNOWN_TOTAL;
+    }
 }
@@ -148,6 +148,19 @@ public final class Notification {
         return uri;
     }
 
+    /**
+     * @return The key of the error the notification reports, notifications with the same account, log level, error code
+     *         and request URL have the same key.
+     */
+    public String getErrorKey() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append(accountSid).append(' ');
+        buffer.append(log).append(' ');
+        buffer.append(errorCode).append(' ');
+        buffer.append(requestUrl);
+        return buffer.toString();
+    }
+
     @NotThreadSafe
     public static final class Builder {
         private Sid sid;
@@ -0,0 +1,99 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.entities;
+
+import java.nio.charset.Charset;
+
+import org.apache.shiro.codec.Hex;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+
+/**
+ * The position of the last record of a page in a listing ordered by date_created and sid, both descending. The next
+ * page is read with a keyset condition on these two columns instead of an OFFSET, so its cost does not depend on how
+ * deep in the listing the page is.
+ *
+ * Clients only see the opaque {@link #toString()} form and hand it back unchanged.
+ */
+@Immutable
+public final class PageToken {
+    private static final Charset charset = Charset.forName("UTF-8");
+
+    private final DateTime dateCreated;
+    private final Sid sid;
+
+    public PageToken(final DateTime dateCreated, final Sid sid) {
+        super();
+        this.dateCreated = dateCreated;
+        this.sid = sid;
+    }
+
+    public DateTime getDateCreated() {
+        return dateCreated;
+    }
+
+    public Sid getSid() {
+        return sid;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the token was not produced by {@link #toString()}.
+     */
+    public static PageToken parse(final String token) throws IllegalArgumentException {
+        final String value;
+        try {
+            value = new String(Hex.decode(token), charset);
+        } catch (final RuntimeException exception) {
+            throw new IllegalArgumentException(token + " is an invalid page token.", exception);
+        }
+        final int separator = value.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException(token + " is an invalid page token.");
+        }
+        try {
+            final DateTime dateCreated = new DateTime(Long.parseLong(value.substring(0, separator)));
+            return new PageToken(dateCreated, new Sid(value.substring(separator + 1)));
+        } catch (final NumberFormatException exception) {
+            throw new IllegalArgumentException(token + " is an invalid page token.", exception);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        final PageToken other = (PageToken) object;
+        return dateCreated.getMillis() == other.dateCreated.getMillis() && sid.equals(other.sid);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (dateCreated.getMillis() ^ (dateCreated.getMillis() >>> 32)) + sid.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return Hex.encodeToString((dateCreated.getMillis() + ":" + sid).getBytes(charset));
+    }
+}
@@ -40,14 +40,26 @@ public final class Sid {
     private static final Sid INVALID_SID = new Sid("IN00000000000000000000000000000000");
 
     public Sid(final String id) throws IllegalArgumentException {
+        this(id, true);
+    }
+
+    private Sid(final String id, final boolean validate) throws IllegalArgumentException {
         super();
-        if (pattern.matcher(id).matches()) {
+        if (!validate || pattern.matcher(id).matches()) {
             this.id = id;
         } else {
             throw new IllegalArgumentException(id + " is an INVALID_SID sid value.");
         }
     }
 
+    /**
+     * Creates a sid read back from the database without matching it against the pattern again, the value was a valid sid
+     * when it was written.
+     */
+    public static Sid trusted(final String id) {
+        return new Sid(id, false);
+    }
+
     @Override
     public boolean equals(Object object) {
         if (this == object) {
@@ -19,6 +19,10 @@
  */
 package org.mobicents.servlet.restcomm.entities.shiro;
 
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
@@ -30,20 +34,52 @@ import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
  */
 @ThreadSafe
 public final class CredentialsMatcher extends SimpleCredentialsMatcher {
+    private static final Charset charset = Charset.forName("UTF-8");
+    private static final ThreadLocal<MessageDigest> md5 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("MD5");
+            } catch (final NoSuchAlgorithmException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+    };
+
     public CredentialsMatcher() {
         super();
     }
 
     @Override
     public boolean doCredentialsMatch(final AuthenticationToken token, final AuthenticationInfo info) {
-        final String tokenCredentials = new String((char[]) token.getCredentials());
-        final String accountCredentials = new String((char[]) info.getCredentials());
-
-        if (accountCredentials.equals(tokenCredentials)){
+        final char[] tokenCredentials = (char[]) token.getCredentials();
+        final char[] accountCredentials = (char[]) info.getCredentials();
+        // Either the auth token itself or the password it is the MD5 hash of.
+        if (equals(accountCredentials, tokenCredentials)) {
             return true;
+        } else if (info instanceof HashedAuthenticationInfo) {
+            final byte[] digest = ((HashedAuthenticationInfo) info).getCredentialsDigest();
+            if (digest == null) {
+                return false;
+            }
+            final MessageDigest md5 = CredentialsMatcher.md5.get();
+            md5.reset();
+            return MessageDigest.isEqual(digest, md5.digest(new String(tokenCredentials).getBytes(charset)));
         } else {
-            final String hashedToken = DigestUtils.md5Hex(tokenCredentials);
-            return accountCredentials.equals(hashedToken);
+            final String hashedToken = DigestUtils.md5Hex(new String(tokenCredentials));
+            return new String(accountCredentials).equals(hashedToken);
+        }
+    }
+
+    // Compares in a time that does not depend on where the credentials differ.
+    private static boolean equals(final char[] first, final char[] second) {
+        if (first.length != second.length) {
+            return false;
+        }
+        int difference = 0;
+        for (int index = 0; index < first.length; index++) {
+            difference |= first[index] ^ second[index];
         }
+        return difference == 0;
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.entities.shiro;
+
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+
+/**
+ * The authentication info of an account along with its auth token decoded from hex, null when the auth token is not
+ * an MD5 hash. Lets {@link CredentialsMatcher} compare the digest of a password to it without encoding it first.
+ */
+@NotThreadSafe
+final class HashedAuthenticationInfo extends SimpleAuthenticationInfo {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] credentialsDigest;
+
+    HashedAuthenticationInfo(final Object principal, final char[] credentials, final byte[] credentialsDigest,
+            final String realmName) {
+        super(principal, credentials, realmName);
+        this.credentialsDigest = credentialsDigest;
+    }
+
+    byte[] getCredentialsDigest() {
+        return credentialsDigest;
+    }
+}
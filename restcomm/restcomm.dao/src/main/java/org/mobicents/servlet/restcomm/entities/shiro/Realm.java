@@ -24,46 +24,77 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
-import org.apache.shiro.authc.SimpleAuthenticationInfo;
 import org.apache.shiro.authc.UsernamePasswordToken;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.SimpleAuthorizationInfo;
 import org.apache.shiro.authz.SimpleRole;
 import org.apache.shiro.authz.permission.DomainPermission;
+import org.apache.shiro.codec.Hex;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.subject.PrincipalCollection;
 
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 import org.mobicents.servlet.restcomm.dao.AccountsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.entities.Account;
 import org.mobicents.servlet.restcomm.entities.Sid;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
  */
 @ThreadSafe
 public final class Realm extends AuthorizingRealm {
     private volatile Map<String, SimpleRole> roles;
+    // The accounts looked up by authentication and authorization, by sid and by friendly name. Unknown usernames are
+    // not kept, they would let anyone fill the cache and push the real accounts out.
+    private volatile Cache<String, CachedAccount> accounts;
+    private long cacheMaxEntries = 10000;
+    private long cacheTtl = 60;
 
     public Realm() {
         super();
     }
 
+    /**
+     * Set from shiro.ini, the maximum number of accounts kept in the cache.
+     */
+    public void setCacheMaxEntries(final long cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    /**
+     * Set from shiro.ini, the time in seconds an account is kept in the cache. It bounds how long another RestComm
+     * instance sharing the data store keeps accepting an auth token that was changed, zero disables the cache.
+     */
+    public void setCacheTtl(final long cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Drops the cached accounts, must be called whenever the auth token, status or role of an account changes.
+     */
+    public void invalidate() {
+        final Cache<String, CachedAccount> accounts = this.accounts;
+        if (accounts != null) {
+            accounts.invalidateAll();
+        }
+    }
+
     @Override
     protected AuthorizationInfo doGetAuthorizationInfo(final PrincipalCollection principals) {
-        final Sid sid = new Sid((String) principals.getPrimaryPrincipal());
-        final ShiroResources services = ShiroResources.getInstance();
-        final DaoManager daos = services.get(DaoManager.class);
-        final AccountsDao accounts = daos.getAccountsDao();
-        final Account account = accounts.getAccount(sid);
-        final String roleName = account.getRole();
+        final CachedAccount account = getAccount((String) principals.getPrimaryPrincipal());
+        final String roleName = account.role;
         final Set<String> set = new HashSet<String>();
         set.add(roleName);
         final SimpleAuthorizationInfo authorizationInfo = new SimpleAuthorizationInfo(set);
@@ -78,26 +109,10 @@ public final class Realm extends AuthorizingRealm {
     protected AuthenticationInfo doGetAuthenticationInfo(final AuthenticationToken token) throws AuthenticationException {
         final UsernamePasswordToken authenticationToken = (UsernamePasswordToken) token;
         String username = authenticationToken.getUsername();
-        Sid sid = null;
-        Account account = null;
-        String authToken = null;
-
-        final ShiroResources services = ShiroResources.getInstance();
-        final DaoManager daos = services.get(DaoManager.class);
-        final AccountsDao accounts = daos.getAccountsDao();
-
         try {
-            if (Sid.pattern.matcher(username).matches()) {
-                sid = new Sid(username);
-                account = accounts.getAccount(sid);
-            } else {
-                account = accounts.getAccount(username);
-                sid = account.getSid();
-            }
-
+            final CachedAccount account = getAccount(username);
             if (account != null) {
-                authToken = account.getAuthToken();
-                return new SimpleAuthenticationInfo(sid.toString(), authToken.toCharArray(), getName());
+                return new HashedAuthenticationInfo(account.sid, account.authToken.clone(), account.authTokenDigest, getName());
             } else {
                 return null;
             }
@@ -106,6 +121,52 @@ public final class Realm extends AuthorizingRealm {
         }
     }
 
+    private CachedAccount getAccount(final String username) {
+        if (cacheTtl <= 0) {
+            return load(username);
+        }
+        final Cache<String, CachedAccount> accounts = cache();
+        CachedAccount account = accounts.getIfPresent(username);
+        if (account == null) {
+            account = load(username);
+            if (account != null) {
+                accounts.put(username, account);
+            }
+        }
+        return account;
+    }
+
+    private Cache<String, CachedAccount> cache() {
+        Cache<String, CachedAccount> accounts = this.accounts;
+        if (accounts == null) {
+            synchronized (this) {
+                accounts = this.accounts;
+                if (accounts == null) {
+                    accounts = CacheBuilder.newBuilder().maximumSize(cacheMaxEntries)
+                            .expireAfterWrite(cacheTtl, TimeUnit.SECONDS).build();
+                    this.accounts = accounts;
+                }
+            }
+        }
+        return accounts;
+    }
+
+    private CachedAccount load(final String username) {
+        final ShiroResources services = ShiroResources.getInstance();
+        final DaoManager daos = services.get(DaoManager.class);
+        final AccountsDao accounts = daos.getAccountsDao();
+        final Account account;
+        if (Sid.pattern.matcher(username).matches()) {
+            account = accounts.getAccount(new Sid(username));
+        } else {
+            account = accounts.getAccount(username);
+        }
+        if (account == null) {
+            return null;
+        }
+        return new CachedAccount(account.getSid().toString(), account.getAuthToken(), account.getRole());
+    }
+
     private SimpleRole getRole(final String role) {
         if (roles != null) {
             return roles.get(role);
@@ -150,4 +211,35 @@ public final class Realm extends AuthorizingRealm {
             }
         }
     }
+
+    /**
+     * The part of an account needed to authenticate and authorize its requests. The auth token of an account is
+     * normally the MD5 hash of its password, it is decoded once here instead of on every request.
+     */
+    @Immutable
+    private static final class CachedAccount {
+        private final String sid;
+        private final char[] authToken;
+        private final byte[] authTokenDigest;
+        private final String role;
+
+        private CachedAccount(final String sid, final String authToken, final String role) {
+            super();
+            this.sid = sid;
+            this.authToken = authToken.toCharArray();
+            this.authTokenDigest = decode(authToken);
+            this.role = role;
+        }
+
+        private static byte[] decode(final String authToken) {
+            if (authToken.length() != 32) {
+                return null;
+            }
+            try {
+                return Hex.decode(authToken);
+            } catch (final RuntimeException exception) {
+                return null;
+            }
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.InputStream;
+import java.net.URI;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.dao.ClientsDao;
+import org.mobicents.servlet.restcomm.dao.mybatis.MybatisDaoManager;
+import org.mobicents.servlet.restcomm.entities.Client;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+public final class CachingClientsDaoTest {
+    private static MybatisDaoManager manager;
+
+    public CachingClientsDaoTest() {
+        super();
+    }
+
+    @Before
+    public void before() {
+        final InputStream data = getClass().getResourceAsStream("/mybatis.xml");
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+    }
+
+    @After
+    public void after() {
+        manager.shutdown();
+    }
+
+    @Test
+    public void writesInvalidateCachedLookups() {
+        final ClientsDao clients = new CachingClientsDao(manager.getClientsDao(), 100, 60);
+        // Misses are cached until a client is added.
+        assertNull(clients.getClient("bob"));
+        final Client.Builder builder = Client.builder();
+        final Sid sid = Sid.generate(Sid.Type.CLIENT);
+        builder.setSid(sid);
+        builder.setAccountSid(Sid.generate(Sid.Type.ACCOUNT));
+        builder.setApiVersion("2012-04-24");
+        builder.setFriendlyName("Bob");
+        builder.setLogin("bob");
+        builder.setPassword("1234");
+        builder.setStatus(Client.ENABLED);
+        builder.setVoiceMethod("POST");
+        builder.setVoiceFallbackMethod("POST");
+        builder.setUri(URI.create("http://127.0.0.1:8080/restcomm/clients/bob"));
+        final Client client = builder.build();
+        clients.addClient(client);
+        final Client cached = clients.getClient("bob");
+        assertNotNull(cached);
+        // Reads are served from the cache.
+        assertSame(cached, clients.getClient("bob"));
+        // Updates are visible to the next read.
+        clients.updateClient(cached.setFriendlyName("Robert"));
+        assertEquals("Robert", clients.getClient("bob").getFriendlyName());
+        assertEquals("Robert", clients.getClient(sid).getFriendlyName());
+        clients.removeClient(sid);
+        assertNull(clients.getClient("bob"));
+        assertNull(clients.getClient(sid));
+    }
+}
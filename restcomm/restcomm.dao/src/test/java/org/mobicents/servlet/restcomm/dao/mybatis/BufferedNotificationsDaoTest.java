@@ -0,0 +1,124 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.net.URI;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.entities.Notification;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+public class BufferedNotificationsDaoTest {
+    private static MybatisDaoManager manager;
+    private static MybatisNotificationsDao notifications;
+
+    public BufferedNotificationsDaoTest() {
+        super();
+    }
+
+    @Before
+    public void before() {
+        final InputStream data = getClass().getResourceAsStream("/mybatis.xml");
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        notifications = new MybatisNotificationsDao(factory);
+    }
+
+    @After
+    public void after() {
+        manager.shutdown();
+    }
+
+    private Notification notification(final Sid account, final int error, final String url) {
+        return notification(account, Sid.generate(Sid.Type.CALL), error, url);
+    }
+
+    private Notification notification(final Sid account, final Sid call, final int error, final String url) {
+        final Sid sid = Sid.generate(Sid.Type.NOTIFICATION);
+        final Notification.Builder builder = Notification.builder();
+        builder.setSid(sid);
+        builder.setAccountSid(account);
+        builder.setCallSid(call);
+        builder.setApiVersion("2012-04-24");
+        builder.setLog(0);
+        builder.setErrorCode(error);
+        builder.setMoreInfo(URI.create("http://127.0.0.1:8080/restcomm/errors/" + error + ".html"));
+        builder.setMessageText("Failure");
+        builder.setMessageDate(DateTime.now());
+        builder.setRequestUrl(URI.create(url));
+        builder.setRequestMethod("POST");
+        builder.setRequestVariables("");
+        builder.setUri(URI.create("/2012-04-24/Accounts/" + account + "/Notifications/" + sid + ".json"));
+        return builder.build();
+    }
+
+    @Test
+    public void testBatchedDuplicates() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final Sid call = Sid.generate(Sid.Type.CALL);
+        final BufferedNotificationsDao buffer = new BufferedNotificationsDao(notifications, 3600000, 2, 3600000, 100);
+        final Notification first = notification(account, call, 11200, "http://127.0.0.1/app.xml");
+        buffer.addNotification(first);
+        // The failing call raises the same error again and again.
+        for (int attempt = 0; attempt < 10; attempt++) {
+            buffer.addNotification(notification(account, call, 11200, "http://127.0.0.1/app.xml"));
+        }
+        // Every other call running the failing application keeps its own notification.
+        final Notification second = notification(account, 11200, "http://127.0.0.1/app.xml");
+        buffer.addNotification(second);
+        final Notification other = notification(account, call, 11200, "http://127.0.0.1/other.xml");
+        buffer.addNotification(other);
+        buffer.addNotification(notification(account, call, 12100, "http://127.0.0.1/app.xml"));
+        // Queued notifications are not in the data store yet but can be read.
+        assertNull(notifications.getNotification(first.getSid()));
+        assertEquals(first, buffer.getNotification(first.getSid()));
+        assertTrue(buffer.flush());
+        assertEquals(4, notifications.getNotifications(account).size());
+        assertNotNull(notifications.getNotification(other.getSid()));
+        assertEquals(3, notifications.getNotificationsByCall(call).size());
+        assertEquals(1, notifications.getNotificationsByCall(second.getCallSid()).size());
+        // The error is still within the duplicate window.
+        buffer.addNotification(notification(account, call, 11200, "http://127.0.0.1/app.xml"));
+        assertEquals(4, buffer.getNotifications(account).size());
+        buffer.removeNotifications(account);
+        assertTrue(notifications.getNotifications(account).isEmpty());
+    }
+
+    @Test
+    public void testMaxPending() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final BufferedNotificationsDao buffer = new BufferedNotificationsDao(notifications, 3600000, 500, 0, 2);
+        for (int call = 0; call < 5; call++) {
+            buffer.addNotification(notification(account, 11200, "http://127.0.0.1/app.xml"));
+        }
+        assertEquals(2, buffer.getNotifications(account).size());
+        buffer.removeNotifications(account);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Currency;
+import java.util.List;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.entities.Usage;
+
+public class CallDetailRecordJournalTest {
+    private static MybatisDaoManager manager;
+    private static MybatisCallDetailRecordsDao cdrs;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public CallDetailRecordJournalTest() {
+        super();
+    }
+
+    @Before
+    public void before() {
+        final InputStream data = getClass().getResourceAsStream("/mybatis.xml");
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        cdrs = new MybatisCallDetailRecordsDao(factory);
+    }
+
+    @After
+    public void after() {
+        manager.shutdown();
+    }
+
+    private CallDetailRecord call(final Sid account) {
+        final Sid sid = Sid.generate(Sid.Type.CALL);
+        final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+        builder.setSid(sid);
+        builder.setDateCreated(DateTime.now());
+        builder.setAccountSid(account);
+        builder.setTo("+12223334444");
+        builder.setFrom("+17778889999");
+        builder.setStatus("queued");
+        builder.setPriceUnit(Currency.getInstance("USD"));
+        builder.setDirection("outbound-api");
+        builder.setApiVersion("2012-04-24");
+        builder.setUri(URI.create("2012-04-24/Accounts/" + account + "/Calls/" + sid + ".json"));
+        return builder.build();
+    }
+
+    @Test
+    public void testWriteBehind() {
+        final File directory = folder.newFolder("journal");
+        final CallDetailRecordJournal journal = new CallDetailRecordJournal(cdrs, directory, 3600000, 2);
+        journal.start();
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecord first = call(account);
+        final CallDetailRecord second = call(account);
+        journal.addCallDetailRecord(first);
+        journal.addCallDetailRecord(second);
+        journal.updateCallDetailRecord(first.setStatus("ringing"));
+        journal.updateCallDetailRecord(first.setStatus("in-progress").setStartTime(DateTime.now()));
+        // Nothing is written yet but the latest state is read back.
+        assertNull(cdrs.getCallDetailRecord(first.getSid()));
+        assertEquals("in-progress", journal.getCallDetailRecord(first.getSid()).getStatus());
+        assertTrue(journal.flush());
+        assertEquals("in-progress", cdrs.getCallDetailRecord(first.getSid()).getStatus());
+        assertEquals("queued", cdrs.getCallDetailRecord(second.getSid()).getStatus());
+        // The calls complete, the second one twice.
+        journal.updateCallDetailRecord(first.setStatus("completed").setDuration(30).setPrice(new BigDecimal("0.25")));
+        journal.updateCallDetailRecord(second.setStatus("no-answer"));
+        journal.updateCallDetailRecord(second.setStatus("no-answer").setRingDuration(20));
+        // The listings write the pending changes first.
+        final List<CallDetailRecord> records = journal.getCallDetailRecords(account);
+        assertEquals(2, records.size());
+        assertEquals("completed", cdrs.getCallDetailRecord(first.getSid()).getStatus());
+        assertEquals(Integer.valueOf(20), cdrs.getCallDetailRecord(second.getSid()).getRingDuration());
+        // Every call is counted once in the usage.
+        final DateTime today = DateTime.now().withTimeAtStartOfDay();
+        final List<Usage> usage = manager.getUsageDao().getUsageDaily(account, Usage.Category.CALLS, today, today);
+        assertEquals(1, usage.size());
+        assertEquals(Long.valueOf(2), usage.get(0).getCount());
+        assertEquals(Long.valueOf(30), usage.get(0).getUsage());
+        journal.shutdown();
+        // The written changes are not kept in the journal.
+        assertEquals(0, directory.list().length);
+        cdrs.removeCallDetailRecords(account);
+    }
+
+    @Test
+    public void testReads() {
+        final File directory = folder.newFolder("journal");
+        final CallDetailRecordJournal journal = new CallDetailRecordJournal(cdrs, directory, 3600000, 500);
+        journal.start();
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final Sid other = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecord first = call(account);
+        final CallDetailRecord second = call(other);
+        journal.addCallDetailRecord(first);
+        journal.addCallDetailRecord(second);
+        assertTrue(journal.flush());
+        journal.updateCallDetailRecord(first.setStatus("in-progress"));
+        journal.updateCallDetailRecord(second.setStatus("in-progress"));
+        // The listings by status see the changes held in memory without writing them.
+        assertEquals(2, journal.getCallDetailRecordsByStatus("in-progress").size());
+        assertTrue(journal.getCallDetailRecordsByStatus("queued").isEmpty());
+        assertEquals("queued", cdrs.getCallDetailRecord(first.getSid()).getStatus());
+        // Listing an account only writes the changes of that account.
+        assertEquals("in-progress", journal.getCallDetailRecords(account).get(0).getStatus());
+        assertEquals("queued", cdrs.getCallDetailRecord(second.getSid()).getStatus());
+        assertTrue(journal.flush());
+        assertEquals("in-progress", cdrs.getCallDetailRecord(second.getSid()).getStatus());
+        journal.shutdown();
+        assertEquals(0, directory.list().length);
+        cdrs.removeCallDetailRecords(account);
+        cdrs.removeCallDetailRecords(other);
+    }
+
+    @Test
+    public void testCompletedElsewhere() {
+        final File directory = folder.newFolder("journal");
+        final CallDetailRecordJournal journal = new CallDetailRecordJournal(cdrs, directory, 3600000, 500);
+        journal.start();
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecord first = call(account);
+        journal.addCallDetailRecord(first.setStatus("in-progress"));
+        assertTrue(journal.flush());
+        // Another writer of the data store completes the call before the journal writes its own completion.
+        cdrs.updateCallDetailRecord(first.setStatus("completed").setDuration(10));
+        journal.updateCallDetailRecord(first.setStatus("completed").setDuration(10));
+        assertTrue(journal.flush());
+        final DateTime today = DateTime.now().withTimeAtStartOfDay();
+        final List<Usage> usage = manager.getUsageDao().getUsageDaily(account, Usage.Category.CALLS, today, today);
+        assertEquals(Long.valueOf(1), usage.get(0).getCount());
+        journal.shutdown();
+        cdrs.removeCallDetailRecords(account);
+    }
+
+    @Test
+    public void testRecovery() {
+        final File directory = folder.newFolder("journal");
+        final CallDetailRecordJournal crashed = new CallDetailRecordJournal(cdrs, directory, 3600000, 500);
+        crashed.start();
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecord first = call(account);
+        crashed.addCallDetailRecord(first);
+        crashed.updateCallDetailRecord(first.setStatus("completed").setDuration(10));
+        // Never written, the process stops here.
+        assertNull(cdrs.getCallDetailRecord(first.getSid()));
+        final CallDetailRecordJournal journal = new CallDetailRecordJournal(cdrs, directory, 3600000, 500);
+        journal.start();
+        assertEquals("completed", journal.getCallDetailRecord(first.getSid()).getStatus());
+        assertTrue(journal.flush());
+        final CallDetailRecord recovered = cdrs.getCallDetailRecord(first.getSid());
+        assertEquals("completed", recovered.getStatus());
+        assertEquals(Integer.valueOf(10), recovered.getDuration());
+        assertEquals(first.getUri(), recovered.getUri());
+        // A record already written is updated and not counted again, its new duration is applied to the usage.
+        journal.updateCallDetailRecord(recovered.setDuration(12));
+        assertTrue(journal.flush());
+        final DateTime today = DateTime.now().withTimeAtStartOfDay();
+        final List<Usage> usage = manager.getUsageDao().getUsageDaily(account, Usage.Category.CALLS, today, today);
+        assertEquals(Long.valueOf(1), usage.get(0).getCount());
+        assertEquals(Long.valueOf(12), usage.get(0).getUsage());
+        assertEquals(Integer.valueOf(12), cdrs.getCallDetailRecord(first.getSid()).getDuration());
+        journal.shutdown();
+        cdrs.removeCallDetailRecords(account);
+    }
+}
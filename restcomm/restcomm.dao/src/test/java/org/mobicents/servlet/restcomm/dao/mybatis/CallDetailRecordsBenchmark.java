@@ -0,0 +1,119 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.text.ParseException;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecordFilter;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of reading a page of call detail records from the test database. Run with -prof gc to see the
+ * allocation rate per page.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.mobicents.servlet.restcomm.dao.mybatis.CallDetailRecordsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallDetailRecordsBenchmark {
+    @Param({ "50", "500" })
+    private int limit;
+
+    private MybatisDaoManager manager;
+    private CallDetailRecordsDao cdrs;
+    private Sid account;
+
+    @Setup
+    public void setup() {
+        final SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(getClass().getResourceAsStream("/mybatis.xml"));
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        cdrs = manager.getCallDetailRecordsDao();
+        account = Sid.generate(Sid.Type.ACCOUNT);
+        final DateTime now = DateTime.now();
+        for (int index = 0; index < 1000; index++) {
+            final DateTime date = now.minusSeconds(index);
+            final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+            builder.setSid(Sid.generate(Sid.Type.CALL));
+            builder.setParentCallSid(Sid.generate(Sid.Type.CALL));
+            builder.setDateCreated(date);
+            builder.setAccountSid(account);
+            builder.setTo("+12223334444");
+            builder.setFrom("+17778889999");
+            builder.setPhoneNumberSid(Sid.generate(Sid.Type.PHONE_NUMBER));
+            builder.setStatus("completed");
+            builder.setStartTime(date);
+            builder.setEndTime(date.plusSeconds(30));
+            builder.setDuration(30);
+            builder.setPrice(new BigDecimal("0.05"));
+            builder.setPriceUnit(Currency.getInstance("USD"));
+            builder.setDirection("inbound");
+            builder.setApiVersion("2012-04-24");
+            builder.setCallerName("Alice");
+            builder.setUri(URI.create("/restcomm/2012-04-24/Accounts/" + account + "/Calls/" + index));
+            cdrs.addCallDetailRecord(builder.build().setRingDuration(5));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cdrs.removeCallDetailRecords(account);
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public List<CallDetailRecord> getCallDetailRecords() throws ParseException {
+        return cdrs.getCallDetailRecords(new CallDetailRecordFilter(account.toString(), null, null, null, null, null, limit, 0));
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CallDetailRecordsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
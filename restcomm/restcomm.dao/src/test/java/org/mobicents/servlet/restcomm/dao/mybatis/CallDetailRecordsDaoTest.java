@@ -24,7 +24,9 @@ import static org.junit.Assert.*;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Currency;
+import java.util.List;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -33,7 +35,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
+import org.mobicents.servlet.restcomm.dao.RecordHandler;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecordFilter;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 
 /**
@@ -309,6 +314,120 @@ public class CallDetailRecordsDaoTest {
         assertTrue(cdrs.getCallDetailRecord(sid) == null);
     }
 
+    @Test
+    public void testReadByPageToken() throws Exception {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecordsDao cdrs = manager.getCallDetailRecordsDao();
+        // Two of the calls share the same creation date, the sid breaks the tie.
+        final DateTime now = DateTime.now().withMillisOfSecond(0);
+        final DateTime[] dates = { now.minusMinutes(3), now.minusMinutes(2), now.minusMinutes(2), now.minusMinutes(1),
+                now };
+        final List<Sid> sids = new ArrayList<Sid>();
+        for (final DateTime date : dates) {
+            final Sid sid = Sid.generate(Sid.Type.CALL);
+            final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+            builder.setSid(sid);
+            builder.setDateCreated(date);
+            builder.setAccountSid(account);
+            builder.setTo("+12223334444");
+            builder.setFrom("+17778889999");
+            builder.setStatus("completed");
+            builder.setStartTime(date);
+            builder.setEndTime(date);
+            builder.setDuration(1);
+            builder.setPrice(new BigDecimal("0.00"));
+            builder.setPriceUnit(Currency.getInstance("USD"));
+            builder.setDirection("inbound");
+            builder.setApiVersion("2012-04-24");
+            builder.setUri(URI.create("http://127.0.0.1:8080/restcomm/demos/hello-world.xml"));
+            cdrs.addCallDetailRecord(builder.build());
+            sids.add(sid);
+        }
+        // Walk the pages, newest first.
+        final List<CallDetailRecord> read = new ArrayList<CallDetailRecord>();
+        PageToken after = null;
+        List<CallDetailRecord> page;
+        do {
+            page = cdrs.getCallDetailRecords(new CallDetailRecordFilter(account.toString(), null, null, null, null, null, 2, 0,
+                    after));
+            assertTrue(page.size() <= 2);
+            read.addAll(page);
+            if (!page.isEmpty()) {
+                final CallDetailRecord last = page.get(page.size() - 1);
+                after = new PageToken(last.getDateCreated(), last.getSid());
+            }
+        } while (page.size() == 2);
+        // Validate the results.
+        assertEquals(sids.size(), read.size());
+        assertEquals(sids.get(4), read.get(0).getSid());
+        assertEquals(sids.get(0), read.get(4).getSid());
+        for (int index = 1; index < read.size(); index++) {
+            final CallDetailRecord previous = read.get(index - 1);
+            final CallDetailRecord current = read.get(index);
+            assertFalse(previous.getSid().equals(current.getSid()));
+            assertFalse(current.getDateCreated().isAfter(previous.getDateCreated()));
+        }
+        // The token survives the round trip through its opaque form.
+        assertEquals(after, PageToken.parse(after.toString()));
+        // Delete the CDRs.
+        cdrs.removeCallDetailRecords(account);
+    }
+
+    @Test
+    public void testExport() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecordsDao cdrs = manager.getCallDetailRecordsDao();
+        final DateTime start = new DateTime(2014, 1, 1, 0, 0);
+        final List<Sid> sids = new ArrayList<Sid>();
+        for (int index = 0; index < 5; index++) {
+            final Sid sid = Sid.generate(Sid.Type.CALL);
+            final DateTime date = start.plusHours(index);
+            final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+            builder.setSid(sid);
+            builder.setDateCreated(date);
+            builder.setAccountSid(account);
+            builder.setTo("+12223334444");
+            builder.setFrom("+17778889999");
+            builder.setStatus("completed");
+            builder.setStartTime(date);
+            builder.setEndTime(date);
+            builder.setDuration(1);
+            builder.setPrice(new BigDecimal("0.00"));
+            builder.setPriceUnit(Currency.getInstance("USD"));
+            builder.setDirection("inbound");
+            builder.setApiVersion("2012-04-24");
+            builder.setUri(URI.create("http://127.0.0.1:8080/restcomm/demos/hello-world.xml"));
+            cdrs.addCallDetailRecord(builder.build());
+            sids.add(sid);
+        }
+        // The calls of the period come oldest first, the end of the period is excluded.
+        final List<Sid> exported = new ArrayList<Sid>();
+        final RecordHandler<CallDetailRecord> handler = new RecordHandler<CallDetailRecord>() {
+            @Override
+            public boolean handle(final CallDetailRecord cdr) {
+                exported.add(cdr.getSid());
+                return true;
+            }
+        };
+        cdrs.exportCallDetailRecords(account, start.plusHours(1), start.plusHours(4), handler);
+        assertEquals(sids.subList(1, 4), exported);
+        exported.clear();
+        cdrs.exportCallDetailRecords(account, null, null, handler);
+        assertEquals(sids, exported);
+        // The handler can stop the export.
+        exported.clear();
+        cdrs.exportCallDetailRecords(account, null, null, new RecordHandler<CallDetailRecord>() {
+            @Override
+            public boolean handle(final CallDetailRecord cdr) {
+                exported.add(cdr.getSid());
+                return exported.size() < 2;
+            }
+        });
+        assertEquals(sids.subList(0, 2), exported);
+        // Delete the CDRs.
+        cdrs.removeCallDetailRecords(account);
+    }
+
     public void testReadByParentCall() {
         final Sid sid = Sid.generate(Sid.Type.CALL);
         final Sid account = Sid.generate(Sid.Type.ACCOUNT);
@@ -0,0 +1,238 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.joda.time.DateTime;
+
+/**
+ * An in memory database with the schema of the bundled HSQLDB database and a generated set of call detail records, incoming phone numbers
+ * and usage rollups, used by {@link QueryPlansTest}.
+ *
+ * There is one account for every 100 call detail records and one incoming phone number and one daily rollup for every
+ * 10 call detail records. Every other call is the outbound leg of the call before it.
+ */
+final class QueryPlansDataset {
+    private static final DateTime start = new DateTime(2016, 1, 1, 0, 0);
+    // The test runs from the module directory, the mappers and the schema are the ones RestComm ships.
+    private static final File webInf = new File("../restcomm.application/src/main/webapp/WEB-INF");
+
+    private final int rows;
+    private final int accounts;
+    private PooledDataSource source;
+
+    QueryPlansDataset(final int rows) {
+        super();
+        this.rows = rows;
+        this.accounts = Math.max(1, rows / 100);
+    }
+
+    static String sid(final String prefix, final int index) {
+        return String.format("%s%032x", prefix, index);
+    }
+
+    /**
+     * @return The time of the call detail record created the given number of minutes after the first one.
+     */
+    static Date date(final int minutes) {
+        return start.plusMinutes(minutes).toDate();
+    }
+
+    int getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Creates and fills the database.
+     *
+     * @param mappers The mappers to load, relative to WEB-INF.
+     * @return The MyBatis configuration of the mappers, bound to the database.
+     */
+    Configuration open(final String... mappers) throws Exception {
+        source = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:plans", "sa", "");
+        final Configuration configuration = new Configuration(new Environment("plans", new JdbcTransactionFactory(),
+                source));
+        for (final String mapper : mappers) {
+            final InputStream input = new FileInputStream(new File(webInf, mapper));
+            try {
+                new XMLMapperBuilder(input, configuration, mapper, configuration.getSqlFragments()).parse();
+            } finally {
+                input.close();
+            }
+        }
+        final Connection connection = source.getConnection();
+        try {
+            schema(connection);
+            calls(connection);
+            numbers(connection);
+            rollups(connection);
+            connection.commit();
+        } finally {
+            connection.close();
+        }
+        return configuration;
+    }
+
+    void close() throws Exception {
+        final Connection connection = source.getConnection();
+        try {
+            connection.createStatement().execute("SHUTDOWN");
+        } finally {
+            connection.close();
+        }
+        source.forceCloseAll();
+    }
+
+    // Creates the tables and the indexes of the bundled schema.
+    private void schema(final Connection connection) throws Exception {
+        final BufferedReader script = new BufferedReader(new InputStreamReader(new FileInputStream(new File(webInf,
+                "data/hsql/restcomm.script")), "UTF-8"));
+        final Statement statement = connection.createStatement();
+        try {
+            String line = null;
+            while ((line = script.readLine()) != null) {
+                if (line.startsWith("CREATE MEMORY TABLE \"restcomm_") || line.startsWith("CREATE INDEX ")) {
+                    statement.execute(line);
+                }
+            }
+        } finally {
+            statement.close();
+            script.close();
+        }
+    }
+
+    private Timestamp time(final int minutes) {
+        return new Timestamp(date(minutes).getTime());
+    }
+
+    private void calls(final Connection connection) throws Exception {
+        final PreparedStatement insert = connection.prepareStatement("INSERT INTO \"restcomm_call_detail_records\" "
+                + "(\"sid\", \"parent_call_sid\", \"date_created\", \"date_updated\", \"account_sid\", \"sender\", "
+                + "\"recipient\", \"status\", \"start_time\", \"end_time\", \"duration\", \"price\", \"direction\", \"api_version\", \"uri\") "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        try {
+            for (int index = 0; index < rows; index++) {
+                final String sid = sid("CA", index);
+                final String account = sid("AC", index % accounts);
+                insert.setString(1, sid);
+                // Every other call is the outbound leg of the call before it.
+                insert.setString(2, index % 2 == 0 ? null : sid("CA", index - 1));
+                insert.setTimestamp(3, time(index));
+                insert.setTimestamp(4, time(index + 1));
+                insert.setString(5, account);
+                insert.setString(6, "+1555" + (index % 10000));
+                insert.setString(7, "+1666" + (index % 10000));
+                insert.setString(8, "completed");
+                insert.setTimestamp(9, time(index));
+                insert.setTimestamp(10, time(index + 1));
+                insert.setInt(11, 60);
+                insert.setString(12, "0.01");
+                insert.setString(13, "outbound-api");
+                insert.setString(14, "2012-04-24");
+                insert.setString(15, "/2012-04-24/Accounts/" + account + "/Calls/" + sid);
+                insert.addBatch();
+                if (index % 1000 == 999 || index == rows - 1) {
+                    insert.executeBatch();
+                }
+            }
+        } finally {
+            insert.close();
+        }
+    }
+
+    private void numbers(final Connection connection) throws Exception {
+        final PreparedStatement insert = connection.prepareStatement("INSERT INTO \"restcomm_incoming_phone_numbers\" "
+                + "(\"sid\", \"date_created\", \"date_updated\", \"friendly_name\", \"account_sid\", \"phone_number\", "
+                + "\"api_version\", \"voice_caller_id_lookup\", \"uri\") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        try {
+            for (int index = 0; index < rows / 10; index++) {
+                final String sid = sid("PN", index);
+                final String account = sid("AC", index % accounts);
+                insert.setString(1, sid);
+                insert.setTimestamp(2, time(index));
+                insert.setTimestamp(3, time(index));
+                insert.setString(4, "Number " + index);
+                insert.setString(5, account);
+                insert.setString(6, "+1777" + index);
+                insert.setString(7, "2012-04-24");
+                insert.setBoolean(8, false);
+                insert.setString(9, "/2012-04-24/Accounts/" + account + "/IncomingPhoneNumbers/" + sid);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        } finally {
+            insert.close();
+        }
+    }
+
+    private void rollups(final Connection connection) throws Exception {
+        final PreparedStatement insert = connection.prepareStatement("INSERT INTO \"restcomm_usage_rollups\" "
+                + "(\"account_sid\", \"category\", \"api_version\", \"granularity\", \"bucket_start\", \"records\", "
+                + "\"usage_total\", \"price_total\") VALUES (?, 'calls', '2012-04-24', 'day', ?, 10, 600, 0.1)");
+        try {
+            for (int index = 0; index < rows / 10; index++) {
+                insert.setString(1, sid("AC", index % accounts));
+                insert.setTimestamp(2, time((index / accounts) * 1440));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * @return The plan HSQLDB picks for the statement, one line per table access.
+     */
+    String explain(final String sql) throws Exception {
+        final Connection connection = source.getConnection();
+        try {
+            final PreparedStatement explain = connection.prepareStatement("EXPLAIN PLAN FOR " + sql);
+            try {
+                final ResultSet result = explain.executeQuery();
+                final StringBuilder plan = new StringBuilder();
+                while (result.next()) {
+                    plan.append(result.getString(1)).append("\n");
+                }
+                return plan.toString();
+            } finally {
+                explain.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import static org.junit.Assert.*;
+import static org.mobicents.servlet.restcomm.dao.mybatis.QueryPlansDataset.date;
+import static org.mobicents.servlet.restcomm.dao.mybatis.QueryPlansDataset.sid;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecordFilter;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumberFilter;
+import org.mobicents.servlet.restcomm.entities.PageToken;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+/**
+ * Checks the plan of every statement of the call detail record, incoming phone number and usage mappers of
+ * WEB-INF/sql against a generated dataset, so a statement that stops using an index is caught before it reaches call
+ * setup.
+ *
+ * The dataset has 20000 call detail records by default, run with -Drestcomm.query-plans.rows=5000000 to check the
+ * statements against a production sized table. The latency of the queries is only checked when a budget in
+ * milliseconds is set with -Drestcomm.query-plans.budget, the time taken on a shared build machine says little.
+ */
+public class QueryPlansTest {
+    private static final String CALL_DETAIL_RECORDS = "org.mobicents.servlet.sip.restcomm.dao.CallDetailRecordsDao";
+    private static final String INCOMING_PHONE_NUMBERS = "org.mobicents.servlet.sip.restcomm.dao.IncomingPhoneNumbersDao";
+    private static final String USAGE = "org.mobicents.servlet.sip.restcomm.dao.UsageDao";
+
+    private static final int rows = Integer.getInteger("restcomm.query-plans.rows", 20000);
+    private static final Long budget = Long.getLong("restcomm.query-plans.budget");
+
+    private static QueryPlansDataset dataset;
+    private static Configuration configuration;
+    private static SqlSessionFactory factory;
+
+    public QueryPlansTest() {
+        super();
+    }
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        dataset = new QueryPlansDataset(rows);
+        configuration = dataset.open("sql/call-detail-records.xml", "sql/incoming-phone-numbers.xml", "sql/usage.xml");
+        factory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        dataset.close();
+    }
+
+    // Returns the first restcomm table the plan reads without an index or null.
+    private static String scanned(final String plan) {
+        String table = null;
+        for (final String line : plan.split("\n")) {
+            final String trimmed = line.trim();
+            if (trimmed.startsWith("table=")) {
+                table = trimmed.substring("table=".length());
+            } else if (trimmed.startsWith("access=FULL SCAN") && table != null && table.startsWith("restcomm_")) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the statement reads its table through the index and, for a query, answers within the budget if any.
+     *
+     * @param index The index the statement must use, a prefix is enough for the indexes named by HSQLDB, or null for
+     *        an insert.
+     */
+    private void check(final Set<String> checked, final String id, final Object parameter, final String index)
+            throws Exception {
+        final MappedStatement statement = configuration.getMappedStatement(id);
+        final BoundSql bound = statement.getBoundSql(parameter);
+        final String sql = bound.getSql().trim().replaceAll(";$", "");
+        final String plan = dataset.explain(sql);
+        assertNull(id + " scans a table:\n" + plan, scanned(plan));
+        assertTrue(id + " does not use " + index + ":\n" + plan, index == null || plan.contains("index=" + index));
+        if (statement.getSqlCommandType() == SqlCommandType.SELECT) {
+            final SqlSession session = factory.openSession();
+            try {
+                // The first run warms up the statement and the pages of the index.
+                session.selectList(id, parameter);
+                final long before = System.nanoTime();
+                session.selectList(id, parameter);
+                final long elapsed = (System.nanoTime() - before) / 1000000;
+                if (budget != null) {
+                    assertTrue(id + " took " + elapsed + "ms with " + rows + " rows", elapsed <= budget);
+                }
+            } finally {
+                session.close();
+            }
+        }
+        checked.add(id);
+    }
+
+    /**
+     * Marks a statement that reads a whole table on purpose, the reason is kept next to the statement.
+     */
+    private void scans(final Set<String> checked, final String id, final String reason) {
+        assertNotNull(reason);
+        configuration.getMappedStatement(id);
+        checked.add(id);
+    }
+
+    // Fails when a statement of the mapper was added without a check.
+    private void assertChecked(final String namespace, final Set<String> checked) {
+        for (final String name : configuration.getMappedStatementNames()) {
+            if (name.startsWith(namespace + ".")) {
+                assertTrue("No query plan check for " + name, checked.contains(name));
+            }
+        }
+    }
+
+    private Map<String, Object> map(final Object... entries) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        for (int index = 0; index < entries.length; index += 2) {
+            map.put((String) entries[index], entries[index + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    public void testCallDetailRecords() throws Exception {
+        final Set<String> checked = new HashSet<String>();
+        final String ns = CALL_DETAIL_RECORDS + ".";
+        final String account = sid("AC", 1);
+        final String call = sid("CA", 1 + dataset.getAccounts());
+        final String primary = "SYS_IDX_SYS_PK";
+        check(checked, ns + "addCallDetailRecord", map(), null);
+        check(checked, ns + "getCallDetailRecord", call, primary);
+        check(checked, ns + "updateCallDetailRecord", map(), primary);
+        check(checked, ns + "completeCallDetailRecord", map(), primary);
+        check(checked, ns + "removeCallDetailRecord", call, primary);
+        check(checked, ns + "removeCallDetailRecords", account, "idx_cdr_account_created");
+        check(checked, ns + "getCallDetailRecords", account, "idx_cdr_account_created");
+        check(checked, ns + "getCallDetailRecordsByParentCall", sid("CA", 0), "idx_cdr_parent_call");
+        check(checked, ns + "exportCallDetailRecords", map("account_sid", account, "start", date(0), "end", date(rows)),
+                "idx_cdr_account_created");
+        // The listing of the REST API, a page, a page after a token, a page of a day and a page of the legs of a call.
+        final CallDetailRecordFilter page = new CallDetailRecordFilter(account, null, null, null, null, null, 50, 0);
+        check(checked, ns + "getCallDetailRecordByUsingFilters", page, "idx_cdr_account_created");
+        check(checked, ns + "getTotalCallDetailRecordByUsingFilters", page, "idx_cdr_account_created");
+        final PageToken token = new PageToken(new DateTime(date(rows / 2)), Sid.trusted(call));
+        final CallDetailRecordFilter next = new CallDetailRecordFilter(account, null, null, null, null, null, 50, 0,
+                token);
+        check(checked, ns + "getCallDetailRecordByUsingFilters", next, "idx_cdr_account_created");
+        final CallDetailRecordFilter day = new CallDetailRecordFilter(account, "+1666", null, "completed", "2016-01-05",
+                null, 50, 0);
+        // HSQLDB only matches the account on either index, MariaDB also uses the start time of idx_cdr_account_start.
+        check(checked, ns + "getCallDetailRecordByUsingFilters", day, "idx_cdr_account_");
+        check(checked, ns + "getTotalCallDetailRecordByUsingFilters", day, "idx_cdr_account_");
+        final CallDetailRecordFilter legs = new CallDetailRecordFilter(account, null, null, null, null, sid("CA", 0), 50,
+                0);
+        check(checked, ns + "getCallDetailRecordByUsingFilters", legs, "idx_cdr_account_created");
+        scans(checked, ns + "getCallDetailRecordsByRecipient", "Not used by RestComm, kept for the DAO API.");
+        scans(checked, ns + "getCallDetailRecordsBySender", "Not used by RestComm, kept for the DAO API.");
+        scans(checked, ns + "getCallDetailRecordsByStatus", "Not used by RestComm, kept for the DAO API.");
+        scans(checked, ns + "getCallDetailRecordsByStartTime", "Not used by RestComm, kept for the DAO API.");
+        assertChecked(CALL_DETAIL_RECORDS, checked);
+    }
+
+    @Test
+    public void testIncomingPhoneNumbers() throws Exception {
+        final Set<String> checked = new HashSet<String>();
+        final String ns = INCOMING_PHONE_NUMBERS + ".";
+        final String account = sid("AC", 1);
+        final String number = sid("PN", 1);
+        final String primary = "SYS_IDX_SYS_PK";
+        check(checked, ns + "addIncomingPhoneNumber", map(), null);
+        check(checked, ns + "getIncomingPhoneNumber", number, primary);
+        check(checked, ns + "updateIncomingPhoneNumber", map(), primary);
+        check(checked, ns + "removeIncomingPhoneNumber", number, primary);
+        // Looked up on every incoming call.
+        check(checked, ns + "getIncomingPhoneNumberByValue", "+17771", "idx_incoming_numbers_phone_number");
+        check(checked, ns + "getIncomingPhoneNumbers", account, "idx_incoming_numbers_account");
+        check(checked, ns + "removeIncomingPhoneNumbers", account, "idx_incoming_numbers_account");
+        final IncomingPhoneNumberFilter filter = new IncomingPhoneNumberFilter(account, "Number 1", "%1777%");
+        check(checked, ns + "getIncomingPhoneNumbersByFriendlyName", filter, "idx_incoming_numbers_account");
+        assertChecked(INCOMING_PHONE_NUMBERS, checked);
+    }
+
+    @Test
+    public void testUsage() throws Exception {
+        final Set<String> checked = new HashSet<String>();
+        final String ns = USAGE + ".";
+        final Map<String, Object> range = map("sid", sid("AC", 1), "category", "calls", "startDate", date(0),
+                "endDate", date(rows * 10));
+        final String primary = "SYS_IDX_SYS_PK";
+        check(checked, ns + "getDailyCalls", range, primary);
+        check(checked, ns + "getMonthlyCalls", range, primary);
+        check(checked, ns + "getYearlyCalls", range, primary);
+        check(checked, ns + "getAllTimeCalls", range, primary);
+        check(checked, ns + "addUsageRollup", map(), primary);
+        check(checked, ns + "removeUsageRollups", map(), primary);
+        scans(checked, ns + "getUsageRollupsCount", "Counts the rollups once, when RestComm decides to backfill them.");
+        scans(checked, ns + "backfillCallUsageRollups", "Builds the rollups of all the calls once, after an upgrade.");
+        scans(checked, ns + "backfillSmsUsageRollups", "Builds the rollups of all the messages once, on upgrade.");
+        assertChecked(USAGE, checked);
+    }
+}
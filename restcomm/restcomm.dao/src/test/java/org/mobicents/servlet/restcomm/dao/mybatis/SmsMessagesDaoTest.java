@@ -22,7 +22,9 @@ package org.mobicents.servlet.restcomm.dao.mybatis;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Currency;
+import java.util.List;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -31,7 +33,9 @@ import org.junit.After;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
+import org.mobicents.servlet.restcomm.dao.RecordHandler;
 import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.entities.SmsMessage;
 
@@ -141,4 +145,86 @@ public final class SmsMessagesDaoTest {
         // Validate the results.
         assertTrue(messages.getSmsMessages(account).size() == 0);
     }
+
+    @Test
+    public void testReadByPageToken() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final SmsMessagesDao messages = manager.getSmsMessagesDao();
+        for (int index = 0; index < 5; index++) {
+            final SmsMessage.Builder builder = SmsMessage.builder();
+            builder.setSid(Sid.generate(Sid.Type.SMS_MESSAGE));
+            builder.setAccountSid(account);
+            builder.setApiVersion("2012-04-24");
+            builder.setRecipient("+12223334444");
+            builder.setSender("+17778889999");
+            builder.setBody("Hello World!");
+            builder.setStatus(SmsMessage.Status.SENT);
+            builder.setDirection(SmsMessage.Direction.OUTBOUND_API);
+            builder.setPrice(new BigDecimal("0.00"));
+            builder.setPriceUnit(Currency.getInstance("USD"));
+            builder.setUri(URI.create("2012-04-24/Accounts/Acoount/SMS/Messages/unique-id.json"));
+            messages.addSmsMessage(builder.build());
+        }
+        // Walk the pages, every message must be read exactly once.
+        final List<Sid> read = new ArrayList<Sid>();
+        PageToken after = null;
+        List<SmsMessage> page = messages.getSmsMessages(account, after, 2);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            for (final SmsMessage message : page) {
+                assertFalse(read.contains(message.getSid()));
+                read.add(message.getSid());
+            }
+            final SmsMessage last = page.get(page.size() - 1);
+            after = new PageToken(last.getDateCreated(), last.getSid());
+            page = messages.getSmsMessages(account, after, 2);
+        }
+        assertEquals(5, read.size());
+        assertEquals(messages.getSmsMessages(account).size(), read.size());
+        // Delete the messages.
+        messages.removeSmsMessages(account);
+    }
+
+    @Test
+    public void testExport() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final SmsMessagesDao messages = manager.getSmsMessagesDao();
+        final DateTime start = new DateTime(2014, 1, 1, 0, 0);
+        final List<Sid> sids = new ArrayList<Sid>();
+        for (int index = 0; index < 5; index++) {
+            final Sid sid = Sid.generate(Sid.Type.SMS_MESSAGE);
+            final DateTime dateCreated = start.plusHours(index);
+            messages.addSmsMessage(new SmsMessage(sid, dateCreated, dateCreated, dateCreated, account, "+17778889999",
+                    "+12223334444", "Hello World!", SmsMessage.Status.SENT, SmsMessage.Direction.OUTBOUND_API,
+                    new BigDecimal("0.00"), Currency.getInstance("USD"), "2012-04-24", URI
+                            .create("2012-04-24/Accounts/Acoount/SMS/Messages/unique-id.json")));
+            sids.add(sid);
+        }
+        // The messages of the period come oldest first, the end of the period is excluded.
+        final List<Sid> exported = new ArrayList<Sid>();
+        final RecordHandler<SmsMessage> handler = new RecordHandler<SmsMessage>() {
+            @Override
+            public boolean handle(final SmsMessage message) {
+                exported.add(message.getSid());
+                return true;
+            }
+        };
+        messages.exportSmsMessages(account, start.plusHours(1), start.plusHours(4), handler);
+        assertEquals(sids.subList(1, 4), exported);
+        exported.clear();
+        messages.exportSmsMessages(account, null, null, handler);
+        assertEquals(sids, exported);
+        // The handler can stop the export.
+        exported.clear();
+        messages.exportSmsMessages(account, null, null, new RecordHandler<SmsMessage>() {
+            @Override
+            public boolean handle(final SmsMessage message) {
+                exported.add(message.getSid());
+                return exported.size() < 2;
+            }
+        });
+        assertEquals(sids.subList(0, 2), exported);
+        // Delete the messages.
+        messages.removeSmsMessages(account);
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.dao.mybatis;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Currency;
+import java.util.List;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
+import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
+import org.mobicents.servlet.restcomm.dao.UsageDao;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.entities.SmsMessage;
+import org.mobicents.servlet.restcomm.entities.Usage;
+
+public class UsageDaoTest {
+    private static MybatisDaoManager manager;
+
+    public UsageDaoTest() {
+        super();
+    }
+
+    @Before
+    public void before() {
+        final InputStream data = getClass().getResourceAsStream("/mybatis.xml");
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+    }
+
+    @After
+    public void after() {
+        manager.shutdown();
+    }
+
+    private CallDetailRecord call(final Sid account, final String status, final int duration, final String price) {
+        final Sid sid = Sid.generate(Sid.Type.CALL);
+        final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+        builder.setSid(sid);
+        builder.setDateCreated(DateTime.now());
+        builder.setAccountSid(account);
+        builder.setTo("+12223334444");
+        builder.setFrom("+17778889999");
+        builder.setStatus(status);
+        builder.setDuration(duration);
+        builder.setPrice(new BigDecimal(price));
+        builder.setPriceUnit(Currency.getInstance("USD"));
+        builder.setDirection("outbound-api");
+        builder.setApiVersion("2012-04-24");
+        builder.setUri(URI.create("2012-04-24/Accounts/" + account + "/Calls/" + sid + ".json"));
+        return builder.build();
+    }
+
+    @Test
+    public void testCallsRollup() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecordsDao cdrs = manager.getCallDetailRecordsDao();
+        final UsageDao usage = manager.getUsageDao();
+        // A call only counts once it completed.
+        CallDetailRecord first = call(account, "queued", 0, "0.00");
+        cdrs.addCallDetailRecord(first);
+        final DateTime today = DateTime.now().withTimeAtStartOfDay();
+        assertTrue(usage.getUsageDaily(account, Usage.Category.CALLS, today, today).isEmpty());
+        first = first.setStatus("completed").setDuration(30).setPrice(new BigDecimal("0.25"));
+        cdrs.updateCallDetailRecord(first);
+        // Updating a completed call again must not count it twice.
+        cdrs.updateCallDetailRecord(first);
+        cdrs.addCallDetailRecord(call(account, "no-answer", 0, "0.00"));
+        List<Usage> records = usage.getUsageDaily(account, Usage.Category.CALLS, today, today);
+        assertEquals(1, records.size());
+        Usage record = records.get(0);
+        assertEquals(Usage.Category.CALLS, record.getCategory());
+        assertEquals(Long.valueOf(2), record.getCount());
+        assertEquals(Long.valueOf(30), record.getUsage());
+        assertEquals(0, new BigDecimal("0.25").compareTo(record.getPrice()));
+        // The monthly usage is read from the same buckets.
+        records = usage.getUsageMonthly(account, Usage.Category.CALLS, today.withDayOfMonth(1), today);
+        assertEquals(1, records.size());
+        assertEquals(Long.valueOf(2), records.get(0).getCount());
+        // Removing the calls of the account removes its usage.
+        cdrs.removeCallDetailRecords(account);
+        assertTrue(usage.getUsageDaily(account, Usage.Category.CALLS, today, today).isEmpty());
+    }
+
+    @Test
+    public void testCallsRollupAfterCompletion() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final CallDetailRecordsDao cdrs = manager.getCallDetailRecordsDao();
+        final UsageDao usage = manager.getUsageDao();
+        CallDetailRecord first = call(account, "queued", 0, "0.00");
+        cdrs.addCallDetailRecord(first);
+        first = first.setStatus("completed").setDuration(30).setPrice(new BigDecimal("0.25"));
+        cdrs.updateCallDetailRecord(first);
+        // The duration and the price are settled after the call completed.
+        first = first.setDuration(42).setPrice(new BigDecimal("0.40"));
+        cdrs.updateCallDetailRecord(first);
+        final DateTime today = DateTime.now().withTimeAtStartOfDay();
+        final List<Usage> records = usage.getUsageDaily(account, Usage.Category.CALLS, today, today);
+        assertEquals(1, records.size());
+        assertEquals(Long.valueOf(1), records.get(0).getCount());
+        assertEquals(Long.valueOf(42), records.get(0).getUsage());
+        assertEquals(0, new BigDecimal("0.40").compareTo(records.get(0).getPrice()));
+        cdrs.removeCallDetailRecords(account);
+    }
+
+    @Test
+    public void testSmsRollup() {
+        final Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        final SmsMessage.Builder builder = SmsMessage.builder();
+        builder.setSid(Sid.generate(Sid.Type.SMS_MESSAGE));
+        builder.setAccountSid(account);
+        builder.setApiVersion("2012-04-24");
+        builder.setRecipient("+12223334444");
+        builder.setSender("+17778889999");
+        builder.setBody("Hello World!");
+        builder.setStatus(SmsMessage.Status.SENDING);
+        builder.setDirection(SmsMessage.Direction.OUTBOUND_API);
+        builder.setPrice(new BigDecimal("0.01"));
+        builder.setPriceUnit(Currency.getInstance("USD"));
+        builder.setUri(URI.create("2012-04-24/Accounts/Acoount/SMS/Messages/unique-id.json"));
+        SmsMessage message = builder.build();
+        final SmsMessagesDao messages = manager.getSmsMessagesDao();
+        final UsageDao usage = manager.getUsageDao();
+        messages.addSmsMessage(message);
+        final DateTime today = DateTime.now().withTimeAtStartOfDay();
+        assertTrue(usage.getUsageDaily(account, Usage.Category.SMS, today, today).isEmpty());
+        message = message.setStatus(SmsMessage.Status.SENT);
+        messages.updateSmsMessage(message);
+        final List<Usage> records = usage.getUsageDaily(account, Usage.Category.SMS, today, today);
+        assertEquals(1, records.size());
+        assertEquals(Usage.Category.SMS, records.get(0).getCategory());
+        assertEquals(Long.valueOf(1), records.get(0).getCount());
+        assertEquals(Long.valueOf(1), records.get(0).getUsage());
+        // The calls of the account are not mixed in.
+        assertTrue(usage.getUsageDaily(account, Usage.Category.CALLS, today, today).isEmpty());
+        messages.removeSmsMessages(account);
+        assertTrue(usage.getUsageDaily(account, Usage.Category.SMS, today, today).isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.entities.shiro;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.net.URI;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.dao.AccountsDao;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dao.mybatis.MybatisDaoManager;
+import org.mobicents.servlet.restcomm.entities.Account;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+public class RealmTest {
+    private static MybatisDaoManager manager;
+    private Realm realm;
+
+    public RealmTest() {
+        super();
+    }
+
+    @Before
+    public void before() {
+        final InputStream data = getClass().getResourceAsStream("/mybatis.xml");
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        ShiroResources.getInstance().set(DaoManager.class, manager);
+        ShiroResources.getInstance().set(Configuration.class, new BaseConfiguration());
+        realm = new Realm();
+        realm.setCredentialsMatcher(new CredentialsMatcher());
+    }
+
+    @After
+    public void after() {
+        manager.shutdown();
+    }
+
+    private Account account(final String friendlyName, final String password, final String role) {
+        final Account account = new Account(Sid.generate(Sid.Type.ACCOUNT), DateTime.now(), DateTime.now(),
+                friendlyName + "@company.com", friendlyName, null, Account.Type.FULL, Account.Status.ACTIVE,
+                DigestUtils.md5Hex(password), role, URI.create("/2012-04-24/Accounts/" + friendlyName));
+        manager.getAccountsDao().addAccount(account);
+        return account;
+    }
+
+    private boolean authenticates(final String username, final String password) {
+        try {
+            return realm.getAuthenticationInfo(new UsernamePasswordToken(username, password)) != null;
+        } catch (final AuthenticationException exception) {
+            return false;
+        }
+    }
+
+    private boolean hasRole(final Account account, final String role) {
+        return realm.hasRole(new SimplePrincipalCollection(account.getSid().toString(), realm.getName()), role);
+    }
+
+    @Test
+    public void testCredentials() {
+        final Account account = account("alice", "secret", "Administrator");
+        final String sid = account.getSid().toString();
+        // The password, the auth token it is the hash of, by sid or by friendly name.
+        assertTrue(authenticates(sid, "secret"));
+        assertTrue(authenticates(sid, account.getAuthToken()));
+        assertTrue(authenticates("alice", "secret"));
+        assertFalse(authenticates(sid, "Secret"));
+        assertFalse(authenticates(sid, account.getAuthToken().toUpperCase()));
+        assertFalse(authenticates(sid, ""));
+        assertFalse(authenticates(Sid.generate(Sid.Type.ACCOUNT).toString(), "secret"));
+        assertFalse(authenticates("bob", "secret"));
+        // An auth token that is not an MD5 hash only matches itself.
+        final AccountsDao accounts = manager.getAccountsDao();
+        accounts.updateAccount(account.setAuthToken("not a hash"));
+        realm.invalidate();
+        assertTrue(authenticates(sid, "not a hash"));
+        assertFalse(authenticates(sid, "secret"));
+        assertTrue(hasRole(account, "Administrator"));
+        accounts.removeAccount(account.getSid());
+    }
+
+    @Test
+    public void testCache() {
+        final Account account = account("carol", "secret", "Administrator");
+        final String sid = account.getSid().toString();
+        assertTrue(authenticates(sid, "secret"));
+        assertTrue(hasRole(account, "Administrator"));
+        // The data store is not read again until the account is invalidated.
+        final AccountsDao accounts = manager.getAccountsDao();
+        accounts.updateAccount(account.setAuthToken(DigestUtils.md5Hex("changed")).setRole("Developer"));
+        assertTrue(authenticates(sid, "secret"));
+        assertFalse(authenticates(sid, "changed"));
+        assertTrue(hasRole(account, "Administrator"));
+        realm.invalidate();
+        assertFalse(authenticates(sid, "secret"));
+        assertTrue(authenticates(sid, "changed"));
+        assertTrue(hasRole(account, "Developer"));
+        assertFalse(hasRole(account, "Administrator"));
+        accounts.removeAccount(account.getSid());
+    }
+
+    @Test
+    public void testUnknownAccountsAreNotCached() {
+        assertFalse(authenticates("dave", "secret"));
+        // An account created after a failed lookup is found right away.
+        final Account account = account("dave", "secret", "Administrator");
+        assertTrue(authenticates("dave", "secret"));
+        manager.getAccountsDao().removeAccount(account.getSid());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        realm.setCacheTtl(1);
+        final Account account = account("erin", "secret", "Administrator");
+        final String sid = account.getSid().toString();
+        assertTrue(authenticates(sid, "secret"));
+        final AccountsDao accounts = manager.getAccountsDao();
+        accounts.updateAccount(account.setAuthToken(DigestUtils.md5Hex("changed")));
+        assertTrue(authenticates(sid, "secret"));
+        // Past the time to live the account is read again.
+        Thread.sleep(1100);
+        assertFalse(authenticates(sid, "secret"));
+        assertTrue(authenticates(sid, "changed"));
+        accounts.removeAccount(account.getSid());
+    }
+
+    @Test
+    public void testCacheDisabled() {
+        realm.setCacheTtl(0);
+        final Account account = account("frank", "secret", "Administrator");
+        final String sid = account.getSid().toString();
+        assertTrue(authenticates(sid, "secret"));
+        manager.getAccountsDao().updateAccount(account.setAuthToken(DigestUtils.md5Hex("changed")));
+        assertTrue(authenticates(sid, "changed"));
+        manager.getAccountsDao().removeAccount(account.getSid());
+    }
+}
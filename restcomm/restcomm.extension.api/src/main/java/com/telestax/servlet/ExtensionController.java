@@ -0,0 +1,121 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2013, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.telestax.servlet;
+
+import static javax.servlet.sip.SipServletResponse.SC_SERVICE_UNAVAILABLE;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.sip.SipServletRequest;
+import javax.servlet.sip.SipServletResponse;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.telephony.CreateCall;
+
+/**
+ * Process wide registry of the extensions loaded at start up. The SIP servlets and the managers ask the controller
+ * before they do any work for a new session, the first extension that does not allow the session wins.
+ */
+@ThreadSafe
+public final class ExtensionController {
+    private static final ExtensionController instance = new ExtensionController();
+
+    // Replaced as a whole when an extension is registered, read without locking on every request.
+    private volatile Map<ExtensionType, List<RestcommExtensionGeneric>> extensions;
+
+    private ExtensionController() {
+        super();
+        this.extensions = Collections.emptyMap();
+    }
+
+    public static ExtensionController getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers an initialized extension for the types listed in its {@link RestcommExtension} annotation.
+     */
+    public synchronized void register(final RestcommExtensionGeneric extension) {
+        final RestcommExtension annotation = extension.getClass().getAnnotation(RestcommExtension.class);
+        if (annotation == null) {
+            throw new IllegalArgumentException(extension.getClass().getName() + " is not annotated with @RestcommExtension");
+        }
+        final Map<ExtensionType, List<RestcommExtensionGeneric>> extensions = new EnumMap<ExtensionType, List<RestcommExtensionGeneric>>(
+                ExtensionType.class);
+        extensions.putAll(this.extensions);
+        for (final ExtensionType type : annotation.type()) {
+            final List<RestcommExtensionGeneric> list = new ArrayList<RestcommExtensionGeneric>();
+            if (extensions.containsKey(type)) {
+                list.addAll(extensions.get(type));
+            }
+            list.add(extension);
+            extensions.put(type, Collections.unmodifiableList(list));
+        }
+        this.extensions = extensions;
+    }
+
+    private List<RestcommExtensionGeneric> extensions(final ExtensionType type) {
+        final List<RestcommExtensionGeneric> list = extensions.get(type);
+        return list == null ? Collections.<RestcommExtensionGeneric> emptyList() : list;
+    }
+
+    /**
+     * @return The response of the first extension that does not allow the request or null if every extension allows it.
+     */
+    public ExtensionResponse executePreInboundAction(final SipServletRequest request, final ExtensionType type) {
+        for (final RestcommExtensionGeneric extension : extensions(type)) {
+            final ExtensionResponse response = extension.preInboundAction(request);
+            if (response != null && !response.isAllowed()) {
+                return response;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The response of the first extension that does not allow the call or null if every extension allows it.
+     */
+    public ExtensionResponse executePreOutboundAction(final CreateCall request, final ExtensionType type) {
+        for (final RestcommExtensionGeneric extension : extensions(type)) {
+            final ExtensionResponse response = extension.preOutboundAction(request);
+            if (response != null && !response.isAllowed()) {
+                return response;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Answers a request that was not allowed by an extension with 503 Service Unavailable.
+     */
+    public static void reject(final SipServletRequest request, final ExtensionResponse rejection) throws IOException {
+        final SipServletResponse response = request.createResponse(SC_SERVICE_UNAVAILABLE);
+        if (rejection.getRetryAfter() > 0) {
+            response.setHeader("Retry-After", Integer.toString(rejection.getRetryAfter()));
+        }
+        response.send();
+    }
+}
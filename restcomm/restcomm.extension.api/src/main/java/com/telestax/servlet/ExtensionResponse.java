@@ -27,6 +27,7 @@ package com.telestax.servlet;
 public class ExtensionResponse {
     private Object object;
     private boolean allowed;
+    private int retryAfter;
 
     public ExtensionResponse() {}
 
@@ -45,4 +46,15 @@ public class ExtensionResponse {
     public void setAllowed(boolean allowed) {
         this.allowed = allowed;
     }
+
+    /**
+     * @return The number of seconds after which a rejected request may be retried, 0 if unknown
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(int retryAfter) {
+        this.retryAfter = retryAfter;
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2013, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.telestax.servlet;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * Rate limits the sessions started for each key (a phone number or an account) with one {@link TokenBucket} per key.
+ * The buckets are created on first use. When there are more than maxKeys buckets the full ones are dropped, a full
+ * bucket behaves like a new one, and if that is not enough the keys that do not have a bucket yet share one so that a
+ * flood of requests for random keys can not exhaust the memory. The full buckets are looked for at most once a second
+ * so that such a flood does not walk all the buckets on every request.
+ */
+@ThreadSafe
+public final class AdmissionController {
+    private static final String OVERFLOW = "";
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final double rate;
+    private final int burst;
+    private final int maxKeys;
+    private final ConcurrentMap<String, TokenBucket> buckets;
+    private final AtomicLong nextSweep;
+
+    public AdmissionController(final double rate, final int burst, final int maxKeys) {
+        super();
+        this.rate = rate;
+        this.burst = burst;
+        this.maxKeys = maxKeys;
+        this.buckets = new ConcurrentHashMap<String, TokenBucket>();
+        this.nextSweep = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return 0 if the session is admitted, otherwise the number of seconds after which it may be retried.
+     */
+    public int admit(final String key) {
+        return admit(key, System.nanoTime());
+    }
+
+    int admit(final String key, final long now) {
+        final long wait = bucket(key, now).take(now);
+        if (wait == 0) {
+            return 0;
+        }
+        return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private TokenBucket bucket(final String key, final long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            sweep(now);
+            if (buckets.size() >= maxKeys) {
+                bucket = buckets.get(OVERFLOW);
+                if (bucket != null) {
+                    return bucket;
+                }
+                return create(OVERFLOW);
+            }
+        }
+        return create(key);
+    }
+
+    private TokenBucket create(final String key) {
+        final TokenBucket bucket = new TokenBucket(rate, burst);
+        final TokenBucket existing = buckets.putIfAbsent(key, bucket);
+        return existing == null ? bucket : existing;
+    }
+
+    private void sweep(final long now) {
+        final long next = nextSweep.get();
+        // Only one of the threads that reach the end of the interval walks the buckets.
+        if (now - next < 0 || !nextSweep.compareAndSet(next, now + SWEEP_INTERVAL)) {
+            return;
+        }
+        final Iterator<TokenBucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isFull(now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2013, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.telestax.servlet;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+/**
+ * A token bucket refilled with rate tokens per second that holds up to burst tokens. The bucket keeps a single
+ * timestamp, the time at which it will be full again, so taking a token is one compare and set and never blocks.
+ */
+@ThreadSafe
+public final class TokenBucket {
+    private final long interval;
+    private final long tolerance;
+    // The time in nanoseconds at which the bucket is full again.
+    private final AtomicLong full;
+
+    public TokenBucket(final double rate, final int burst) {
+        super();
+        if (rate <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("The rate and the burst of a token bucket must be positive.");
+        }
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.tolerance = interval * (burst - 1);
+        this.full = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    /**
+     * @param now The current time in nanoseconds, see {@link System#nanoTime()}.
+     * @return 0 if a token was taken, otherwise the number of nanoseconds until the next token is available.
+     */
+    public long take(final long now) {
+        for (;;) {
+            final long current = full.get();
+            final long start = (current == Long.MIN_VALUE || current - now < 0) ? now : current;
+            final long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (full.compareAndSet(current, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return true if the bucket is full, a full bucket behaves like a new one.
+     */
+    public boolean isFull(final long now) {
+        final long current = full.get();
+        return current == Long.MIN_VALUE || current - now <= 0;
+    }
+}
@@ -20,34 +20,81 @@
  */
 package com.telestax.servlet;
 
+import javax.servlet.sip.SipApplicationSession;
 import javax.servlet.sip.SipServletRequest;
+import javax.servlet.sip.SipURI;
+import javax.servlet.sip.URI;
 
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.Configurable;
 import org.mobicents.servlet.restcomm.telephony.CreateCall;
 import org.mobicents.servlet.sip.core.SipManager;
 import org.mobicents.servlet.sip.message.MobicentsSipApplicationSessionFacade;
 
 /**
+ * Admission control for new sessions. Inbound INVITE and MESSAGE requests are rate limited per called number since the
+ * account that owns the number is only known after the number has been looked up, outbound calls are rate limited per
+ * account. New sessions are also rejected while the number of active SIP application sessions is over a ceiling.
+ *
  * @author <a href="mailto:gvagenas@gmail.com">gvagenas</a>
  *
  */
 @RestcommExtension(author = "GeorgeVagenas", version = "7.3.1", type = {ExtensionType.CallManager, ExtensionType.SmsSession, ExtensionType.UssdCallManager})
-public class TrafficThrottling implements RestcommExtensionGeneric {
+public class TrafficThrottling implements RestcommExtensionGeneric, Configurable {
 
     private static final Logger logger = Logger.getLogger(TrafficThrottling.class);
 
+    private AdmissionController calls;
+    private AdmissionController messages;
+    private AdmissionController accounts;
+    private int maxConcurrentSessions;
+    private int retryAfter;
+
+    @Override
+    public void configure(Configuration configuration) {
+        final int maxKeys = configuration.getInt("max-tracked-keys", 100000);
+        calls = new AdmissionController(configuration.getDouble("calls-per-second", 10), configuration.getInt("call-burst", 20), maxKeys);
+        messages = new AdmissionController(configuration.getDouble("messages-per-second", 20), configuration.getInt("message-burst", 40), maxKeys);
+        accounts = new AdmissionController(configuration.getDouble("outbound-calls-per-second", 10), configuration.getInt("outbound-call-burst", 20), maxKeys);
+        maxConcurrentSessions = configuration.getInt("max-concurrent-sessions", 0);
+        retryAfter = configuration.getInt("retry-after", 5);
+    }
+
     @Override
     public void init() {
+        if (calls == null) {
+            configure(new BaseConfiguration());
+        }
+        logger.info("Traffic throttling started, the maximum number of concurrent sessions is " + maxConcurrentSessions);
     }
 
     @Override
     public ExtensionResponse preInboundAction(SipServletRequest request) {
-        SipManager sipManager = ((MobicentsSipApplicationSessionFacade) request.getApplicationSession()).getSipContext().getSipManager();
-        int activeCalls = sipManager.getActiveSipApplicationSessions();
-        logger.info("Active calls: "+activeCalls);
-        ExtensionResponse response = new ExtensionResponse();
-        response.setAllowed(false);
-        return response;
+        if (!request.isInitial()) {
+            return null;
+        }
+        final AdmissionController controller;
+        if ("INVITE".equals(request.getMethod())) {
+            controller = calls;
+        } else if ("MESSAGE".equals(request.getMethod())) {
+            controller = messages;
+        } else {
+            return null;
+        }
+        if (overloaded(request.getApplicationSession())) {
+            return reject(retryAfter);
+        }
+        final String did = user(request.getRequestURI());
+        final int wait = controller.admit(did);
+        if (wait > 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Rejected " + request.getMethod() + " to " + did + ", retry after " + wait + " seconds");
+            }
+            return reject(wait);
+        }
+        return null;
     }
 
     @Override
@@ -57,13 +104,43 @@ public class TrafficThrottling implements RestcommExtensionGeneric {
 
     @Override
     public ExtensionResponse preOutboundAction(CreateCall createCallRequest) {
-        // TODO Auto-generated method stub
+        if (createCallRequest.accountId() == null) {
+            return null;
+        }
+        final int wait = accounts.admit(createCallRequest.accountId().toString());
+        if (wait > 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Rejected outbound call of " + createCallRequest.accountId() + ", retry after " + wait + " seconds");
+            }
+            return reject(wait);
+        }
         return null;
     }
 
     @Override
     public ExtensionResponse postOutboundAction(CreateCall createCallRequest) {
-        // TODO Auto-generated method stub
         return null;
     }
+
+    private boolean overloaded(SipApplicationSession session) {
+        if (maxConcurrentSessions <= 0 || !(session instanceof MobicentsSipApplicationSessionFacade)) {
+            return false;
+        }
+        SipManager sipManager = ((MobicentsSipApplicationSessionFacade) session).getSipContext().getSipManager();
+        return sipManager.getActiveSipApplicationSessions() > maxConcurrentSessions;
+    }
+
+    private String user(URI uri) {
+        if (uri.isSipURI() && ((SipURI) uri).getUser() != null) {
+            return ((SipURI) uri).getUser();
+        }
+        return uri.toString();
+    }
+
+    private ExtensionResponse reject(int seconds) {
+        ExtensionResponse response = new ExtensionResponse();
+        response.setAllowed(false);
+        response.setRetryAfter(seconds);
+        return response;
+    }
 }
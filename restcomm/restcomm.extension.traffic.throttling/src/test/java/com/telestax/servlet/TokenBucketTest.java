@@ -0,0 +1,73 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2013, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.telestax.servlet;
+
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class TokenBucketTest extends TestCase {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    public void testBurstAndRefill() {
+        final TokenBucket bucket = new TokenBucket(2, 3);
+        final long now = 1000 * SECOND;
+        assertTrue(bucket.isFull(now));
+        // The burst is admitted at once.
+        assertEquals(0, bucket.take(now));
+        assertEquals(0, bucket.take(now));
+        assertEquals(0, bucket.take(now));
+        assertEquals(SECOND / 2, bucket.take(now));
+        assertFalse(bucket.isFull(now));
+        // One token every half a second.
+        assertEquals(0, bucket.take(now + SECOND / 2));
+        assertTrue(bucket.take(now + SECOND / 2) > 0);
+        assertTrue(bucket.isFull(now + 2 * SECOND));
+    }
+
+    public void testRetryAfter() {
+        final AdmissionController controller = new AdmissionController(1, 1, 2);
+        assertEquals(0, controller.admit("+1234"));
+        assertEquals(1, controller.admit("+1234"));
+        // Every number has its own limit.
+        assertEquals(0, controller.admit("+5678"));
+        assertEquals(2, controller.size());
+        // Past the maximum the new numbers share one limit.
+        assertEquals(0, controller.admit("+9012"));
+        assertEquals(1, controller.admit("+3456"));
+    }
+
+    public void testSweep() {
+        final long now = System.nanoTime();
+        final AdmissionController controller = new AdmissionController(1, 1, 2);
+        assertEquals(0, controller.admit("+1234", now));
+        assertEquals(0, controller.admit("+5678", now));
+        // The buckets are not full yet, the new number goes to the overflow bucket.
+        assertEquals(0, controller.admit("+9012", now));
+        assertEquals(3, controller.size());
+        // The buckets are full again but the last sweep is too recent.
+        assertEquals(1, controller.admit("+3456", now + SECOND / 2));
+        assertEquals(3, controller.size());
+        // The full buckets are dropped once the interval is over.
+        assertEquals(0, controller.admit("+3456", now + 2 * SECOND));
+        assertEquals(1, controller.size());
+    }
+}
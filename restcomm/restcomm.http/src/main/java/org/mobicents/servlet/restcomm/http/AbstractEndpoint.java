@@ -22,6 +22,8 @@ package org.mobicents.servlet.restcomm.http;
 import java.net.URI;
 
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.shiro.SecurityUtils;
@@ -30,6 +32,7 @@ import org.apache.shiro.subject.Subject;
 import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
 import org.mobicents.servlet.restcomm.dao.AccountsDao;
 import org.mobicents.servlet.restcomm.entities.Account;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.util.StringUtils;
 
@@ -46,6 +49,7 @@ public abstract class AbstractEndpoint {
     private String defaultApiVersion;
     protected Configuration configuration;
     protected String baseRecordingsPath;
+    private Account securedAccount;
 
     public AbstractEndpoint() {
         super();
@@ -117,6 +121,7 @@ public abstract class AbstractEndpoint {
             if (account.getStatus().equals(Account.Status.ACTIVE)
                     && (subject.hasRole("Administrator") || (subject.getPrincipal().equals(accountSid) && subject
                             .isPermitted(permission)))) {
+                securedAccount = account;
                 return;
             } else {
                 throw new AuthorizationException();
@@ -129,7 +134,10 @@ public abstract class AbstractEndpoint {
     protected void secureLevelControl(AccountsDao accountsDao, String accountSid, String referenceAccountSid) {
         String sidPrincipal = String.valueOf(SecurityUtils.getSubject().getPrincipal());
         if (!sidPrincipal.equals(accountSid)) {
-            Account account = accountsDao.getAccount(new Sid(accountSid));
+            // Endpoints are created for every request, the account was usually just loaded to secure the request.
+            final Account secured = securedAccount;
+            Account account = (secured != null && accountSid.equals(secured.getSid().toString())) ? secured : accountsDao
+                    .getAccount(new Sid(accountSid));
             if (!sidPrincipal.equals(String.valueOf(account.getAccountSid()))) {
                 throw new AuthorizationException();
             } else if (referenceAccountSid != null && !accountSid.equals(referenceAccountSid)) {
@@ -140,6 +148,47 @@ public abstract class AbstractEndpoint {
         }
     }
 
+    /**
+     * @return True if the client asked for a page of a listing, either its first page with PageSize or a following one
+     *         with PageToken.
+     */
+    protected boolean isPaged(final MultivaluedMap<String, String> query) {
+        return query.containsKey("PageSize") || query.containsKey("PageToken");
+    }
+
+    protected int getPageSize(final MultivaluedMap<String, String> query) throws IllegalArgumentException {
+        final String pageSize = query.getFirst("PageSize");
+        if (pageSize == null) {
+            return 50;
+        }
+        final int size = Integer.parseInt(pageSize);
+        if (size <= 0) {
+            throw new IllegalArgumentException(pageSize + " is an invalid page size.");
+        }
+        return size;
+    }
+
+    protected PageToken getPageToken(final MultivaluedMap<String, String> query) throws IllegalArgumentException {
+        final String token = query.getFirst("PageToken");
+        if (isEmpty(token)) {
+            return null;
+        }
+        return PageToken.parse(token);
+    }
+
+    /**
+     * Links the next page of a listing, the last record of the page is where the next one starts.
+     */
+    protected ResponseBuilder nextPage(final ResponseBuilder builder, final UriInfo info, final int pageSize,
+            final PageToken next) {
+        if (next != null) {
+            final URI uri = info.getRequestUriBuilder().replaceQueryParam("PageSize", pageSize)
+                    .replaceQueryParam("PageToken", next.toString()).build();
+            builder.header("Link", "<" + uri + ">; rel=\"next\"");
+        }
+        return builder;
+    }
+
     // A general purpose method to test incoming parameters for meaningful data
     protected boolean isEmpty(Object value) {
         if (value == null)
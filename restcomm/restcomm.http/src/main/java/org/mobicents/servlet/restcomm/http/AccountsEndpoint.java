@@ -44,6 +44,8 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.authz.AuthorizationException;
 import org.apache.shiro.crypto.hash.Md5Hash;
+import org.apache.shiro.mgt.RealmSecurityManager;
+import org.apache.shiro.mgt.SecurityManager;
 import org.apache.shiro.subject.Subject;
 import org.joda.time.DateTime;
 import org.mobicents.servlet.restcomm.dao.AccountsDao;
@@ -52,9 +54,11 @@ import org.mobicents.servlet.restcomm.entities.Account;
 import org.mobicents.servlet.restcomm.entities.AccountList;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.entities.shiro.Realm;
 import org.mobicents.servlet.restcomm.http.converter.AccountConverter;
 import org.mobicents.servlet.restcomm.http.converter.AccountListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.util.StringUtils;
 
 /**
@@ -79,16 +83,18 @@ public abstract class AccountsEndpoint extends AbstractEndpoint {
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
         dao = storage.getAccountsDao();
-        final AccountConverter converter = new AccountConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Account.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new AccountListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, AccountsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final AccountConverter converter = new AccountConverter(configuration);
+                builder.registerTypeAdapter(Account.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new AccountListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     private Account createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) {
@@ -186,6 +192,7 @@ public abstract class AccountsEndpoint extends AbstractEndpoint {
             return status(NOT_FOUND).build();
 
         dao.removeAccount(sidToBeRemoved);
+        invalidateCredentials();
         return ok().build();
     }
 
@@ -235,6 +242,7 @@ public abstract class AccountsEndpoint extends AbstractEndpoint {
                     account = account.setRole(parent.getRole());
                 }
                 dao.addAccount(account);
+                invalidateCredentials();
             } else {
                 return status(UNAUTHORIZED).build();
             }
@@ -285,6 +293,7 @@ public abstract class AccountsEndpoint extends AbstractEndpoint {
                 if ((subject.hasRole("Administrator") && secureLevelControlAccounts(account))
                         || (subject.getPrincipal().equals(accountSid) && subject.isPermitted("RestComm:Modify:Accounts"))) {
                     dao.updateAccount(account);
+                    invalidateCredentials();
                 } else {
                     return status(UNAUTHORIZED).build();
                 }
@@ -302,6 +311,18 @@ public abstract class AccountsEndpoint extends AbstractEndpoint {
         }
     }
 
+    // The realm caches the auth token, status and role of the accounts.
+    private void invalidateCredentials() {
+        final SecurityManager securityManager = SecurityUtils.getSecurityManager();
+        if (securityManager instanceof RealmSecurityManager) {
+            for (final org.apache.shiro.realm.Realm realm : ((RealmSecurityManager) securityManager).getRealms()) {
+                if (realm instanceof Realm) {
+                    ((Realm) realm).invalidate();
+                }
+            }
+        }
+    }
+
     private void validate(final MultivaluedMap<String, String> data) throws NullPointerException {
         if (!data.containsKey("EmailAddress")) {
             throw new NullPointerException("Email address can not be null.");
@@ -28,12 +28,14 @@ import org.mobicents.servlet.restcomm.cache.DiskCache;
 import org.mobicents.servlet.restcomm.cache.DiskCacheRequest;
 import org.mobicents.servlet.restcomm.dao.AccountsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.Announcement;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.AnnouncementConverter;
 import org.mobicents.servlet.restcomm.http.converter.AnnouncementListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerRequest;
 import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerResponse;
 
@@ -85,16 +87,18 @@ public abstract class AnnouncementsEndpoint extends AbstractEndpoint {
         runtime = configuration.subset("runtime-settings");
         synthesizer = tts(ttsConfiguration);
         super.init(runtime);
-        final AnnouncementConverter converter = new AnnouncementConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Announcement.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new AnnouncementListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, AnnouncementsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final AnnouncementConverter converter = new AnnouncementConverter(configuration);
+                builder.registerTypeAdapter(Announcement.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new AnnouncementListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     public Response putAnnouncement(final String accountSid, final MultivaluedMap<String, String> data,
@@ -169,25 +173,27 @@ public abstract class AnnouncementsEndpoint extends AbstractEndpoint {
     private ActorRef tts(final Configuration configuration) {
         final String classpath = configuration.getString("[@class]");
 
-        return system.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public Actor create() throws Exception {
                 return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(configuration);
             }
-        }));
+        });
+        return system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.BLOCKING_IO));
     }
 
     private ActorRef cache(final String path, final String uri) {
-        return system.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public Actor create() throws Exception {
                 return new DiskCache(path, uri, true);
             }
-        }));
+        });
+        return system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.BLOCKING_IO));
     }
 
     @PreDestroy
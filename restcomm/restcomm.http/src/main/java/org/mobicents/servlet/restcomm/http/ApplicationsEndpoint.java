@@ -58,6 +58,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.ApplicationConverter;
 import org.mobicents.servlet.restcomm.http.converter.ApplicationListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.util.StringUtils;
 
 import com.google.gson.Gson;
@@ -89,16 +90,18 @@ public class ApplicationsEndpoint extends AbstractEndpoint {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
-        final ApplicationConverter converter = new ApplicationConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Application.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new ApplicationListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, ApplicationsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final ApplicationConverter converter = new ApplicationConverter(configuration);
+                builder.registerTypeAdapter(Application.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new ApplicationListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     private Application createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) {
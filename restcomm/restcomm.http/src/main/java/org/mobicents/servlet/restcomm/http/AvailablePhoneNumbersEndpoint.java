@@ -46,6 +46,7 @@ import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.http.converter.AvailablePhoneNumberConverter;
 import org.mobicents.servlet.restcomm.http.converter.AvailablePhoneNumberListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.loader.ObjectFactory;
 import org.mobicents.servlet.restcomm.loader.ObjectInstantiationException;
 import org.mobicents.servlet.restcomm.provisioning.number.api.ContainerConfiguration;
@@ -93,15 +94,16 @@ public abstract class AvailablePhoneNumbersEndpoint extends AbstractEndpoint {
             context.setAttribute("phoneNumberProvisioningManager", phoneNumberProvisioningManager);
         }
 
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(new AvailablePhoneNumberConverter(configuration));
-        xstream.registerConverter(new AvailablePhoneNumberListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
-        final GsonBuilder builder = new GsonBuilder();
-        builder.setPrettyPrinting();
-//        builder.serializeNulls();
-        gson = builder.create();
+        final Serializers serializers = Serializers.get(context, AvailablePhoneNumbersEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                xstream.registerConverter(new AvailablePhoneNumberConverter(configuration));
+                xstream.registerConverter(new AvailablePhoneNumberListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     protected Response getAvailablePhoneNumbers(final String accountSid, final String isoCountryCode, PhoneNumberSearchFilters listFilters, String filterPattern, final MediaType responseType) {
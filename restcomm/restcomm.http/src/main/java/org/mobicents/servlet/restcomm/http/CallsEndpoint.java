@@ -29,10 +29,13 @@ import static javax.ws.rs.core.Response.status;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.text.ParseException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +46,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.configuration.Configuration;
@@ -56,6 +60,7 @@ import org.mobicents.servlet.restcomm.dao.RecordingsDao;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecordFilter;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecordList;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.entities.Recording;
@@ -65,8 +70,10 @@ import org.mobicents.servlet.restcomm.http.converter.CallDetailRecordListConvert
 import org.mobicents.servlet.restcomm.http.converter.RecordingListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
 import org.mobicents.servlet.restcomm.http.converter.RecordingConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.telephony.CallInfo;
 import org.mobicents.servlet.restcomm.telephony.CallManagerResponse;
+import org.mobicents.servlet.restcomm.telephony.CallRejectedException;
 import org.mobicents.servlet.restcomm.telephony.CallResponse;
 import org.mobicents.servlet.restcomm.telephony.CreateCall;
 import org.mobicents.servlet.restcomm.telephony.ExecuteCallScript;
@@ -94,15 +101,17 @@ import com.thoughtworks.xstream.XStream;
  */
 @NotThreadSafe
 public abstract class CallsEndpoint extends AbstractEndpoint {
+    // The query parameters repeated in the page URIs, so that the next pages list the same calls.
+    private static final String[] LISTING_FILTERS = { "To", "From", "Status", "StartTime", "ParentCallSid",
+            "SkipTotal" };
+
     @Context
     protected ServletContext context;
     protected Configuration configuration;
     private ActorRef callManager;
     private DaoManager daos;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
-    private CallDetailRecordListConverter listConverter;
     private AccountsDao accountsDao;
     private RecordingsDao recordingsDao;
 
@@ -121,22 +130,24 @@ public abstract class CallsEndpoint extends AbstractEndpoint {
         accountsDao = daos.getAccountsDao();
         recordingsDao = daos.getRecordingsDao();
         super.init(configuration);
-        CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
-        listConverter = new CallDetailRecordListConverter(configuration);
-        final RecordingConverter recordingConverter = new RecordingConverter(configuration);
-        builder = new GsonBuilder();
-        builder.registerTypeAdapter(CallDetailRecord.class, converter);
-        builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
-        builder.registerTypeAdapter(Recording.class, recordingConverter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(recordingConverter);
-        xstream.registerConverter(new RecordingListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
-        xstream.registerConverter(listConverter);
+        final Serializers serializers = Serializers.get(context, CallsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
+                final CallDetailRecordListConverter listConverter = new CallDetailRecordListConverter(configuration);
+                final RecordingConverter recordingConverter = new RecordingConverter(configuration);
+                builder.registerTypeAdapter(CallDetailRecord.class, converter);
+                builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
+                builder.registerTypeAdapter(Recording.class, recordingConverter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(recordingConverter);
+                xstream.registerConverter(new RecordingListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+                xstream.registerConverter(listConverter);
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
 
         normalizePhoneNumbers = configuration.getBoolean("normalize-numbers-for-outbound-calls");
     }
@@ -182,6 +193,15 @@ public abstract class CallsEndpoint extends AbstractEndpoint {
         String pageSize = info.getQueryParameters().getFirst("PageSize");
         String page = info.getQueryParameters().getFirst("Page");
         // String afterSid = info.getQueryParameters().getFirst("AfterSid");
+        // Keyset pagination, the next page starts after the last call of the previous page whatever its number.
+        final PageToken after;
+        try {
+            after = getPageToken(info.getQueryParameters());
+        } catch (final IllegalArgumentException exception) {
+            return status(BAD_REQUEST).build();
+        }
+        // Counting the calls of large accounts costs as much as reading them all, let the client skip it.
+        final boolean skipTotal = "true".equalsIgnoreCase(info.getQueryParameters().getFirst("SkipTotal"));
         String recipient = info.getQueryParameters().getFirst("To");
         String sender = info.getQueryParameters().getFirst("From");
         String status = info.getQueryParameters().getFirst("Status");
@@ -202,45 +222,69 @@ public abstract class CallsEndpoint extends AbstractEndpoint {
 
         CallDetailRecordsDao dao = daos.getCallDetailRecordsDao();
 
-        CallDetailRecordFilter filterForTotal;
-        try {
-            filterForTotal = new CallDetailRecordFilter(accountSid, recipient, sender, status, startTime,
-                    parentCallSid, null, null);
-        } catch (ParseException e) {
-            return status(BAD_REQUEST).build();
-        }
+        int total = CallDetailRecordList.UNKNOWN_TOTAL;
+        // A keyset page is reached by following next_page_uri, the client already got the total with the first page.
+        if (!skipTotal && after == null) {
+            CallDetailRecordFilter filterForTotal;
+            try {
+                filterForTotal = new CallDetailRecordFilter(accountSid, recipient, sender, status, startTime,
+                        parentCallSid, null, null);
+            } catch (ParseException e) {
+                return status(BAD_REQUEST).build();
+            }
 
-        final int total = dao.getTotalCallDetailRecords(filterForTotal);
+            total = dao.getTotalCallDetailRecords(filterForTotal);
 
-        if (Integer.parseInt(page) > (total / limit)) {
-            return status(javax.ws.rs.core.Response.Status.BAD_REQUEST).build();
+            if (Integer.parseInt(page) > (total / limit)) {
+                return status(javax.ws.rs.core.Response.Status.BAD_REQUEST).build();
+            }
         }
 
         CallDetailRecordFilter filter;
         try {
             filter = new CallDetailRecordFilter(accountSid, recipient, sender, status, startTime,
-                    parentCallSid, limit, offset);
+                    parentCallSid, limit, offset, after);
         } catch (ParseException e) {
             return status(BAD_REQUEST).build();
         }
 
         final List<CallDetailRecord> cdrs = dao.getCallDetailRecords(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri(info.getRequestUri().getPath());
+        // The calls are ordered by date_created and sid unless only filtered by start time.
+        PageToken next = null;
+        if (cdrs.size() == limit && (after != null || startTime == null)) {
+            final CallDetailRecord last = cdrs.get(cdrs.size() - 1);
+            next = new PageToken(last.getDateCreated(), last.getSid());
+        }
+
+        final CallDetailRecordList list = new CallDetailRecordList(cdrs, Integer.parseInt(page), Integer.parseInt(pageSize),
+                total, info.getRequestUri().getPath(), next, getListingFilters(info.getQueryParameters()));
 
         if (APPLICATION_XML_TYPE == responseType) {
-            final RestCommResponse response = new RestCommResponse(new CallDetailRecordList(cdrs));
+            final RestCommResponse response = new RestCommResponse(list);
             return ok(xstream.toXML(response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new CallDetailRecordList(cdrs)), APPLICATION_JSON).build();
+            return ok(gson.toJson(list), APPLICATION_JSON).build();
         } else {
             return null;
         }
     }
 
+    private String getListingFilters(final MultivaluedMap<String, String> query) {
+        final StringBuilder buffer = new StringBuilder();
+        for (final String name : LISTING_FILTERS) {
+            final String value = query.getFirst(name);
+            if (value != null) {
+                try {
+                    buffer.append("&").append(name).append("=").append(URLEncoder.encode(value, "UTF-8"));
+                } catch (final UnsupportedEncodingException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }
+        }
+        return buffer.toString();
+    }
+
     private void normalize(final MultivaluedMap<String, String> data) throws IllegalArgumentException {
         final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
         final String from = data.getFirst("From");
@@ -368,6 +412,13 @@ public abstract class CallsEndpoint extends AbstractEndpoint {
                             }
                         }
                     }
+                } else if (managerResponse.cause() instanceof CallRejectedException) {
+                    final CallRejectedException rejection = (CallRejectedException) managerResponse.cause();
+                    final ResponseBuilder builder = status(SERVICE_UNAVAILABLE).entity(rejection.getMessage());
+                    if (rejection.getRetryAfter() > 0) {
+                        builder.header("Retry-After", Integer.toString(rejection.getRetryAfter()));
+                    }
+                    return builder.build();
                 } else {
                     return status(INTERNAL_SERVER_ERROR).entity(managerResponse.cause() + " : " + managerResponse.error()).build();
                 }
@@ -51,6 +51,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.ClientConverter;
 import org.mobicents.servlet.restcomm.http.converter.ClientListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.util.StringUtils;
 
 /**
@@ -78,16 +79,18 @@ public abstract class ClientsEndpoint extends AbstractEndpoint {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
-        final ClientConverter converter = new ClientConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Client.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new ClientListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, ClientsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final ClientConverter converter = new ClientConverter(configuration);
+                builder.registerTypeAdapter(Client.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new ClientListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     private Client createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) {
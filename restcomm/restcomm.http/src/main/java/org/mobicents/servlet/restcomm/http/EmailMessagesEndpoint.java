@@ -31,10 +31,12 @@ import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.api.EmailRequest;
 import org.mobicents.servlet.restcomm.api.EmailResponse;
 import org.mobicents.servlet.restcomm.api.Mail;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.email.EmailService;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.http.converter.EmailMessageConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.patterns.Observe;
 import org.mobicents.servlet.restcomm.patterns.Observing;
 import org.mobicents.servlet.restcomm.patterns.StopObserving;
@@ -71,15 +73,17 @@ public class EmailMessagesEndpoint extends AbstractEndpoint {
         accountsDao = storage.getAccountsDao();
         system = (ActorSystem) context.getAttribute(ActorSystem.class.getName());
         super.init(configuration);
-        final EmailMessageConverter converter = new EmailMessageConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Mail.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, EmailMessagesEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final EmailMessageConverter converter = new EmailMessageConverter(configuration);
+                builder.registerTypeAdapter(Mail.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     private void normalize(final MultivaluedMap<String, String> data) throws IllegalArgumentException {
@@ -226,14 +230,15 @@ public class EmailMessagesEndpoint extends AbstractEndpoint {
 
 
     private ActorRef session(final Configuration configuration) {
-        return system.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public Actor create() throws Exception {
                 return new EmailService(configuration);
             }
-        }));
+        });
+        return system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.BLOCKING_IO));
     }
 
     private ActorRef observer() {
@@ -0,0 +1,281 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.http;
+
+import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.status;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.ServletContext;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.shiro.authz.AuthorizationException;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+import org.mobicents.servlet.restcomm.dao.AccountsDao;
+import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dao.RecordHandler;
+import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.entities.SmsMessage;
+import org.mobicents.servlet.restcomm.http.converter.CallDetailRecordConverter;
+import org.mobicents.servlet.restcomm.http.converter.CsvWriter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
+import org.mobicents.servlet.restcomm.http.converter.SmsMessageConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Exports the calls or the SMS messages of an account created in a period, for billing. The records are read through a
+ * database cursor and written to the response one at a time, so an export of any size runs in constant memory with a
+ * single query instead of paging through the listings.
+ *
+ * The period is given by the StartDate, inclusive, and EndDate, exclusive, ISO 8601 query parameters. Both are
+ * optional. The records are exported oldest first as newline delimited JSON, one object per line in the format of the
+ * listings, or as CSV with a header row.
+ */
+@NotThreadSafe
+public abstract class ExportEndpoint extends AbstractEndpoint {
+    public static final MediaType APPLICATION_NDJSON_TYPE = new MediaType("application", "x-ndjson");
+    public static final MediaType TEXT_CSV_TYPE = new MediaType("text", "csv");
+
+    private static final Charset charset = Charset.forName("UTF-8");
+
+    @Context
+    protected ServletContext context;
+    protected Configuration configuration;
+    private AccountsDao accountsDao;
+    private CallDetailRecordsDao callDetailRecordsDao;
+    private SmsMessagesDao smsMessagesDao;
+    private Gson gson;
+
+    public ExportEndpoint() {
+        super();
+    }
+
+    @PostConstruct
+    public void init() {
+        configuration = (Configuration) context.getAttribute(Configuration.class.getName());
+        configuration = configuration.subset("runtime-settings");
+        final DaoManager daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
+        accountsDao = daos.getAccountsDao();
+        callDetailRecordsDao = daos.getCallDetailRecordsDao();
+        smsMessagesDao = daos.getSmsMessagesDao();
+        super.init(configuration);
+        // One record per line.
+        final Serializers serializers = Serializers.get(context, ExportEndpoint.class, false, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                builder.registerTypeAdapter(CallDetailRecord.class, new CallDetailRecordConverter(configuration));
+                builder.registerTypeAdapter(SmsMessage.class, new SmsMessageConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+    }
+
+    protected Response exportCalls(final String accountSid, final UriInfo info, final MediaType responseType) {
+        try {
+            secure(accountsDao.getAccount(accountSid), "RestComm:Read:Calls");
+            secureLevelControl(accountsDao, accountSid, null);
+        } catch (final AuthorizationException exception) {
+            return status(UNAUTHORIZED).build();
+        }
+        final DateTime start;
+        final DateTime end;
+        try {
+            start = getDate("StartDate", info.getQueryParameters());
+            end = getDate("EndDate", info.getQueryParameters());
+        } catch (final IllegalArgumentException exception) {
+            return status(BAD_REQUEST).entity(exception.getMessage()).build();
+        }
+        final Sid sid = new Sid(accountSid);
+        final StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(final OutputStream stream) throws IOException {
+                final Export<CallDetailRecord> export;
+                if (TEXT_CSV_TYPE.equals(responseType)) {
+                    export = new CallsCsvExport(stream);
+                } else {
+                    export = new JsonExport<CallDetailRecord>(stream, gson);
+                }
+                callDetailRecordsDao.exportCallDetailRecords(sid, start, end, export);
+                export.close();
+            }
+        };
+        return ok(output, responseType).build();
+    }
+
+    protected Response exportSmsMessages(final String accountSid, final UriInfo info, final MediaType responseType) {
+        try {
+            secure(accountsDao.getAccount(accountSid), "RestComm:Read:SmsMessages");
+            secureLevelControl(accountsDao, accountSid, null);
+        } catch (final AuthorizationException exception) {
+            return status(UNAUTHORIZED).build();
+        }
+        final DateTime start;
+        final DateTime end;
+        try {
+            start = getDate("StartDate", info.getQueryParameters());
+            end = getDate("EndDate", info.getQueryParameters());
+        } catch (final IllegalArgumentException exception) {
+            return status(BAD_REQUEST).entity(exception.getMessage()).build();
+        }
+        final Sid sid = new Sid(accountSid);
+        final StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(final OutputStream stream) throws IOException {
+                final Export<SmsMessage> export;
+                if (TEXT_CSV_TYPE.equals(responseType)) {
+                    export = new SmsMessagesCsvExport(stream);
+                } else {
+                    export = new JsonExport<SmsMessage>(stream, gson);
+                }
+                smsMessagesDao.exportSmsMessages(sid, start, end, export);
+                export.close();
+            }
+        };
+        return ok(output, responseType).build();
+    }
+
+    private DateTime getDate(final String name, final MultivaluedMap<String, String> query)
+            throws IllegalArgumentException {
+        final String value = query.getFirst(name);
+        if (isEmpty(value)) {
+            return null;
+        }
+        try {
+            return DateTime.parse(value);
+        } catch (final IllegalArgumentException exception) {
+            throw new IllegalArgumentException(value + " is an invalid " + name + ".", exception);
+        }
+    }
+
+    /**
+     * Writes the records to the response as they are read. A failure to write, usually the client going away, stops
+     * the export and is thrown by {@link #close()}.
+     */
+    @NotThreadSafe
+    private abstract static class Export<T> implements RecordHandler<T> {
+        protected final Writer writer;
+        private IOException failure;
+
+        private Export(final OutputStream stream) {
+            super();
+            this.writer = new BufferedWriter(new OutputStreamWriter(stream, charset));
+        }
+
+        protected abstract void write(T record) throws IOException;
+
+        @Override
+        public boolean handle(final T record) {
+            try {
+                write(record);
+                return true;
+            } catch (final IOException exception) {
+                failure = exception;
+                return false;
+            }
+        }
+
+        private void close() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            writer.flush();
+        }
+    }
+
+    @NotThreadSafe
+    private static final class JsonExport<T> extends Export<T> {
+        private final Gson gson;
+
+        private JsonExport(final OutputStream stream, final Gson gson) {
+            super(stream);
+            this.gson = gson;
+        }
+
+        @Override
+        protected void write(final T record) throws IOException {
+            gson.toJson(record, record.getClass(), writer);
+            writer.write('\n');
+        }
+    }
+
+    @NotThreadSafe
+    private static final class CallsCsvExport extends Export<CallDetailRecord> {
+        private final CsvWriter csv;
+
+        private CallsCsvExport(final OutputStream stream) throws IOException {
+            super(stream);
+            csv = new CsvWriter(writer);
+            csv.writeRow("sid", "date_created", "date_updated", "parent_call_sid", "account_sid", "to", "from",
+                    "phone_number_sid", "status", "start_time", "end_time", "duration", "ring_duration", "price",
+                    "price_unit", "direction", "answered_by", "api_version", "forwarded_from", "caller_name", "uri");
+        }
+
+        @Override
+        protected void write(final CallDetailRecord cdr) throws IOException {
+            csv.writeRow(cdr.getSid(), cdr.getDateCreated(), cdr.getDateUpdated(), cdr.getParentCallSid(),
+                    cdr.getAccountSid(), cdr.getTo(), cdr.getFrom(), cdr.getPhoneNumberSid(), cdr.getStatus(),
+                    cdr.getStartTime(), cdr.getEndTime(), cdr.getDuration(), cdr.getRingDuration(), cdr.getPrice(),
+                    cdr.getPriceUnit(), cdr.getDirection(), cdr.getAnsweredBy(), cdr.getApiVersion(),
+                    cdr.getForwardedFrom(), cdr.getCallerName(), cdr.getUri());
+        }
+    }
+
+    @NotThreadSafe
+    private static final class SmsMessagesCsvExport extends Export<SmsMessage> {
+        private final CsvWriter csv;
+
+        private SmsMessagesCsvExport(final OutputStream stream) throws IOException {
+            super(stream);
+            csv = new CsvWriter(writer);
+            csv.writeRow("sid", "date_created", "date_updated", "date_sent", "account_sid", "from", "to", "body",
+                    "status", "direction", "price", "price_unit", "api_version", "uri");
+        }
+
+        @Override
+        protected void write(final SmsMessage smsMessage) throws IOException {
+            csv.writeRow(smsMessage.getSid(), smsMessage.getDateCreated(), smsMessage.getDateUpdated(),
+                    smsMessage.getDateSent(), smsMessage.getAccountSid(), smsMessage.getSender(),
+                    smsMessage.getRecipient(), smsMessage.getBody(), smsMessage.getStatus(), smsMessage.getDirection(),
+                    smsMessage.getPrice(), smsMessage.getPriceUnit(), smsMessage.getApiVersion(), smsMessage.getUri());
+        }
+    }
+}
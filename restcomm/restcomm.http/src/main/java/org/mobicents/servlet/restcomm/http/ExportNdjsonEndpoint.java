@@ -0,0 +1,49 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.http;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+
+@Path("/Accounts/{accountSid}/Export.ndjson")
+@ThreadSafe
+public final class ExportNdjsonEndpoint extends ExportEndpoint {
+    public ExportNdjsonEndpoint() {
+        super();
+    }
+
+    @Path("/Calls")
+    @GET
+    public Response exportCalls(@PathParam("accountSid") final String accountSid, @Context final UriInfo info) {
+        return exportCalls(accountSid, info, APPLICATION_NDJSON_TYPE);
+    }
+
+    @Path("/SMS/Messages")
+    @GET
+    public Response exportSmsMessages(@PathParam("accountSid") final String accountSid, @Context final UriInfo info) {
+        return exportSmsMessages(accountSid, info, APPLICATION_NDJSON_TYPE);
+    }
+}
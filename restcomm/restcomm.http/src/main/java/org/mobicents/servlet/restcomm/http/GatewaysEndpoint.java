@@ -33,6 +33,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.GatewayConverter;
 import org.mobicents.servlet.restcomm.http.converter.GatewayListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.telephony.RegisterGateway;
 import org.mobicents.servlet.restcomm.util.StringUtils;
 
@@ -65,16 +66,18 @@ public class GatewaysEndpoint extends AbstractEndpoint {
         super.init(configuration);
         dao = storage.getGatewaysDao();
         accountsDao = storage.getAccountsDao();
-        final GatewayConverter converter = new GatewayConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Gateway.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new GatewayListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, GatewaysEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final GatewayConverter converter = new GatewayConverter(configuration);
+                builder.registerTypeAdapter(Gateway.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new GatewayListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
         proxyManager = (ActorRef) context.getAttribute("org.mobicents.servlet.restcomm.telephony.proxy.ProxyManager");
     }
 
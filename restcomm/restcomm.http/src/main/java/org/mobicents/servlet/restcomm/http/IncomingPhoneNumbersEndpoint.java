@@ -60,6 +60,7 @@ import org.mobicents.servlet.restcomm.http.converter.AvailableCountriesList;
 import org.mobicents.servlet.restcomm.http.converter.IncomingPhoneNumberConverter;
 import org.mobicents.servlet.restcomm.http.converter.IncomingPhoneNumberListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.loader.ObjectFactory;
 import org.mobicents.servlet.restcomm.loader.ObjectInstantiationException;
 import org.mobicents.servlet.restcomm.provisioning.number.api.ContainerConfiguration;
@@ -128,18 +129,20 @@ public abstract class IncomingPhoneNumbersEndpoint extends AbstractEndpoint {
                 callbackUrlsConfiguration.getString("ussd[@url]"),
                 callbackUrlsConfiguration.getString("ussd[@method]"));
 
-        final IncomingPhoneNumberConverter converter = new IncomingPhoneNumberConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.serializeNulls();
-        builder.registerTypeAdapter(IncomingPhoneNumber.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new IncomingPhoneNumberListConverter(configuration));
-        xstream.registerConverter(new AvailableCountriesConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, IncomingPhoneNumbersEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final IncomingPhoneNumberConverter converter = new IncomingPhoneNumberConverter(configuration);
+                builder.serializeNulls();
+                builder.registerTypeAdapter(IncomingPhoneNumber.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new IncomingPhoneNumberListConverter(configuration));
+                xstream.registerConverter(new AvailableCountriesConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     private IncomingPhoneNumber createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) {
@@ -31,7 +31,9 @@ import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import static javax.ws.rs.core.Response.*;
 import static javax.ws.rs.core.Response.Status.*;
@@ -44,11 +46,13 @@ import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
 import org.mobicents.servlet.restcomm.entities.Notification;
 import org.mobicents.servlet.restcomm.entities.NotificationList;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.NotificationConverter;
 import org.mobicents.servlet.restcomm.http.converter.NotificationListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -75,16 +79,18 @@ public abstract class NotificationsEndpoint extends AbstractEndpoint {
         super.init(configuration);
         dao = storage.getNotificationsDao();
         accountsDao = storage.getAccountsDao();
-        final NotificationConverter converter = new NotificationConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Notification.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new NotificationListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, NotificationsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final NotificationConverter converter = new NotificationConverter(configuration);
+                builder.registerTypeAdapter(Notification.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new NotificationListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     protected Response getNotification(final String accountSid, final String sid, final MediaType responseType) {
@@ -113,19 +119,38 @@ public abstract class NotificationsEndpoint extends AbstractEndpoint {
         }
     }
 
-    protected Response getNotifications(final String accountSid, final MediaType responseType) {
+    protected Response getNotifications(final String accountSid, final UriInfo info, final MediaType responseType) {
         try {
             secure(accountsDao.getAccount(accountSid), "RestComm:Read:Notifications");
             secureLevelControl(accountsDao, accountSid, null);
         } catch (final AuthorizationException exception) {
             return status(UNAUTHORIZED).build();
         }
-        final List<Notification> notifications = dao.getNotifications(new Sid(accountSid));
+        final MultivaluedMap<String, String> query = info.getQueryParameters();
+        final List<Notification> notifications;
+        int pageSize = 0;
+        PageToken next = null;
+        if (isPaged(query)) {
+            final PageToken after;
+            try {
+                pageSize = getPageSize(query);
+                after = getPageToken(query);
+            } catch (final IllegalArgumentException exception) {
+                return status(BAD_REQUEST).build();
+            }
+            notifications = dao.getNotifications(new Sid(accountSid), after, pageSize);
+            if (notifications.size() == pageSize) {
+                final Notification last = notifications.get(notifications.size() - 1);
+                next = new PageToken(last.getDateCreated(), last.getSid());
+            }
+        } else {
+            notifications = dao.getNotifications(new Sid(accountSid));
+        }
         if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(notifications), APPLICATION_JSON).build();
+            return nextPage(ok(gson.toJson(notifications), APPLICATION_JSON), info, pageSize, next).build();
         } else if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new NotificationList(notifications));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return nextPage(ok(xstream.toXML(response), APPLICATION_XML), info, pageSize, next).build();
         } else {
             return null;
         }
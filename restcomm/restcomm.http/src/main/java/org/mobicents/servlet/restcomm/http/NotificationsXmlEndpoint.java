@@ -23,7 +23,9 @@ import javax.ws.rs.GET;
 import static javax.ws.rs.core.MediaType.*;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
@@ -50,7 +52,7 @@ public final class NotificationsXmlEndpoint extends NotificationsEndpoint {
     }
 
     @GET
-    public Response getNotifications(@PathParam("accountSid") final String accountSid) {
-        return getNotifications(accountSid, APPLICATION_XML_TYPE);
+    public Response getNotifications(@PathParam("accountSid") final String accountSid, @Context final UriInfo info) {
+        return getNotifications(accountSid, info, APPLICATION_XML_TYPE);
     }
 }
@@ -46,6 +46,7 @@ import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.telephony.GetActiveProxy;
 import org.mobicents.servlet.restcomm.telephony.GetProxies;
 import org.mobicents.servlet.restcomm.telephony.SwitchProxy;
@@ -72,7 +73,6 @@ public class OutboundProxyEndpoint extends AbstractEndpoint {
     private ActorRef callManager;
     private DaoManager daos;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
     protected AccountsDao accountsDao;
 
@@ -88,12 +88,14 @@ public class OutboundProxyEndpoint extends AbstractEndpoint {
         daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
         accountsDao = daos.getAccountsDao();
         super.init(configuration);
-        builder = new GsonBuilder();
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, OutboundProxyEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     protected Response getProxies(final String accountSid, final MediaType responseType) {
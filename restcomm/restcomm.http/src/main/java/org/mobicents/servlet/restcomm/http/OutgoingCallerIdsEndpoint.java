@@ -57,6 +57,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.OutgoingCallerIdConverter;
 import org.mobicents.servlet.restcomm.http.converter.OutgoingCallerIdListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.util.StringUtils;
 
 /**
@@ -84,16 +85,18 @@ public abstract class OutgoingCallerIdsEndpoint extends AbstractEndpoint {
         super.init(configuration);
         dao = storage.getOutgoingCallerIdsDao();
         accountsDao = storage.getAccountsDao();
-        final OutgoingCallerIdConverter converter = new OutgoingCallerIdConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(OutgoingCallerId.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new OutgoingCallerIdListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, OutgoingCallerIdsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final OutgoingCallerIdConverter converter = new OutgoingCallerIdConverter(configuration);
+                builder.registerTypeAdapter(OutgoingCallerId.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new OutgoingCallerIdListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     private OutgoingCallerId createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) {
@@ -25,7 +25,9 @@ import javax.ws.rs.GET;
 import static javax.ws.rs.core.MediaType.*;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 import static javax.ws.rs.core.Response.*;
 import static javax.ws.rs.core.Response.Status.*;
 
@@ -67,7 +69,7 @@ public final class RecordingsXmlEndpoint extends RecordingsEndpoint {
     }
 
     @GET
-    public Response getRecordings(@PathParam("accountSid") final String accountSid) {
-        return getRecordings(accountSid, APPLICATION_XML_TYPE);
+    public Response getRecordings(@PathParam("accountSid") final String accountSid, @Context final UriInfo info) {
+        return getRecordings(accountSid, info, APPLICATION_XML_TYPE);
     }
 }
@@ -52,6 +52,7 @@ import static javax.ws.rs.core.MediaType.*;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import static javax.ws.rs.core.Response.*;
 import static javax.ws.rs.core.Response.Status.*;
@@ -63,6 +64,7 @@ import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
 import org.mobicents.servlet.restcomm.dao.AccountsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
+import org.mobicents.servlet.restcomm.entities.PageToken;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.entities.SmsMessage;
@@ -71,6 +73,7 @@ import org.mobicents.servlet.restcomm.entities.SmsMessage.Status;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
 import org.mobicents.servlet.restcomm.http.converter.SmsMessageConverter;
 import org.mobicents.servlet.restcomm.http.converter.SmsMessageListConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.patterns.Observe;
 import org.mobicents.servlet.restcomm.sms.CreateSmsSession;
 import org.mobicents.servlet.restcomm.sms.SmsServiceResponse;
@@ -115,16 +118,18 @@ public abstract class SmsMessagesEndpoint extends AbstractEndpoint {
         aggregator = (ActorRef) context.getAttribute("org.mobicents.servlet.restcomm.sms.SmsService");
         system = (ActorSystem) context.getAttribute(ActorSystem.class.getName());
         super.init(configuration);
-        final SmsMessageConverter converter = new SmsMessageConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(SmsMessage.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new SmsMessageListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, SmsMessagesEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final SmsMessageConverter converter = new SmsMessageConverter(configuration);
+                builder.registerTypeAdapter(SmsMessage.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new SmsMessageListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
 
         normalizePhoneNumbers = configuration.getBoolean("normalize-numbers-for-outbound-calls");
     }
@@ -155,19 +160,38 @@ public abstract class SmsMessagesEndpoint extends AbstractEndpoint {
         }
     }
 
-    protected Response getSmsMessages(final String accountSid, final MediaType responseType) {
+    protected Response getSmsMessages(final String accountSid, final UriInfo info, final MediaType responseType) {
         try {
             secure(accountsDao.getAccount(accountSid), "RestComm:Read:SmsMessages");
             secureLevelControl(accountsDao, accountSid, null);
         } catch (final AuthorizationException exception) {
             return status(UNAUTHORIZED).build();
         }
-        final List<SmsMessage> smsMessages = dao.getSmsMessages(new Sid(accountSid));
+        final MultivaluedMap<String, String> query = info.getQueryParameters();
+        final List<SmsMessage> smsMessages;
+        int pageSize = 0;
+        PageToken next = null;
+        if (isPaged(query)) {
+            final PageToken after;
+            try {
+                pageSize = getPageSize(query);
+                after = getPageToken(query);
+            } catch (final IllegalArgumentException exception) {
+                return status(BAD_REQUEST).build();
+            }
+            smsMessages = dao.getSmsMessages(new Sid(accountSid), after, pageSize);
+            if (smsMessages.size() == pageSize) {
+                final SmsMessage last = smsMessages.get(smsMessages.size() - 1);
+                next = new PageToken(last.getDateCreated(), last.getSid());
+            }
+        } else {
+            smsMessages = dao.getSmsMessages(new Sid(accountSid));
+        }
         if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(smsMessages), APPLICATION_JSON).build();
+            return nextPage(ok(gson.toJson(smsMessages), APPLICATION_JSON), info, pageSize, next).build();
         } else if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new SmsMessageList(smsMessages));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return nextPage(ok(xstream.toXML(response), APPLICATION_XML), info, pageSize, next).build();
         } else {
             return null;
         }
@@ -24,8 +24,10 @@ import static javax.ws.rs.core.MediaType.*;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
 
@@ -40,8 +42,8 @@ public final class SmsMessagesJsonEndpoint extends SmsMessagesEndpoint {
     }
 
     @GET
-    public Response getSmsMessages(@PathParam("accountSid") final String accountSid) {
-        return getSmsMessages(accountSid, APPLICATION_JSON_TYPE);
+    public Response getSmsMessages(@PathParam("accountSid") final String accountSid, @Context final UriInfo info) {
+        return getSmsMessages(accountSid, info, APPLICATION_JSON_TYPE);
     }
 
     @POST
@@ -49,6 +49,7 @@ import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.http.converter.CallinfoConverter;
 import org.mobicents.servlet.restcomm.http.converter.MonitoringServiceConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.telephony.CallInfo;
 import org.mobicents.servlet.restcomm.telephony.GetLiveCalls;
 import org.mobicents.servlet.restcomm.telephony.MonitoringServiceResponse;
@@ -76,7 +77,6 @@ public class SupervisorEndpoint extends AbstractEndpoint{
     protected Configuration configuration;
     private DaoManager daos;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
     private ActorRef monitoringService;
 
@@ -91,18 +91,20 @@ public class SupervisorEndpoint extends AbstractEndpoint{
         configuration = configuration.subset("runtime-settings");
         daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
         super.init(configuration);
-        CallinfoConverter converter = new CallinfoConverter(configuration);
-        MonitoringServiceConverter listConverter = new MonitoringServiceConverter(configuration);
-        builder = new GsonBuilder();
-        builder.registerTypeAdapter(CallInfo.class, converter);
-        builder.registerTypeAdapter(MonitoringServiceResponse.class, listConverter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(listConverter);
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, SupervisorEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final CallinfoConverter converter = new CallinfoConverter(configuration);
+                final MonitoringServiceConverter listConverter = new MonitoringServiceConverter(configuration);
+                builder.registerTypeAdapter(CallInfo.class, converter);
+                builder.registerTypeAdapter(MonitoringServiceResponse.class, listConverter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(listConverter);
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     protected Response pong(final String accountSid, final MediaType responseType) {
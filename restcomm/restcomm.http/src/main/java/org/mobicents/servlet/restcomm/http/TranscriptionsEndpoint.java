@@ -49,6 +49,7 @@ import org.mobicents.servlet.restcomm.entities.TranscriptionList;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
 import org.mobicents.servlet.restcomm.http.converter.TranscriptionConverter;
 import org.mobicents.servlet.restcomm.http.converter.TranscriptionListConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -75,16 +76,18 @@ public abstract class TranscriptionsEndpoint extends AbstractEndpoint {
         super.init(configuration);
         dao = storage.getTranscriptionsDao();
         accountsDao = storage.getAccountsDao();
-        final TranscriptionConverter converter = new TranscriptionConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Transcription.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new TranscriptionListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, TranscriptionsEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final TranscriptionConverter converter = new TranscriptionConverter(configuration);
+                builder.registerTypeAdapter(Transcription.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new TranscriptionListConverter(configuration));
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     protected Response getTranscription(final String accountSid, final String sid, final MediaType responseType) {
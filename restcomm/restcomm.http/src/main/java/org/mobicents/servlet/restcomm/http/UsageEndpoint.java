@@ -52,6 +52,7 @@ import org.mobicents.servlet.restcomm.entities.UsageList;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
 import org.mobicents.servlet.restcomm.http.converter.UsageConverter;
 import org.mobicents.servlet.restcomm.http.converter.UsageListConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -85,16 +86,18 @@ public abstract class UsageEndpoint extends AbstractEndpoint {
     super.init(configuration);
     dao = storage.getUsageDao();
     accountsDao = storage.getAccountsDao();
-    final UsageConverter converter = new UsageConverter(configuration);
-    final GsonBuilder builder = new GsonBuilder();
-    builder.registerTypeAdapter(Usage.class, converter);
-    builder.setPrettyPrinting();
-    gson = builder.create();
-    xstream = new XStream();
-    xstream.alias("RestcommResponse", RestCommResponse.class);
-    xstream.registerConverter(converter);
-    xstream.registerConverter(new UsageListConverter(configuration));
-    xstream.registerConverter(new RestCommResponseConverter(configuration));
+    final Serializers serializers = Serializers.get(context, UsageEndpoint.class, new Serializers.Factory() {
+      @Override
+      public void configure(final GsonBuilder builder, final XStream xstream) {
+        final UsageConverter converter = new UsageConverter(configuration);
+        builder.registerTypeAdapter(Usage.class, converter);
+        xstream.registerConverter(converter);
+        xstream.registerConverter(new UsageListConverter(configuration));
+        xstream.registerConverter(new RestCommResponseConverter(configuration));
+      }
+    });
+    gson = serializers.gson();
+    xstream = serializers.xstream();
   }
 
   protected Response getUsage(final String accountSid, final String subresource, UriInfo info, final MediaType responseType) {
@@ -50,6 +50,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.http.converter.CallDetailRecordConverter;
 import org.mobicents.servlet.restcomm.http.converter.CallDetailRecordListConverter;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 import org.mobicents.servlet.restcomm.telephony.CallInfo;
 import org.mobicents.servlet.restcomm.telephony.CallManagerResponse;
 import org.mobicents.servlet.restcomm.telephony.CallResponse;
@@ -79,9 +80,7 @@ public class UssdPushEndpoint extends AbstractEndpoint {
     private ActorRef ussdCallManager;
     private DaoManager daos;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
-    private CallDetailRecordListConverter listConverter;
 
     public UssdPushEndpoint() {
         super();
@@ -94,18 +93,20 @@ public class UssdPushEndpoint extends AbstractEndpoint {
         ussdCallManager = (ActorRef) context.getAttribute("org.mobicents.servlet.restcomm.ussd.telephony.UssdCallManager");
         daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
         super.init(configuration);
-        CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
-        listConverter = new CallDetailRecordListConverter(configuration);
-        builder = new GsonBuilder();
-        builder.registerTypeAdapter(CallDetailRecord.class, converter);
-        builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
-        xstream.registerConverter(listConverter);
+        final Serializers serializers = Serializers.get(context, UssdPushEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
+                final CallDetailRecordListConverter listConverter = new CallDetailRecordListConverter(configuration);
+                builder.registerTypeAdapter(CallDetailRecord.class, converter);
+                builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+                xstream.registerConverter(listConverter);
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     @SuppressWarnings("unchecked")
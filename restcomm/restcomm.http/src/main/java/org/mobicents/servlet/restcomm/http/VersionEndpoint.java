@@ -35,6 +35,7 @@ import org.mobicents.servlet.restcomm.dao.UsageDao;
 import org.mobicents.servlet.restcomm.entities.RestCommResponse;
 import org.mobicents.servlet.restcomm.http.converter.RestCommResponseConverter;
 import org.mobicents.servlet.restcomm.http.converter.VersionConverter;
+import org.mobicents.servlet.restcomm.http.converter.Serializers;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
@@ -71,15 +72,17 @@ public class VersionEndpoint extends AbstractEndpoint {
         super.init(configuration);
         dao = storage.getUsageDao();
         accountsDao = storage.getAccountsDao();
-        final VersionConverter converter = new VersionConverter(configuration);
-        final GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(VersionEntity.class, converter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        final Serializers serializers = Serializers.get(context, VersionEndpoint.class, new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final VersionConverter converter = new VersionConverter(configuration);
+                builder.registerTypeAdapter(VersionEntity.class, converter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+            }
+        });
+        gson = serializers.gson();
+        xstream = serializers.xstream();
     }
 
     protected Response getVersion(final String accountSid, final MediaType mediaType) {
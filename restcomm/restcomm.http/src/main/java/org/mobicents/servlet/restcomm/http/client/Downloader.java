@@ -40,25 +40,23 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.params.ClientPNames;
 import org.apache.http.client.params.CookiePolicy;
+import org.apache.http.client.protocol.ClientContext;
 import org.apache.http.client.utils.URIBuilder;
-import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
-import org.mobicents.servlet.restcomm.http.CustomHttpClientBuilder;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.mobicents.servlet.restcomm.http.HttpClientPool;
 
 import akka.actor.ActorRef;
 import akka.actor.UntypedActor;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
-import org.xml.sax.InputSource;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.stream.XMLStreamException;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
  */
 public final class Downloader extends UntypedActor {
-
     // Logger.
     private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
 
@@ -67,20 +65,24 @@ public final class Downloader extends UntypedActor {
     }
 
     public HttpResponseDescriptor fetch(final HttpRequestDescriptor descriptor) throws IllegalArgumentException, IOException,
-            URISyntaxException, XMLStreamException {
+            URISyntaxException {
         int code = -1;
         HttpRequest request = null;
         HttpResponse response = null;
         HttpRequestDescriptor temp = descriptor;
+        final HttpClient client = HttpClientPool.getClient();
+        // The pooled client is shared so cookies are kept per fetch, across redirects.
+        final HttpContext context = new BasicHttpContext();
+        context.setAttribute(ClientContext.COOKIE_STORE, new BasicCookieStore());
         do {
-            final HttpClient client = CustomHttpClientBuilder.build(RestcommConfiguration.getInstance().getMain());
-            client.getParams().setParameter(ClientPNames.COOKIE_POLICY, CookiePolicy.BROWSER_COMPATIBILITY);
-//            client.getParams().setParameter("http.protocol.content-charset", "UTF-8");
             request = request(temp);
+            request.getParams().setParameter(ClientPNames.COOKIE_POLICY, CookiePolicy.BROWSER_COMPATIBILITY);
 //            request.setHeader(CoreProtocolPNames.HTTP_CONTENT_CHARSET, Consts.UTF_8.name());
-            response = client.execute((HttpUriRequest) request);
+            response = client.execute((HttpUriRequest) request, context);
             code = response.getStatusLine().getStatusCode();
             if (isRedirect(code)) {
+                // Release the connection before following the redirect.
+                EntityUtils.consume(response.getEntity());
                 final Header header = response.getFirstHeader(HttpHeaders.LOCATION);
                 if (header != null) {
                     final String location = header.getValue();
@@ -100,7 +102,8 @@ public final class Downloader extends UntypedActor {
                     code, errorReason);
             logger.warning(httpErrorMessage);
         }
-        return  validateXML(response(request, response));
+        // The document is checked when the interpreter compiles it, a document it has compiled before is not parsed again.
+        return response(request, response);
     }
 
     private boolean isRedirect(final int code) {
@@ -112,21 +115,6 @@ public final class Downloader extends UntypedActor {
         return (code >= 400);
     }
 
-    private HttpResponseDescriptor validateXML (final HttpResponseDescriptor descriptor) throws XMLStreamException {
-        if (descriptor.getContentLength() > 0) {
-            try {
-                // parse an XML document into a DOM tree
-                String xml = descriptor.getContentAsString().trim().replaceAll("&([^;]+(?!(?:\\w|;)))", "&amp;$1");
-                DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                parser.parse(new InputSource(new ByteArrayInputStream(xml.getBytes("utf-8"))));
-                return descriptor;
-            } catch (final Exception e) {
-                throw new XMLStreamException("Error parsing the RCML:" + e);
-            }
-        }
-        return descriptor;
-    }
-
     @Override
     public void onReceive(final Object message) throws Exception {
         final Class<?> klass = message.getClass();
@@ -194,9 +182,13 @@ public final class Downloader extends UntypedActor {
             if (contentType != null) {
                 builder.setContentType(contentType.getValue());
             }
-            builder.setContent(entity.getContent());
             builder.setContentLength(entity.getContentLength());
             builder.setIsChunked(entity.isChunked());
+            // Read the body now so that the connection goes back to the pool.
+            final byte[] content = EntityUtils.toByteArray(entity);
+            if (content != null) {
+                builder.setContent(new ByteArrayInputStream(content));
+            }
         }
         return builder.build();
     }
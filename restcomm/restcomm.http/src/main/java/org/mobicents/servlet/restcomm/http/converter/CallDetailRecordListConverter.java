@@ -40,9 +40,6 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 @ThreadSafe
 public final class CallDetailRecordListConverter extends AbstractConverter implements JsonSerializer<CallDetailRecordList> {
 
-    Integer page, pageSize, total;
-    String pathUri;
-
     public CallDetailRecordListConverter(final Configuration configuration) {
         super(configuration);
     }
@@ -60,17 +57,27 @@ public final class CallDetailRecordListConverter extends AbstractConverter imple
         final CallDetailRecordList list = (CallDetailRecordList) object;
 
         writer.startNode("Calls");
-        writer.addAttribute("page", String.valueOf(page));
-        writer.addAttribute("numpages", String.valueOf(getTotalPages()));
-        writer.addAttribute("pagesize", String.valueOf(pageSize));
-        writer.addAttribute("total", String.valueOf(getTotalPages()));
-        writer.addAttribute("start", getFirstIndex());
+        writer.addAttribute("page", String.valueOf(list.getPage()));
+        // The page count, the total and the last page are unknown when counting was skipped.
+        if (list.isTotalKnown()) {
+            writer.addAttribute("numpages", String.valueOf(getTotalPages(list)));
+        }
+        writer.addAttribute("pagesize", String.valueOf(list.getPageSize()));
+        if (list.isTotalKnown()) {
+            writer.addAttribute("total", String.valueOf(getTotalPages(list)));
+        }
+        writer.addAttribute("start", getFirstIndex(list));
         writer.addAttribute("end", getLastIndex(list));
-        writer.addAttribute("uri", pathUri);
-        writer.addAttribute("firstpageuri", getFirstPageUri());
-        writer.addAttribute("previouspageuri", getPreviousPageUri());
+        writer.addAttribute("uri", list.getPathUri());
+        writer.addAttribute("firstpageuri", getFirstPageUri(list));
+        writer.addAttribute("previouspageuri", getPreviousPageUri(list));
         writer.addAttribute("nextpageuri", getNextPageUri(list));
-        writer.addAttribute("lastpageuri", getLastPageUri());
+        if (list.getNextPageToken() != null) {
+            writer.addAttribute("nextpagetoken", list.getNextPageToken().toString());
+        }
+        if (list.isTotalKnown()) {
+            writer.addAttribute("lastpageuri", getLastPageUri(list));
+        }
 
         for (final CallDetailRecord cdr : list.getCallDetailRecords()) {
             context.convertAnother(cdr);
@@ -90,67 +97,75 @@ public final class CallDetailRecordListConverter extends AbstractConverter imple
             array.add(context.serialize(cdr));
         }
 
-        result.addProperty("page", page);
-        result.addProperty("num_pages", getTotalPages());
-        result.addProperty("page_size", pageSize);
-        result.addProperty("total", total);
-        result.addProperty("start", getFirstIndex());
+        result.addProperty("page", cdrList.getPage());
+        if (cdrList.isTotalKnown()) {
+            result.addProperty("num_pages", getTotalPages(cdrList));
+        }
+        result.addProperty("page_size", cdrList.getPageSize());
+        if (cdrList.isTotalKnown()) {
+            result.addProperty("total", cdrList.getTotal());
+        }
+        result.addProperty("start", getFirstIndex(cdrList));
         result.addProperty("end", getLastIndex(cdrList));
-        result.addProperty("uri", pathUri);
-        result.addProperty("first_page_uri", getFirstPageUri());
-        result.addProperty("previous_page_uri", getPreviousPageUri());
+        result.addProperty("uri", cdrList.getPathUri());
+        result.addProperty("first_page_uri", getFirstPageUri(cdrList));
+        result.addProperty("previous_page_uri", getPreviousPageUri(cdrList));
         result.addProperty("next_page_uri", getNextPageUri(cdrList));
-        result.addProperty("last_page_uri", getLastPageUri());
+        if (cdrList.getNextPageToken() != null) {
+            result.addProperty("next_page_token", cdrList.getNextPageToken().toString());
+        }
+        if (cdrList.isTotalKnown()) {
+            result.addProperty("last_page_uri", getLastPageUri(cdrList));
+        }
         result.add("calls", array);
 
         return result;
     }
 
-    private int getTotalPages() {
-        return total / pageSize;
+    private int getTotalPages(CallDetailRecordList list) {
+        return list.getTotal() / list.getPageSize();
     }
 
-    private String getFirstIndex() {
-        return String.valueOf(page * pageSize);
+    private String getFirstIndex(CallDetailRecordList list) {
+        return String.valueOf(list.getPage() * list.getPageSize());
     }
 
     private String getLastIndex(CallDetailRecordList list) {
-        return String.valueOf((page == getTotalPages()) ? (page * pageSize) + list.getCallDetailRecords().size()
+        final int page = list.getPage();
+        final int pageSize = list.getPageSize();
+        if (!list.isTotalKnown()) {
+            return String.valueOf((page * pageSize) + Math.max(0, list.getCallDetailRecords().size() - 1));
+        }
+        return String.valueOf((page == getTotalPages(list)) ? (page * pageSize) + list.getCallDetailRecords().size()
                 : (pageSize - 1) + (page * pageSize));
     }
 
-    private String getFirstPageUri() {
-        return pathUri + "?Page=0&PageSize=" + pageSize;
+    private String getFirstPageUri(CallDetailRecordList list) {
+        return list.getPathUri() + "?Page=0&PageSize=" + list.getPageSize() + list.getFilters();
     }
 
-    private String getPreviousPageUri() {
-        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
+    private String getPreviousPageUri(CallDetailRecordList list) {
+        final int page = list.getPage();
+        return ((page == 0) ? "null" : list.getPathUri() + "?Page=" + (page - 1) + "&PageSize=" + list.getPageSize()
+                + list.getFilters());
     }
 
     private String getNextPageUri(CallDetailRecordList list) {
-        String lastSid = (page == getTotalPages()) ? "null" : list.getCallDetailRecords().get(pageSize - 1).getSid().toString();
-        return (page == getTotalPages()) ? "null" : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid="
-                + lastSid;
-    }
-
-    private String getLastPageUri() {
-        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
-    }
-
-    public void setPage(Integer page) {
-        this.page = page;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setCount(Integer count) {
-        this.total = count;
+        final int page = list.getPage();
+        final int pageSize = list.getPageSize();
+        if (list.getNextPageToken() != null) {
+            return list.getPathUri() + "?Page=" + (page + 1) + "&PageSize=" + pageSize + list.getFilters()
+                    + "&PageToken=" + list.getNextPageToken();
+        } else if (!list.isTotalKnown()) {
+            return "null";
+        }
+        String lastSid = (page == getTotalPages(list)) ? "null" : list.getCallDetailRecords().get(pageSize - 1).getSid().toString();
+        return (page == getTotalPages(list)) ? "null" : list.getPathUri() + "?Page=" + (page + 1) + "&PageSize=" + pageSize
+                + list.getFilters() + "&AfterSid=" + lastSid;
     }
 
-    public void setPathUri(String pathUri) {
-        this.pathUri = pathUri;
+    private String getLastPageUri(CallDetailRecordList list) {
+        return list.getPathUri() + "?Page=" + getTotalPages(list) + "&PageSize=" + list.getPageSize()
+                + list.getFilters();
     }
-
 }
@@ -0,0 +1,66 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.http.converter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+
+/**
+ * Writes rows of comma separated values as described by RFC 4180. A value holding a comma, a double quote or a line
+ * break is quoted, a null value is written as an empty field.
+ */
+@NotThreadSafe
+public final class CsvWriter {
+    private final Writer writer;
+
+    public CsvWriter(final Writer writer) {
+        super();
+        this.writer = writer;
+    }
+
+    public void writeRow(final Object... values) throws IOException {
+        for (int index = 0; index < values.length; index++) {
+            if (index > 0) {
+                writer.write(',');
+            }
+            if (values[index] != null) {
+                writeValue(values[index].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(final String value) throws IOException {
+        boolean quoted = false;
+        for (int index = 0; index < value.length() && !quoted; index++) {
+            final char character = value.charAt(index);
+            quoted = character == ',' || character == '"' || character == '\r' || character == '\n';
+        }
+        if (quoted) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.http.converter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletContext;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.entities.RestCommResponse;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * The JSON and XML serializers of a REST endpoint. Endpoints are instantiated for every request, building a Gson and
+ * an XStream instance each time is expensive so they are built once per endpoint type and kept in the servlet context.
+ *
+ * Both serializers are thread safe once configured, the registered converters must not keep any per request state.
+ */
+@ThreadSafe
+public final class Serializers {
+    private static final String ATTRIBUTE = Serializers.class.getName();
+
+    private final Gson gson;
+    private final XStream xstream;
+
+    /**
+     * Registers the converters of an endpoint. Only called the first time the serializers of an endpoint are needed.
+     */
+    public interface Factory {
+        void configure(GsonBuilder builder, XStream xstream);
+    }
+
+    private Serializers(final Gson gson, final XStream xstream) {
+        super();
+        this.gson = gson;
+        this.xstream = xstream;
+    }
+
+    public Gson gson() {
+        return gson;
+    }
+
+    public XStream xstream() {
+        return xstream;
+    }
+
+    /**
+     * @param endpoint The endpoint the serializers belong to.
+     * @param factory Registers the converters of the endpoint. The JSON output is pretty printed and the XML root
+     *        element aliased to RestcommResponse before the factory is called.
+     */
+    public static Serializers get(final ServletContext context, final Class<?> endpoint, final Factory factory) {
+        return get(context, endpoint, true, factory);
+    }
+
+    /**
+     * @param prettyPrinting False for a JSON output without any white space, one line per object.
+     */
+    public static Serializers get(final ServletContext context, final Class<?> endpoint, final boolean prettyPrinting,
+            final Factory factory) {
+        final ConcurrentMap<Class<?>, Serializers> registry = registry(context);
+        Serializers serializers = registry.get(endpoint);
+        if (serializers == null) {
+            serializers = create(prettyPrinting, factory);
+            final Serializers existing = registry.putIfAbsent(endpoint, serializers);
+            if (existing != null) {
+                serializers = existing;
+            }
+        }
+        return serializers;
+    }
+
+    /**
+     * Builds new serializers without registering them.
+     */
+    public static Serializers create(final Factory factory) {
+        return create(true, factory);
+    }
+
+    private static Serializers create(final boolean prettyPrinting, final Factory factory) {
+        final GsonBuilder builder = new GsonBuilder();
+        if (prettyPrinting) {
+            builder.setPrettyPrinting();
+        }
+        final XStream xstream = new XStream();
+        xstream.alias("RestcommResponse", RestCommResponse.class);
+        factory.configure(builder, xstream);
+        return new Serializers(builder.create(), xstream);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Class<?>, Serializers> registry(final ServletContext context) {
+        ConcurrentMap<Class<?>, Serializers> registry = (ConcurrentMap<Class<?>, Serializers>) context.getAttribute(ATTRIBUTE);
+        if (registry == null) {
+            synchronized (Serializers.class) {
+                registry = (ConcurrentMap<Class<?>, Serializers>) context.getAttribute(ATTRIBUTE);
+                if (registry == null) {
+                    registry = new ConcurrentHashMap<Class<?>, Serializers>();
+                    context.setAttribute(ATTRIBUTE, registry);
+                }
+            }
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.http.converter;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
+import org.mobicents.servlet.restcomm.entities.CallDetailRecordList;
+import org.mobicents.servlet.restcomm.entities.RestCommResponse;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.GsonBuilder;
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Measures the cost of serializing a page of the Calls list, building the serializers for every request as the
+ * endpoints used to do against reusing the shared ones.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.mobicents.servlet.restcomm.http.converter.CallDetailRecordListSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallDetailRecordListSerializationBenchmark {
+    @Param({ "50" })
+    public int pageSize;
+
+    private Serializers.Factory factory;
+    private Serializers shared;
+    private CallDetailRecordList list;
+
+    @Setup
+    public void setup() {
+        final Configuration configuration = new PropertiesConfiguration();
+        configuration.setProperty("api-version", "2012-04-24");
+        configuration.setProperty("root-uri", "/restcomm/");
+        factory = new Serializers.Factory() {
+            @Override
+            public void configure(final GsonBuilder builder, final XStream xstream) {
+                final CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
+                final CallDetailRecordListConverter listConverter = new CallDetailRecordListConverter(configuration);
+                builder.registerTypeAdapter(CallDetailRecord.class, converter);
+                builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
+                xstream.registerConverter(converter);
+                xstream.registerConverter(new RestCommResponseConverter(configuration));
+                xstream.registerConverter(listConverter);
+            }
+        };
+        shared = Serializers.create(factory);
+        final Sid accountSid = Sid.generate(Sid.Type.ACCOUNT);
+        final List<CallDetailRecord> cdrs = new ArrayList<CallDetailRecord>();
+        for (int index = 0; index < pageSize; index++) {
+            final Sid sid = Sid.generate(Sid.Type.CALL);
+            final DateTime now = DateTime.now();
+            final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+            builder.setSid(sid);
+            builder.setDateCreated(now);
+            builder.setAccountSid(accountSid);
+            builder.setTo("+15126002188");
+            builder.setFrom("+15126001234");
+            builder.setStatus("completed");
+            builder.setStartTime(now);
+            builder.setEndTime(now.plusSeconds(42));
+            builder.setDuration(42);
+            builder.setPrice(new BigDecimal("0.00"));
+            builder.setPriceUnit(Currency.getInstance("USD"));
+            builder.setDirection("inbound");
+            builder.setApiVersion("2012-04-24");
+            builder.setUri(URI.create("/restcomm/2012-04-24/Accounts/" + accountSid + "/Calls/" + sid));
+            cdrs.add(builder.build());
+        }
+        list = new CallDetailRecordList(cdrs, 0, pageSize, pageSize * 10, "/restcomm/2012-04-24/Accounts/" + accountSid
+                + "/Calls");
+    }
+
+    @Benchmark
+    public String jsonPerRequestSerializers() {
+        return Serializers.create(factory).gson().toJson(list);
+    }
+
+    @Benchmark
+    public String jsonSharedSerializers() {
+        return shared.gson().toJson(list);
+    }
+
+    @Benchmark
+    public String xmlPerRequestSerializers() {
+        return Serializers.create(factory).xstream().toXML(new RestCommResponse(list));
+    }
+
+    @Benchmark
+    public String xmlSharedSerializers() {
+        return shared.xstream().toXML(new RestCommResponse(list));
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CallDetailRecordListSerializationBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
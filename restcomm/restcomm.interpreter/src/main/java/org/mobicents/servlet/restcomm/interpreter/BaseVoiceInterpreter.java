@@ -31,10 +31,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
@@ -46,11 +44,12 @@ import org.mobicents.servlet.restcomm.asr.AsrInfo;
 import org.mobicents.servlet.restcomm.asr.AsrRequest;
 import org.mobicents.servlet.restcomm.asr.AsrResponse;
 import org.mobicents.servlet.restcomm.asr.GetAsrInfo;
-import org.mobicents.servlet.restcomm.asr.ISpeechAsr;
 import org.mobicents.servlet.restcomm.cache.DiskCache;
 import org.mobicents.servlet.restcomm.cache.DiskCacheRequest;
 import org.mobicents.servlet.restcomm.cache.DiskCacheResponse;
 import org.mobicents.servlet.restcomm.cache.HashGenerator;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
@@ -60,7 +59,7 @@ import org.mobicents.servlet.restcomm.dao.TranscriptionsDao;
 import org.mobicents.servlet.restcomm.api.EmailRequest;
 import org.mobicents.servlet.restcomm.api.EmailResponse;
 import org.mobicents.servlet.restcomm.api.Mail;
-import org.mobicents.servlet.restcomm.email.EmailService;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
 import org.mobicents.servlet.restcomm.entities.Notification;
 import org.mobicents.servlet.restcomm.entities.Recording;
@@ -70,11 +69,10 @@ import org.mobicents.servlet.restcomm.entities.SmsMessage.Direction;
 import org.mobicents.servlet.restcomm.entities.SmsMessage.Status;
 import org.mobicents.servlet.restcomm.entities.Transcription;
 import org.mobicents.servlet.restcomm.fax.FaxRequest;
-import org.mobicents.servlet.restcomm.fax.InterfaxService;
 import org.mobicents.servlet.restcomm.fsm.Action;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.http.client.Downloader;
 import org.mobicents.servlet.restcomm.http.client.DownloaderResponse;
 import org.mobicents.servlet.restcomm.http.client.HttpRequestDescriptor;
@@ -114,7 +112,6 @@ import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberFormat;
 import com.google.i18n.phonenumbers.Phonenumber.PhoneNumber;
 
-import akka.actor.Actor;
 import akka.actor.ActorRef;
 import akka.actor.Props;
 import akka.actor.UntypedActor;
@@ -172,9 +169,11 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
     FiniteStateMachine fsm = null;
     // The user specific configuration.
     Configuration configuration = null;
-    // The block storage cache.
+    // The block storage cache, created on first use.
     ActorRef cache = null;
     String cachePath = null;
+    String cacheUri = null;
+    // The service actors are looked up on first use, see ServicePools.
     // The downloader will fetch resources for us using HTTP.
     ActorRef downloader = null;
     // The mail man that will deliver e-mail.
@@ -248,8 +247,6 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
     //Monitoring service
     ActorRef monitoring;
 
-    final Set<Transition> transitions = new HashSet<Transition>();
-
     public BaseVoiceInterpreter() {
         super();
         final ActorRef source = self();
@@ -276,109 +273,114 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         hangingUp = new State("hanging up", new HangingUp(source), null);
         sendingEmail = new State("sending Email", new SendingEmail(source), null);
 
-        // Initialize the transitions for the FSM.
-        transitions.add(new Transition(uninitialized, acquiringAsrInfo));
-        transitions.add(new Transition(acquiringAsrInfo, acquiringSynthesizerInfo));
-        transitions.add(new Transition(acquiringSynthesizerInfo, acquiringCallInfo));
-        transitions.add(new Transition(pausing, hangingUp));
-        transitions.add(new Transition(playingRejectionPrompt, hangingUp));
-        transitions.add(new Transition(faxing, faxing));
-        transitions.add(new Transition(faxing, caching));
-        transitions.add(new Transition(faxing, pausing));
-        transitions.add(new Transition(faxing, redirecting));
-        transitions.add(new Transition(faxing, synthesizing));
-        transitions.add(new Transition(faxing, processingGatherChildren));
-        transitions.add(new Transition(faxing, creatingRecording));
-        transitions.add(new Transition(faxing, creatingSmsSession));
-        transitions.add(new Transition(faxing, hangingUp));
-        transitions.add(new Transition(sendingEmail, sendingEmail));
-        transitions.add(new Transition(sendingEmail, caching));
-        transitions.add(new Transition(sendingEmail, pausing));
-        transitions.add(new Transition(sendingEmail, redirecting));
-        transitions.add(new Transition(sendingEmail, synthesizing));
-        transitions.add(new Transition(sendingEmail, processingGatherChildren));
-        transitions.add(new Transition(sendingEmail, creatingRecording));
-        transitions.add(new Transition(sendingEmail, creatingSmsSession));
-        transitions.add(new Transition(sendingEmail, hangingUp));
-        transitions.add(new Transition(caching, faxing));
-        transitions.add(new Transition(caching, sendingEmail));
-        transitions.add(new Transition(caching, playing));
-        transitions.add(new Transition(caching, caching));
-        transitions.add(new Transition(caching, pausing));
-        transitions.add(new Transition(caching, redirecting));
-        transitions.add(new Transition(caching, synthesizing));
-        transitions.add(new Transition(caching, processingGatherChildren));
-        transitions.add(new Transition(caching, creatingRecording));
-        transitions.add(new Transition(caching, creatingSmsSession));
-        transitions.add(new Transition(caching, hangingUp));
-        transitions.add(new Transition(checkingCache, synthesizing));
-        transitions.add(new Transition(checkingCache, playing));
-        transitions.add(new Transition(checkingCache, checkingCache));
-        transitions.add(new Transition(playing, hangingUp));
-        transitions.add(new Transition(synthesizing, faxing));
-        transitions.add(new Transition(synthesizing, sendingEmail));
-        transitions.add(new Transition(synthesizing, pausing));
-        transitions.add(new Transition(synthesizing, checkingCache));
-        transitions.add(new Transition(synthesizing, caching));
-        transitions.add(new Transition(synthesizing, redirecting));
-        transitions.add(new Transition(synthesizing, processingGatherChildren));
-        transitions.add(new Transition(synthesizing, creatingRecording));
-        transitions.add(new Transition(synthesizing, creatingSmsSession));
-        transitions.add(new Transition(synthesizing, synthesizing));
-        transitions.add(new Transition(synthesizing, hangingUp));
-        transitions.add(new Transition(redirecting, faxing));
-        transitions.add(new Transition(redirecting, sendingEmail));
-        transitions.add(new Transition(redirecting, pausing));
-        transitions.add(new Transition(redirecting, checkingCache));
-        transitions.add(new Transition(redirecting, caching));
-        transitions.add(new Transition(redirecting, synthesizing));
-        transitions.add(new Transition(redirecting, redirecting));
-        transitions.add(new Transition(redirecting, processingGatherChildren));
-        transitions.add(new Transition(redirecting, creatingRecording));
-        transitions.add(new Transition(redirecting, creatingSmsSession));
-        transitions.add(new Transition(redirecting, hangingUp));
-        transitions.add(new Transition(creatingRecording, finishRecording));
-        transitions.add(new Transition(creatingRecording, hangingUp));
-        transitions.add(new Transition(finishRecording, faxing));
-        transitions.add(new Transition(finishRecording, sendingEmail));
-        transitions.add(new Transition(finishRecording, pausing));
-        transitions.add(new Transition(finishRecording, checkingCache));
-        transitions.add(new Transition(finishRecording, caching));
-        transitions.add(new Transition(finishRecording, synthesizing));
-        transitions.add(new Transition(finishRecording, redirecting));
-        transitions.add(new Transition(finishRecording, processingGatherChildren));
-        transitions.add(new Transition(finishRecording, creatingRecording));
-        transitions.add(new Transition(finishRecording, creatingSmsSession));
-        transitions.add(new Transition(finishRecording, hangingUp));
-        transitions.add(new Transition(processingGatherChildren, processingGatherChildren));
-        transitions.add(new Transition(processingGatherChildren, gathering));
-        transitions.add(new Transition(processingGatherChildren, synthesizing));
-        transitions.add(new Transition(processingGatherChildren, hangingUp));
-        transitions.add(new Transition(gathering, finishGathering));
-        transitions.add(new Transition(gathering, hangingUp));
-        transitions.add(new Transition(finishGathering, faxing));
-        transitions.add(new Transition(finishGathering, sendingEmail));
-        transitions.add(new Transition(finishGathering, pausing));
-        transitions.add(new Transition(finishGathering, checkingCache));
-        transitions.add(new Transition(finishGathering, caching));
-        transitions.add(new Transition(finishGathering, synthesizing));
-        transitions.add(new Transition(finishGathering, redirecting));
-        transitions.add(new Transition(finishGathering, processingGatherChildren));
-        transitions.add(new Transition(finishGathering, creatingRecording));
-        transitions.add(new Transition(finishGathering, creatingSmsSession));
-        transitions.add(new Transition(finishGathering, hangingUp));
-        transitions.add(new Transition(creatingSmsSession, sendingSms));
-        transitions.add(new Transition(creatingSmsSession, hangingUp));
-        transitions.add(new Transition(sendingSms, faxing));
-        transitions.add(new Transition(sendingSms, sendingEmail));
-        transitions.add(new Transition(sendingSms, pausing));
-        transitions.add(new Transition(sendingSms, caching));
-        transitions.add(new Transition(sendingSms, synthesizing));
-        transitions.add(new Transition(sendingSms, redirecting));
-        transitions.add(new Transition(sendingSms, processingGatherChildren));
-        transitions.add(new Transition(sendingSms, creatingRecording));
-        transitions.add(new Transition(sendingSms, creatingSmsSession));
-        transitions.add(new Transition(sendingSms, hangingUp));
+    }
+
+    /**
+     * Adds the transitions between the states in common to the transitions of an interpreter.
+     */
+    void addTransitions(final TransitionTable.Builder transitions) {
+        transitions.add(uninitialized, acquiringAsrInfo);
+        transitions.add(acquiringAsrInfo, acquiringSynthesizerInfo);
+        transitions.add(acquiringSynthesizerInfo, acquiringCallInfo);
+        transitions.add(pausing, hangingUp);
+        transitions.add(playingRejectionPrompt, hangingUp);
+        transitions.add(faxing, faxing);
+        transitions.add(faxing, caching);
+        transitions.add(faxing, pausing);
+        transitions.add(faxing, redirecting);
+        transitions.add(faxing, synthesizing);
+        transitions.add(faxing, processingGatherChildren);
+        transitions.add(faxing, creatingRecording);
+        transitions.add(faxing, creatingSmsSession);
+        transitions.add(faxing, hangingUp);
+        transitions.add(sendingEmail, sendingEmail);
+        transitions.add(sendingEmail, caching);
+        transitions.add(sendingEmail, pausing);
+        transitions.add(sendingEmail, redirecting);
+        transitions.add(sendingEmail, synthesizing);
+        transitions.add(sendingEmail, processingGatherChildren);
+        transitions.add(sendingEmail, creatingRecording);
+        transitions.add(sendingEmail, creatingSmsSession);
+        transitions.add(sendingEmail, hangingUp);
+        transitions.add(caching, faxing);
+        transitions.add(caching, sendingEmail);
+        transitions.add(caching, playing);
+        transitions.add(caching, caching);
+        transitions.add(caching, pausing);
+        transitions.add(caching, redirecting);
+        transitions.add(caching, synthesizing);
+        transitions.add(caching, processingGatherChildren);
+        transitions.add(caching, creatingRecording);
+        transitions.add(caching, creatingSmsSession);
+        transitions.add(caching, hangingUp);
+        transitions.add(checkingCache, synthesizing);
+        transitions.add(checkingCache, playing);
+        transitions.add(checkingCache, checkingCache);
+        transitions.add(playing, hangingUp);
+        transitions.add(synthesizing, faxing);
+        transitions.add(synthesizing, sendingEmail);
+        transitions.add(synthesizing, pausing);
+        transitions.add(synthesizing, checkingCache);
+        transitions.add(synthesizing, caching);
+        transitions.add(synthesizing, redirecting);
+        transitions.add(synthesizing, processingGatherChildren);
+        transitions.add(synthesizing, creatingRecording);
+        transitions.add(synthesizing, creatingSmsSession);
+        transitions.add(synthesizing, synthesizing);
+        transitions.add(synthesizing, hangingUp);
+        transitions.add(redirecting, faxing);
+        transitions.add(redirecting, sendingEmail);
+        transitions.add(redirecting, pausing);
+        transitions.add(redirecting, checkingCache);
+        transitions.add(redirecting, caching);
+        transitions.add(redirecting, synthesizing);
+        transitions.add(redirecting, redirecting);
+        transitions.add(redirecting, processingGatherChildren);
+        transitions.add(redirecting, creatingRecording);
+        transitions.add(redirecting, creatingSmsSession);
+        transitions.add(redirecting, hangingUp);
+        transitions.add(creatingRecording, finishRecording);
+        transitions.add(creatingRecording, hangingUp);
+        transitions.add(finishRecording, faxing);
+        transitions.add(finishRecording, sendingEmail);
+        transitions.add(finishRecording, pausing);
+        transitions.add(finishRecording, checkingCache);
+        transitions.add(finishRecording, caching);
+        transitions.add(finishRecording, synthesizing);
+        transitions.add(finishRecording, redirecting);
+        transitions.add(finishRecording, processingGatherChildren);
+        transitions.add(finishRecording, creatingRecording);
+        transitions.add(finishRecording, creatingSmsSession);
+        transitions.add(finishRecording, hangingUp);
+        transitions.add(processingGatherChildren, processingGatherChildren);
+        transitions.add(processingGatherChildren, gathering);
+        transitions.add(processingGatherChildren, synthesizing);
+        transitions.add(processingGatherChildren, hangingUp);
+        transitions.add(gathering, finishGathering);
+        transitions.add(gathering, hangingUp);
+        transitions.add(finishGathering, faxing);
+        transitions.add(finishGathering, sendingEmail);
+        transitions.add(finishGathering, pausing);
+        transitions.add(finishGathering, checkingCache);
+        transitions.add(finishGathering, caching);
+        transitions.add(finishGathering, synthesizing);
+        transitions.add(finishGathering, redirecting);
+        transitions.add(finishGathering, processingGatherChildren);
+        transitions.add(finishGathering, creatingRecording);
+        transitions.add(finishGathering, creatingSmsSession);
+        transitions.add(finishGathering, hangingUp);
+        transitions.add(creatingSmsSession, sendingSms);
+        transitions.add(creatingSmsSession, hangingUp);
+        transitions.add(sendingSms, faxing);
+        transitions.add(sendingSms, sendingEmail);
+        transitions.add(sendingSms, pausing);
+        transitions.add(sendingSms, caching);
+        transitions.add(sendingSms, synthesizing);
+        transitions.add(sendingSms, redirecting);
+        transitions.add(sendingSms, processingGatherChildren);
+        transitions.add(sendingSms, creatingRecording);
+        transitions.add(sendingSms, creatingSmsSession);
+        transitions.add(sendingSms, hangingUp);
     }
 
     @Override
@@ -386,16 +388,11 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
 
     abstract List<NameValuePair> parameters();
 
-    ActorRef asr(final Configuration configuration) {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return new ISpeechAsr(configuration);
-            }
-        }));
+    ActorRef asrService() {
+        if (asrService == null) {
+            asrService = ServicePools.lookup(getContext(), ServicePools.SPEECH_RECOGNIZER, configuration);
+        }
+        return asrService;
     }
 
     @SuppressWarnings("unchecked")
@@ -418,7 +415,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                 final URI callback = (URI) attribute;
                 final List<NameValuePair> parameters = parameters();
                 request = new HttpRequestDescriptor(callback, "POST", parameters);
-                downloader.tell(request, null);
+                downloader().tell(request, null);
             }
             // Update pending asr responses.
             outstandingAsrRequests--;
@@ -427,16 +424,11 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         }
     }
 
-    ActorRef fax(final Configuration configuration) {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return new InterfaxService(configuration);
-            }
-        }));
+    ActorRef faxService() {
+        if (faxService == null) {
+            faxService = ServicePools.lookup(getContext(), ServicePools.FAX_SERVICE, configuration);
+        }
+        return faxService;
     }
 
     //Callback using the Akka ask pattern (http://doc.akka.io/docs/akka/2.2.5/java/untyped-actors.html#Ask__Send-And-Receive-Future) will force VoiceInterpter to wait until
@@ -450,10 +442,10 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             final List<NameValuePair> parameters = parameters();
             requestCallback = new HttpRequestDescriptor(statusCallback, statusCallbackMethod, parameters);
             if (!ask) {
-                downloader.tell(requestCallback, null);
+                downloader().tell(requestCallback, null);
             } else if (ask) {
                 final Timeout timeout = new Timeout(Duration.create(5, TimeUnit.SECONDS));
-                Future<Object> future = (Future<Object>) ask(downloader, requestCallback, timeout);
+                Future<Object> future = (Future<Object>) ask(downloader(), requestCallback, timeout);
                 DownloaderResponse downloaderResponse = null;
                 try {
                     downloaderResponse = (DownloaderResponse) Await.result(future, Duration.create(10, TimeUnit.SECONDS));
@@ -470,32 +462,38 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         callback(false);
     }
 
-    ActorRef cache(final String path, final String uri) {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
+    ActorRef cache() {
+        if (cache == null) {
+            final UntypedActorContext context = getContext();
+            final String path = cachePath;
+            final String uri = cacheUri;
+            final Props props = new Props(new UntypedActorFactory() {
+                private static final long serialVersionUID = 1L;
 
-            @Override
-            public UntypedActor create() throws Exception {
-                return new DiskCache(path, uri, true);
-            }
-        }));
+                @Override
+                public UntypedActor create() throws Exception {
+                    return new DiskCache(path, uri, true);
+                }
+            });
+            cache = context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
+        }
+        return cache;
     }
 
-    ActorRef downloader() {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
+    // The current runtime-settings, read it once when several options have to come from the same version.
+    RuntimeConfigurationSet runtime() {
+        return RestcommConfiguration.getInstance().getRuntime();
+    }
 
-            @Override
-            public UntypedActor create() throws Exception {
-                return new Downloader();
-            }
-        }));
+    ActorRef downloader() {
+        if (downloader == null) {
+            downloader = ServicePools.lookup(getContext(), ServicePools.DOWNLOADER, configuration);
+        }
+        return downloader;
     }
 
     String e164(final String number) {
-        if (configuration.subset("runtime-settings").getBoolean("normalize-numbers-for-outbound-calls")) {
+        if (runtime().isNormalizeNumbersForOutboundCalls()) {
             final PhoneNumberUtil numbersUtil = PhoneNumberUtil.getInstance();
             try {
                 final PhoneNumber result = numbersUtil.parse(number, "US");
@@ -515,16 +513,18 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         parser.tell(next, self);
     }
 
-    ActorRef mailer(final Configuration configuration) {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
+    ActorRef mailerNotify() {
+        if (mailerNotify == null) {
+            mailerNotify = ServicePools.lookup(getContext(), ServicePools.SMTP_NOTIFY, configuration);
+        }
+        return mailerNotify;
+    }
 
-            @Override
-            public Actor create() throws Exception {
-                return new EmailService(configuration);
-            }
-        }));
+    ActorRef mailerService() {
+        if (mailerService == null) {
+            mailerService = ServicePools.lookup(getContext(), ServicePools.SMTP_SERVICE, configuration);
+        }
+        return mailerService;
     }
 
     private Notification notification(final int log, final int error, final String message) {
@@ -536,7 +536,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        String base = configuration.subset("runtime-settings").getString("error-dictionary-uri");
+        String base = runtime().getErrorDictionaryUri();
         try {
             base = UriUtils.resolve(new URI(base)).toString();
         } catch (URISyntaxException e) {
@@ -603,41 +603,15 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         if (emailAddress == null || emailAddress.isEmpty()) {
             return;
         }
-        final String EMAIL_SUBJECT = "RestComm Error Notification - Attention Required";
-        final StringBuilder buffer = new StringBuilder();
-        buffer.append("<strong>").append("Sid: ").append("</strong></br>");
-        buffer.append(notification.getSid().toString()).append("</br>");
-        buffer.append("<strong>").append("Account Sid: ").append("</strong></br>");
-        buffer.append(notification.getAccountSid().toString()).append("</br>");
-        buffer.append("<strong>").append("Call Sid: ").append("</strong></br>");
-        buffer.append(notification.getCallSid().toString()).append("</br>");
-        buffer.append("<strong>").append("API Version: ").append("</strong></br>");
-        buffer.append(notification.getApiVersion()).append("</br>");
-        buffer.append("<strong>").append("Log: ").append("</strong></br>");
-        buffer.append(notification.getLog() == ERROR_NOTIFICATION ? "ERROR" : "WARNING").append("</br>");
-        buffer.append("<strong>").append("Error Code: ").append("</strong></br>");
-        buffer.append(notification.getErrorCode()).append("</br>");
-        buffer.append("<strong>").append("More Information: ").append("</strong></br>");
-        buffer.append(notification.getMoreInfo().toString()).append("</br>");
-        buffer.append("<strong>").append("Message Text: ").append("</strong></br>");
-        buffer.append(notification.getMessageText()).append("</br>");
-        buffer.append("<strong>").append("Message Date: ").append("</strong></br>");
-        buffer.append(notification.getMessageDate().toString()).append("</br>");
-        buffer.append("<strong>").append("Request URL: ").append("</strong></br>");
-        buffer.append(notification.getRequestUrl().toString()).append("</br>");
-        buffer.append("<strong>").append("Request Method: ").append("</strong></br>");
-        buffer.append(notification.getRequestMethod()).append("</br>");
-        buffer.append("<strong>").append("Request Variables: ").append("</strong></br>");
-        buffer.append(notification.getRequestVariables()).append("</br>");
-        buffer.append("<strong>").append("Response Headers: ").append("</strong></br>");
-        buffer.append(notification.getResponseHeaders()).append("</br>");
-        buffer.append("<strong>").append("Response Body: ").append("</strong></br>");
-        buffer.append(notification.getResponseBody()).append("</br>");
-        final Mail emailMsg = new Mail(EMAIL_SENDER,emailAddress,EMAIL_SUBJECT, buffer.toString());
-        if (mailerNotify == null){
-            mailerNotify = mailer(configuration.subset("smtp-notify"));
-        }
-        mailerNotify.tell(new EmailRequest(emailMsg), self());
+        // A failing application raises the same error on every call, the notifications can be sent in digests.
+        final ActorRef digest = NotificationDigests.get(getContext().system()).lookup();
+        if (digest != null) {
+            digest.tell(new NotificationDigests.Add(EMAIL_SENDER, emailAddress, notification), self());
+            return;
+        }
+        final Mail emailMsg = new Mail(EMAIL_SENDER, emailAddress, NotificationDigests.SUBJECT,
+                NotificationDigests.describe(notification));
+        mailerNotify().tell(new EmailRequest(emailMsg), self());
     }
 
     private final class SendingEmail extends AbstractAction {
@@ -695,10 +669,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
 
             // Send the email.
             final Mail emailMsg = new Mail(from, to, subject, verb.text(),cc,bcc);
-            if (mailerService == null){
-                mailerService = mailer(configuration.subset("smtp-service"));
-            }
-            mailerService.tell(new EmailRequest(emailMsg), self());
+            mailerService().tell(new EmailRequest(emailMsg), self());
         }
     }
 
@@ -724,7 +695,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                 final URI callback = (URI) attribute;
                 final List<NameValuePair> parameters = parameters();
                 request = new HttpRequestDescriptor(callback, "POST", parameters);
-                downloader.tell(request, null);
+                downloader().tell(request, null);
             }
             // Destroy the sms session.
             final ActorRef session = smsSessions.remove(record.getSid());
@@ -733,18 +704,25 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         }
     }
 
-    ActorRef tts(final Configuration configuration) {
-        final String classpath = configuration.getString("[@class]");
+    ActorRef synthesizer() {
+        if (synthesizer == null) {
+            synthesizer = ServicePools.lookup(getContext(), ServicePools.SPEECH_SYNTHESIZER, configuration);
+        }
+        return synthesizer;
+    }
 
+    // Stops the service actors owned by this interpreter, the shared pools keep running.
+    void stopServices() {
         final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(configuration);
-            }
-        }));
+        ServicePools.release(context, mailerNotify);
+        ServicePools.release(context, mailerService);
+        ServicePools.release(context, downloader);
+        ServicePools.release(context, asrService);
+        ServicePools.release(context, faxService);
+        ServicePools.release(context, synthesizer);
+        if (cache != null) {
+            context.stop(cache);
+        }
     }
 
     abstract class AbstractAction implements Action {
@@ -765,7 +743,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         public void execute(final Object message) throws Exception {
             final StartInterpreter request = (StartInterpreter) message;
             call = request.resource();
-            asrService.tell(new GetAsrInfo(), source);
+            asrService().tell(new GetAsrInfo(), source);
         }
     }
 
@@ -779,7 +757,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
         public void execute(final Object message) throws Exception {
             final AsrResponse<AsrInfo> response = (AsrResponse<AsrInfo>) message;
             asrInfo = response.get();
-            synthesizer.tell(new GetSpeechSynthesizerInfo(), source);
+            synthesizer().tell(new GetSpeechSynthesizerInfo(), source);
         }
     }
 
@@ -865,7 +843,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
 
         @Override
         public void execute(final Object message) throws Exception {
-            String path = configuration.subset("runtime-settings").getString("prompts-uri");
+            String path = runtime().getPromptsUri();
             if (!path.endsWith("/")) {
                 path += "/";
             }
@@ -930,7 +908,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             final int offset = uri.lastIndexOf("/");
             final String path = cachePath + "/" + uri.substring(offset + 1, uri.length());
             final FaxRequest fax = new FaxRequest(to, new File(path));
-            faxService.tell(fax, source);
+            faxService().tell(fax, source);
         }
     }
 
@@ -986,7 +964,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             if (logger.isErrorEnabled()) {
                 logger.info("Checking cache for hash: " + hash);
             }
-            cache.tell(request, source);
+            cache().tell(request, source);
         }
     }
 
@@ -1002,7 +980,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             if (SpeechSynthesizerResponse.class.equals(klass)) {
                 final SpeechSynthesizerResponse<URI> response = (SpeechSynthesizerResponse<URI>) message;
                 final DiskCacheRequest request = new DiskCacheRequest(response.get());
-                cache.tell(request, source);
+                cache().tell(request, source);
             } else if (Tag.class.equals(klass)) {
                 if (Tag.class.equals(klass)) {
                     verb = (Tag) message;
@@ -1026,7 +1004,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                     final URI base = request.getUri();
                     final URI uri = UriUtils.resolve(base, target);
                     final DiskCacheRequest request = new DiskCacheRequest(uri);
-                    cache.tell(request, source);
+                    cache().tell(request, source);
                 } else {
                     // Ask the parser for the next action to take.
                     final GetNextVerb next = GetNextVerb.instance();
@@ -1161,7 +1139,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                 String language = details.get("language");
                 String text = details.get("text");
                 final SpeechSynthesizerRequest synthesize = new SpeechSynthesizerRequest(voice, language, text);
-                synthesizer.tell(synthesize, source);
+                synthesizer().tell(synthesize, source);
             } else {
                 // Ask the parser for the next action to take.
                 final GetNextVerb next = GetNextVerb.instance();
@@ -1235,7 +1213,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                 final URI uri = UriUtils.resolve(base, target);
                 final List<NameValuePair> parameters = parameters();
                 request = new HttpRequestDescriptor(uri, method, parameters);
-                downloader.tell(request, source);
+                downloader().tell(request, source);
             } else {
                 // Ask the parser for the next action to take.
                 final GetNextVerb next = GetNextVerb.instance();
@@ -1284,7 +1262,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             if (SpeechSynthesizerResponse.class.equals(klass)) {
                 final SpeechSynthesizerResponse<URI> response = (SpeechSynthesizerResponse<URI>) message;
                 final DiskCacheRequest request = new DiskCacheRequest(response.get());
-                cache.tell(request, source);
+                cache().tell(request, source);
             } else {
                 if (Tag.class.equals(klass)) {
                     verb = (Tag) message;
@@ -1345,7 +1323,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                             final URI uri = UriUtils.resolve(base, target);
                             // Cache the prompt.
                             final DiskCacheRequest request = new DiskCacheRequest(uri);
-                            cache.tell(request, source);
+                            cache().tell(request, source);
                             break;
                         }
                     } else if (say.equals(child.name())) {
@@ -1381,11 +1359,11 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                         String text = child.text();
                         if (text != null && !text.isEmpty()) {
                             // final SpeechSynthesizerRequest synthesize = new SpeechSynthesizerRequest(voice, language, text);
-                            // synthesizer.tell(synthesize, source);
+                            // synthesizer().tell(synthesize, source);
                             // break;
                             String hash = hash(child);
                             DiskCacheRequest request = new DiskCacheRequest(hash);
-                            cache.tell(request, source);
+                            cache().tell(request, source);
                             break;
                         }
                     } else if (pause.equals(child.name())) {
@@ -1400,7 +1378,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                                 }
                             }
                         }
-                        String path = configuration.subset("runtime-settings").getString("prompts-uri");
+                        String path = runtime().getPromptsUri();
                         if (!path.endsWith("/")) {
                             path += "/";
                         }
@@ -1551,7 +1529,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                     final List<NameValuePair> parameters = parameters();
                     parameters.add(new BasicNameValuePair("Digits", digits));
                     request = new HttpRequestDescriptor(uri, method, parameters);
-                    downloader.tell(request, source);
+                    downloader().tell(request, source);
                     return;
                 }
             }
@@ -1627,8 +1605,8 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             }
             // Start recording.
             recordingSid = Sid.generate(Sid.Type.RECORDING);
-            String path = configuration.subset("runtime-settings").getString("recordings-path");
-            String httpRecordingUri = configuration.subset("runtime-settings").getString("recordings-uri");
+            String path = runtime().getRecordingsPath();
+            String httpRecordingUri = runtime().getRecordingsUri();
             if (!path.endsWith("/")) {
                 path += "/";
             }
@@ -1646,7 +1624,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
             Record record = null;
             if (playBeep) {
                 final List<URI> prompts = new ArrayList<URI>(1);
-                path = configuration.subset("runtime-settings").getString("prompts-uri");
+                path = runtime().getPromptsUri();
                 if (!path.endsWith("/")) {
                     path += "/";
                 }
@@ -1768,7 +1746,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                     final Map<String, Object> attributes = new HashMap<String, Object>();
                     attributes.put("callback", transcribeCallback);
                     attributes.put("transcription", transcription);
-                    asrService.tell(new AsrRequest(new File(recordingUri), "en", attributes), source);
+                    asrService().tell(new AsrRequest(new File(recordingUri), "en", attributes), source);
                     outstandingAsrRequests++;
                 } catch (final Exception exception) {
                     logger.error(exception.getMessage(), exception);
@@ -1817,7 +1795,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                         parameters.add(new BasicNameValuePair("PublicRecordingUrl", recording.getFileUri().toURL().toString()));
                     } else {
                         // Redirect to the action url.
-                        String httpRecordingUri = configuration.subset("runtime-settings").getString("recordings-uri");
+                        String httpRecordingUri = runtime().getRecordingsUri();
                         if (!httpRecordingUri.endsWith("/")) {
                             httpRecordingUri += "/";
                         }
@@ -1831,7 +1809,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                         final MediaGroupResponse<String> response = (MediaGroupResponse<String>) message;
                         parameters.add(new BasicNameValuePair("Digits", response.get()));
                         request = new HttpRequestDescriptor(uri, method, parameters);
-                        downloader.tell(request, self());
+                        downloader().tell(request, self());
                         // A little clean up.
                         recordingSid = null;
                         recordingUri = null;
@@ -1839,7 +1817,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                     } else if (CallStateChanged.class.equals(klass)) {
                         parameters.add(new BasicNameValuePair("Digits", "hangup"));
                         request = new HttpRequestDescriptor(uri, method, parameters);
-                        downloader.tell(request, null);
+                        downloader().tell(request, null);
                         // A little clean up.
                         recordingSid = null;
                         recordingUri = null;
@@ -2033,7 +2011,7 @@ public abstract class BaseVoiceInterpreter extends UntypedActor {
                     final String status = Status.SENDING.toString();
                     parameters.add(new BasicNameValuePair("SmsStatus", status));
                     request = new HttpRequestDescriptor(uri, method, parameters);
-                    downloader.tell(request, source);
+                    downloader().tell(request, source);
                     return;
                 }
             }
@@ -7,23 +7,23 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.message.BasicNameValuePair;
 import org.joda.time.DateTime;
-import org.mobicents.servlet.restcomm.email.EmailService;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.api.EmailRequest;
 import org.mobicents.servlet.restcomm.api.Mail;
 import org.mobicents.servlet.restcomm.cache.DiskCache;
 import org.mobicents.servlet.restcomm.cache.DiskCacheRequest;
 import org.mobicents.servlet.restcomm.cache.DiskCacheResponse;
 import org.mobicents.servlet.restcomm.cache.HashGenerator;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
 import org.mobicents.servlet.restcomm.entities.CallDetailRecord;
@@ -32,8 +32,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.fsm.Action;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
-import org.mobicents.servlet.restcomm.http.client.Downloader;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.http.client.DownloaderResponse;
 import org.mobicents.servlet.restcomm.http.client.HttpRequestDescriptor;
 import org.mobicents.servlet.restcomm.http.client.HttpResponseDescriptor;
@@ -59,7 +58,6 @@ import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerInfo;
 import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerRequest;
 import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerResponse;
 
-import akka.actor.Actor;
 import akka.actor.ActorRef;
 import akka.actor.Props;
 import akka.actor.ReceiveTimeout;
@@ -99,20 +97,24 @@ public class ConfVoiceInterpreter extends UntypedActor {
     private final State finished;
     // FSM.
     private final FiniteStateMachine fsm;
+    // The transitions are the same for every interpreter, built once from the states of the first one.
+    private static volatile TransitionTable transitionTable;
     // The user specific configuration.
     private final Configuration configuration;
-    // The block storage cache.
-    private final ActorRef cache;
+    // The block storage cache, created on first use.
+    private ActorRef cache = null;
     private final String cachePath;
+    private final String cacheUri;
+    // The service actors are looked up on first use, see ServicePools.
     // The downloader will fetch resources for us using HTTP.
-    private final ActorRef downloader;
+    private ActorRef downloader = null;
     // The mail man that will deliver e-mail.
     private ActorRef mailerNotify = null;
 
     // The storage engine.
     private final DaoManager storage;
     // The text to speech synthesizer service.
-    private final ActorRef synthesizer;
+    private ActorRef synthesizer = null;
 
     // The languages supported by the text to speech synthesizer service.
     private SpeechSynthesizerInfo synthesizerInfo;
@@ -172,64 +174,8 @@ public class ConfVoiceInterpreter extends UntypedActor {
 
         finished = new State("finished", new Finished(source), null);
 
-        // Initialize the transitions for the FSM.
-        final Set<Transition> transitions = new HashSet<Transition>();
-        transitions.add(new Transition(uninitialized, acquiringSynthesizerInfo));
-        transitions.add(new Transition(uninitialized, finished));
-
-        transitions.add(new Transition(acquiringSynthesizerInfo, finished));
-        transitions.add(new Transition(acquiringSynthesizerInfo, downloadingRcml));
-
-        transitions.add(new Transition(acquiringConfMediaGroup, initializingConfMediaGroup));
-        transitions.add(new Transition(acquiringConfMediaGroup, finished));
-
-        transitions.add(new Transition(initializingConfMediaGroup, downloadingRcml));
-        transitions.add(new Transition(initializingConfMediaGroup, checkingCache));
-        transitions.add(new Transition(initializingConfMediaGroup, caching));
-        transitions.add(new Transition(initializingConfMediaGroup, synthesizing));
-        transitions.add(new Transition(initializingConfMediaGroup, redirecting));
-        transitions.add(new Transition(initializingConfMediaGroup, finished));
-        transitions.add(new Transition(initializingConfMediaGroup, ready));
-        transitions.add(new Transition(downloadingRcml, ready));
-        transitions.add(new Transition(downloadingRcml, notFound));
-        transitions.add(new Transition(downloadingRcml, finished));
-        transitions.add(new Transition(downloadingRcml, acquiringConfMediaGroup));
-
-        transitions.add(new Transition(ready, checkingCache));
-        transitions.add(new Transition(ready, caching));
-        transitions.add(new Transition(ready, synthesizing));
-        transitions.add(new Transition(ready, redirecting));
-        transitions.add(new Transition(ready, finished));
-
-        transitions.add(new Transition(caching, playing));
-        transitions.add(new Transition(caching, caching));
-        transitions.add(new Transition(caching, redirecting));
-        transitions.add(new Transition(caching, synthesizing));
-
-        transitions.add(new Transition(caching, finished));
-        transitions.add(new Transition(checkingCache, synthesizing));
-        transitions.add(new Transition(checkingCache, playing));
-        transitions.add(new Transition(checkingCache, checkingCache));
-        transitions.add(new Transition(playing, ready));
-        transitions.add(new Transition(playing, finished));
-
-        transitions.add(new Transition(synthesizing, checkingCache));
-        transitions.add(new Transition(synthesizing, caching));
-        transitions.add(new Transition(synthesizing, redirecting));
-
-        transitions.add(new Transition(synthesizing, synthesizing));
-        transitions.add(new Transition(synthesizing, finished));
-
-        transitions.add(new Transition(redirecting, ready));
-        transitions.add(new Transition(redirecting, checkingCache));
-        transitions.add(new Transition(redirecting, caching));
-        transitions.add(new Transition(redirecting, synthesizing));
-        transitions.add(new Transition(redirecting, redirecting));
-
-        transitions.add(new Transition(redirecting, finished));
-
         // Initialize the FSM.
-        this.fsm = new FiniteStateMachine(uninitialized, transitions);
+        this.fsm = new FiniteStateMachine(uninitialized, transitions());
         // Initialize the runtime stuff.
         this.accountId = account;
         this.version = version;
@@ -239,48 +185,110 @@ public class ConfVoiceInterpreter extends UntypedActor {
         this.configuration = configuration;
 
         this.storage = storage;
-        this.synthesizer = tts(configuration.subset("speech-synthesizer"));
-        final Configuration runtime = configuration.subset("runtime-settings");
-        String path = runtime.getString("cache-path");
+        final RuntimeConfigurationSet runtime = RestcommConfiguration.getInstance().getRuntime();
+        String path = runtime.getCachePath();
         if (!path.endsWith("/")) {
             path = path + "/";
         }
         path = path + accountId.toString();
         cachePath = path;
-        String uri = runtime.getString("cache-uri");
+        String uri = runtime.getCacheUri();
         if (!uri.endsWith("/")) {
             uri = uri + "/";
         }
         uri = uri + accountId.toString();
-        this.cache = cache(path, uri);
-        this.downloader = downloader();
+        cacheUri = uri;
 
         this.callInfo = callInfo;
         this.conference = conference;
     }
 
-    private ActorRef cache(final String path, final String uri) {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
+    private TransitionTable transitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            transitions.add(uninitialized, acquiringSynthesizerInfo);
+            transitions.add(uninitialized, finished);
+
+            transitions.add(acquiringSynthesizerInfo, finished);
+            transitions.add(acquiringSynthesizerInfo, downloadingRcml);
+
+            transitions.add(acquiringConfMediaGroup, initializingConfMediaGroup);
+            transitions.add(acquiringConfMediaGroup, finished);
+
+            transitions.add(initializingConfMediaGroup, downloadingRcml);
+            transitions.add(initializingConfMediaGroup, checkingCache);
+            transitions.add(initializingConfMediaGroup, caching);
+            transitions.add(initializingConfMediaGroup, synthesizing);
+            transitions.add(initializingConfMediaGroup, redirecting);
+            transitions.add(initializingConfMediaGroup, finished);
+            transitions.add(initializingConfMediaGroup, ready);
+            transitions.add(downloadingRcml, ready);
+            transitions.add(downloadingRcml, notFound);
+            transitions.add(downloadingRcml, finished);
+            transitions.add(downloadingRcml, acquiringConfMediaGroup);
+
+            transitions.add(ready, checkingCache);
+            transitions.add(ready, caching);
+            transitions.add(ready, synthesizing);
+            transitions.add(ready, redirecting);
+            transitions.add(ready, finished);
+
+            transitions.add(caching, playing);
+            transitions.add(caching, caching);
+            transitions.add(caching, redirecting);
+            transitions.add(caching, synthesizing);
+
+            transitions.add(caching, finished);
+            transitions.add(checkingCache, synthesizing);
+            transitions.add(checkingCache, playing);
+            transitions.add(checkingCache, checkingCache);
+            transitions.add(playing, ready);
+            transitions.add(playing, finished);
+
+            transitions.add(synthesizing, checkingCache);
+            transitions.add(synthesizing, caching);
+            transitions.add(synthesizing, redirecting);
+
+            transitions.add(synthesizing, synthesizing);
+            transitions.add(synthesizing, finished);
+
+            transitions.add(redirecting, ready);
+            transitions.add(redirecting, checkingCache);
+            transitions.add(redirecting, caching);
+            transitions.add(redirecting, synthesizing);
+            transitions.add(redirecting, redirecting);
+
+            transitions.add(redirecting, finished);
+            table = transitions.build();
+            transitionTable = table;
+        }
+        return table;
+    }
 
-            @Override
-            public UntypedActor create() throws Exception {
-                return new DiskCache(path, uri, true);
-            }
-        }));
+    private ActorRef cache() {
+        if (cache == null) {
+            final UntypedActorContext context = getContext();
+            final String path = cachePath;
+            final String uri = cacheUri;
+            final Props props = new Props(new UntypedActorFactory() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public UntypedActor create() throws Exception {
+                    return new DiskCache(path, uri, true);
+                }
+            });
+            cache = context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
+        }
+        return cache;
     }
 
     private ActorRef downloader() {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public UntypedActor create() throws Exception {
-                return new Downloader();
-            }
-        }));
+        if (downloader == null) {
+            downloader = ServicePools.lookup(getContext(), ServicePools.DOWNLOADER, configuration);
+        }
+        return downloader;
     }
 
     private String e164(final String number) {
@@ -300,16 +308,11 @@ public class ConfVoiceInterpreter extends UntypedActor {
         parser.tell(next, self);
     }
 
-    ActorRef mailer(final Configuration configuration) {
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return new EmailService(configuration);
-            }
-        }));
+    private ActorRef mailerNotify() {
+        if (mailerNotify == null) {
+            mailerNotify = ServicePools.lookup(getContext(), ServicePools.SMTP_NOTIFY, configuration);
+        }
+        return mailerNotify;
     }
 
     private Notification notification(final int log, final int error, final String message) {
@@ -321,7 +324,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        final String base = configuration.subset("runtime-settings").getString("error-dictionary-uri");
+        final String base = RestcommConfiguration.getInstance().getRuntime().getErrorDictionaryUri();
         StringBuilder buffer = new StringBuilder();
         buffer.append(base);
         if (!base.endsWith("/")) {
@@ -530,56 +533,22 @@ public class ConfVoiceInterpreter extends UntypedActor {
         if (emailAddress == null || emailAddress.isEmpty()) {
             return;
         }
-
-        final String EMAIL_SUBJECT = "RestComm Error Notification - Attention Required";
-        final StringBuilder buffer = new StringBuilder();
-        buffer.append("<strong>").append("Sid: ").append("</strong></br>");
-        buffer.append(notification.getSid().toString()).append("</br>");
-        buffer.append("<strong>").append("Account Sid: ").append("</strong></br>");
-        buffer.append(notification.getAccountSid().toString()).append("</br>");
-        buffer.append("<strong>").append("Call Sid: ").append("</strong></br>");
-        buffer.append(notification.getCallSid().toString()).append("</br>");
-        buffer.append("<strong>").append("API Version: ").append("</strong></br>");
-        buffer.append(notification.getApiVersion()).append("</br>");
-        buffer.append("<strong>").append("Log: ").append("</strong></br>");
-        buffer.append(notification.getLog() == ERROR_NOTIFICATION ? "ERROR" : "WARNING").append("</br>");
-        buffer.append("<strong>").append("Error Code: ").append("</strong></br>");
-        buffer.append(notification.getErrorCode()).append("</br>");
-        buffer.append("<strong>").append("More Information: ").append("</strong></br>");
-        buffer.append(notification.getMoreInfo().toString()).append("</br>");
-        buffer.append("<strong>").append("Message Text: ").append("</strong></br>");
-        buffer.append(notification.getMessageText()).append("</br>");
-        buffer.append("<strong>").append("Message Date: ").append("</strong></br>");
-        buffer.append(notification.getMessageDate().toString()).append("</br>");
-        buffer.append("<strong>").append("Request URL: ").append("</strong></br>");
-        buffer.append(notification.getRequestUrl().toString()).append("</br>");
-        buffer.append("<strong>").append("Request Method: ").append("</strong></br>");
-        buffer.append(notification.getRequestMethod()).append("</br>");
-        buffer.append("<strong>").append("Request Variables: ").append("</strong></br>");
-        buffer.append(notification.getRequestVariables()).append("</br>");
-        buffer.append("<strong>").append("Response Headers: ").append("</strong></br>");
-        buffer.append(notification.getResponseHeaders()).append("</br>");
-        buffer.append("<strong>").append("Response Body: ").append("</strong></br>");
-        buffer.append(notification.getResponseBody()).append("</br>");
-        final Mail emailMsg = new Mail(EMAIL_SENDER,emailAddress,EMAIL_SUBJECT, buffer.toString());
-        if (mailerNotify == null){
-            mailerNotify = mailer(configuration.subset("smtp-notify"));
-        }
-        mailerNotify.tell(new EmailRequest(emailMsg), self());
+        // A failing application raises the same error on every call, the notifications can be sent in digests.
+        final ActorRef digest = NotificationDigests.get(getContext().system()).lookup();
+        if (digest != null) {
+            digest.tell(new NotificationDigests.Add(EMAIL_SENDER, emailAddress, notification), self());
+            return;
+        }
+        final Mail emailMsg = new Mail(EMAIL_SENDER, emailAddress, NotificationDigests.SUBJECT,
+                NotificationDigests.describe(notification));
+        mailerNotify().tell(new EmailRequest(emailMsg), self());
     }
 
-    private ActorRef tts(final Configuration configuration) {
-        final String classpath = configuration.getString("[@class]");
-
-        final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(configuration);
-            }
-        }));
+    private ActorRef synthesizer() {
+        if (synthesizer == null) {
+            synthesizer = ServicePools.lookup(getContext(), ServicePools.SPEECH_SYNTHESIZER, configuration);
+        }
+        return synthesizer;
     }
 
     private abstract class AbstractAction implements Action {
@@ -600,7 +569,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
         public void execute(final Object message) throws Exception {
             final StartInterpreter request = (StartInterpreter) message;
             conference = request.resource();
-            synthesizer.tell(new GetSpeechSynthesizerInfo(), source);
+            synthesizer().tell(new GetSpeechSynthesizerInfo(), source);
         }
     }
 
@@ -650,7 +619,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
                 // executed.
                 final List<NameValuePair> parameters = parameters();
                 request = new HttpRequestDescriptor(url, method, parameters);
-                downloader.tell(request, source);
+                downloader().tell(request, source);
             }
         }
     }
@@ -721,7 +690,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
             if (logger.isErrorEnabled()) {
                 logger.info("Checking cache for hash: " + hash);
             }
-            cache.tell(request, source);
+            cache().tell(request, source);
         }
     }
 
@@ -737,7 +706,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
             if (SpeechSynthesizerResponse.class.equals(klass)) {
                 final SpeechSynthesizerResponse<URI> response = (SpeechSynthesizerResponse<URI>) message;
                 final DiskCacheRequest request = new DiskCacheRequest(response.get());
-                cache.tell(request, source);
+                cache().tell(request, source);
             } else if (Tag.class.equals(klass) || MediaGroupStateChanged.class.equals(klass)) {
                 if (Tag.class.equals(klass)) {
                     verb = (Tag) message;
@@ -761,7 +730,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
                     final URI base = request.getUri();
                     final URI uri = resolve(base, target);
                     final DiskCacheRequest request = new DiskCacheRequest(uri);
-                    cache.tell(request, source);
+                    cache().tell(request, source);
                 } else {
                     // Ask the parser for the next action to take.
                     final GetNextVerb next = GetNextVerb.instance();
@@ -897,7 +866,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
                 String language = details.get("language");
                 String text = details.get("text");
                 final SpeechSynthesizerRequest synthesize = new SpeechSynthesizerRequest(voice, language, text);
-                synthesizer.tell(synthesize, source);
+                synthesizer().tell(synthesize, source);
             } else {
                 // Ask the parser for the next action to take.
                 final GetNextVerb next = GetNextVerb.instance();
@@ -951,7 +920,7 @@ public class ConfVoiceInterpreter extends UntypedActor {
                 final URI uri = resolve(base, target);
                 final List<NameValuePair> parameters = parameters();
                 request = new HttpRequestDescriptor(uri, method, parameters);
-                downloader.tell(request, source);
+                downloader().tell(request, source);
             } else {
                 // Ask the parser for the next action to take.
                 final GetNextVerb next = GetNextVerb.instance();
@@ -982,11 +951,12 @@ public class ConfVoiceInterpreter extends UntypedActor {
 
             // Stop the dependencies.
             final UntypedActorContext context = getContext();
-            if (mailerNotify != null)
-                context.stop(mailerNotify);
-            context.stop(downloader);
-            context.stop(cache);
-            context.stop(synthesizer);
+            ServicePools.release(context, mailerNotify);
+            ServicePools.release(context, downloader);
+            ServicePools.release(context, synthesizer);
+            if (cache != null) {
+                context.stop(cache);
+            }
             // Stop the interpreter.
             postCleanup();
         }
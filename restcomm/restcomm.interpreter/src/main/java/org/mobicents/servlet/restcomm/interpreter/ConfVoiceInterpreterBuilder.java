@@ -4,6 +4,7 @@ import java.net.URI;
 
 import org.apache.commons.configuration.Configuration;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.telephony.CallInfo;
 
@@ -32,7 +33,7 @@ public class ConfVoiceInterpreterBuilder {
     }
 
     public ActorRef build() {
-        return system.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
@@ -40,7 +41,8 @@ public class ConfVoiceInterpreterBuilder {
                 return new ConfVoiceInterpreter(configuration, account, version, url, method, emailAddress, conference,
                         storage, callInfo);
             }
-        }));
+        });
+        return system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.DB));
     }
 
     public void setConfiguration(final Configuration configuration) {
@@ -0,0 +1,302 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.interpreter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.api.EmailRequest;
+import org.mobicents.servlet.restcomm.api.Mail;
+import org.mobicents.servlet.restcomm.entities.Notification;
+
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+import akka.actor.AbstractExtensionId;
+import akka.actor.Actor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionIdProvider;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+
+/**
+ * Collects the error notifications e-mailed to the account owners and sends one digest per address and window instead
+ * of one e-mail per notification, created once per actor system when RestComm starts. Within a window, the notifications
+ * with the same account, log level, error code and request URL are listed once with the number of times they were
+ * raised.
+ *
+ * The window is read from the notification-digest section of restcomm.xml, a window of 0 keeps the old behavior of one
+ * e-mail per notification.
+ */
+@ThreadSafe
+public final class NotificationDigests implements Extension {
+    public static final String SUBJECT = "RestComm Error Notification - Attention Required";
+    private static final int ERROR_NOTIFICATION = 0;
+
+    private static final Provider provider = new Provider();
+    private static final Logger logger = Logger.getLogger(NotificationDigests.class);
+
+    private final ActorSystem system;
+    private volatile ActorRef digest;
+
+    private NotificationDigests(final ActorSystem system) {
+        super();
+        this.system = system;
+        this.digest = null;
+    }
+
+    public static NotificationDigests get(final ActorSystem system) {
+        return provider.get(system);
+    }
+
+    /**
+     * Starts collecting the notifications if a window is configured, only the first call has an effect.
+     *
+     * @param configuration The RestComm configuration.
+     */
+    public synchronized void start(final Configuration configuration) {
+        if (digest != null) {
+            return;
+        }
+        final Configuration settings = configuration.subset("notification-digest");
+        final long window = settings.getLong("window", 0);
+        if (window > 0) {
+            final int maxNotifications = settings.getInt("max-notifications", 50);
+            digest = system.actorOf(new Props(new UntypedActorFactory() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public Actor create() throws Exception {
+                    return new Digest(configuration, Duration.create(window, TimeUnit.SECONDS), maxNotifications);
+                }
+            }), "notification-digest");
+            logger.info("Notifications are e-mailed in digests every " + window + " seconds.");
+        }
+    }
+
+    /**
+     * @return The actor collecting the notifications or null if every notification is e-mailed on its own.
+     */
+    public ActorRef lookup() {
+        return digest;
+    }
+
+    /**
+     * @return The notification as the HTML body of an e-mail.
+     */
+    public static String describe(final Notification notification) {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("<strong>").append("Sid: ").append("</strong></br>");
+        buffer.append(notification.getSid().toString()).append("</br>");
+        buffer.append("<strong>").append("Account Sid: ").append("</strong></br>");
+        buffer.append(notification.getAccountSid().toString()).append("</br>");
+        buffer.append("<strong>").append("Call Sid: ").append("</strong></br>");
+        buffer.append(notification.getCallSid().toString()).append("</br>");
+        buffer.append("<strong>").append("API Version: ").append("</strong></br>");
+        buffer.append(notification.getApiVersion()).append("</br>");
+        buffer.append("<strong>").append("Log: ").append("</strong></br>");
+        buffer.append(notification.getLog() == ERROR_NOTIFICATION ? "ERROR" : "WARNING").append("</br>");
+        buffer.append("<strong>").append("Error Code: ").append("</strong></br>");
+        buffer.append(notification.getErrorCode()).append("</br>");
+        buffer.append("<strong>").append("More Information: ").append("</strong></br>");
+        buffer.append(notification.getMoreInfo().toString()).append("</br>");
+        buffer.append("<strong>").append("Message Text: ").append("</strong></br>");
+        buffer.append(notification.getMessageText()).append("</br>");
+        buffer.append("<strong>").append("Message Date: ").append("</strong></br>");
+        buffer.append(notification.getMessageDate().toString()).append("</br>");
+        buffer.append("<strong>").append("Request URL: ").append("</strong></br>");
+        buffer.append(notification.getRequestUrl().toString()).append("</br>");
+        buffer.append("<strong>").append("Request Method: ").append("</strong></br>");
+        buffer.append(notification.getRequestMethod()).append("</br>");
+        buffer.append("<strong>").append("Request Variables: ").append("</strong></br>");
+        buffer.append(notification.getRequestVariables()).append("</br>");
+        buffer.append("<strong>").append("Response Headers: ").append("</strong></br>");
+        buffer.append(notification.getResponseHeaders()).append("</br>");
+        buffer.append("<strong>").append("Response Body: ").append("</strong></br>");
+        buffer.append(notification.getResponseBody()).append("</br>");
+        return buffer.toString();
+    }
+
+    /**
+     * Adds a notification to the next digest sent to an address.
+     */
+    @Immutable
+    public static final class Add {
+        private final String from;
+        private final String to;
+        private final Notification notification;
+
+        public Add(final String from, final String to, final Notification notification) {
+            super();
+            this.from = from;
+            this.to = to;
+            this.notification = notification;
+        }
+
+        public String from() {
+            return from;
+        }
+
+        public String to() {
+            return to;
+        }
+
+        public Notification notification() {
+            return notification;
+        }
+    }
+
+    private static final class Digest extends UntypedActor {
+        private final Configuration configuration;
+        private final FiniteDuration window;
+        private final int maxNotifications;
+        // The pending digests by address.
+        private final Map<String, Pending> digests;
+        private ActorRef mailer;
+        private Cancellable ticks;
+
+        private Digest(final Configuration configuration, final FiniteDuration window, final int maxNotifications) {
+            super();
+            this.configuration = configuration;
+            this.window = window;
+            this.maxNotifications = maxNotifications;
+            this.digests = new LinkedHashMap<String, Pending>();
+        }
+
+        @Override
+        public void preStart() {
+            ticks = getContext().system().scheduler().schedule(window, window, self(), Tick.INSTANCE, getContext().dispatcher());
+        }
+
+        @Override
+        public void postStop() {
+            if (ticks != null) {
+                ticks.cancel();
+            }
+            send();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            if (message instanceof Add) {
+                add((Add) message);
+            } else if (Tick.INSTANCE == message) {
+                send();
+            }
+        }
+
+        private void add(final Add request) {
+            Pending pending = digests.get(request.to());
+            if (pending == null) {
+                pending = new Pending(request.from());
+                digests.put(request.to(), pending);
+            }
+            final String key = request.notification().getErrorKey();
+            final Entry entry = pending.entries.get(key);
+            if (entry != null) {
+                entry.count++;
+            } else if (pending.entries.size() < maxNotifications) {
+                pending.entries.put(key, new Entry(request.notification()));
+            } else {
+                pending.omitted++;
+            }
+        }
+
+        private void send() {
+            if (digests.isEmpty()) {
+                return;
+            }
+            if (mailer == null) {
+                mailer = ServicePools.lookup(getContext(), ServicePools.SMTP_NOTIFY, configuration);
+            }
+            for (final Map.Entry<String, Pending> digest : digests.entrySet()) {
+                final Pending pending = digest.getValue();
+                int total = pending.omitted;
+                final StringBuilder buffer = new StringBuilder();
+                for (final Entry entry : pending.entries.values()) {
+                    total += entry.count;
+                    buffer.append("<strong>").append("Occurrences: ").append("</strong></br>");
+                    buffer.append(entry.count).append(" since ").append(entry.first).append("</br>");
+                    buffer.append(describe(entry.notification)).append("<hr/>");
+                }
+                if (pending.omitted > 0) {
+                    buffer.append("<strong>").append(pending.omitted).append(" more notifications were raised.")
+                            .append("</strong></br>");
+                }
+                final String subject = total == 1 ? SUBJECT : SUBJECT + " (" + total + " notifications)";
+                final Mail mail = new Mail(pending.from, digest.getKey(), subject, buffer.toString());
+                mailer.tell(new EmailRequest(mail), self());
+            }
+            digests.clear();
+        }
+    }
+
+    private static final class Pending {
+        private final String from;
+        private final Map<String, Entry> entries;
+        private int omitted;
+
+        private Pending(final String from) {
+            super();
+            this.from = from;
+            this.entries = new LinkedHashMap<String, Entry>();
+        }
+    }
+
+    private static final class Entry {
+        private final Notification notification;
+        private final DateTime first;
+        private int count;
+
+        private Entry(final Notification notification) {
+            super();
+            this.notification = notification;
+            this.first = notification.getMessageDate();
+            this.count = 1;
+        }
+    }
+
+    // Sends the pending digests.
+    private static final class Tick {
+        private static final Tick INSTANCE = new Tick();
+    }
+
+    private static final class Provider extends AbstractExtensionId<NotificationDigests> implements ExtensionIdProvider {
+        @Override
+        public NotificationDigests createExtension(final ExtendedActorSystem system) {
+            return new NotificationDigests(system);
+        }
+
+        @Override
+        public Provider lookup() {
+            return provider;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.interpreter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.asr.ISpeechAsr;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
+import org.mobicents.servlet.restcomm.email.EmailService;
+import org.mobicents.servlet.restcomm.fax.InterfaxService;
+import org.mobicents.servlet.restcomm.http.client.Downloader;
+
+import com.google.common.collect.ImmutableMap;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.Actor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionIdProvider;
+import akka.actor.Props;
+import akka.actor.UntypedActorContext;
+import akka.actor.UntypedActorFactory;
+import akka.routing.SmallestMailboxRouter;
+
+/**
+ * Routed pools of the stateless service actors used by the interpreters, created once per actor system when RestComm
+ * starts. Every member of a pool replies to the sender of the request so an interpreter can use a pool the same way it
+ * uses a service actor of its own.
+ *
+ * The size of each pool is read from the service-pools section of restcomm.xml, a size of 0 keeps the old behavior of
+ * one service actor per interpreter. The members run on the services dispatcher which has a bounded mailbox, an
+ * interpreter sending to a full pool waits until there is room.
+ */
+@ThreadSafe
+public final class ServicePools implements Extension {
+    public static final String SPEECH_SYNTHESIZER = "speech-synthesizer";
+    public static final String SPEECH_RECOGNIZER = "speech-recognizer";
+    public static final String FAX_SERVICE = "fax-service";
+    public static final String SMTP_NOTIFY = "smtp-notify";
+    public static final String SMTP_SERVICE = "smtp-service";
+    public static final String DOWNLOADER = "downloader";
+
+    private static final String[] services = { SPEECH_SYNTHESIZER, SPEECH_RECOGNIZER, FAX_SERVICE, SMTP_NOTIFY,
+            SMTP_SERVICE, DOWNLOADER };
+    private static final Provider provider = new Provider();
+    private static final Logger logger = Logger.getLogger(ServicePools.class);
+
+    private final ActorSystem system;
+    private volatile Map<String, ActorRef> pools;
+
+    private ServicePools(final ActorSystem system) {
+        super();
+        this.system = system;
+        this.pools = null;
+    }
+
+    public static ServicePools get(final ActorSystem system) {
+        return provider.get(system);
+    }
+
+    /**
+     * Creates the pools, only the first call has an effect.
+     *
+     * @param configuration The RestComm configuration.
+     */
+    public synchronized void start(final Configuration configuration) {
+        if (pools != null) {
+            return;
+        }
+        final Configuration sizes = configuration.subset("service-pools");
+        final Map<String, ActorRef> pools = new HashMap<String, ActorRef>();
+        for (final String service : services) {
+            final int size = sizes.getInt(service, 0);
+            if (size > 0) {
+                final Props props = props(service, configuration).withRouter(new SmallestMailboxRouter(size));
+                pools.put(service, system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.SERVICES), service));
+                logger.info("Started a pool of " + size + " " + service + " actors.");
+            }
+        }
+        this.pools = ImmutableMap.copyOf(pools);
+    }
+
+    /**
+     * @return The pool of the service or null if the service is not pooled.
+     */
+    public ActorRef lookup(final String service) {
+        final Map<String, ActorRef> pools = this.pools;
+        return pools == null ? null : pools.get(service);
+    }
+
+    /**
+     * @return The pool of the service or, if the service is not pooled, a new service actor owned by the actor of the
+     *         context.
+     */
+    public static ActorRef lookup(final UntypedActorContext context, final String service, final Configuration configuration) {
+        final ActorRef pool = get(context.system()).lookup(service);
+        if (pool != null) {
+            return pool;
+        }
+        final Props props = props(service, configuration);
+        return context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
+    }
+
+    /**
+     * Stops a service actor returned by {@link #lookup(UntypedActorContext, String, Configuration)} if it is owned by the
+     * actor of the context, pools are left running.
+     */
+    public static void release(final UntypedActorContext context, final ActorRef service) {
+        if (service != null && service.path().parent().equals(context.self().path())) {
+            context.stop(service);
+        }
+    }
+
+    private static Props props(final String service, final Configuration configuration) {
+        final Configuration settings = configuration.subset(service);
+        return new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                if (SPEECH_SYNTHESIZER.equals(service)) {
+                    final String classpath = RestcommConfiguration.getInstance().getTts().getSynthesizerClass();
+                    return (Actor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(settings);
+                } else if (SPEECH_RECOGNIZER.equals(service)) {
+                    return new ISpeechAsr(settings);
+                } else if (FAX_SERVICE.equals(service)) {
+                    return new InterfaxService(settings);
+                } else if (SMTP_NOTIFY.equals(service) || SMTP_SERVICE.equals(service)) {
+                    return new EmailService(settings);
+                } else if (DOWNLOADER.equals(service)) {
+                    return new Downloader();
+                }
+                throw new IllegalArgumentException("Unknown service " + service);
+            }
+        });
+    }
+
+    private static final class Provider extends AbstractExtensionId<ServicePools> implements ExtensionIdProvider {
+        @Override
+        public ServicePools createExtension(final ExtendedActorSystem system) {
+            return new ServicePools(system);
+        }
+
+        @Override
+        public Provider lookup() {
+            return provider;
+        }
+    }
+}
@@ -45,9 +45,12 @@ import org.apache.http.NameValuePair;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.message.BasicNameValuePair;
 import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
 import org.mobicents.servlet.restcomm.dao.SmsMessagesDao;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.email.EmailService;
 import org.mobicents.servlet.restcomm.api.EmailRequest;
 import org.mobicents.servlet.restcomm.api.EmailResponse;
@@ -129,7 +132,7 @@ public final class SmsInterpreter extends UntypedActor {
     // The storage engine.
     private final DaoManager storage;
     //Runtime configuration
-    private final Configuration runtime;
+    private final RuntimeConfigurationSet runtime;
     // User specific configuration.
     private final Configuration configuration;
     // Information to reach the application that will be executed
@@ -213,7 +216,7 @@ public final class SmsInterpreter extends UntypedActor {
         this.service = service;
         this.downloader = downloader();
         this.storage = storage;
-        this.runtime = configuration.subset("runtime-settings");
+        this.runtime = RestcommConfiguration.getInstance().getRuntime();
         this.configuration = configuration.subset("sms-aggregator");
         this.accountId = accountId;
         this.version = version;
@@ -222,31 +225,33 @@ public final class SmsInterpreter extends UntypedActor {
         this.fallbackUrl = fallbackUrl;
         this.fallbackMethod = fallbackMethod;
         this.sessions = new HashMap<Sid, ActorRef>();
-        this.normalizeNumber = runtime.getBoolean("normalize-numbers-for-outbound-calls");
+        this.normalizeNumber = runtime.isNormalizeNumbersForOutboundCalls();
     }
 
     private ActorRef downloader() {
         final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public UntypedActor create() throws Exception {
                 return new Downloader();
             }
-        }));
+        });
+        return context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
     }
 
     ActorRef mailer(final Configuration configuration) {
         final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public Actor create() throws Exception {
                 return new EmailService(configuration);
             }
-        }));
+        });
+        return context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
     }
 
     protected String format(final String number) {
@@ -281,7 +286,7 @@ public final class SmsInterpreter extends UntypedActor {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        final String base = runtime.getString("error-dictionary-uri");
+        final String base = runtime.getErrorDictionaryUri();
         StringBuilder buffer = new StringBuilder();
         buffer.append(base);
         if (!base.endsWith("/")) {
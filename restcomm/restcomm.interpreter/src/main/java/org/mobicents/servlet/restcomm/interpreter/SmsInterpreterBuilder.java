@@ -23,6 +23,7 @@ import java.net.URI;
 
 import org.apache.commons.configuration.Configuration;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.Sid;
 
 import akka.actor.ActorRef;
@@ -52,7 +53,7 @@ public final class SmsInterpreterBuilder {
     }
 
     public ActorRef build() {
-        return system.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
@@ -60,7 +61,8 @@ public final class SmsInterpreterBuilder {
                 return new SmsInterpreter(service, configuration, storage, accountId, version, url, method, fallbackUrl,
                         fallbackMethod);
             }
-        }));
+        });
+        return system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.DB));
     }
 
     public void setConfiguration(final Configuration configuration) {
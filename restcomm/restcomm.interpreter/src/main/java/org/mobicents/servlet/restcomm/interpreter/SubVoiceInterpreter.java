@@ -47,6 +47,7 @@ import org.apache.http.message.BasicNameValuePair;
 import org.joda.time.DateTime;
 import org.mobicents.servlet.restcomm.asr.AsrResponse;
 import org.mobicents.servlet.restcomm.cache.DiskCacheResponse;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
@@ -56,7 +57,7 @@ import org.mobicents.servlet.restcomm.fax.FaxResponse;
 import org.mobicents.servlet.restcomm.fsm.Action;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.http.client.DownloaderResponse;
 import org.mobicents.servlet.restcomm.http.client.HttpRequestDescriptor;
 import org.mobicents.servlet.restcomm.interpreter.rcml.Attribute;
@@ -80,7 +81,6 @@ import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerResponse;
 
 import akka.actor.ActorRef;
 import akka.actor.ReceiveTimeout;
-import akka.actor.UntypedActorContext;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import org.mobicents.servlet.restcomm.util.UriUtils;
@@ -107,6 +107,9 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
     private Boolean hangupOnEnd;
     private ActorRef originalInterpreter;
 
+    // The transitions are the same for every interpreter, built once from the states of the first one.
+    private static volatile TransitionTable transitionTable;
+
     public SubVoiceInterpreter(final Configuration configuration, final Sid account, final Sid phone, final String version,
             final URI url, final String method, final URI fallbackUrl, final String fallbackMethod, final URI statusCallback,
             final String statusCallbackMethod, final String emailAddress, final ActorRef callManager,
@@ -128,50 +131,8 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
         rejecting = new State("rejecting", new Rejecting(source), null);
         finished = new State("finished", new Finished(source), null);
 
-        transitions.add(new Transition(acquiringAsrInfo, finished));
-        transitions.add(new Transition(acquiringSynthesizerInfo, finished));
-        transitions.add(new Transition(acquiringCallInfo, downloadingRcml));
-        transitions.add(new Transition(acquiringCallInfo, finished));
-        transitions.add(new Transition(downloadingRcml, ready));
-        transitions.add(new Transition(downloadingRcml, notFound));
-        transitions.add(new Transition(downloadingRcml, hangingUp));
-        transitions.add(new Transition(downloadingRcml, finished));
-        transitions.add(new Transition(ready, faxing));
-        transitions.add(new Transition(ready, pausing));
-        transitions.add(new Transition(ready, checkingCache));
-        transitions.add(new Transition(ready, caching));
-        transitions.add(new Transition(ready, synthesizing));
-        transitions.add(new Transition(ready, rejecting));
-        transitions.add(new Transition(ready, redirecting));
-        transitions.add(new Transition(ready, processingGatherChildren));
-        transitions.add(new Transition(ready, creatingRecording));
-        transitions.add(new Transition(ready, creatingSmsSession));
-        transitions.add(new Transition(ready, hangingUp));
-        transitions.add(new Transition(ready, finished));
-        transitions.add(new Transition(pausing, ready));
-        transitions.add(new Transition(pausing, finished));
-        transitions.add(new Transition(rejecting, finished));
-        transitions.add(new Transition(faxing, ready));
-        transitions.add(new Transition(faxing, finished));
-        transitions.add(new Transition(caching, finished));
-        transitions.add(new Transition(playing, ready));
-        transitions.add(new Transition(playing, finished));
-        transitions.add(new Transition(synthesizing, finished));
-        transitions.add(new Transition(redirecting, ready));
-        transitions.add(new Transition(redirecting, finished));
-        transitions.add(new Transition(creatingRecording, finished));
-        transitions.add(new Transition(finishRecording, ready));
-        transitions.add(new Transition(finishRecording, finished));
-        transitions.add(new Transition(processingGatherChildren, finished));
-        transitions.add(new Transition(gathering, finished));
-        transitions.add(new Transition(finishGathering, finished));
-        transitions.add(new Transition(creatingSmsSession, finished));
-        transitions.add(new Transition(sendingSms, ready));
-        transitions.add(new Transition(sendingSms, finished));
-        transitions.add(new Transition(hangingUp, finished));
-
         // Initialize the FSM.
-        this.fsm = new FiniteStateMachine(uninitialized, transitions);
+        this.fsm = new FiniteStateMachine(uninitialized, transitions());
         // Initialize the runtime stuff.
         this.accountId = account;
         this.phoneId = phone;
@@ -185,20 +146,17 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
         this.emailAddress = emailAddress;
         this.configuration = configuration;
         this.callManager = callManager;
-        this.asrService = asr(configuration.subset("speech-recognizer"));
-        this.faxService = fax(configuration.subset("fax-service"));
         this.smsService = sms;
         this.smsSessions = new HashMap<Sid, ActorRef>();
         this.storage = storage;
-        this.synthesizer = tts(configuration.subset("speech-synthesizer"));
-        final Configuration runtime = configuration.subset("runtime-settings");
-        String path = runtime.getString("cache-path");
+        final RuntimeConfigurationSet runtime = runtime();
+        String path = runtime.getCachePath();
         if (!path.endsWith("/")) {
             path = path + "/";
         }
         path = path + accountId.toString();
         cachePath = path;
-        String uri = runtime.getString("cache-uri");
+        String uri = runtime.getCacheUri();
         if (!uri.endsWith("/")) {
             uri = uri + "/";
         }
@@ -208,11 +166,62 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
             logger.error("URISyntaxException while trying to resolve Cache URI: "+e);
         }
         uri = uri + accountId.toString();
-        this.cache = cache(path, uri);
-        this.downloader = downloader();
+        cacheUri = uri;
         this.hangupOnEnd = hangupOnEnd;
     }
 
+    private TransitionTable transitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            addTransitions(transitions);
+            transitions.add(acquiringAsrInfo, finished);
+            transitions.add(acquiringSynthesizerInfo, finished);
+            transitions.add(acquiringCallInfo, downloadingRcml);
+            transitions.add(acquiringCallInfo, finished);
+            transitions.add(downloadingRcml, ready);
+            transitions.add(downloadingRcml, notFound);
+            transitions.add(downloadingRcml, hangingUp);
+            transitions.add(downloadingRcml, finished);
+            transitions.add(ready, faxing);
+            transitions.add(ready, pausing);
+            transitions.add(ready, checkingCache);
+            transitions.add(ready, caching);
+            transitions.add(ready, synthesizing);
+            transitions.add(ready, rejecting);
+            transitions.add(ready, redirecting);
+            transitions.add(ready, processingGatherChildren);
+            transitions.add(ready, creatingRecording);
+            transitions.add(ready, creatingSmsSession);
+            transitions.add(ready, hangingUp);
+            transitions.add(ready, finished);
+            transitions.add(pausing, ready);
+            transitions.add(pausing, finished);
+            transitions.add(rejecting, finished);
+            transitions.add(faxing, ready);
+            transitions.add(faxing, finished);
+            transitions.add(caching, finished);
+            transitions.add(playing, ready);
+            transitions.add(playing, finished);
+            transitions.add(synthesizing, finished);
+            transitions.add(redirecting, ready);
+            transitions.add(redirecting, finished);
+            transitions.add(creatingRecording, finished);
+            transitions.add(finishRecording, ready);
+            transitions.add(finishRecording, finished);
+            transitions.add(processingGatherChildren, finished);
+            transitions.add(gathering, finished);
+            transitions.add(finishGathering, finished);
+            transitions.add(creatingSmsSession, finished);
+            transitions.add(sendingSms, ready);
+            transitions.add(sendingSms, finished);
+            transitions.add(hangingUp, finished);
+            table = transitions.build();
+            transitionTable = table;
+        }
+        return table;
+    }
+
     private Notification notification(final int log, final int error, final String message) {
         final Notification.Builder builder = Notification.builder();
         final Sid sid = Sid.generate(Sid.Type.NOTIFICATION);
@@ -222,7 +231,7 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        final String base = configuration.subset("runtime-settings").getString("error-dictionary-uri");
+        final String base = runtime().getErrorDictionaryUri();
         StringBuilder buffer = new StringBuilder();
         buffer.append(base);
         if (!base.endsWith("/")) {
@@ -495,7 +504,7 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
                 // Ask the downloader to get us the application that will be executed.
                 final List<NameValuePair> parameters = parameters();
                 request = new HttpRequestDescriptor(url, method, parameters);
-                downloader.tell(request, source);
+                downloader().tell(request, source);
             }
         }
     }
@@ -620,14 +629,7 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
             callManager.tell(new DestroyCall(call), source);
 
             // Stop the dependencies.
-            final UntypedActorContext context = getContext();
-            if (mailerNotify != null)
-                context.stop(mailerNotify);
-            context.stop(downloader);
-            context.stop(asrService);
-            context.stop(faxService);
-            context.stop(cache);
-            context.stop(synthesizer);
+            stopServices();
 
             // Stop the interpreter.
             postCleanup();
@@ -60,6 +60,7 @@ import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.mobicents.servlet.restcomm.asr.AsrResponse;
 import org.mobicents.servlet.restcomm.cache.DiskCacheResponse;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
@@ -71,7 +72,7 @@ import org.mobicents.servlet.restcomm.fax.FaxResponse;
 import org.mobicents.servlet.restcomm.fsm.Action;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.http.client.DownloaderResponse;
 import org.mobicents.servlet.restcomm.http.client.HttpRequestDescriptor;
 import org.mobicents.servlet.restcomm.interpreter.rcml.Attribute;
@@ -195,6 +196,9 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
     private final ActorRef bridgeManager;
     private ActorRef bridge;
 
+    // The transitions are the same for every interpreter, built once from the states of the first one.
+    private static volatile TransitionTable transitionTable;
+
     public VoiceInterpreter(final Configuration configuration, final Sid account, final Sid phone, final String version,
                             final URI url, final String method, final URI fallbackUrl, final String fallbackMethod, final URI statusCallback,
                             final String statusCallbackMethod, final String emailAddress, final ActorRef callManager,
@@ -227,148 +231,8 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
          * dialing = new State("dialing", null, null); bridging = new State("bridging", null, null); conferencing = new
          * State("conferencing", null, null);
          */
-        transitions.add(new Transition(acquiringAsrInfo, finished));
-        transitions.add(new Transition(acquiringSynthesizerInfo, finished));
-        transitions.add(new Transition(acquiringCallInfo, initializingCall));
-        transitions.add(new Transition(acquiringCallInfo, downloadingRcml));
-        transitions.add(new Transition(acquiringCallInfo, finished));
-        transitions.add(new Transition(initializingCall, downloadingRcml));
-        transitions.add(new Transition(initializingCall, ready));
-        transitions.add(new Transition(initializingCall, finishDialing));
-        transitions.add(new Transition(initializingCall, hangingUp));
-        transitions.add(new Transition(initializingCall, finished));
-        transitions.add(new Transition(downloadingRcml, ready));
-        transitions.add(new Transition(downloadingRcml, notFound));
-        transitions.add(new Transition(downloadingRcml, downloadingFallbackRcml));
-        transitions.add(new Transition(downloadingRcml, hangingUp));
-        transitions.add(new Transition(downloadingRcml, finished));
-        transitions.add(new Transition(downloadingFallbackRcml, ready));
-        transitions.add(new Transition(downloadingFallbackRcml, hangingUp));
-        transitions.add(new Transition(downloadingFallbackRcml, finished));
-        transitions.add(new Transition(downloadingFallbackRcml, notFound));
-        transitions.add(new Transition(ready, initializingCall));
-        transitions.add(new Transition(ready, faxing));
-        transitions.add(new Transition(ready, sendingEmail));
-        transitions.add(new Transition(ready, pausing));
-        transitions.add(new Transition(ready, checkingCache));
-        transitions.add(new Transition(ready, caching));
-        transitions.add(new Transition(ready, synthesizing));
-        transitions.add(new Transition(ready, rejecting));
-        transitions.add(new Transition(ready, redirecting));
-        transitions.add(new Transition(ready, processingGatherChildren));
-        transitions.add(new Transition(ready, creatingRecording));
-        transitions.add(new Transition(ready, creatingSmsSession));
-        transitions.add(new Transition(ready, startDialing));
-        transitions.add(new Transition(ready, hangingUp));
-        transitions.add(new Transition(ready, finished));
-        transitions.add(new Transition(pausing, ready));
-        transitions.add(new Transition(pausing, finished));
-        transitions.add(new Transition(rejecting, finished));
-        transitions.add(new Transition(faxing, ready));
-        transitions.add(new Transition(faxing, finished));
-        transitions.add(new Transition(sendingEmail, ready));
-        transitions.add(new Transition(sendingEmail, finished));
-        transitions.add(new Transition(sendingEmail, finishDialing));
-        transitions.add(new Transition(caching, finished));
-        transitions.add(new Transition(playing, ready));
-        transitions.add(new Transition(playing, finished));
-        transitions.add(new Transition(synthesizing, finished));
-        transitions.add(new Transition(redirecting, ready));
-        transitions.add(new Transition(redirecting, finished));
-        transitions.add(new Transition(creatingRecording, finished));
-        transitions.add(new Transition(finishRecording, ready));
-        transitions.add(new Transition(finishRecording, finished));
-        transitions.add(new Transition(processingGatherChildren, finished));
-        transitions.add(new Transition(gathering, finished));
-        transitions.add(new Transition(finishGathering, ready));
-        transitions.add(new Transition(finishGathering, finishGathering));
-        transitions.add(new Transition(finishGathering, finished));
-        transitions.add(new Transition(creatingSmsSession, finished));
-        transitions.add(new Transition(sendingSms, ready));
-        transitions.add(new Transition(sendingSms, startDialing));
-        transitions.add(new Transition(sendingSms, finished));
-        transitions.add(new Transition(startDialing, processingDialChildren));
-        transitions.add(new Transition(startDialing, acquiringConferenceInfo));
-        transitions.add(new Transition(startDialing, faxing));
-        transitions.add(new Transition(startDialing, sendingEmail));
-        transitions.add(new Transition(startDialing, pausing));
-        transitions.add(new Transition(startDialing, checkingCache));
-        transitions.add(new Transition(startDialing, caching));
-        transitions.add(new Transition(startDialing, synthesizing));
-        transitions.add(new Transition(startDialing, redirecting));
-        transitions.add(new Transition(startDialing, processingGatherChildren));
-        transitions.add(new Transition(startDialing, creatingRecording));
-        transitions.add(new Transition(startDialing, creatingSmsSession));
-        transitions.add(new Transition(startDialing, startDialing));
-        transitions.add(new Transition(startDialing, hangingUp));
-        transitions.add(new Transition(startDialing, finished));
-        transitions.add(new Transition(processingDialChildren, processingDialChildren));
-        transitions.add(new Transition(processingDialChildren, forking));
-        transitions.add(new Transition(processingDialChildren, hangingUp));
-        transitions.add(new Transition(processingDialChildren, finished));
-        transitions.add(new Transition(forking, acquiringOutboundCallInfo));
-        transitions.add(new Transition(forking, finishDialing));
-        transitions.add(new Transition(forking, hangingUp));
-        transitions.add(new Transition(forking, finished));
-        // transitions.add(new Transition(acquiringOutboundCallInfo, joiningCalls));
-        transitions.add(new Transition(acquiringOutboundCallInfo, hangingUp));
-        transitions.add(new Transition(acquiringOutboundCallInfo, finished));
-        transitions.add(new Transition(acquiringOutboundCallInfo, creatingBridge));
-        transitions.add(new Transition(creatingBridge, initializingBridge));
-        transitions.add(new Transition(creatingBridge, finishDialing));
-        transitions.add(new Transition(initializingBridge, bridging));
-        transitions.add(new Transition(initializingBridge, hangingUp));
-        transitions.add(new Transition(bridging, bridged));
-        transitions.add(new Transition(bridging, finishDialing));
-        // transitions.add(new Transition(joiningCalls, finishDialing));
-        // transitions.add(new Transition(joiningCalls, bridged));
-        // transitions.add(new Transition(joiningCalls, hangingUp));
-        // transitions.add(new Transition(joiningCalls, finished));
-        transitions.add(new Transition(bridged, finishDialing));
-        transitions.add(new Transition(bridged, finished));
-        transitions.add(new Transition(finishDialing, ready));
-        transitions.add(new Transition(finishDialing, faxing));
-        transitions.add(new Transition(finishDialing, sendingEmail));
-        transitions.add(new Transition(finishDialing, pausing));
-        transitions.add(new Transition(finishDialing, checkingCache));
-        transitions.add(new Transition(finishDialing, caching));
-        transitions.add(new Transition(finishDialing, synthesizing));
-        transitions.add(new Transition(finishDialing, redirecting));
-        transitions.add(new Transition(finishDialing, processingGatherChildren));
-        transitions.add(new Transition(finishDialing, creatingRecording));
-        transitions.add(new Transition(finishDialing, creatingSmsSession));
-        transitions.add(new Transition(finishDialing, startDialing));
-        transitions.add(new Transition(finishDialing, hangingUp));
-        transitions.add(new Transition(finishDialing, finished));
-        transitions.add(new Transition(finishDialing, initializingCall));
-        transitions.add(new Transition(acquiringConferenceInfo, joiningConference));
-        transitions.add(new Transition(acquiringConferenceInfo, hangingUp));
-        transitions.add(new Transition(acquiringConferenceInfo, finished));
-        transitions.add(new Transition(joiningConference, conferencing));
-        transitions.add(new Transition(joiningConference, hangingUp));
-        transitions.add(new Transition(joiningConference, finished));
-        transitions.add(new Transition(conferencing, finishConferencing));
-        transitions.add(new Transition(conferencing, hangingUp));
-        transitions.add(new Transition(conferencing, finished));
-        transitions.add(new Transition(finishConferencing, ready));
-        transitions.add(new Transition(finishConferencing, faxing));
-        transitions.add(new Transition(finishConferencing, sendingEmail));
-        transitions.add(new Transition(finishConferencing, pausing));
-        transitions.add(new Transition(finishConferencing, checkingCache));
-        transitions.add(new Transition(finishConferencing, caching));
-        transitions.add(new Transition(finishConferencing, synthesizing));
-        transitions.add(new Transition(finishConferencing, redirecting));
-        transitions.add(new Transition(finishConferencing, processingGatherChildren));
-        transitions.add(new Transition(finishConferencing, creatingRecording));
-        transitions.add(new Transition(finishConferencing, creatingSmsSession));
-        transitions.add(new Transition(finishConferencing, startDialing));
-        transitions.add(new Transition(finishConferencing, hangingUp));
-        transitions.add(new Transition(finishConferencing, finished));
-        transitions.add(new Transition(hangingUp, finished));
-        transitions.add(new Transition(hangingUp, finishDialing));
-        transitions.add(new Transition(uninitialized, finished));
         // Initialize the FSM.
-        this.fsm = new FiniteStateMachine(uninitialized, transitions);
+        this.fsm = new FiniteStateMachine(uninitialized, transitions());
         // Initialize the runtime stuff.
         this.accountId = account;
         this.phoneId = phone;
@@ -384,20 +248,17 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
         this.callManager = callManager;
         this.conferenceManager = conferenceManager;
         this.bridgeManager = bridgeManager;
-        this.asrService = asr(configuration.subset("speech-recognizer"));
-        this.faxService = fax(configuration.subset("fax-service"));
         this.smsService = sms;
         this.smsSessions = new HashMap<Sid, ActorRef>();
         this.storage = storage;
-        this.synthesizer = tts(configuration.subset("speech-synthesizer"));
-        final Configuration runtime = configuration.subset("runtime-settings");
-        String path = runtime.getString("cache-path");
+        final RuntimeConfigurationSet runtime = runtime();
+        String path = runtime.getCachePath();
         if (!path.endsWith("/")) {
             path = path + "/";
         }
         path = path + accountId.toString();
         cachePath = path;
-        String uri = runtime.getString("cache-uri");
+        String uri = runtime.getCacheUri();
         if (!uri.endsWith("/")) {
             uri = uri + "/";
         }
@@ -407,11 +268,161 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
             logger.error("URISyntaxException while trying to resolve Cache URI: " + e);
         }
         uri = uri + accountId.toString();
-        this.cache = cache(path, uri);
-        this.downloader = downloader();
+        cacheUri = uri;
         this.monitoring = monitoring;
     }
 
+    private TransitionTable transitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            addTransitions(transitions);
+            transitions.add(acquiringAsrInfo, finished);
+            transitions.add(acquiringSynthesizerInfo, finished);
+            transitions.add(acquiringCallInfo, initializingCall);
+            transitions.add(acquiringCallInfo, downloadingRcml);
+            transitions.add(acquiringCallInfo, finished);
+            transitions.add(initializingCall, downloadingRcml);
+            transitions.add(initializingCall, ready);
+            transitions.add(initializingCall, finishDialing);
+            transitions.add(initializingCall, hangingUp);
+            transitions.add(initializingCall, finished);
+            transitions.add(downloadingRcml, ready);
+            transitions.add(downloadingRcml, notFound);
+            transitions.add(downloadingRcml, downloadingFallbackRcml);
+            transitions.add(downloadingRcml, hangingUp);
+            transitions.add(downloadingRcml, finished);
+            transitions.add(downloadingFallbackRcml, ready);
+            transitions.add(downloadingFallbackRcml, hangingUp);
+            transitions.add(downloadingFallbackRcml, finished);
+            transitions.add(downloadingFallbackRcml, notFound);
+            transitions.add(ready, initializingCall);
+            transitions.add(ready, faxing);
+            transitions.add(ready, sendingEmail);
+            transitions.add(ready, pausing);
+            transitions.add(ready, checkingCache);
+            transitions.add(ready, caching);
+            transitions.add(ready, synthesizing);
+            transitions.add(ready, rejecting);
+            transitions.add(ready, redirecting);
+            transitions.add(ready, processingGatherChildren);
+            transitions.add(ready, creatingRecording);
+            transitions.add(ready, creatingSmsSession);
+            transitions.add(ready, startDialing);
+            transitions.add(ready, hangingUp);
+            transitions.add(ready, finished);
+            transitions.add(pausing, ready);
+            transitions.add(pausing, finished);
+            transitions.add(rejecting, finished);
+            transitions.add(faxing, ready);
+            transitions.add(faxing, finished);
+            transitions.add(sendingEmail, ready);
+            transitions.add(sendingEmail, finished);
+            transitions.add(sendingEmail, finishDialing);
+            transitions.add(caching, finished);
+            transitions.add(playing, ready);
+            transitions.add(playing, finished);
+            transitions.add(synthesizing, finished);
+            transitions.add(redirecting, ready);
+            transitions.add(redirecting, finished);
+            transitions.add(creatingRecording, finished);
+            transitions.add(finishRecording, ready);
+            transitions.add(finishRecording, finished);
+            transitions.add(processingGatherChildren, finished);
+            transitions.add(gathering, finished);
+            transitions.add(finishGathering, ready);
+            transitions.add(finishGathering, finishGathering);
+            transitions.add(finishGathering, finished);
+            transitions.add(creatingSmsSession, finished);
+            transitions.add(sendingSms, ready);
+            transitions.add(sendingSms, startDialing);
+            transitions.add(sendingSms, finished);
+            transitions.add(startDialing, processingDialChildren);
+            transitions.add(startDialing, acquiringConferenceInfo);
+            transitions.add(startDialing, faxing);
+            transitions.add(startDialing, sendingEmail);
+            transitions.add(startDialing, pausing);
+            transitions.add(startDialing, checkingCache);
+            transitions.add(startDialing, caching);
+            transitions.add(startDialing, synthesizing);
+            transitions.add(startDialing, redirecting);
+            transitions.add(startDialing, processingGatherChildren);
+            transitions.add(startDialing, creatingRecording);
+            transitions.add(startDialing, creatingSmsSession);
+            transitions.add(startDialing, startDialing);
+            transitions.add(startDialing, hangingUp);
+            transitions.add(startDialing, finished);
+            transitions.add(processingDialChildren, processingDialChildren);
+            transitions.add(processingDialChildren, forking);
+            transitions.add(processingDialChildren, hangingUp);
+            transitions.add(processingDialChildren, finished);
+            transitions.add(forking, acquiringOutboundCallInfo);
+            transitions.add(forking, finishDialing);
+            transitions.add(forking, hangingUp);
+            transitions.add(forking, finished);
+            // transitions.add(new Transition(acquiringOutboundCallInfo, joiningCalls));
+            transitions.add(acquiringOutboundCallInfo, hangingUp);
+            transitions.add(acquiringOutboundCallInfo, finished);
+            transitions.add(acquiringOutboundCallInfo, creatingBridge);
+            transitions.add(creatingBridge, initializingBridge);
+            transitions.add(creatingBridge, finishDialing);
+            transitions.add(initializingBridge, bridging);
+            transitions.add(initializingBridge, hangingUp);
+            transitions.add(bridging, bridged);
+            transitions.add(bridging, finishDialing);
+            // transitions.add(new Transition(joiningCalls, finishDialing));
+            // transitions.add(new Transition(joiningCalls, bridged));
+            // transitions.add(new Transition(joiningCalls, hangingUp));
+            // transitions.add(new Transition(joiningCalls, finished));
+            transitions.add(bridged, finishDialing);
+            transitions.add(bridged, finished);
+            transitions.add(finishDialing, ready);
+            transitions.add(finishDialing, faxing);
+            transitions.add(finishDialing, sendingEmail);
+            transitions.add(finishDialing, pausing);
+            transitions.add(finishDialing, checkingCache);
+            transitions.add(finishDialing, caching);
+            transitions.add(finishDialing, synthesizing);
+            transitions.add(finishDialing, redirecting);
+            transitions.add(finishDialing, processingGatherChildren);
+            transitions.add(finishDialing, creatingRecording);
+            transitions.add(finishDialing, creatingSmsSession);
+            transitions.add(finishDialing, startDialing);
+            transitions.add(finishDialing, hangingUp);
+            transitions.add(finishDialing, finished);
+            transitions.add(finishDialing, initializingCall);
+            transitions.add(acquiringConferenceInfo, joiningConference);
+            transitions.add(acquiringConferenceInfo, hangingUp);
+            transitions.add(acquiringConferenceInfo, finished);
+            transitions.add(joiningConference, conferencing);
+            transitions.add(joiningConference, hangingUp);
+            transitions.add(joiningConference, finished);
+            transitions.add(conferencing, finishConferencing);
+            transitions.add(conferencing, hangingUp);
+            transitions.add(conferencing, finished);
+            transitions.add(finishConferencing, ready);
+            transitions.add(finishConferencing, faxing);
+            transitions.add(finishConferencing, sendingEmail);
+            transitions.add(finishConferencing, pausing);
+            transitions.add(finishConferencing, checkingCache);
+            transitions.add(finishConferencing, caching);
+            transitions.add(finishConferencing, synthesizing);
+            transitions.add(finishConferencing, redirecting);
+            transitions.add(finishConferencing, processingGatherChildren);
+            transitions.add(finishConferencing, creatingRecording);
+            transitions.add(finishConferencing, creatingSmsSession);
+            transitions.add(finishConferencing, startDialing);
+            transitions.add(finishConferencing, hangingUp);
+            transitions.add(finishConferencing, finished);
+            transitions.add(hangingUp, finished);
+            transitions.add(hangingUp, finishDialing);
+            transitions.add(uninitialized, finished);
+            table = transitions.build();
+            transitionTable = table;
+        }
+        return table;
+    }
+
     private boolean is(State state) {
         return this.fsm.state().equals(state);
     }
@@ -425,7 +436,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        String base = configuration.subset("runtime-settings").getString("error-dictionary-uri");
+        String base = runtime().getErrorDictionaryUri();
         try {
             base = UriUtils.resolve(new URI(base)).toString();
         } catch (URISyntaxException e) {
@@ -1164,7 +1175,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
             // Ask the downloader to get us the application that will be executed.
             final List<NameValuePair> parameters = parameters();
             request = new HttpRequestDescriptor(url, method, parameters);
-            downloader.tell(request, source);
+            downloader().tell(request, source);
         }
     }
 
@@ -1197,7 +1208,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
             // Try to use the fall back url and method.
             final List<NameValuePair> parameters = parameters();
             request = new HttpRequestDescriptor(fallbackUrl, fallbackMethod, parameters);
-            downloader.tell(request, source);
+            downloader().tell(request, source);
         }
     }
 
@@ -1333,7 +1344,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
             String callerId = null;
 
             // Issue 210: https://telestax.atlassian.net/browse/RESTCOMM-210
-            final boolean useInitialFromAsCallerId = configuration.subset("runtime-settings").getBoolean("from-address-to-proxied-calls");
+            final boolean useInitialFromAsCallerId = runtime().isFromAddressToProxiedCalls();
 
             Attribute attribute = verb.attribute("callerId");
             if (attribute != null) {
@@ -1562,7 +1573,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
                     branch.tell(dial, source);
                 }
             }
-            String path = configuration.subset("runtime-settings").getString("prompts-uri");
+            String path = runtime().getPromptsUri();
             if (!path.endsWith("/")) {
                 path += "/";
             }
@@ -1627,10 +1638,10 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
     }
 
     private void record(ActorRef target) {
-        Configuration runtimeSettings = configuration.subset("runtime-settings");
+        final RuntimeConfigurationSet runtime = runtime();
         recordingSid = Sid.generate(Sid.Type.RECORDING);
-        String path = runtimeSettings.getString("recordings-path");
-        String httpRecordingUri = runtimeSettings.getString("recordings-uri");
+        String path = runtime.getRecordingsPath();
+        String httpRecordingUri = runtime.getRecordingsUri();
         if (!path.endsWith("/")) {
             path += "/";
         }
@@ -1646,7 +1657,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
             logger.error("URISyntaxException when trying to resolve Recording URI: " + e);
         }
         recordingCall = true;
-        StartRecording message = new StartRecording(accountId, callInfo.sid(), runtimeSettings, storage, recordingSid,
+        StartRecording message = new StartRecording(accountId, callInfo.sid(), configuration.subset("runtime-settings"), storage, recordingSid,
                 recordingUri);
         target.tell(message, null);
     }
@@ -1817,7 +1828,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
                     request = new HttpRequestDescriptor(uri, method, parameters);
                     // Tell the downloader to send the Dial Parameters to the Action url but we don't need a reply back so sender ==
                     // null
-                    downloader.tell(request, self());
+                    downloader().tell(request, self());
                     return;
                 }
             }
@@ -2024,7 +2035,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
                 // Only play beep if conference is already running
                 // Do not play it while participants are listening to background music
                 if (beep && ConferenceStateChanged.State.RUNNING_MODERATOR_PRESENT.equals(conferenceInfo.state())) {
-                    String path = configuration.subset("runtime-settings").getString("prompts-uri");
+                    String path = runtime().getPromptsUri();
                     if (!path.endsWith("/")) {
                         path += "/";
                     }
@@ -2234,7 +2245,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
                     // Redirect to the action url.
                     final List<NameValuePair> parameters = parameters();
                     request = new HttpRequestDescriptor(uri, method, parameters);
-                    downloader.tell(request, source);
+                    downloader().tell(request, source);
                     return;
                 }
             }
@@ -2323,16 +2334,7 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
             }
 
             // Stop the dependencies.
-            final UntypedActorContext context = getContext();
-            if (mailerNotify != null)
-                context.stop(mailerNotify);
-            if (mailerService != null)
-                context.stop(mailerService);
-            context.stop(downloader);
-            context.stop(asrService);
-            context.stop(faxService);
-            context.stop(cache);
-            context.stop(synthesizer);
+            stopServices();
 
             // Stop the interpreter.
             postCleanup();
@@ -2372,7 +2374,8 @@ public final class VoiceInterpreter extends BaseVoiceInterpreter {
 
         @Override
         public void execute(Object message) throws Exception {
-            final CreateBridge create = new CreateBridge();
+            // The bridge is placed on the media gateway of the call, the dialed calls follow it.
+            final CreateBridge create = new CreateBridge(callInfo != null ? callInfo.sid().toString() : null);
             bridgeManager.tell(create, super.source);
         }
 
@@ -30,6 +30,7 @@ import java.net.URI;
 import org.apache.commons.configuration.Configuration;
 
 import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.Sid;
 
 /**
@@ -65,7 +66,7 @@ public final class VoiceInterpreterBuilder {
     }
 
     public ActorRef build() {
-        return system.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
@@ -73,7 +74,8 @@ public final class VoiceInterpreterBuilder {
                 return new VoiceInterpreter(configuration, account, phone, version, url, method, fallbackUrl, fallbackMethod,
                         statusCallback, statusCallbackMethod, emailAddress, calls, conferences, bridges, sms, storage, monitoring);
             }
-        }));
+        });
+        return system.actorOf(RestcommDispatchers.withDispatcher(system, props, RestcommDispatchers.DB));
     }
 
     public void setConfiguration(final Configuration configuration) {
@@ -27,30 +27,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Stack;
 
-import javax.xml.stream.XMLInputFactory;
-import static javax.xml.stream.XMLStreamConstants.*;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-
-import static org.mobicents.servlet.restcomm.interpreter.rcml.Verbs.*;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
  */
 public final class Parser extends UntypedActor {
     private static Logger logger = Logger.getLogger(Parser.class);
-    private Tag document;
-    private Iterator<Tag> iterator;
+    private RcmlProgram program;
+    private int position;
     private String xml;
     private ActorRef sender;
 
-    private Tag current;
-
     public Parser(final InputStream input, final String xml, final ActorRef sender) throws IOException {
         this(new InputStreamReader(input), xml, sender);
     }
@@ -60,100 +49,43 @@ public final class Parser extends UntypedActor {
         logger.debug("About to create new Parser for xml: "+xml);
         this.xml = xml;
         this.sender = sender;
-        final XMLInputFactory inputs = XMLInputFactory.newInstance();
-        inputs.setProperty("javax.xml.stream.isCoalescing", true);
-        XMLStreamReader stream = null;
         try {
-            stream = inputs.createXMLStreamReader(reader);
-            document = parse(stream);
-            if (document == null) {
+            program = RcmlProgram.compile(reader);
+            if (program == null) {
                 throw new IOException("There was an error parsing the RCML.");
             }
-            iterator = document.iterator();
         } catch (final XMLStreamException exception) {
-            logger.info("There was an error parsing the RCML for xml: "+xml+" excpetion: ", exception);
-            sender.tell(new ParserFailed(exception,xml), null);
-        } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (final XMLStreamException nested) {
-                    throw new IOException(nested);
-                }
-            }
+            failed(exception);
         }
     }
 
     public Parser(final String xml, final ActorRef sender) throws IOException {
-        this(new StringReader(xml.trim().replaceAll("&([^;]+(?!(?:\\w|;)))", "&amp;$1")), xml, sender);
-    }
-
-    private void end(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
-        if (builders.size() > 1) {
-            final Tag.Builder builder = builders.pop();
-            final Tag tag = builder.build();
-            builders.peek().addChild(tag);
+        super();
+        logger.debug("About to create new Parser for xml: "+xml);
+        this.xml = xml;
+        this.sender = sender;
+        try {
+            // Identical documents share the same compiled program.
+            program = RcmlProgram.compile(xml);
+        } catch (final XMLStreamException exception) {
+            failed(exception);
         }
     }
 
-    private void start(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
-        final Tag.Builder builder = Tag.builder();
-        // Read the next tag.
-        builder.setName(stream.getLocalName());
-        // Read the attributes.
-        final int limit = stream.getAttributeCount();
-        for (int index = 0; index < limit; index++) {
-            final String name = stream.getAttributeLocalName(index);
-            final String value = stream.getAttributeValue(index).trim();
-            final Attribute attribute = new Attribute(name, value);
-            builder.addAttribute(attribute);
-        }
-        builders.push(builder);
+    private void failed(final XMLStreamException exception) {
+        logger.info("There was an error parsing the RCML for xml: "+xml+" excpetion: ", exception);
+        sender.tell(new ParserFailed(exception,xml), null);
     }
 
     private Tag next() {
-        if (iterator != null) {
-            while (iterator.hasNext()) {
-                final Tag tag = iterator.next();
-                if (isVerb(tag)) {
-                    if (current != null && current.hasChildren()) {
-                        final List<Tag> children = current.children();
-                        if (children.contains(tag)) {
-                            continue;
-                        }
-                    }
-                    current = tag;
-                    return current;
-                }
+        if (program != null) {
+            final Tag verb = program.verb(position);
+            if (verb != null) {
+                position++;
             }
+            return verb;
         } else {
-            logger.info("iterator is null");
-        }
-        return null;
-    }
-
-    private Tag parse(final XMLStreamReader stream) throws IOException, XMLStreamException {
-        final Stack<Tag.Builder> builders = new Stack<Tag.Builder>();
-        while (stream.hasNext()) {
-            switch (stream.next()) {
-                case START_ELEMENT: {
-                    start(builders, stream);
-                    continue;
-                }
-                case CHARACTERS: {
-                    text(builders, stream);
-                    continue;
-                }
-                case END_ELEMENT: {
-                    end(builders, stream);
-                    continue;
-                }
-                case END_DOCUMENT: {
-                    if (!builders.isEmpty()) {
-                        return builders.pop().build();
-                    }
-                }
-            }
+            logger.info("program is null");
         }
         return null;
     }
@@ -175,13 +107,4 @@ public final class Parser extends UntypedActor {
             }
         }
     }
-
-    private void text(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
-        if (!stream.isWhiteSpace()) {
-            // Read the text.
-            final Tag.Builder builder = builders.peek();
-            final String text = stream.getText().trim();
-            builder.setText(text);
-        }
-    }
 }
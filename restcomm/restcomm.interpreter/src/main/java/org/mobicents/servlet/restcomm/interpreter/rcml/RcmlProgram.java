@@ -0,0 +1,228 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.interpreter.rcml;
+
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.mobicents.servlet.restcomm.interpreter.rcml.Verbs.isVerb;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A parsed RCML document together with the verbs to execute, in execution order. Programs are immutable so the same
+ * program is shared by every call that fetches an identical document. Documents are looked up by a SHA-256 digest of
+ * their body so the cache does not keep a copy of every document it has seen.
+ */
+@Immutable
+public final class RcmlProgram {
+    // Static documents are usually small, anything bigger is most likely generated per call and not worth caching.
+    private static final int MAX_CACHED_LENGTH = 64 * 1024;
+    private static final Cache<HashCode, RcmlProgram> programs = CacheBuilder.newBuilder().maximumSize(1000).build();
+    private static final XMLInputFactory inputs;
+    static {
+        inputs = XMLInputFactory.newInstance();
+        inputs.setProperty("javax.xml.stream.isCoalescing", true);
+    }
+
+    private final Tag document;
+    private final Tag[] verbs;
+
+    private RcmlProgram(final Tag document, final Tag[] verbs) {
+        super();
+        this.document = document;
+        this.verbs = verbs;
+    }
+
+    /**
+     * Compiles an RCML document, returning the cached program if the same document was compiled before. The document is
+     * only parsed when it is not in the cache yet.
+     *
+     * @param xml The RCML document as returned by the web server.
+     * @return The program or null if the document is empty.
+     */
+    public static RcmlProgram compile(final String xml) throws IOException, XMLStreamException {
+        if (xml.length() > MAX_CACHED_LENGTH) {
+            return compile(new StringReader(escape(xml)));
+        }
+        try {
+            return programs.get(Hashing.sha256().hashString(xml, Charsets.UTF_8), new Callable<RcmlProgram>() {
+                @Override
+                public RcmlProgram call() throws Exception {
+                    final RcmlProgram program = compile(new StringReader(escape(xml)));
+                    if (program == null) {
+                        throw new IOException("There was an error parsing the RCML.");
+                    }
+                    return program;
+                }
+            });
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            }
+            throw new IOException(cause);
+        } catch (final UncheckedExecutionException exception) {
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    /**
+     * Compiles an RCML document without caching it.
+     *
+     * @return The program or null if the document is empty.
+     */
+    public static RcmlProgram compile(final Reader reader) throws IOException, XMLStreamException {
+        XMLStreamReader stream = null;
+        try {
+            stream = inputs.createXMLStreamReader(reader);
+            final Tag document = parse(stream);
+            if (document == null) {
+                return null;
+            }
+            return new RcmlProgram(document, verbs(document));
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (final XMLStreamException nested) {
+                    throw new IOException(nested);
+                }
+            }
+        }
+    }
+
+    private static String escape(final String xml) {
+        return xml.trim().replaceAll("&([^;]+(?!(?:\\w|;)))", "&amp;$1");
+    }
+
+    private static Tag parse(final XMLStreamReader stream) throws XMLStreamException {
+        final Stack<Tag.Builder> builders = new Stack<Tag.Builder>();
+        while (stream.hasNext()) {
+            switch (stream.next()) {
+                case START_ELEMENT: {
+                    start(builders, stream);
+                    continue;
+                }
+                case CHARACTERS: {
+                    text(builders, stream);
+                    continue;
+                }
+                case END_ELEMENT: {
+                    end(builders);
+                    continue;
+                }
+                case END_DOCUMENT: {
+                    if (!builders.isEmpty()) {
+                        return builders.pop().build();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void start(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
+        final Tag.Builder builder = Tag.builder();
+        // Read the next tag.
+        builder.setName(stream.getLocalName());
+        // Read the attributes.
+        final int limit = stream.getAttributeCount();
+        for (int index = 0; index < limit; index++) {
+            final String name = stream.getAttributeLocalName(index);
+            final String value = stream.getAttributeValue(index).trim();
+            final Attribute attribute = new Attribute(name, value);
+            builder.addAttribute(attribute);
+        }
+        builders.push(builder);
+    }
+
+    private static void text(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
+        if (!stream.isWhiteSpace() && !builders.isEmpty()) {
+            // Read the text.
+            final Tag.Builder builder = builders.peek();
+            final String text = stream.getText().trim();
+            builder.setText(text);
+        }
+    }
+
+    private static void end(final Stack<Tag.Builder> builders) {
+        if (builders.size() > 1) {
+            final Tag.Builder builder = builders.pop();
+            final Tag tag = builder.build();
+            builders.peek().addChild(tag);
+        }
+    }
+
+    // Verbs nested in the previous verb (for example the Say and Play of a Gather) are executed by that verb.
+    private static Tag[] verbs(final Tag document) {
+        final List<Tag> verbs = new ArrayList<Tag>();
+        Tag current = null;
+        final Iterator<Tag> iterator = document.iterator();
+        while (iterator.hasNext()) {
+            final Tag tag = iterator.next();
+            if (isVerb(tag)) {
+                if (current != null && current.hasChildren() && current.children().contains(tag)) {
+                    continue;
+                }
+                current = tag;
+                verbs.add(tag);
+            }
+        }
+        return verbs.toArray(new Tag[verbs.size()]);
+    }
+
+    public Tag document() {
+        return document;
+    }
+
+    /**
+     * @return The verb at the specified position or null if the program has no more verbs.
+     */
+    public Tag verb(final int index) {
+        return index < verbs.length ? verbs[index] : null;
+    }
+
+    public int size() {
+        return verbs.length;
+    }
+}
@@ -20,6 +20,7 @@
 package org.mobicents.servlet.restcomm.interpreter.rcml;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -130,7 +131,9 @@ public class Tag {
         }
 
         public Tag build() {
-            return new Tag(name, parent, text, attributes, children, iterable);
+            // Tags can be shared by many calls, see RcmlProgram.
+            return new Tag(name, parent, text, Collections.unmodifiableMap(new HashMap<String, Attribute>(attributes)),
+                    Collections.unmodifiableList(new ArrayList<Tag>(children)), iterable);
         }
 
         public void setIterable(final boolean iterable) {
@@ -0,0 +1,69 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.interpreter.rcml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mobicents.servlet.restcomm.interpreter.rcml.Verbs.gather;
+import static org.mobicents.servlet.restcomm.interpreter.rcml.Verbs.hangup;
+import static org.mobicents.servlet.restcomm.interpreter.rcml.Verbs.say;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+public final class RcmlProgramTest {
+    private static final String xml = "<Response><Say>Welcome</Say><Gather numDigits=\"1\"><Say>Press 1 & wait</Say>"
+            + "</Gather><Hangup/></Response>";
+
+    public RcmlProgramTest() {
+        super();
+    }
+
+    @Test
+    public void verbsNestedInOtherVerbsAreSkipped() throws Exception {
+        final RcmlProgram program = RcmlProgram.compile(xml);
+        assertEquals(3, program.size());
+        assertEquals(say, program.verb(0).name());
+        assertEquals(gather, program.verb(1).name());
+        assertEquals("Press 1 & wait", program.verb(1).children().get(0).text());
+        assertEquals(hangup, program.verb(2).name());
+        assertNull(program.verb(3));
+    }
+
+    @Test
+    public void identicalDocumentsShareTheProgram() throws Exception {
+        assertSame(RcmlProgram.compile(xml), RcmlProgram.compile(new String(xml)));
+    }
+
+    @Test
+    public void differentDocumentsDoNotShareTheProgram() throws Exception {
+        final RcmlProgram program = RcmlProgram.compile("<Response><Say>Goodbye</Say></Response>");
+        assertNotSame(RcmlProgram.compile(xml), program);
+        assertEquals("Goodbye", program.verb(0).text());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void malformedDocumentsFail() throws Exception {
+        RcmlProgram.compile("<Response><Say>Hello</Response>");
+    }
+}
@@ -21,10 +21,12 @@ package org.mobicents.servlet.restcomm.mgcp;
 
 import akka.actor.Actor;
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
 import akka.actor.UntypedActor;
 import akka.actor.UntypedActorContext;
 import akka.actor.UntypedActorFactory;
+import akka.event.EventStream;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
 
@@ -42,18 +44,30 @@ import jain.protocol.ip.mgcp.message.Notify;
 import jain.protocol.ip.mgcp.message.parms.NotifiedEntity;
 
 import java.net.InetAddress;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.TooManyListenersException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.mobicents.protocols.mgcp.stack.JainMgcpStackImpl;
 import org.mobicents.servlet.restcomm.util.RevolvingCounter;
 
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
  */
 public final class MediaGateway extends UntypedActor implements JainMgcpListener {
+    // Requests without a response for this many response timeouts in a row mark the gateway as not responding.
+    private static final int MAX_TIMEOUTS = 3;
+    private static final Object CHECK_RESPONSES = new Object();
+
     private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
+    private final EventStream events = getContext().system().eventStream();
     // MediaGateway connection information.
     private String name;
     private InetAddress localIp;
@@ -65,6 +79,11 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
     private InetAddress externalIp;
     // Used to detect dead media gateways.
     private long timeout;
+    // When the requests waiting for a response were sent, the responses arrive on the MGCP stack thread.
+    private final Map<Integer, Long> pendingResponses;
+    private final AtomicInteger timeouts;
+    private final AtomicBoolean responding;
+    private Cancellable responseChecks;
     // JAIN MGCP stuff.
     private JainMgcpProvider provider;
     private JainMgcpStack stack;
@@ -84,6 +103,9 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
         super();
         notificationListeners = new ConcurrentHashMap<String, ActorRef>();
         responseListeners = new ConcurrentHashMap<Integer, ActorRef>();
+        pendingResponses = new ConcurrentHashMap<Integer, Long>();
+        timeouts = new AtomicInteger();
+        responding = new AtomicBoolean(true);
     }
 
     private ActorRef getConnection(final Object message) {
@@ -179,6 +201,11 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
     }
 
     private void powerOff(final Object message) {
+        if (responseChecks != null) {
+            responseChecks.cancel();
+            responseChecks = null;
+        }
+        pendingResponses.clear();
         // Clean up the JAIN MGCP provider.
         try {
             provider.removeJainMgcpListener(this);
@@ -231,6 +258,35 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
         requestIdPool = new RevolvingCounter(1, Integer.MAX_VALUE);
         sessionIdPool = new RevolvingCounter(1, Integer.MAX_VALUE);
         transactionIdPool = new RevolvingCounter(1, Integer.MAX_VALUE);
+        if (timeout > 0) {
+            final FiniteDuration period = Duration.create(timeout, TimeUnit.MILLISECONDS);
+            responseChecks = getContext().system().scheduler()
+                    .schedule(period, period, self(), CHECK_RESPONSES, getContext().dispatcher());
+        }
+    }
+
+    private void checkResponses() {
+        final long expired = System.currentTimeMillis() - timeout;
+        int count = 0;
+        final Iterator<Long> sent = pendingResponses.values().iterator();
+        while (sent.hasNext()) {
+            if (sent.next() < expired) {
+                sent.remove();
+                count++;
+            }
+        }
+        if (count > 0 && timeouts.addAndGet(count) >= MAX_TIMEOUTS && responding.compareAndSet(true, false)) {
+            logger.warning("Media gateway " + name + " at " + domain + " is not responding.");
+            events.publish(new MediaGatewayStateChanged(self(), MediaGatewayStateChanged.State.NOT_RESPONDING));
+        }
+    }
+
+    @Override
+    public void postStop() {
+        if (responseChecks != null) {
+            responseChecks.cancel();
+        }
+        super.postStop();
     }
 
     @Override
@@ -251,6 +307,13 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
     @Override
     public void processMgcpResponseEvent(final JainMgcpResponseEvent event) {
         final int id = event.getTransactionHandle();
+        if (pendingResponses.remove(id) != null) {
+            timeouts.set(0);
+            if (responding.compareAndSet(false, true)) {
+                logger.info("Media gateway " + name + " at " + domain + " is responding again.");
+                events.publish(new MediaGatewayStateChanged(self(), MediaGatewayStateChanged.State.RESPONDING));
+            }
+        }
         final ActorRef listener = responseListeners.remove(id);
         if (listener != null) {
             listener.tell(event, self());
@@ -263,7 +326,9 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
         final Class<?> klass = message.getClass();
         final ActorRef self = self();
         final ActorRef sender = sender();
-        if (PowerOnMediaGateway.class.equals(klass)) {
+        if (CHECK_RESPONSES == message) {
+            checkResponses();
+        } else if (PowerOnMediaGateway.class.equals(klass)) {
             powerOn(message);
         } else if (PowerOffMediaGateway.class.equals(klass)) {
             powerOff(message);
@@ -310,6 +375,7 @@ public final class MediaGateway extends UntypedActor implements JainMgcpListener
         final int transactionId = (int) transactionIdPool.get();
         command.setTransactionHandle(transactionId);
         responseListeners.put(transactionId, sender);
+        pendingResponses.put(transactionId, System.currentTimeMillis());
         if (NotificationRequest.class.equals(command.getClass())) {
             final NotificationRequest request = (NotificationRequest) command;
             final String id = Long.toString(requestIdPool.get());
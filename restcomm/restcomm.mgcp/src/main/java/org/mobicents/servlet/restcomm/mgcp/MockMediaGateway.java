@@ -25,6 +25,8 @@ import akka.actor.Props;
 import akka.actor.UntypedActor;
 import akka.actor.UntypedActorContext;
 import akka.actor.UntypedActorFactory;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
 
 import jain.protocol.ip.mgcp.JainMgcpCommandEvent;
 import jain.protocol.ip.mgcp.JainMgcpResponseEvent;
@@ -59,6 +61,8 @@ public final class MockMediaGateway extends UntypedActor {
             + "c=IN IP4 192.168.1.100\n" + "t=0 0\n" + "m=audio 63044 RTP/AVP 97 8 0 101\n" + "a=rtpmap:97 l16/8000\n"
             + "a=rtpmap:8 pcma/8000\n" + "a=rtpmap:0 pcmu/8000\n" + "a=rtpmap:101 telephone-event/8000\n" + "a=fmtp:101 0-15\n";
 
+    private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
+
     // MediaGateway connection information.
     private String name;
     private InetAddress localIp;
@@ -262,7 +266,9 @@ public final class MockMediaGateway extends UntypedActor {
     private void createConnection(final Object message, final ActorRef sender) {
         final ActorRef self = self();
         final jain.protocol.ip.mgcp.message.CreateConnection crcx = (jain.protocol.ip.mgcp.message.CreateConnection) message;
-        System.out.println(crcx.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(crcx.toString());
+        }
         // Create a response.
         StringBuilder buffer = new StringBuilder();
         buffer.append(connectionIdPool.get());
@@ -303,45 +309,59 @@ public final class MockMediaGateway extends UntypedActor {
         response.setLocalConnectionDescriptor(descriptor);
         final int transaction = crcx.getTransactionHandle();
         response.setTransactionHandle(transaction);
-        System.out.println(response.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(response.toString());
+        }
         sender.tell(response, self);
     }
 
     private void modifyConnection(final Object message, final ActorRef sender) {
         final ActorRef self = self();
         final ModifyConnection mdcx = (ModifyConnection) message;
-        System.out.println(mdcx.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(mdcx.toString());
+        }
         final ReturnCode code = ReturnCode.Transaction_Executed_Normally;
         final ModifyConnectionResponse response = new ModifyConnectionResponse(self, code);
         final ConnectionDescriptor descriptor = new ConnectionDescriptor(sdp);
         response.setLocalConnectionDescriptor(descriptor);
         final int transaction = mdcx.getTransactionHandle();
         response.setTransactionHandle(transaction);
-        System.out.println(response.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(response.toString());
+        }
         sender.tell(response, self);
     }
 
     private void deleteConnection(final Object message, final ActorRef sender) {
         final ActorRef self = self();
         final DeleteConnection dlcx = (DeleteConnection) message;
-        System.out.println(dlcx.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(dlcx.toString());
+        }
         final ReturnCode code = ReturnCode.Transaction_Executed_Normally;
         final DeleteConnectionResponse response = new DeleteConnectionResponse(self, code);
         final int transaction = dlcx.getTransactionHandle();
         response.setTransactionHandle(transaction);
-        System.out.println(response.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(response.toString());
+        }
         sender.tell(response, self);
     }
 
     private void notificationResponse(final Object message, final ActorRef sender) {
         final ActorRef self = self();
         final NotificationRequest rqnt = (NotificationRequest) message;
-        System.out.println(rqnt.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(rqnt.toString());
+        }
         final ReturnCode code = ReturnCode.Transaction_Executed_Normally;
         final JainMgcpResponseEvent response = new NotificationRequestResponse(self, code);
         final int transaction = rqnt.getTransactionHandle();
         response.setTransactionHandle(transaction);
-        System.out.println(response.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(response.toString());
+        }
         sender.tell(response, self);
     }
 
@@ -352,7 +372,9 @@ public final class MockMediaGateway extends UntypedActor {
         final EventName[] events = { new EventName(AUPackage.AU, event) };
         final Notify notify = new Notify(this, request.getEndpointIdentifier(), request.getRequestIdentifier(), events);
         notify.setTransactionHandle((int) transactionIdPool.get());
-        System.out.println(notify.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(notify.toString());
+        }
         sender.tell(notify, self);
     }
 
@@ -384,6 +406,8 @@ public final class MockMediaGateway extends UntypedActor {
 
     private void send(final Object message) {
         final JainMgcpResponseEvent response = (JainMgcpResponseEvent) message;
-        System.out.println(response.toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug(response.toString());
+        }
     }
 }
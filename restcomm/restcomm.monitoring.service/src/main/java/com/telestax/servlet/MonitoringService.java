@@ -27,7 +27,11 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.http.pool.PoolStats;
+import org.mobicents.servlet.restcomm.cache.MediaCache;
+import org.mobicents.servlet.restcomm.dispatch.DispatcherMetrics;
 import org.mobicents.servlet.restcomm.entities.InstanceId;
+import org.mobicents.servlet.restcomm.http.HttpClientPool;
 import org.mobicents.servlet.restcomm.patterns.Observing;
 import org.mobicents.servlet.restcomm.patterns.StopObserving;
 import org.mobicents.servlet.restcomm.telephony.CallInfo;
@@ -273,6 +277,14 @@ public class MonitoringService extends UntypedActor{
         countersMap.put("TextMessageNotFound", textNotFound.get());
         countersMap.put("TextMessageOutbound", textOutbound.get());
 
+        final PoolStats httpClientStats = HttpClientPool.getStats();
+        countersMap.put("HttpClientLeasedConnections", httpClientStats.getLeased());
+        countersMap.put("HttpClientAvailableConnections", httpClientStats.getAvailable());
+        countersMap.put("HttpClientPendingRequests", httpClientStats.getPending());
+        countersMap.put("HttpClientMaxConnections", httpClientStats.getMax());
+        countersMap.putAll(DispatcherMetrics.counters());
+        countersMap.putAll(MediaCache.counters());
+
         MonitoringServiceResponse callInfoList = new MonitoringServiceResponse(instanceId, callDetailsList, countersMap);
         sender.tell(callInfoList, self);
     }
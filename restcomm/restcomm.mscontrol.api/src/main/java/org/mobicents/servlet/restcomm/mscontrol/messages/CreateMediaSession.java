@@ -33,13 +33,24 @@ public final class CreateMediaSession {
     private final String connectionMode;
     private final String sessionDescription;
     private final boolean webrtc;
+    private final String affinity;
 
-    public CreateMediaSession(String connectionMode, String sessionDescription, boolean outbound, boolean webrtc) {
+    /**
+     * @param affinity Media sessions created with the same affinity are placed on the same media server, null if the
+     *        media session does not have to join media of other sessions.
+     */
+    public CreateMediaSession(String connectionMode, String sessionDescription, boolean outbound, boolean webrtc,
+            String affinity) {
         super();
         this.connectionMode = connectionMode;
         this.sessionDescription = sessionDescription;
         this.outbound = outbound;
         this.webrtc = webrtc;
+        this.affinity = affinity;
+    }
+
+    public CreateMediaSession(String connectionMode, String sessionDescription, boolean outbound, boolean webrtc) {
+        this(connectionMode, sessionDescription, outbound, webrtc, null);
     }
 
     public CreateMediaSession(String connectionMode) {
@@ -66,4 +77,8 @@ public final class CreateMediaSession {
         return webrtc;
     }
 
+    public String getAffinity() {
+        return affinity;
+    }
+
 }
@@ -34,10 +34,24 @@ public final class JoinConference {
 
     private final Object endpoint;
     private final ConnectionMode connectionMode;
+    private final Object mediaGateway;
+    private final Object mediaSession;
 
-    public JoinConference(final Object endpoint, final ConnectionMode connectionMode) {
+    /**
+     * @param mediaGateway The media gateway the conference is placed on, so a call placed on another gateway can link its
+     *        media to the conference endpoint. Null for the controllers that do not pool media gateways.
+     * @param mediaSession The media session of the conference on that media gateway.
+     */
+    public JoinConference(final Object endpoint, final ConnectionMode connectionMode, final Object mediaGateway,
+            final Object mediaSession) {
         this.endpoint = endpoint;
         this.connectionMode = connectionMode;
+        this.mediaGateway = mediaGateway;
+        this.mediaSession = mediaSession;
+    }
+
+    public JoinConference(final Object endpoint, final ConnectionMode connectionMode) {
+        this(endpoint, connectionMode, null, null);
     }
 
     public Object getEndpoint() {
@@ -48,4 +62,12 @@ public final class JoinConference {
         return connectionMode;
     }
 
+    public Object getMediaGateway() {
+        return mediaGateway;
+    }
+
+    public Object getMediaSession() {
+        return mediaSession;
+    }
+
 }
@@ -0,0 +1,284 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2013, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.servlet.restcomm.mscontrol.mgcp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.annotations.concurrency.ThreadSafe;
+import org.mobicents.servlet.restcomm.mgcp.MediaGatewayStateChanged;
+
+import akka.actor.Actor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+
+/**
+ * The media gateways the controllers of a RestComm node place their media on.
+ *
+ * A controller acquires a gateway when it creates its media session and releases it when it stops. Controllers that
+ * acquire with the same affinity key, like the legs and the bridge of a dial, are placed on the same gateway for as long
+ * as one of them holds it, a Link can only join endpoints of the same gateway. A conference acquires with its name and
+ * the calls of other gateways join it through a {@link RemoteLink}. Otherwise the
+ * gateway is chosen by the selection policy among the gateways that respond and are not draining.
+ */
+@ThreadSafe
+public final class MediaGatewayPool {
+    public static enum Selection {
+        LEAST_ACTIVE, WEIGHTED_ROUND_ROBIN
+    }
+
+    private static final Logger logger = Logger.getLogger(MediaGatewayPool.class);
+
+    private final List<Member> members;
+    private final Selection selection;
+    // How long a gateway that stopped responding is passed over before it is tried again.
+    private final long retryInterval;
+    private final Map<String, Placement> placements;
+
+    public MediaGatewayPool(final List<Member> members, final Selection selection, final long retryInterval) {
+        super();
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("A media gateway pool needs at least one gateway.");
+        }
+        this.members = Collections.unmodifiableList(new ArrayList<Member>(members));
+        this.selection = selection;
+        this.retryInterval = retryInterval;
+        this.placements = new HashMap<String, Placement>();
+    }
+
+    /**
+     * A pool of a single gateway.
+     */
+    public MediaGatewayPool(final ActorRef gateway) {
+        this(Collections.singletonList(new Member("default", gateway, 1, false)), Selection.LEAST_ACTIVE, 0);
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    /**
+     * Chooses the gateway of a new media session.
+     *
+     * @param affinity The key of the media sessions that have to share a gateway, or null.
+     */
+    public synchronized Member acquire(final String affinity) {
+        Member member = null;
+        Placement placement = null;
+        if (affinity != null) {
+            placement = placements.get(affinity);
+            if (placement != null) {
+                member = placement.member;
+                placement.count++;
+            }
+        }
+        if (member == null) {
+            member = select();
+            if (affinity != null) {
+                placements.put(affinity, new Placement(member));
+            }
+        }
+        member.active++;
+        return member;
+    }
+
+    public synchronized void release(final Member member, final String affinity) {
+        member.active--;
+        if (affinity != null) {
+            final Placement placement = placements.get(affinity);
+            if (placement != null && placement.member == member && --placement.count == 0) {
+                placements.remove(affinity);
+            }
+        }
+        if (member.draining && member.active == 0) {
+            logger.info("Media gateway " + member.name + " is drained.");
+        }
+    }
+
+    /**
+     * A draining gateway gets no new media sessions except for the ones that have to join media it already holds.
+     *
+     * @return false if the pool has no gateway with that name.
+     */
+    public synchronized boolean drain(final String name, final boolean draining) {
+        for (final Member member : members) {
+            if (member.name.equals(name)) {
+                if (member.draining == draining) {
+                    return true;
+                }
+                member.draining = draining;
+                logger.info("Media gateway " + name + (draining ? " is draining, " + member.active + " media sessions left."
+                        : " is back in service."));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void setResponding(final ActorRef gateway, final boolean responding) {
+        for (final Member member : members) {
+            if (member.gateway.equals(gateway)) {
+                member.responding = responding;
+                member.checked = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Follows the state of the gateways published on the event stream of the actor system.
+     */
+    public ActorRef watch(final ActorSystem system) {
+        final MediaGatewayPool pool = this;
+        final ActorRef monitor = system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                return new Monitor(pool);
+            }
+        }));
+        system.eventStream().subscribe(monitor, MediaGatewayStateChanged.class);
+        return monitor;
+    }
+
+    // Called with the lock of the pool held.
+    private Member select() {
+        final long now = System.currentTimeMillis();
+        final List<Member> candidates = new ArrayList<Member>(members.size());
+        for (final Member member : members) {
+            if (!member.draining && member.responding) {
+                candidates.add(member);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Give the gateways that stopped responding a new chance once in a while, the next response puts them back.
+            for (final Member member : members) {
+                if (!member.draining && now - member.checked >= retryInterval) {
+                    candidates.add(member);
+                    member.checked = now;
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            logger.warn("No media gateway is available, using a draining or not responding one.");
+            candidates.addAll(members);
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        Member selected = null;
+        if (Selection.WEIGHTED_ROUND_ROBIN.equals(selection)) {
+            // Smooth weighted round robin, every gateway gets its weight and the selected one pays for all of them.
+            int total = 0;
+            for (final Member member : candidates) {
+                member.credit += member.weight;
+                total += member.weight;
+                if (selected == null || member.credit > selected.credit) {
+                    selected = member;
+                }
+            }
+            selected.credit -= total;
+        } else {
+            for (final Member member : candidates) {
+                if (selected == null || (long) member.active * selected.weight < (long) selected.active * member.weight) {
+                    selected = member;
+                }
+            }
+        }
+        return selected;
+    }
+
+    public static final class Member {
+        private final String name;
+        private final ActorRef gateway;
+        private final int weight;
+        // Guarded by the lock of the pool.
+        private int active;
+        private int credit;
+        private long checked;
+        private volatile boolean draining;
+        private volatile boolean responding;
+
+        public Member(final String name, final ActorRef gateway, final int weight, final boolean draining) {
+            super();
+            this.name = name;
+            this.gateway = gateway;
+            this.weight = Math.max(1, weight);
+            this.draining = draining;
+            this.responding = true;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public ActorRef gateway() {
+            return gateway;
+        }
+
+        public int weight() {
+            return weight;
+        }
+
+        public boolean isDraining() {
+            return draining;
+        }
+
+        public boolean isResponding() {
+            return responding;
+        }
+    }
+
+    private static final class Placement {
+        private final Member member;
+        private int count;
+
+        private Placement(final Member member) {
+            this.member = member;
+            this.count = 1;
+        }
+    }
+
+    private static final class Monitor extends UntypedActor {
+        private final MediaGatewayPool pool;
+
+        private Monitor(final MediaGatewayPool pool) {
+            super();
+            this.pool = pool;
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            if (message instanceof MediaGatewayStateChanged) {
+                final MediaGatewayStateChanged changed = (MediaGatewayStateChanged) message;
+                pool.setResponding(changed.gateway(), MediaGatewayStateChanged.State.RESPONDING.equals(changed.state()));
+            }
+        }
+    }
+}
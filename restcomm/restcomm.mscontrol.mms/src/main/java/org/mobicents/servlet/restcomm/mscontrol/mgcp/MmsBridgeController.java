@@ -91,7 +91,10 @@ public class MmsBridgeController extends MediaServerController {
     private Boolean fail;
 
     // MGCP runtime stuff
-    private final ActorRef mediaGateway;
+    private final MediaGatewayPool pool;
+    private MediaGatewayPool.Member member;
+    private String affinity;
+    private ActorRef mediaGateway;
     private MediaSession mediaSession;
     private ActorRef endpoint;
 
@@ -107,7 +110,7 @@ public class MmsBridgeController extends MediaServerController {
     // Observers
     private final List<ActorRef> observers;
 
-    public MmsBridgeController(ActorRef mediaGateway) {
+    public MmsBridgeController(MediaGatewayPool pool) {
         final ActorRef self = self();
 
         // Finite states
@@ -136,7 +139,7 @@ public class MmsBridgeController extends MediaServerController {
         this.fail = Boolean.FALSE;
 
         // Media Components
-        this.mediaGateway = mediaGateway;
+        this.pool = pool;
 
         // Media Operations
         this.recording = Boolean.FALSE;
@@ -252,10 +255,25 @@ public class MmsBridgeController extends MediaServerController {
     private void onCreateMediaSession(CreateMediaSession message, ActorRef self, ActorRef sender) throws Exception {
         if (is(uninitialized)) {
             this.bridge = sender;
+            if (this.member == null) {
+                // Media is placed on a gateway of the pool the first time a session is requested
+                this.affinity = message.getAffinity();
+                this.member = this.pool.acquire(this.affinity);
+                this.mediaGateway = this.member.gateway();
+            }
             this.fsm.transition(message, acquiringMediaSession);
         }
     }
 
+    @Override
+    public void postStop() {
+        if (this.member != null) {
+            this.pool.release(this.member, this.affinity);
+            this.member = null;
+        }
+        super.postStop();
+    }
+
     private void onJoinCall(JoinCall message, ActorRef self, ActorRef sender) {
         // Tell call to join bridge by passing reference to the media mixer
         final JoinBridge join = new JoinBridge(this.endpoint, message.getConnectionMode());
@@ -28,9 +28,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.sound.sampled.UnsupportedAudioFileException;
 
@@ -42,7 +40,7 @@ import org.mobicents.servlet.restcomm.entities.Recording;
 import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.mgcp.CloseConnection;
 import org.mobicents.servlet.restcomm.mgcp.CloseLink;
 import org.mobicents.servlet.restcomm.mgcp.ConnectionStateChanged;
@@ -108,6 +106,8 @@ public class MmsCallController extends MediaServerController {
 
     // Finite State Machine
     private final FiniteStateMachine fsm;
+    // The transitions are the same for every call, built once from the states of the first one.
+    private static volatile TransitionTable transitionTable;
     private final State uninitialized;
     private final State acquiringMediaGatewayInfo;
     private final State acquiringMediaSession;
@@ -145,7 +145,10 @@ public class MmsCallController extends MediaServerController {
     private ActorRef outboundCallBridgeEndpoint;
 
     // MGCP runtime stuff
-    private final ActorRef mediaGateway;
+    private final MediaGatewayPool pool;
+    private MediaGatewayPool.Member member;
+    private String affinity;
+    private ActorRef mediaGateway;
     private MediaGatewayInfo gatewayInfo;
     private MediaSession session;
     private ActorRef bridgeEndpoint;
@@ -153,6 +156,9 @@ public class MmsCallController extends MediaServerController {
     private ActorRef internalLink;
     private ActorRef internalLinkEndpoint;
     private ConnectionMode internalLinkMode;
+    // The gateway and session of a conference placed on another gateway, its endpoint is reached through a RemoteLink
+    private ActorRef internalLinkGateway;
+    private MediaSession internalLinkSession;
 
     // Call Recording
     private Sid accountId;
@@ -168,7 +174,7 @@ public class MmsCallController extends MediaServerController {
     // Observer pattern
     private final List<ActorRef> observers;
 
-    public MmsCallController(final ActorRef mediaGateway) {
+    public MmsCallController(final MediaGatewayPool pool) {
         super();
         final ActorRef source = self();
 
@@ -196,58 +202,11 @@ public class MmsCallController extends MediaServerController {
         this.inactive = new State("inactive", new Inactive(source), null);
         this.failed = new State("failed", new Failed(source), null);
 
-        // Transitions for the FSM.
-        final Set<Transition> transitions = new HashSet<Transition>();
-        transitions.add(new Transition(this.uninitialized, this.acquiringMediaGatewayInfo));
-        transitions.add(new Transition(this.uninitialized, this.closingRemoteConnection));
-        transitions.add(new Transition(this.acquiringMediaGatewayInfo, this.acquiringMediaSession));
-        transitions.add(new Transition(this.acquiringMediaSession, this.acquiringBridge));
-        transitions.add(new Transition(this.acquiringBridge, this.creatingMediaGroup));
-        transitions.add(new Transition(this.creatingMediaGroup, this.acquiringRemoteConnection));
-        transitions.add(new Transition(this.creatingMediaGroup, this.failed));
-        transitions.add(new Transition(this.acquiringRemoteConnection, this.initializingRemoteConnection));
-        transitions.add(new Transition(this.initializingRemoteConnection, this.openingRemoteConnection));
-        transitions.add(new Transition(this.openingRemoteConnection, this.active));
-        transitions.add(new Transition(this.openingRemoteConnection, this.failed));
-        transitions.add(new Transition(this.openingRemoteConnection, this.pending));
-        transitions.add(new Transition(this.active, this.muting));
-        transitions.add(new Transition(this.active, this.unmuting));
-        transitions.add(new Transition(this.active, this.updatingRemoteConnection));
-        transitions.add(new Transition(this.active, this.closingRemoteConnection));
-        transitions.add(new Transition(this.active, this.acquiringInternalLink));
-        transitions.add(new Transition(this.active, this.closingInternalLink));
-        transitions.add(new Transition(this.active, this.creatingMediaGroup));
-        transitions.add(new Transition(this.pending, this.active));
-        transitions.add(new Transition(this.pending, this.failed));
-        transitions.add(new Transition(this.pending, this.updatingRemoteConnection));
-        transitions.add(new Transition(this.pending, this.closingRemoteConnection));
-        transitions.add(new Transition(this.muting, this.active));
-        transitions.add(new Transition(this.muting, this.closingRemoteConnection));
-        transitions.add(new Transition(this.unmuting, this.active));
-        transitions.add(new Transition(this.unmuting, this.closingRemoteConnection));
-        transitions.add(new Transition(this.updatingRemoteConnection, this.active));
-        transitions.add(new Transition(this.updatingRemoteConnection, this.closingRemoteConnection));
-        transitions.add(new Transition(this.updatingRemoteConnection, this.failed));
-        transitions.add(new Transition(this.closingRemoteConnection, this.inactive));
-        transitions.add(new Transition(this.closingRemoteConnection, this.closingInternalLink));
-        transitions.add(new Transition(this.acquiringInternalLink, this.closingRemoteConnection));
-        transitions.add(new Transition(this.acquiringInternalLink, this.initializingInternalLink));
-        transitions.add(new Transition(this.initializingInternalLink, this.closingRemoteConnection));
-        transitions.add(new Transition(this.initializingInternalLink, this.openingInternalLink));
-        transitions.add(new Transition(this.openingInternalLink, this.closingRemoteConnection));
-        transitions.add(new Transition(this.openingInternalLink, this.updatingInternalLink));
-        transitions.add(new Transition(this.updatingInternalLink, this.closingRemoteConnection));
-        transitions.add(new Transition(this.updatingInternalLink, this.closingInternalLink));
-        transitions.add(new Transition(this.updatingInternalLink, this.active));
-        transitions.add(new Transition(this.closingInternalLink, this.closingRemoteConnection));
-        transitions.add(new Transition(this.closingInternalLink, this.active));
-        transitions.add(new Transition(this.closingInternalLink, this.inactive));
-
         // Initialize the FSM.
-        this.fsm = new FiniteStateMachine(uninitialized, transitions);
+        this.fsm = new FiniteStateMachine(uninitialized, transitions());
 
         // MGCP runtime stuff
-        this.mediaGateway = mediaGateway;
+        this.pool = pool;
 
         // Call runtime stuff
         this.localSdp = "";
@@ -260,6 +219,60 @@ public class MmsCallController extends MediaServerController {
         this.observers = new ArrayList<ActorRef>(1);
     }
 
+    private TransitionTable transitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            transitions.add(this.uninitialized, this.acquiringMediaGatewayInfo);
+            transitions.add(this.uninitialized, this.closingRemoteConnection);
+            transitions.add(this.acquiringMediaGatewayInfo, this.acquiringMediaSession);
+            transitions.add(this.acquiringMediaSession, this.acquiringBridge);
+            transitions.add(this.acquiringBridge, this.creatingMediaGroup);
+            transitions.add(this.creatingMediaGroup, this.acquiringRemoteConnection);
+            transitions.add(this.creatingMediaGroup, this.failed);
+            transitions.add(this.acquiringRemoteConnection, this.initializingRemoteConnection);
+            transitions.add(this.initializingRemoteConnection, this.openingRemoteConnection);
+            transitions.add(this.openingRemoteConnection, this.active);
+            transitions.add(this.openingRemoteConnection, this.failed);
+            transitions.add(this.openingRemoteConnection, this.pending);
+            transitions.add(this.active, this.muting);
+            transitions.add(this.active, this.unmuting);
+            transitions.add(this.active, this.updatingRemoteConnection);
+            transitions.add(this.active, this.closingRemoteConnection);
+            transitions.add(this.active, this.acquiringInternalLink);
+            transitions.add(this.active, this.closingInternalLink);
+            transitions.add(this.active, this.creatingMediaGroup);
+            transitions.add(this.pending, this.active);
+            transitions.add(this.pending, this.failed);
+            transitions.add(this.pending, this.updatingRemoteConnection);
+            transitions.add(this.pending, this.closingRemoteConnection);
+            transitions.add(this.muting, this.active);
+            transitions.add(this.muting, this.closingRemoteConnection);
+            transitions.add(this.unmuting, this.active);
+            transitions.add(this.unmuting, this.closingRemoteConnection);
+            transitions.add(this.updatingRemoteConnection, this.active);
+            transitions.add(this.updatingRemoteConnection, this.closingRemoteConnection);
+            transitions.add(this.updatingRemoteConnection, this.failed);
+            transitions.add(this.closingRemoteConnection, this.inactive);
+            transitions.add(this.closingRemoteConnection, this.closingInternalLink);
+            transitions.add(this.acquiringInternalLink, this.closingRemoteConnection);
+            transitions.add(this.acquiringInternalLink, this.initializingInternalLink);
+            transitions.add(this.initializingInternalLink, this.closingRemoteConnection);
+            transitions.add(this.initializingInternalLink, this.openingInternalLink);
+            transitions.add(this.openingInternalLink, this.closingRemoteConnection);
+            transitions.add(this.openingInternalLink, this.updatingInternalLink);
+            transitions.add(this.updatingInternalLink, this.closingRemoteConnection);
+            transitions.add(this.updatingInternalLink, this.closingInternalLink);
+            transitions.add(this.updatingInternalLink, this.active);
+            transitions.add(this.closingInternalLink, this.closingRemoteConnection);
+            transitions.add(this.closingInternalLink, this.active);
+            transitions.add(this.closingInternalLink, this.inactive);
+            table = transitions.build();
+            transitionTable = table;
+        }
+        return table;
+    }
+
     /**
      * Checks whether the actor is currently in a certain state.
      *
@@ -434,10 +447,25 @@ public class MmsCallController extends MediaServerController {
         this.callOutbound = message.isOutbound();
         this.remoteSdp = message.getSessionDescription();
         this.webrtc = message.isWebrtc();
+        if (this.member == null) {
+            // Media is placed on a gateway of the pool the first time a session is requested
+            this.affinity = message.getAffinity();
+            this.member = this.pool.acquire(this.affinity);
+            this.mediaGateway = this.member.gateway();
+        }
 
         fsm.transition(message, acquiringMediaGatewayInfo);
     }
 
+    @Override
+    public void postStop() {
+        if (this.member != null) {
+            this.pool.release(this.member, this.affinity);
+            this.member = null;
+        }
+        super.postStop();
+    }
+
     private void onCloseMediaSession(CloseMediaSession message, ActorRef self, ActorRef sender) throws Exception {
         fsm.transition(message, closingRemoteConnection);
     }
@@ -592,6 +620,8 @@ public class MmsCallController extends MediaServerController {
         this.bridge = sender;
         this.internalLinkEndpoint = (ActorRef) message.getEndpoint();
         this.internalLinkMode = message.getConnectionMode();
+        this.internalLinkGateway = null;
+        this.internalLinkSession = null;
 
         // Start join operation
         this.fsm.transition(message, acquiringInternalLink);
@@ -602,6 +632,14 @@ public class MmsCallController extends MediaServerController {
         this.bridge = sender;
         this.internalLinkEndpoint = (ActorRef) message.getEndpoint();
         this.internalLinkMode = message.getConnectionMode();
+        final ActorRef conferenceGateway = (ActorRef) message.getMediaGateway();
+        if (conferenceGateway != null && !conferenceGateway.equals(this.mediaGateway)) {
+            this.internalLinkGateway = conferenceGateway;
+            this.internalLinkSession = (MediaSession) message.getMediaSession();
+        } else {
+            this.internalLinkGateway = null;
+            this.internalLinkSession = null;
+        }
 
         // Start join operation
         this.fsm.transition(message, acquiringInternalLink);
@@ -791,6 +829,18 @@ public class MmsCallController extends MediaServerController {
 
     }
 
+    private void destroyInternalLink() {
+        if (internalLinkGateway == null) {
+            mediaGateway.tell(new DestroyLink(internalLink), self());
+        } else {
+            // A remote link is a child of this controller, it deletes its connections on both gateways when it stops
+            context().stop(internalLink);
+            internalLinkGateway = null;
+            internalLinkSession = null;
+        }
+        internalLink = null;
+    }
+
     private final class AcquiringInternalLink extends AbstractAction {
 
         public AcquiringInternalLink(final ActorRef source) {
@@ -799,7 +849,20 @@ public class MmsCallController extends MediaServerController {
 
         @Override
         public void execute(final Object message) throws Exception {
-            mediaGateway.tell(new CreateLink(session), source);
+            if (internalLinkGateway == null) {
+                mediaGateway.tell(new CreateLink(session), source);
+            } else {
+                // The conference is on another gateway, a Link can only join endpoints of the same gateway
+                final ActorRef link = getContext().actorOf(new Props(new UntypedActorFactory() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    public UntypedActor create() throws Exception {
+                        return new RemoteLink(mediaGateway, session, internalLinkGateway, internalLinkSession);
+                    }
+                }));
+                source.tell(new MediaGatewayResponse<ActorRef>(link), source);
+            }
         }
 
     }
@@ -947,8 +1010,7 @@ public class MmsCallController extends MediaServerController {
 
         @Override
         public void execute(final Object message) throws Exception {
-            mediaGateway.tell(new DestroyLink(internalLink), source);
-            internalLink = null;
+            destroyInternalLink();
             internalLinkEndpoint = null;
             internalLinkMode = null;
         }
@@ -1009,10 +1071,9 @@ public class MmsCallController extends MediaServerController {
             }
 
             if (internalLink != null) {
-                mediaGateway.tell(new DestroyLink(internalLink), source);
                 context().stop(internalLink);
+                destroyInternalLink();
                 context().stop(internalLinkEndpoint);
-                internalLink = null;
             }
 
             if (bridgeEndpoint != null) {
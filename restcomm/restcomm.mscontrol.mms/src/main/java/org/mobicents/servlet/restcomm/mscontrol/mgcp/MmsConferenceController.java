@@ -85,7 +85,10 @@ public final class MmsConferenceController extends MediaServerController {
     private Boolean fail;
 
     // MGCP runtime stuff.
-    private final ActorRef mediaGateway;
+    private final MediaGatewayPool pool;
+    private MediaGatewayPool.Member member;
+    private String affinity;
+    private ActorRef mediaGateway;
     private MediaSession mediaSession;
     private ActorRef cnfEndpoint;
 
@@ -101,7 +104,7 @@ public final class MmsConferenceController extends MediaServerController {
     // Observers
     private final List<ActorRef> observers;
 
-    public MmsConferenceController(ActorRef mediaGateway) {
+    public MmsConferenceController(MediaGatewayPool pool) {
         super();
         final ActorRef source = self();
 
@@ -133,7 +136,7 @@ public final class MmsConferenceController extends MediaServerController {
         this.fail = Boolean.FALSE;
 
         // MGCP runtime stuff
-        this.mediaGateway = mediaGateway;
+        this.pool = pool;
 
         // Runtime media operations
         this.playing = Boolean.FALSE;
@@ -221,10 +224,25 @@ public final class MmsConferenceController extends MediaServerController {
     private void onCreateMediaSession(CreateMediaSession message, ActorRef self, ActorRef sender) throws Exception {
         if (is(uninitialized)) {
             this.conference = sender;
+            if (this.member == null) {
+                // The conference is pinned to one gateway by its name, participants of other gateways link to it
+                this.affinity = message.getAffinity();
+                this.member = this.pool.acquire(this.affinity);
+                this.mediaGateway = this.member.gateway();
+            }
             fsm.transition(message, acquiringMediaSession);
         }
     }
 
+    @Override
+    public void postStop() {
+        if (this.member != null) {
+            this.pool.release(this.member, this.affinity);
+            this.member = null;
+        }
+        super.postStop();
+    }
+
     private void onCloseMediaSession(CloseMediaSession message, ActorRef self, ActorRef sender) throws Exception {
         if (is(active)) {
             fsm.transition(message, inactive);
@@ -288,7 +306,8 @@ public final class MmsConferenceController extends MediaServerController {
 
     private void onJoinCall(JoinCall message, ActorRef self, ActorRef sender) {
         // Tell call to join conference by passing reference to the media mixer
-        final JoinConference join = new JoinConference(this.cnfEndpoint, message.getConnectionMode());
+        final JoinConference join = new JoinConference(this.cnfEndpoint, message.getConnectionMode(), this.mediaGateway,
+                this.mediaSession);
         message.getCall().tell(join, sender);
     }
 
@@ -38,15 +38,20 @@ import akka.actor.UntypedActorFactory;
 public class MmsControllerFactory implements MediaServerControllerFactory {
 
     private final ActorSystem system;
-    private final ActorRef mediaGateway;
+    private final MediaGatewayPool pool;
     private final CallControllerFactory callControllerFactory;
     private final ConferenceControllerFactory conferenceControllerFactory;
     private final BridgeControllerFactory bridgeControllerFactory;
 
     public MmsControllerFactory(ActorSystem system, ActorRef mediaGateway) {
+        this(system, new MediaGatewayPool(mediaGateway));
+    }
+
+    public MmsControllerFactory(ActorSystem system, MediaGatewayPool pool) {
         super();
         this.system = system;
-        this.mediaGateway = mediaGateway;
+        this.pool = pool;
+        this.pool.watch(system);
         this.callControllerFactory = new CallControllerFactory();
         this.conferenceControllerFactory = new ConferenceControllerFactory();
         this.bridgeControllerFactory = new BridgeControllerFactory();
@@ -73,7 +78,7 @@ public class MmsControllerFactory implements MediaServerControllerFactory {
 
         @Override
         public Actor create() throws Exception {
-            return new MmsCallController(mediaGateway);
+            return new MmsCallController(pool);
         }
 
     }
@@ -84,7 +89,7 @@ public class MmsControllerFactory implements MediaServerControllerFactory {
 
         @Override
         public Actor create() throws Exception {
-            return new MmsConferenceController(mediaGateway);
+            return new MmsConferenceController(pool);
         }
 
     }
@@ -95,7 +100,7 @@ public class MmsControllerFactory implements MediaServerControllerFactory {
 
         @Override
         public Actor create() throws Exception {
-            return new MmsBridgeController(mediaGateway);
+            return new MmsBridgeController(pool);
         }
 
     }
@@ -0,0 +1,445 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2013, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.servlet.restcomm.mscontrol.mgcp;
+
+import jain.protocol.ip.mgcp.message.parms.ConnectionMode;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.mobicents.servlet.restcomm.fsm.Action;
+import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
+import org.mobicents.servlet.restcomm.fsm.State;
+import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.mgcp.CloseConnection;
+import org.mobicents.servlet.restcomm.mgcp.CloseLink;
+import org.mobicents.servlet.restcomm.mgcp.ConnectionStateChanged;
+import org.mobicents.servlet.restcomm.mgcp.CreateConnection;
+import org.mobicents.servlet.restcomm.mgcp.DestroyConnection;
+import org.mobicents.servlet.restcomm.mgcp.InitializeConnection;
+import org.mobicents.servlet.restcomm.mgcp.InitializeLink;
+import org.mobicents.servlet.restcomm.mgcp.LinkStateChanged;
+import org.mobicents.servlet.restcomm.mgcp.MediaGatewayResponse;
+import org.mobicents.servlet.restcomm.mgcp.MediaSession;
+import org.mobicents.servlet.restcomm.mgcp.OpenConnection;
+import org.mobicents.servlet.restcomm.mgcp.OpenLink;
+import org.mobicents.servlet.restcomm.mgcp.UpdateConnection;
+import org.mobicents.servlet.restcomm.mgcp.UpdateLink;
+import org.mobicents.servlet.restcomm.patterns.Observe;
+import org.mobicents.servlet.restcomm.patterns.Observing;
+import org.mobicents.servlet.restcomm.patterns.StopObserving;
+
+import akka.actor.ActorRef;
+import akka.actor.UntypedActor;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+
+/**
+ * Links an endpoint of one media gateway with an endpoint of another one.
+ *
+ * A {@link org.mobicents.servlet.restcomm.mgcp.Link} joins two endpoints of the same gateway. When a call joins a
+ * conference pinned to another gateway of the pool, the primary endpoint gets a connection on its own gateway and the
+ * secondary endpoint a connection on the gateway of the conference, the two connections exchange their session
+ * descriptions so the RTP flows from one media server to the other. The link answers InitializeLink, OpenLink,
+ * UpdateLink and CloseLink with the same LinkStateChanged events as a Link, and deletes its connections when it stops.
+ */
+public final class RemoteLink extends UntypedActor {
+
+    // Logging
+    private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
+
+    // Finite State Machine
+    private final FiniteStateMachine fsm;
+    private final State uninitialized;
+    private final State acquiringPrimary;
+    private final State initializingPrimary;
+    private final State acquiringSecondary;
+    private final State initializingSecondary;
+    private final State closed;
+    private final State openingPrimary;
+    private final State openingSecondary;
+    private final State updatingPrimary;
+    private final State open;
+    private final State modifying;
+    private final State closingPrimary;
+    private final State closingSecondary;
+
+    // MGCP runtime stuff
+    private final ActorRef primaryGateway;
+    private final MediaSession primarySession;
+    private final ActorRef secondaryGateway;
+    private final MediaSession secondarySession;
+    private ActorRef primaryEndpoint;
+    private ActorRef secondaryEndpoint;
+    private ActorRef primaryConnection;
+    private ActorRef secondaryConnection;
+    private boolean secondaryOpen;
+
+    // Observers
+    private final List<ActorRef> observers;
+
+    public RemoteLink(final ActorRef primaryGateway, final MediaSession primarySession, final ActorRef secondaryGateway,
+            final MediaSession secondarySession) {
+        super();
+        final ActorRef source = self();
+
+        // Finite States
+        this.uninitialized = new State("uninitialized", null, null);
+        this.acquiringPrimary = new State("acquiring primary", new AcquiringConnection(source, true), null);
+        this.initializingPrimary = new State("initializing primary", new InitializingConnection(source, true), null);
+        this.acquiringSecondary = new State("acquiring secondary", new AcquiringConnection(source, false), null);
+        this.initializingSecondary = new State("initializing secondary", new InitializingConnection(source, false), null);
+        this.closed = new State("closed", new Notifying(source, LinkStateChanged.State.CLOSED), null);
+        this.openingPrimary = new State("opening primary", new OpeningPrimary(source), null);
+        this.openingSecondary = new State("opening secondary", new OpeningSecondary(source), null);
+        this.updatingPrimary = new State("updating primary", new UpdatingPrimary(source), null);
+        this.open = new State("open", new Notifying(source, LinkStateChanged.State.OPEN), null);
+        this.modifying = new State("modifying", new Modifying(source), null);
+        this.closingPrimary = new State("closing primary", new ClosingConnection(source, true), null);
+        this.closingSecondary = new State("closing secondary", new ClosingConnection(source, false), null);
+
+        // Initialize the transitions for the FSM.
+        final Set<Transition> transitions = new HashSet<Transition>();
+        transitions.add(new Transition(uninitialized, acquiringPrimary));
+        transitions.add(new Transition(acquiringPrimary, initializingPrimary));
+        transitions.add(new Transition(initializingPrimary, acquiringSecondary));
+        transitions.add(new Transition(acquiringSecondary, initializingSecondary));
+        transitions.add(new Transition(initializingSecondary, closed));
+        transitions.add(new Transition(closed, openingPrimary));
+        transitions.add(new Transition(openingPrimary, openingSecondary));
+        transitions.add(new Transition(openingPrimary, closingPrimary));
+        transitions.add(new Transition(openingPrimary, closed));
+        transitions.add(new Transition(openingSecondary, updatingPrimary));
+        transitions.add(new Transition(openingSecondary, closingPrimary));
+        transitions.add(new Transition(updatingPrimary, open));
+        transitions.add(new Transition(updatingPrimary, closingPrimary));
+        transitions.add(new Transition(updatingPrimary, closingSecondary));
+        transitions.add(new Transition(open, modifying));
+        transitions.add(new Transition(open, closingPrimary));
+        transitions.add(new Transition(open, closingSecondary));
+        transitions.add(new Transition(modifying, open));
+        transitions.add(new Transition(modifying, closingPrimary));
+        transitions.add(new Transition(modifying, closingSecondary));
+        transitions.add(new Transition(closingPrimary, closingSecondary));
+        transitions.add(new Transition(closingPrimary, closed));
+        transitions.add(new Transition(closingSecondary, closed));
+
+        // Finite State Machine
+        this.fsm = new FiniteStateMachine(uninitialized, transitions);
+
+        // MGCP runtime stuff
+        this.primaryGateway = primaryGateway;
+        this.primarySession = primarySession;
+        this.secondaryGateway = secondaryGateway;
+        this.secondarySession = secondarySession;
+
+        // Observers
+        this.observers = new ArrayList<ActorRef>(1);
+    }
+
+    private boolean is(State state) {
+        return this.fsm.state().equals(state);
+    }
+
+    private void broadcast(final Object message) {
+        final ActorRef self = self();
+        for (final ActorRef observer : observers) {
+            observer.tell(message, self);
+        }
+    }
+
+    /*
+     * EVENTS
+     */
+    @Override
+    public void onReceive(final Object message) throws Exception {
+        final Class<?> klass = message.getClass();
+        final ActorRef sender = sender();
+        final ActorRef self = self();
+        if (logger.isInfoEnabled()) {
+            logger.info(" ********** Remote Link Current State: " + fsm.state().toString());
+            logger.info(" ********** Remote Link Processing Message: " + klass.getName());
+        }
+
+        if (Observe.class.equals(klass)) {
+            final ActorRef observer = ((Observe) message).observer();
+            if (observer != null) {
+                observers.add(observer);
+                observer.tell(new Observing(self), self);
+            }
+        } else if (StopObserving.class.equals(klass)) {
+            final ActorRef observer = ((StopObserving) message).observer();
+            if (observer != null) {
+                observers.remove(observer);
+            }
+        } else if (InitializeLink.class.equals(klass)) {
+            onInitializeLink((InitializeLink) message);
+        } else if (MediaGatewayResponse.class.equals(klass)) {
+            onMediaGatewayResponse(message);
+        } else if (ConnectionStateChanged.class.equals(klass)) {
+            onConnectionStateChanged((ConnectionStateChanged) message, sender);
+        } else if (OpenLink.class.equals(klass)) {
+            if (is(closed)) {
+                fsm.transition(message, openingPrimary);
+            }
+        } else if (UpdateLink.class.equals(klass)) {
+            if (is(open)) {
+                fsm.transition(message, modifying);
+            }
+        } else if (CloseLink.class.equals(klass)) {
+            onCloseLink(message);
+        }
+    }
+
+    private void onInitializeLink(final InitializeLink message) throws Exception {
+        if (is(uninitialized)) {
+            this.primaryEndpoint = message.primaryEndpoint();
+            this.secondaryEndpoint = message.secondaryEndpoint();
+            fsm.transition(message, acquiringPrimary);
+        }
+    }
+
+    private void onMediaGatewayResponse(final Object message) throws Exception {
+        if (is(acquiringPrimary)) {
+            fsm.transition(message, initializingPrimary);
+        } else if (is(acquiringSecondary)) {
+            fsm.transition(message, initializingSecondary);
+        }
+    }
+
+    private void onConnectionStateChanged(final ConnectionStateChanged message, final ActorRef sender) throws Exception {
+        switch (message.state()) {
+            case CLOSED:
+                if (is(initializingPrimary)) {
+                    if (sender.equals(primaryConnection)) {
+                        fsm.transition(message, acquiringSecondary);
+                    }
+                } else if (is(initializingSecondary) || is(openingPrimary)) {
+                    fsm.transition(message, closed);
+                } else if (is(openingSecondary)) {
+                    // The gateway of the conference refused the connection, the primary one is half open.
+                    fsm.transition(message, closingPrimary);
+                } else if (is(updatingPrimary) || is(open) || is(modifying)) {
+                    // One of the connections was lost, the other one is closed before the link reports it
+                    if (sender.equals(secondaryConnection)) {
+                        secondaryOpen = false;
+                        fsm.transition(message, closingPrimary);
+                    } else {
+                        fsm.transition(message, closingSecondary);
+                    }
+                } else if (is(closingPrimary)) {
+                    if (secondaryOpen) {
+                        fsm.transition(message, closingSecondary);
+                    } else {
+                        fsm.transition(message, closed);
+                    }
+                } else if (is(closingSecondary)) {
+                    secondaryOpen = false;
+                    fsm.transition(message, closed);
+                }
+                break;
+
+            case HALF_OPEN:
+                if (is(openingPrimary)) {
+                    fsm.transition(message, openingSecondary);
+                }
+                break;
+
+            case OPEN:
+                if (is(openingSecondary)) {
+                    secondaryOpen = true;
+                    fsm.transition(message, updatingPrimary);
+                } else if (is(updatingPrimary) || is(modifying)) {
+                    fsm.transition(message, open);
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void onCloseLink(final Object message) throws Exception {
+        if (is(openingPrimary) || is(openingSecondary) || is(updatingPrimary) || is(open) || is(modifying)) {
+            fsm.transition(message, closingPrimary);
+        } else if (is(closed)) {
+            broadcast(new LinkStateChanged(LinkStateChanged.State.CLOSED));
+        }
+    }
+
+    @Override
+    public void postStop() {
+        // The connections are children of their gateways, they are deleted with the link
+        if (primaryConnection != null) {
+            primaryGateway.tell(new DestroyConnection(primaryConnection), self());
+            primaryConnection = null;
+        }
+        if (secondaryConnection != null) {
+            secondaryGateway.tell(new DestroyConnection(secondaryConnection), self());
+            secondaryConnection = null;
+        }
+        super.postStop();
+    }
+
+    /*
+     * ACTIONS
+     */
+    private abstract class AbstractAction implements Action {
+        protected final ActorRef source;
+
+        public AbstractAction(final ActorRef source) {
+            super();
+            this.source = source;
+        }
+    }
+
+    private final class AcquiringConnection extends AbstractAction {
+        private final boolean primary;
+
+        public AcquiringConnection(final ActorRef source, final boolean primary) {
+            super(source);
+            this.primary = primary;
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            if (primary) {
+                primaryGateway.tell(new CreateConnection(primarySession), source);
+            } else {
+                secondaryGateway.tell(new CreateConnection(secondarySession), source);
+            }
+        }
+    }
+
+    private final class InitializingConnection extends AbstractAction {
+        private final boolean primary;
+
+        public InitializingConnection(final ActorRef source, final boolean primary) {
+            super(source);
+            this.primary = primary;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void execute(final Object message) throws Exception {
+            final ActorRef connection = ((MediaGatewayResponse<ActorRef>) message).get();
+            if (primary) {
+                primaryConnection = connection;
+            } else {
+                secondaryConnection = connection;
+            }
+            connection.tell(new Observe(source), source);
+            connection.tell(new InitializeConnection(primary ? primaryEndpoint : secondaryEndpoint), source);
+        }
+    }
+
+    private final class OpeningPrimary extends AbstractAction {
+
+        public OpeningPrimary(final ActorRef source) {
+            super(source);
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            final OpenLink request = (OpenLink) message;
+            primaryConnection.tell(new OpenConnection(request.mode(), false), source);
+        }
+    }
+
+    private final class OpeningSecondary extends AbstractAction {
+
+        public OpeningSecondary(final ActorRef source) {
+            super(source);
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            final ConnectionStateChanged response = (ConnectionStateChanged) message;
+            secondaryConnection.tell(new OpenConnection(response.descriptor(), ConnectionMode.SendRecv), source);
+        }
+    }
+
+    private final class UpdatingPrimary extends AbstractAction {
+
+        public UpdatingPrimary(final ActorRef source) {
+            super(source);
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            final ConnectionStateChanged response = (ConnectionStateChanged) message;
+            primaryConnection.tell(new UpdateConnection(response.descriptor()), source);
+        }
+    }
+
+    private final class Modifying extends AbstractAction {
+
+        public Modifying(final ActorRef source) {
+            super(source);
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            final UpdateLink request = (UpdateLink) message;
+            final UpdateConnection update = new UpdateConnection(request.mode());
+            if (UpdateLink.Type.PRIMARY.equals(request.type())) {
+                primaryConnection.tell(update, source);
+            } else {
+                secondaryConnection.tell(update, source);
+            }
+        }
+    }
+
+    private final class ClosingConnection extends AbstractAction {
+        private final boolean primary;
+
+        public ClosingConnection(final ActorRef source, final boolean primary) {
+            super(source);
+            this.primary = primary;
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            if (primary) {
+                primaryConnection.tell(new CloseConnection(), source);
+            } else {
+                secondaryConnection.tell(new CloseConnection(), source);
+            }
+        }
+    }
+
+    private final class Notifying extends AbstractAction {
+        private final LinkStateChanged.State state;
+
+        public Notifying(final ActorRef source, final LinkStateChanged.State state) {
+            super(source);
+            this.state = state;
+        }
+
+        @Override
+        public void execute(final Object message) throws Exception {
+            broadcast(new LinkStateChanged(state));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.mscontrol.mgcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import akka.actor.ActorSystem;
+import akka.testkit.JavaTestKit;
+
+public class MediaGatewayPoolTest {
+    private static ActorSystem system;
+
+    public MediaGatewayPoolTest() {
+        super();
+    }
+
+    @BeforeClass
+    public static void before() throws Exception {
+        system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void after() throws Exception {
+        system.shutdown();
+    }
+
+    private MediaGatewayPool.Member member(final String name, final int weight, final boolean draining) {
+        return new MediaGatewayPool.Member(name, new JavaTestKit(system).getRef(), weight, draining);
+    }
+
+    private List<String> acquire(final MediaGatewayPool pool, final int sessions) {
+        final List<String> names = new ArrayList<String>(sessions);
+        for (int session = 0; session < sessions; session++) {
+            names.add(pool.acquire(null).name());
+        }
+        return names;
+    }
+
+    @Test
+    public void testLeastActive() {
+        final MediaGatewayPool.Member a = member("a", 1, false);
+        final MediaGatewayPool.Member b = member("b", 2, false);
+        final MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(a, b), MediaGatewayPool.Selection.LEAST_ACTIVE,
+                0);
+        // b takes two media sessions for every one of a.
+        assertEquals(Arrays.asList("a", "b", "b", "a", "b", "b"), acquire(pool, 6));
+        // A released media session makes room on its gateway.
+        pool.release(a, null);
+        pool.release(a, null);
+        assertEquals(Arrays.asList("a", "a", "a"), acquire(pool, 3));
+    }
+
+    @Test
+    public void testWeightedRoundRobin() {
+        final MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(member("a", 5, false), member("b", 1, false),
+                member("c", 1, false)), MediaGatewayPool.Selection.WEIGHTED_ROUND_ROBIN, 0);
+        // The smooth sequence spreads the heavy gateway instead of giving it five sessions in a row.
+        final List<String> sequence = Arrays.asList("a", "a", "b", "a", "c", "a", "a");
+        assertEquals(sequence, acquire(pool, 7));
+        assertEquals(sequence, acquire(pool, 7));
+    }
+
+    @Test
+    public void testAffinity() {
+        final MediaGatewayPool.Member a = member("a", 1, false);
+        final MediaGatewayPool.Member b = member("b", 1, false);
+        final MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(a, b), MediaGatewayPool.Selection.LEAST_ACTIVE,
+                0);
+        assertSame(a, pool.acquire("CA1"));
+        // The legs of the call follow it while it holds its gateway, b is less active.
+        assertSame(a, pool.acquire("CA1"));
+        assertSame(a, pool.acquire("CA1"));
+        pool.release(a, "CA1");
+        pool.release(a, "CA1");
+        // One session of the call is left, the placement is kept.
+        assertSame(a, pool.acquire("CA1"));
+        pool.release(a, "CA1");
+        pool.release(a, "CA1");
+        // The last release drops the placement, the next session of the key is placed again.
+        assertSame(a, pool.acquire(null));
+        assertSame(b, pool.acquire("CA1"));
+    }
+
+    @Test
+    public void testAffinityWhileUnavailable() {
+        final MediaGatewayPool.Member a = member("a", 1, false);
+        final MediaGatewayPool.Member b = member("b", 1, false);
+        final MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(a, b), MediaGatewayPool.Selection.LEAST_ACTIVE,
+                0);
+        assertSame(a, pool.acquire("CA1"));
+        // Media joined with the call has to be on its gateway even when the gateway takes no new calls.
+        pool.setResponding(a.gateway(), false);
+        assertTrue(pool.drain("a", true));
+        assertSame(a, pool.acquire("CA1"));
+        assertSame(b, pool.acquire("CA2"));
+    }
+
+    @Test
+    public void testDrain() {
+        final MediaGatewayPool.Member a = member("a", 1, false);
+        final MediaGatewayPool.Member b = member("b", 1, false);
+        final MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(a, b), MediaGatewayPool.Selection.LEAST_ACTIVE,
+                0);
+        assertSame(a, pool.acquire("CA1"));
+        assertTrue(pool.drain("a", true));
+        assertTrue(a.isDraining());
+        assertEquals(Arrays.asList("b", "b", "b"), acquire(pool, 3));
+        // The call placed before the drain completes on a and its placement goes away with it.
+        pool.release(a, "CA1");
+        assertSame(b, pool.acquire("CA1"));
+        // Back in service a is the least active.
+        assertTrue(pool.drain("a", false));
+        assertFalse(a.isDraining());
+        assertEquals(Arrays.asList("a", "a", "a", "a"), acquire(pool, 4));
+        assertFalse(pool.drain("c", true));
+    }
+
+    @Test
+    public void testAllDraining() {
+        final MediaGatewayPool.Member a = member("a", 1, true);
+        final MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(a, member("b", 1, true)),
+                MediaGatewayPool.Selection.LEAST_ACTIVE, 0);
+        // Calls are still placed when every gateway drains.
+        assertSame(a, pool.acquire(null));
+    }
+
+    @Test
+    public void testRetryInterval() {
+        // a and b stopped responding, c is draining.
+        MediaGatewayPool.Member a = member("a", 1, false);
+        MediaGatewayPool.Member b = member("b", 1, false);
+        MediaGatewayPool.Member c = member("c", 1, true);
+        MediaGatewayPool pool = new MediaGatewayPool(Arrays.asList(a, b, c), MediaGatewayPool.Selection.LEAST_ACTIVE,
+                0);
+        assertEquals(Arrays.asList("a", "b"), acquire(pool, 2));
+        pool.setResponding(a.gateway(), false);
+        pool.setResponding(b.gateway(), false);
+        // Once the retry interval is over the gateways that stopped responding are tried again before c.
+        assertEquals(Arrays.asList("a", "b"), acquire(pool, 2));
+
+        a = member("a", 1, false);
+        b = member("b", 1, false);
+        c = member("c", 1, true);
+        pool = new MediaGatewayPool(Arrays.asList(a, b, c), MediaGatewayPool.Selection.LEAST_ACTIVE, Long.MAX_VALUE);
+        assertEquals(Arrays.asList("a", "b"), acquire(pool, 2));
+        pool.setResponding(a.gateway(), false);
+        pool.setResponding(b.gateway(), false);
+        // Within the interval no gateway is available and the least active of all is used.
+        assertEquals(Arrays.asList("c"), acquire(pool, 1));
+        // A response puts the gateway back.
+        pool.setResponding(b.gateway(), true);
+        assertEquals(Arrays.asList("b", "b"), acquire(pool, 2));
+    }
+}
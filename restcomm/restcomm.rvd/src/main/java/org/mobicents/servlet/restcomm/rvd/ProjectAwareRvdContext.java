@@ -4,8 +4,7 @@ import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 
 import org.mobicents.servlet.restcomm.rvd.model.ProjectSettings;
-import org.mobicents.servlet.restcomm.rvd.storage.FsProjectStorage;
-import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageEntityNotFound;
+import org.mobicents.servlet.restcomm.rvd.storage.ProjectCache;
 import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageException;
 
 public class ProjectAwareRvdContext extends RvdContext {
@@ -18,11 +17,7 @@ public class ProjectAwareRvdContext extends RvdContext {
         super(request, servletContext);
         this.projectName = projectName;
         this.projectLogger = new ProjectLogger(projectName, getSettings(), getMarshaler());
-        try {
-            this.projectSettings = FsProjectStorage.loadProjectSettings(projectName, workspaceStorage);
-        } catch (StorageEntityNotFound e) {
-            this.projectSettings = ProjectSettings.createDefault();
-        }
+        this.projectSettings = ProjectCache.getInstance().getSettings(projectName, workspaceStorage);
     }
 
     public ProjectLogger getProjectLogger() {
@@ -0,0 +1,309 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Writes the application logs of the projects in the background. Entries are queued by {@link ProjectLogger} and
+ * appended by a single thread that keeps a log file open while there are entries for it. A log that grows bigger than
+ * the maximum size is renamed to projectLog.1 (projectLog.1 to projectLog.2 and so on) and a new one is started.
+ *
+ * When the queue is full entries are dropped instead of holding up the request that logs them.
+ */
+public class ProjectLogWriter {
+    static final Logger logger = Logger.getLogger(ProjectLogWriter.class.getName());
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int QUEUE_SIZE = 10000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int BLOCK_SIZE = 8192;
+
+    private static volatile ProjectLogWriter instance;
+
+    private final long maxSize;
+    private final int backups;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<Entry>(QUEUE_SIZE);
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long dropped = 0;
+
+    private static class Entry {
+        final String path;
+        final String data; // null when the log is reset
+        final CountDownLatch done;
+
+        Entry(String path, String data, CountDownLatch done) {
+            this.path = path;
+            this.data = data;
+            this.done = done;
+        }
+    }
+
+    // an open log file
+    private static class LogFile {
+        final OutputStream stream;
+        long size;
+
+        LogFile(File file) throws IOException {
+            this.size = file.length();
+            this.stream = new BufferedOutputStream(new FileOutputStream(file, true), BLOCK_SIZE);
+        }
+    }
+
+    public ProjectLogWriter(long maxSize, int backups) {
+        this.maxSize = maxSize;
+        this.backups = backups;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ProjectLogWriter.this.run();
+            }
+        }, "rvd-project-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return The writer of the RVD application, rotating logs as set in rvd.xml
+     */
+    public static ProjectLogWriter getInstance() {
+        if (instance == null) {
+            synchronized (ProjectLogWriter.class) {
+                if (instance == null) {
+                    RvdConfiguration configuration = RvdConfiguration.getInstance();
+                    if (configuration != null)
+                        instance = new ProjectLogWriter(configuration.getProjectLogMaxSize(), configuration.getProjectLogBackups());
+                    else
+                        instance = new ProjectLogWriter(1024L * RvdConfiguration.DEFAULT_PROJECT_LOG_MAX_SIZE, RvdConfiguration.DEFAULT_PROJECT_LOG_BACKUPS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the writer of the RVD application once the queued entries are written.
+     */
+    public static void shutdown() {
+        synchronized (ProjectLogWriter.class) {
+            if (instance != null) {
+                instance.stop();
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Queues data to be appended to a log file.
+     */
+    public void write(String path, String data) {
+        if (!queue.offer(new Entry(path, data, null))) {
+            synchronized (this) {
+                if (dropped++ % QUEUE_SIZE == 0)
+                    logger.warn("Project log queue is full, dropped " + dropped + " entries so far");
+            }
+        }
+    }
+
+    /**
+     * Empties a log file and removes its rotated files. Returns once this is done, entries queued before are dropped.
+     */
+    public void reset(String path) {
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            queue.put(new Entry(path, null, done));
+            done.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<Entry>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Error writing project logs", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Files are kept open for the batch only, a project that is deleted does not keep its log open.
+    private void write(List<Entry> batch) {
+        Map<String, LogFile> files = new HashMap<String, LogFile>();
+        try {
+            for (Entry entry : batch) {
+                LogFile file = files.get(entry.path);
+                if (entry.data == null) {
+                    if (file != null) {
+                        close(entry.path, files.remove(entry.path));
+                    }
+                    clear(entry.path);
+                    entry.done.countDown();
+                    continue;
+                }
+                try {
+                    if (file == null) {
+                        File log = new File(entry.path);
+                        if (log.length() >= maxSize)
+                            rotate(log);
+                        file = new LogFile(log);
+                        files.put(entry.path, file);
+                    }
+                    byte[] data = entry.data.getBytes(UTF8);
+                    file.stream.write(data);
+                    file.size += data.length;
+                    if (file.size >= maxSize) {
+                        close(entry.path, files.remove(entry.path));
+                        rotate(new File(entry.path));
+                    }
+                } catch (IOException e) {
+                    logger.warn("Error writing to application log " + entry.path, e);
+                }
+            }
+        } finally {
+            for (Map.Entry<String, LogFile> file : files.entrySet()) {
+                close(file.getKey(), file.getValue());
+            }
+        }
+    }
+
+    private void close(String path, LogFile file) {
+        try {
+            file.stream.close();
+        } catch (IOException e) {
+            logger.warn("Error writing to application log " + path, e);
+        }
+    }
+
+    private void rotate(File log) {
+        File oldest = new File(log.getPath() + "." + backups);
+        if (backups == 0 || oldest.exists())
+            oldest.delete();
+        for (int i = backups - 1; i >= 1; i--) {
+            File backup = new File(log.getPath() + "." + i);
+            if (backup.exists())
+                backup.renameTo(new File(log.getPath() + "." + (i + 1)));
+        }
+        if (backups == 0)
+            log.delete();
+        else if (!log.renameTo(new File(log.getPath() + ".1")))
+            logger.warn("Error rotating application log " + log.getPath());
+    }
+
+    private void clear(String path) {
+        File log = new File(path);
+        for (int i = 1; i <= backups; i++)
+            new File(path + "." + i).delete();
+        if (log.exists() && !log.delete())
+            logger.warn("Error clearing application log " + path);
+    }
+
+    /**
+     * Reads the end of a log file by seeking back from its end, the whole file is not read.
+     *
+     * @param path The log file
+     * @param maxBytes No more than this many bytes are returned
+     * @param maxLines No more than this many lines are returned, 0 for no limit
+     * @return The last lines of the log, without a partial line at the start
+     * @throws IOException The log file does not exist or could not be read
+     */
+    public static String tail(String path, long maxBytes, int maxLines) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            long length = file.length();
+            long start = Math.max(0, length - maxBytes);
+            boolean aligned = start == 0;
+            if (!aligned) {
+                file.seek(start - 1);
+                aligned = file.read() == '\n';
+            }
+            if (maxLines > 0) {
+                // every line ends with a newline, the one before the first line returned is number maxLines + 1
+                byte[] block = new byte[BLOCK_SIZE];
+                long position = length;
+                int newlines = 0;
+                search: while (position > start) {
+                    int size = (int) Math.min(block.length, position - start);
+                    position -= size;
+                    file.seek(position);
+                    file.readFully(block, 0, size);
+                    for (int i = size - 1; i >= 0; i--) {
+                        if (block[i] == '\n' && ++newlines > maxLines) {
+                            start = position + i + 1;
+                            aligned = true;
+                            break search;
+                        }
+                    }
+                }
+            }
+            byte[] data = new byte[(int) (length - start)];
+            file.seek(start);
+            file.readFully(data);
+            int offset = 0;
+            if (!aligned) {
+                // skip the partial line
+                while (offset < data.length && data[offset] != '\n')
+                    offset++;
+                offset = Math.min(offset + 1, data.length);
+            }
+            return new String(data, offset, data.length - offset, UTF8);
+        } finally {
+            file.close();
+        }
+    }
+}
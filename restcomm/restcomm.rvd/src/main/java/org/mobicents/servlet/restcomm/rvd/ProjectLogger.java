@@ -2,16 +2,15 @@ package org.mobicents.servlet.restcomm.rvd;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.util.Date;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.mobicents.servlet.restcomm.rvd.model.ModelMarshaler;
 
 /**
  * A logger service for an RVD project. It is supposed to help the designer of an application for easy testing debugging without the need
- * to ssh on the server and scan through log files. Each project/app has its own application log.
+ * to ssh on the server and scan through log files. Each project/app has its own application log. Entries are written
+ * in the background by {@link ProjectLogWriter}.
  * @author "Tsakiridis Orestis"
  *
  */
@@ -101,24 +100,27 @@ public class ProjectLogger {
         buffer.append(System.getProperty("line.separator"));  //add a newline
         // data is ready for writing. Make sure no newlines are there
 
-        try {
-            FileUtils.writeStringToFile(new File(logFilePath), buffer.toString(), Charset.forName("UTF-8"), true);
-        } catch (IOException e) {
-            logger.warn("Error writing to application log for " + projectName, e);
-        }
+        ProjectLogWriter.getInstance().write(logFilePath, buffer.toString());
     }
 
     public String getLogFilePath() {
         return logFilePath;
     }
 
-    // clear the log file
+    // clear the log file and the rotated ones
     public void reset() {
-        try {
-            FileUtils.writeStringToFile(new File(logFilePath), "");
-        } catch (IOException e) {
-            logger.warn("Error clearing application log for " + projectName, e);
-        }
+        ProjectLogWriter.getInstance().reset(logFilePath);
+    }
+
+    /**
+     * Reads the end of the log file.
+     * @param maxBytes
+     * @param maxLines
+     * @return The last lines of the log
+     * @throws IOException The project has no log
+     */
+    public String tail(long maxBytes, int maxLines) throws IOException {
+        return ProjectLogWriter.tail(logFilePath, maxBytes, maxLines);
     }
 
 
@@ -25,6 +25,7 @@ import org.mobicents.servlet.restcomm.rvd.model.client.StateHeader;
 import org.mobicents.servlet.restcomm.rvd.model.client.WavItem;
 import org.mobicents.servlet.restcomm.rvd.model.project.RvdProject;
 import org.mobicents.servlet.restcomm.rvd.storage.FsProjectStorage;
+import org.mobicents.servlet.restcomm.rvd.storage.ProjectCatalog;
 import org.mobicents.servlet.restcomm.rvd.storage.WorkspaceStorage;
 import org.mobicents.servlet.restcomm.rvd.storage.exceptions.BadProjectHeader;
 import org.mobicents.servlet.restcomm.rvd.storage.exceptions.BadWorkspaceDirectoryStructure;
@@ -44,9 +45,6 @@ import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 public class ProjectService {
 
@@ -128,33 +126,16 @@ public class ProjectService {
 
     /**
      * Populates a list of ProjectItems each representing a project. The project kind property defaults to
-     * 'voice' if it does not exist.
+     * 'voice' if it does not exist. The projects are listed from the workspace catalog.
      * @throws StorageException
      */
     public static List<ProjectItem> getAvailableProjects(WorkspaceStorage workspaceStorage) throws StorageException {
 
         List<ProjectItem> items = new ArrayList<ProjectItem>();
-        for (String entry : FsProjectStorage.listProjectNames(workspaceStorage) ) {
-
-            String kind = "voice";
-            try {
-                //StateHeader header = projectStorage.loadStateHeader(entry);
-                StateHeader header = FsProjectStorage.loadStateHeader(entry, workspaceStorage);
-                kind = header.getProjectKind();
-            } catch ( BadProjectHeader e ) {
-                // for old projects
-                JsonParser parser = new JsonParser();
-                //JsonObject root_element = parser.parse(projectStorage.loadProjectState(entry)).getAsJsonObject();
-                JsonObject root_element = parser.parse(FsProjectStorage.loadProjectString(entry,  workspaceStorage)).getAsJsonObject();
-                JsonElement projectKind_element = root_element.get("projectKind");
-                if ( projectKind_element != null ) {
-                    kind = projectKind_element.getAsString();
-                }
-            }
-
+        for (ProjectCatalog.Entry entry : ProjectCatalog.getInstance().list(workspaceStorage) ) {
             ProjectItem item = new ProjectItem();
-            item.setName(entry);
-            item.setKind(kind);
+            item.setName(entry.getName());
+            item.setKind(entry.getKind());
             items.add(item);
         }
         return items;
@@ -169,37 +150,12 @@ public class ProjectService {
     public List<ProjectItem> getAvailableProjectsByOwner(String ownerFilter) throws StorageException {
 
         List<ProjectItem> items = new ArrayList<ProjectItem>();
-        for (String entry : FsProjectStorage.listProjectNames(workspaceStorage) ) {
-
-            String kind = "voice";
-            String owner = null;
-            try {
-                //StateHeader header = projectStorage.loadStateHeader(entry);
-                StateHeader header = FsProjectStorage.loadStateHeader(entry, workspaceStorage);
-                kind = header.getProjectKind();
-                owner = header.getOwner();
-            } catch ( BadProjectHeader e ) {
-                // for old projects
-                JsonParser parser = new JsonParser();
-                //JsonObject root_element = parser.parse(projectStorage.loadProjectState(entry)).getAsJsonObject();
-                JsonObject root_element = parser.parse(FsProjectStorage.loadProjectString(entry, workspaceStorage)).getAsJsonObject();
-                JsonElement projectKind_element = root_element.get("projectKind");
-                if ( projectKind_element != null ) {
-                    kind = projectKind_element.getAsString();
-                }
-            }
-
-            if ( ownerFilter != null ) {
-                if ( owner == null || owner.equals(ownerFilter) ) {
-                    ProjectItem item = new ProjectItem();
-                    item.setName(entry);
-                    item.setKind(kind);
-                    items.add(item);
-                }
-            } else {
+        for (ProjectCatalog.Entry entry : ProjectCatalog.getInstance().list(workspaceStorage) ) {
+            String owner = entry.getOwner();
+            if ( ownerFilter == null || owner == null || owner.equals(ownerFilter) ) {
                 ProjectItem item = new ProjectItem();
-                item.setName(entry);
-                item.setKind(kind);
+                item.setName(entry.getName());
+                item.setKind(entry.getKind());
                 items.add(item);
             }
         }
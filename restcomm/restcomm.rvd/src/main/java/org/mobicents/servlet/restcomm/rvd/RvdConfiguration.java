@@ -35,6 +35,7 @@ public class RvdConfiguration {
     public static final String PROTO_DIRECTORY_PREFIX = "_proto";
     public static final String REST_SERVICES_PATH = "services"; // the "services" from the /restcomm-rvd/services/apps/... path
     public static final String USERS_DIRECTORY_NAME = "@users";
+    public static final String PROJECT_CATALOG_FILENAME = "@catalog"; // the project listing of the workspace, see ProjectCatalog
 
     public static final String WAVS_DIRECTORY_NAME = "wavs";
     private static final String RVD_PROJECT_VERSION = "1.5"; // version for rvd project syntax
@@ -47,6 +48,8 @@ public class RvdConfiguration {
     public static final String TICKET_COOKIE_NAME = "rvdticket"; // the name of the cookie that is used to store ticket ids for authentication
     private static Set<String> restcommParameterNames  = new HashSet<String>(Arrays.asList(new String[] {"CallSid","AccountSid","From","To","Body","CallStatus","ApiVersion","Direction","CallerName"})); // the names of the parameters supplied by restcomm request when starting an application
     public static final String PROJECT_LOG_FILENAME = "projectLog";
+    public static final int DEFAULT_PROJECT_LOG_MAX_SIZE = 1024; // in kilobytes, the project log is rotated when it grows bigger
+    public static final int DEFAULT_PROJECT_LOG_BACKUPS = 3; // number of rotated project log files kept
     public static final String DEFAULT_APPSTORE_DOMAIN = "apps.restcomm.com";
     public static final HashSet<String> builtinRestcommParameters = new HashSet<String>(Arrays.asList(new String[] {"CallSid","AccountSid","From","To","Body","CallStatus","ApiVersion","Direction","CallerName"}));
     public static final String RESTCOMM_HEADER_PREFIX = "SipHeader_"; // the prefix added to HTTP headers from Restcomm
@@ -173,6 +176,19 @@ public class RvdConfiguration {
         return this.workspaceBasePath + File.separator + projectName;
     }
 
+    /**
+     * @return The size in bytes after which the project log is rotated
+     */
+    public long getProjectLogMaxSize() {
+        Integer size = rvdConfig == null ? null : rvdConfig.getProjectLogMaxSize();
+        return 1024L * (size == null ? DEFAULT_PROJECT_LOG_MAX_SIZE : size);
+    }
+
+    public int getProjectLogBackups() {
+        Integer backups = rvdConfig == null ? null : rvdConfig.getProjectLogBackups();
+        return backups == null ? DEFAULT_PROJECT_LOG_BACKUPS : backups;
+    }
+
     public static String getRvdProjectVersion() {
         return RVD_PROJECT_VERSION;
     }
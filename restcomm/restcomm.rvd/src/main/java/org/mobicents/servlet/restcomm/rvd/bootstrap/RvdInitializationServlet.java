@@ -5,6 +5,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 
 import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.rvd.ProjectLogWriter;
 import org.mobicents.servlet.restcomm.rvd.RvdConfiguration;
 import org.mobicents.servlet.restcomm.rvd.model.ModelMarshaler;
 import org.mobicents.servlet.restcomm.rvd.storage.WorkspaceStorage;
@@ -33,6 +34,13 @@ public class RvdInitializationServlet extends HttpServlet {
         }
     }
 
+    @Override
+    public void destroy() {
+        // write out the queued application log entries
+        ProjectLogWriter.shutdown();
+        super.destroy();
+    }
+
     public RvdInitializationServlet() {
         // TODO Auto-generated constructor stub
     }
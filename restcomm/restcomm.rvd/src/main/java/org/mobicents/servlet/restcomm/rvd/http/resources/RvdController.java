@@ -1,7 +1,7 @@
 package org.mobicents.servlet.restcomm.rvd.http.resources;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -357,10 +357,14 @@ public class RvdController extends RestService {
         }
     }
 
+    /**
+     * Returns the end of the application log. At most 'bytes' bytes, by default the maximum size of a log file, and
+     * at most 'lines' lines if set.
+     */
     @RvdAuth
     @GET
     @Path("{appname}/log")
-    public Response appLog(@PathParam("appname") String appName) {
+    public Response appLog(@PathParam("appname") String appName, @QueryParam("lines") Integer lines, @QueryParam("bytes") Long bytes) {
         try {
             rvdContext = new ProjectAwareRvdContext(appName, request, servletContext);
             init(rvdContext);
@@ -370,10 +374,11 @@ public class RvdController extends RestService {
             if (projectSettings == null || projectSettings.getLogging() == false)
                 return Response.status(Status.NOT_FOUND).build();
 
-            InputStream logStream;
+            long maxBytes = (bytes == null || bytes <= 0) ? rvdSettings.getProjectLogMaxSize() : bytes;
+            int maxLines = (lines == null || lines < 0) ? 0 : lines;
             try {
-                logStream = new FileInputStream(rvdContext.getProjectLogger().getLogFilePath());
-                return Response.ok(logStream, "text/plain").header("Cache-Control", "no-cache, no-store, must-revalidate")
+                String log = rvdContext.getProjectLogger().tail(maxBytes, maxLines);
+                return Response.ok(log, "text/plain").header("Cache-Control", "no-cache, no-store, must-revalidate")
                         .header("Pragma", "no-cache").build();
 
                 // response.setHeader("Cache-Control", "no-cache, no-store, must-revalidate"); // HTTP 1.1.
@@ -381,6 +386,9 @@ public class RvdController extends RestService {
                 // response.setDateHeader("Expires", 0);
             } catch (FileNotFoundException e) {
                 return Response.status(Status.NOT_FOUND).build(); // nothing to return. There is no log file
+            } catch (IOException e) {
+                logger.error("Error reading application log for " + appName, e);
+                return Response.status(Status.INTERNAL_SERVER_ERROR).build();
             }
         } catch (StorageEntityNotFound e) {
             return Response.status(Status.NOT_FOUND).build();
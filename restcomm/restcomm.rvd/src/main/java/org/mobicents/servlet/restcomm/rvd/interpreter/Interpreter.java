@@ -8,7 +8,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,12 +27,12 @@ import org.mobicents.servlet.restcomm.rvd.exceptions.UndefinedTarget;
 import org.mobicents.servlet.restcomm.rvd.interpreter.exceptions.BadExternalServiceResponse;
 import org.mobicents.servlet.restcomm.rvd.interpreter.exceptions.InvalidAccessOperationAction;
 import org.mobicents.servlet.restcomm.rvd.model.ModelMarshaler;
-import org.mobicents.servlet.restcomm.rvd.model.StepJsonDeserializer;
 import org.mobicents.servlet.restcomm.rvd.model.client.Step;
 import org.mobicents.servlet.restcomm.rvd.model.rcml.RcmlResponse;
 import org.mobicents.servlet.restcomm.rvd.model.rcml.RcmlStep;
+import org.mobicents.servlet.restcomm.rvd.model.server.CompiledProject;
+import org.mobicents.servlet.restcomm.rvd.model.server.CompiledProject.CompiledNode;
 import org.mobicents.servlet.restcomm.rvd.model.server.NodeName;
-import org.mobicents.servlet.restcomm.rvd.model.server.ProjectOptions;
 import org.mobicents.servlet.restcomm.rvd.model.steps.dial.ClientNounConverter;
 import org.mobicents.servlet.restcomm.rvd.model.steps.dial.ConferenceNounConverter;
 import org.mobicents.servlet.restcomm.rvd.model.steps.dial.NumberNounConverter;
@@ -68,16 +67,13 @@ import org.mobicents.servlet.restcomm.rvd.model.steps.ussdlanguage.UssdLanguageC
 import org.mobicents.servlet.restcomm.rvd.model.steps.ussdlanguage.UssdLanguageRcml;
 import org.mobicents.servlet.restcomm.rvd.model.steps.ussdsay.UssdSayRcml;
 import org.mobicents.servlet.restcomm.rvd.model.steps.ussdsay.UssdSayStepConverter;
-import org.mobicents.servlet.restcomm.rvd.storage.FsProjectStorage;
+import org.mobicents.servlet.restcomm.rvd.storage.ProjectCache;
 import org.mobicents.servlet.restcomm.rvd.storage.WorkspaceStorage;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageEntityNotFound;
 import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageException;
 import org.mobicents.servlet.restcomm.rvd.utils.RvdUtils;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.thoughtworks.xstream.XStream;
 
 
@@ -85,6 +81,9 @@ public class Interpreter {
 
     static final Logger logger = Logger.getLogger(Interpreter.class.getName());
 
+    // Configured once and shared by all requests, XStream is thread safe once it is set up.
+    private static final XStream xstream = createXStream();
+
     private RvdConfiguration rvdSettings;
     private HttpServletRequest httpRequest;
     private ProjectLogger projectLogger;
@@ -109,8 +108,6 @@ public class Interpreter {
     private WorkspaceStorage workspaceStorage;
     private ModelMarshaler marshaler;
 
-    private XStream xstream;
-    private Gson gson;
     private String targetParam;
     private Target target;
     private String appName;
@@ -122,6 +119,7 @@ public class Interpreter {
     private String rcmlResult;
     private Map<String, String> variables = new HashMap<String, String>();
     private List<NodeName> nodeNames;
+    private CompiledProject project;
 
     public static String rcmlOnException() {
         return "<Response><Hangup/></Response>";
@@ -140,12 +138,10 @@ public class Interpreter {
         this.projectLogger = rvdContext.getProjectLogger();
 
         this.contextPath = httpRequest.getContextPath();
-        init();
     }
 
-    // common intializations for all constructors
-    private void init() {
-        xstream = new XStream();
+    private static XStream createXStream() {
+        XStream xstream = new XStream();
         xstream.registerConverter(new SayStepConverter());
         xstream.registerConverter(new PlayStepConverter());
         xstream.registerConverter(new RedirectStepConverter());
@@ -214,7 +210,7 @@ public class Interpreter {
         xstream.aliasField("Uri", RcmlDialStep.class, "sipuri");
 
         // xstream.aliasField(alias, definedIn, fieldName);
-        gson = new GsonBuilder().registerTypeAdapter(Step.class, new StepJsonDeserializer()).create();
+        return xstream;
     }
 
     public RvdConfiguration getRvdSettings() {
@@ -258,12 +254,12 @@ public class Interpreter {
     public String interpret() throws RvdException {
         String response = null;
 
-        ProjectOptions projectOptions = FsProjectStorage.loadProjectOptions(appName, workspaceStorage); //rvdContext.getRuntimeProjectOptions();
-        nodeNames = projectOptions.getNodeNames();
+        project = ProjectCache.getInstance().getProject(appName, workspaceStorage);
+        nodeNames = project.getNodeNames();
 
         if (targetParam == null || "".equals(targetParam)) {
             // No target has been specified. Load the default from project file
-            targetParam = projectOptions.getDefaultTarget();
+            targetParam = project.getDefaultTarget();
             if (targetParam == null)
                 throw new UndefinedTarget();
             logger.debug("override default target to " + targetParam);
@@ -320,7 +316,7 @@ public class Interpreter {
 
             if (rcmlModel == null )
                 rcmlModel = new RcmlResponse();
-            List<String> nodeStepnames = FsProjectStorage.loadNodeStepnames(appName, target.getNodename(), workspaceStorage);
+            List<String> nodeStepnames = loadNode().getStepnames();
 
             // if no starting step has been specified in the target, use the first step of the node as default
             if (target.getStepname() == null && !nodeStepnames.isEmpty())
@@ -359,9 +355,17 @@ public class Interpreter {
         return rcmlResult; // this is in case of an error
     }
 
+    private CompiledNode loadNode() throws StorageException {
+        CompiledNode node = project.getNode(target.getNodename());
+        if (node == null)
+            throw new StorageEntityNotFound("Module " + target.getNodename() + " not found in project " + appName);
+        return node;
+    }
+
     private Step loadStep(String stepname) throws StorageException  {
-        String stepfile_json = FsProjectStorage.loadStep(appName, target.getNodename(), stepname, workspaceStorage);
-        Step step = gson.fromJson(stepfile_json, Step.class);
+        Step step = loadNode().getStep(stepname);
+        if (step == null)
+            throw new StorageEntityNotFound("Step " + target.getNodename() + "." + stepname + " not found in project " + appName);
 
         return step;
     }
@@ -742,29 +746,8 @@ public class Interpreter {
      *
      *
      */
-    private void processBootstrapParameters() throws StorageException {
-
-        if ( ! FsProjectStorage.hasBootstrapInfo(appName, workspaceStorage) )
-            return; // nothing to do
-
-         String data = FsProjectStorage.loadBootstrapInfo(appName,workspaceStorage);
-         JsonParser parser = new JsonParser();
-         JsonElement rootElement = parser.parse(data);
-
-        if ( rootElement.isJsonObject() ) {
-            JsonObject rootObject = rootElement.getAsJsonObject();
-            for ( Entry<String, JsonElement> entry : rootObject.entrySet() ) {
-                String name = entry.getKey();
-                JsonElement valueElement = entry.getValue();
-                String value;
-                if ( valueElement.isJsonPrimitive() && valueElement.getAsJsonPrimitive().isString() ) {
-                    value = valueElement.getAsJsonPrimitive().getAsString();
-                    getVariables().put(name, value);
-                    logger.debug("Loaded bootstrap parameter: " + name + " - " + value);
-                } else
-                    logger.warn("Warning. Not-string bootstrap value found for parameter: " + name);
-            }
-        }
+    private void processBootstrapParameters() {
+        getVariables().putAll(project.getBootstrapParameters());
     }
 
     /**
@@ -4,6 +4,8 @@ public class RvdConfig {
     private String workspaceLocation;
     private String sslMode;
     private String restcommBaseUrl;
+    private Integer projectLogMaxSize;
+    private Integer projectLogBackups;
 
     public RvdConfig() {
     }
@@ -25,4 +27,12 @@ public class RvdConfig {
     public String getRestcommBaseUrl() {
         return restcommBaseUrl;
     }
+
+    public Integer getProjectLogMaxSize() {
+        return projectLogMaxSize;
+    }
+
+    public Integer getProjectLogBackups() {
+        return projectLogBackups;
+    }
 }
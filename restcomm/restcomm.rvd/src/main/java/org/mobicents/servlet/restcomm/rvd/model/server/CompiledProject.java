@@ -0,0 +1,96 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd.model.server;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.mobicents.servlet.restcomm.rvd.model.client.Step;
+
+/**
+ * The runtime model of a built project, everything the interpreter needs to render its RCML. It is shared by all the
+ * requests to the project and never changes once compiled: the steps must not be modified while interpreting.
+ *
+ * @see org.mobicents.servlet.restcomm.rvd.storage.ProjectCache
+ */
+public class CompiledProject {
+
+    /**
+     * The steps of a node in the order they are rendered.
+     */
+    public static class CompiledNode {
+        private final List<String> stepnames;
+        private final Map<String, Step> steps;
+
+        public CompiledNode(List<String> stepnames, Map<String, Step> steps) {
+            this.stepnames = Collections.unmodifiableList(stepnames);
+            this.steps = Collections.unmodifiableMap(steps);
+        }
+
+        public List<String> getStepnames() {
+            return stepnames;
+        }
+
+        /**
+         * @return The step or null if the node has no such step
+         */
+        public Step getStep(String stepname) {
+            return steps.get(stepname);
+        }
+    }
+
+    private final String defaultTarget;
+    private final List<NodeName> nodeNames;
+    private final Map<String, CompiledNode> nodes;
+    private final Map<String, String> bootstrapParameters;
+
+    public CompiledProject(String defaultTarget, List<NodeName> nodeNames, Map<String, CompiledNode> nodes,
+            Map<String, String> bootstrapParameters) {
+        this.defaultTarget = defaultTarget;
+        this.nodeNames = Collections.unmodifiableList(nodeNames);
+        this.nodes = Collections.unmodifiableMap(nodes);
+        this.bootstrapParameters = Collections.unmodifiableMap(bootstrapParameters);
+    }
+
+    public String getDefaultTarget() {
+        return defaultTarget;
+    }
+
+    public List<NodeName> getNodeNames() {
+        return nodeNames;
+    }
+
+    /**
+     * @return The node or null if the project has no such node
+     */
+    public CompiledNode getNode(String nodename) {
+        return nodes.get(nodename);
+    }
+
+    /**
+     * @return The variables created from the bootstrap parameters of the project, usually set when an application is
+     *         installed from the app store
+     */
+    public Map<String, String> getBootstrapParameters() {
+        return bootstrapParameters;
+    }
+}
@@ -122,6 +122,7 @@ public class FsProjectStorage {
 
     public static void storeBootstrapInfo(String bootstrapInfo, String projectName, WorkspaceStorage workspaceStorage) throws StorageException {
         workspaceStorage.storeEntityString(bootstrapInfo, "bootstrap", projectName);
+        ProjectCache.getInstance().invalidate(projectName, workspaceStorage);
     }
 
     public static boolean hasBootstrapInfo(String projectName, WorkspaceStorage workspaceStorage) {
@@ -207,6 +208,7 @@ public class FsProjectStorage {
 
     public static void storeProjectOptions(ProjectOptions projectOptions, String projectName, WorkspaceStorage workspaceStorage) throws StorageException {
         workspaceStorage.storeEntity(projectOptions, ProjectOptions.class, "project", projectName+"/data");
+        ProjectCache.getInstance().invalidate(projectName, workspaceStorage);
     }
 
     public static void storeNodeStepnames(Node node, String projectName, WorkspaceStorage storage) throws StorageException {
@@ -215,6 +217,7 @@ public class FsProjectStorage {
             stepnames.add(step.getName());
         }
         storage.storeEntity(stepnames, node.getName()+".node", projectName+"/data");
+        ProjectCache.getInstance().invalidate(projectName, storage);
     }
 
     public static List<String> loadNodeStepnames(String projectName, String nodeName, WorkspaceStorage storage) throws StorageException {
@@ -224,6 +227,7 @@ public class FsProjectStorage {
 
     public static void storeNodeStep(Step step, Node node, String projectName, WorkspaceStorage storage) throws StorageException {
         storage.storeEntity(step, node.getName()+"."+step.getName(), projectName+"/data/");
+        ProjectCache.getInstance().invalidate(projectName, storage);
     }
 
     public static ProjectSettings loadProjectSettings(String projectName, WorkspaceStorage storage) throws StorageException {
@@ -232,6 +236,7 @@ public class FsProjectStorage {
 
     public static void storeProjectSettings(ProjectSettings projectSettings, String projectName, WorkspaceStorage storage) throws StorageException {
         storage.storeEntity(projectSettings, "settings", projectName);
+        ProjectCache.getInstance().invalidate(projectName, storage);
     }
 
     /*
@@ -261,6 +266,10 @@ public class FsProjectStorage {
         storage.storeEntity(state, "state", projectName);
         if (firstTime)
             buildDirStructure(state, projectName, storage);
+        if (state.getHeader() != null)
+            ProjectCatalog.getInstance().update(projectName, state.getHeader(), storage);
+        else
+            ProjectCatalog.getInstance().invalidate(projectName, storage);
 
     }
 
@@ -290,7 +299,7 @@ public class FsProjectStorage {
         File projectDirectory = new File(projectPath);
         if ( !projectDirectory.mkdir() )
             throw new StorageException("Cannot create project directory. Don't know why - " + projectDirectory );
-
+        ProjectCache.getInstance().invalidate(projectName, storage);
     }
 
     public static void renameProject(String projectName, String newProjectName, WorkspaceStorage storage) throws StorageException {
@@ -298,8 +307,12 @@ public class FsProjectStorage {
             File sourceDir = new File(storage.rootPath  + File.separator + projectName);
             File destDir = new File(storage.rootPath  + File.separator + newProjectName);
             FileUtils.moveDirectory(sourceDir, destDir);
+            ProjectCatalog.getInstance().rename(projectName, newProjectName, storage);
         } catch (IOException e) {
             throw new StorageException("Error renaming directory '" + projectName + "' to '" + newProjectName + "'");
+        } finally {
+            ProjectCache.getInstance().invalidate(projectName, storage);
+            ProjectCache.getInstance().invalidate(newProjectName, storage);
         }
     }
 
@@ -307,8 +320,11 @@ public class FsProjectStorage {
         try {
             File projectDir = new File(storage.rootPath  + File.separator + projectName);
             FileUtils.deleteDirectory(projectDir);
+            ProjectCatalog.getInstance().remove(projectName, storage);
         } catch (IOException e) {
             throw new StorageException("Error removing directory '" + projectName + "'", e);
+        } finally {
+            ProjectCache.getInstance().invalidate(projectName, storage);
         }
     }
 
@@ -374,6 +390,9 @@ public class FsProjectStorage {
                     FileUtils.copyDirectory(sourceProjectDirectory, destProjectDirectory);
                 } catch (IOException e1) {
                     throw new StorageException("Error importing project '" + projectName + "' from directory: " + sourceProjectDirectory);
+                } finally {
+                    ProjectCache.getInstance().invalidate(projectName, storage);
+                    ProjectCatalog.getInstance().invalidate(projectName, storage);
                 }
             }
         }
@@ -500,6 +519,7 @@ public class FsProjectStorage {
             stateFile_os = new FileOutputStream(storage.rootPath + File.separator + projectName + File.separator + "state");
             IOUtils.write(newState, stateFile_os, Charset.forName("UTF-8"));
             stateFile_os.close();
+            ProjectCatalog.getInstance().invalidate(projectName, storage);
         } catch (FileNotFoundException e) {
             throw new StorageException("Error updating state file for project '" + projectName + "'", e);
         } catch (IOException e) {
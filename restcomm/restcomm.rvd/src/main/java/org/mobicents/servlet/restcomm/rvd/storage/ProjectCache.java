@@ -0,0 +1,168 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd.storage;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.rvd.model.ProjectSettings;
+import org.mobicents.servlet.restcomm.rvd.model.StepJsonDeserializer;
+import org.mobicents.servlet.restcomm.rvd.model.client.Step;
+import org.mobicents.servlet.restcomm.rvd.model.server.CompiledProject;
+import org.mobicents.servlet.restcomm.rvd.model.server.CompiledProject.CompiledNode;
+import org.mobicents.servlet.restcomm.rvd.model.server.NodeName;
+import org.mobicents.servlet.restcomm.rvd.model.server.ProjectOptions;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageEntityNotFound;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageException;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Keeps the built projects compiled in memory so that the controller renders RCML without reading the project files
+ * on every request. A project is compiled the first time it is run and dropped from the cache by
+ * {@link FsProjectStorage} whenever one of its files is written, it is compiled again on the next request.
+ */
+public class ProjectCache {
+    static final Logger logger = Logger.getLogger(ProjectCache.class.getName());
+
+    private static final ProjectCache instance = new ProjectCache();
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapter(Step.class, new StepJsonDeserializer()).create();
+    private final ConcurrentMap<String, CompiledProject> projects = new ConcurrentHashMap<String, CompiledProject>();
+    private final ConcurrentMap<String, ProjectSettings> settings = new ConcurrentHashMap<String, ProjectSettings>();
+    // Incremented on every invalidation. What was read while a project was being written is not kept.
+    private final AtomicLong version = new AtomicLong();
+
+    private ProjectCache() {
+    }
+
+    public static ProjectCache getInstance() {
+        return instance;
+    }
+
+    public CompiledProject getProject(String projectName, WorkspaceStorage storage) throws StorageException {
+        String key = key(projectName, storage);
+        CompiledProject project = projects.get(key);
+        if (project == null) {
+            long current = version.get();
+            project = compile(projectName, storage);
+            if (version.get() == current) {
+                CompiledProject existing = projects.putIfAbsent(key, project);
+                if (existing != null)
+                    project = existing;
+            }
+        }
+        return project;
+    }
+
+    /**
+     * @return The settings of the project or the default settings if the project has none
+     */
+    public ProjectSettings getSettings(String projectName, WorkspaceStorage storage) throws StorageException {
+        String key = key(projectName, storage);
+        ProjectSettings projectSettings = settings.get(key);
+        if (projectSettings == null) {
+            long current = version.get();
+            boolean cacheable = true;
+            try {
+                projectSettings = FsProjectStorage.loadProjectSettings(projectName, storage);
+            } catch (StorageEntityNotFound e) {
+                projectSettings = ProjectSettings.createDefault();
+                // requests for projects that do not exist should not fill the cache
+                cacheable = FsProjectStorage.projectExists(projectName, storage);
+            }
+            if (cacheable && version.get() == current) {
+                ProjectSettings existing = settings.putIfAbsent(key, projectSettings);
+                if (existing != null)
+                    projectSettings = existing;
+            }
+        }
+        return projectSettings;
+    }
+
+    public void invalidate(String projectName, WorkspaceStorage storage) {
+        version.incrementAndGet();
+        String key = key(projectName, storage);
+        projects.remove(key);
+        settings.remove(key);
+    }
+
+    private static String key(String projectName, WorkspaceStorage storage) {
+        return storage.rootPath + File.separator + projectName;
+    }
+
+    private CompiledProject compile(String projectName, WorkspaceStorage storage) throws StorageException {
+        logger.debug("Compiling project " + projectName);
+        ProjectOptions projectOptions = FsProjectStorage.loadProjectOptions(projectName, storage);
+        Map<String, CompiledNode> nodes = new HashMap<String, CompiledNode>();
+        for (NodeName nodeName : projectOptions.getNodeNames()) {
+            List<String> stepnames;
+            try {
+                stepnames = FsProjectStorage.loadNodeStepnames(projectName, nodeName.getName(), storage);
+            } catch (StorageEntityNotFound e) {
+                // Running the node fails like it did when the files were read on every request
+                logger.warn("Module " + nodeName.getName() + " of project " + projectName + " has not been built");
+                continue;
+            }
+            Map<String, Step> steps = new HashMap<String, Step>();
+            for (String stepname : stepnames) {
+                String stepData = FsProjectStorage.loadStep(projectName, nodeName.getName(), stepname, storage);
+                steps.put(stepname, gson.fromJson(stepData, Step.class));
+            }
+            nodes.put(nodeName.getName(), new CompiledNode(stepnames, steps));
+        }
+        return new CompiledProject(projectOptions.getDefaultTarget(), projectOptions.getNodeNames(), nodes,
+                loadBootstrapParameters(projectName, storage));
+    }
+
+    private Map<String, String> loadBootstrapParameters(String projectName, WorkspaceStorage storage) throws StorageException {
+        Map<String, String> parameters = new HashMap<String, String>();
+        if (!FsProjectStorage.hasBootstrapInfo(projectName, storage))
+            return parameters;
+
+        JsonElement rootElement = new JsonParser().parse(FsProjectStorage.loadBootstrapInfo(projectName, storage));
+        if (rootElement.isJsonObject()) {
+            JsonObject rootObject = rootElement.getAsJsonObject();
+            for (Entry<String, JsonElement> entry : rootObject.entrySet()) {
+                String name = entry.getKey();
+                JsonElement valueElement = entry.getValue();
+                if (valueElement.isJsonPrimitive() && valueElement.getAsJsonPrimitive().isString()) {
+                    String value = valueElement.getAsJsonPrimitive().getAsString();
+                    parameters.put(name, value);
+                    logger.debug("Loaded bootstrap parameter: " + name + " - " + value);
+                } else
+                    logger.warn("Warning. Not-string bootstrap value found for parameter: " + name);
+            }
+        }
+        return parameters;
+    }
+}
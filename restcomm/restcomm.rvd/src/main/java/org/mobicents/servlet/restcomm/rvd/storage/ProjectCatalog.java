@@ -0,0 +1,333 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd.storage;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.mobicents.servlet.restcomm.rvd.RvdConfiguration;
+import org.mobicents.servlet.restcomm.rvd.model.client.StateHeader;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.BadProjectHeader;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.BadWorkspaceDirectoryStructure;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageEntityNotFound;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageException;
+
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * Keeps the name, kind, owner, version and modification time of the projects of a workspace so that the projects are
+ * listed without reading their state files. The catalog of a workspace is loaded from its @catalog file the first time
+ * the workspace is listed and {@link FsProjectStorage} updates it whenever a project is created, saved, renamed or
+ * removed.
+ *
+ * Changes made to the workspace by other means are picked up from the modification times. When the workspace
+ * directory has changed since the last listing the project directories and state files are checked and only the
+ * projects that changed are read again.
+ */
+public class ProjectCatalog {
+    static final Logger logger = Logger.getLogger(ProjectCatalog.class.getName());
+
+    private static final ProjectCatalog instance = new ProjectCatalog();
+
+    private final ConcurrentMap<String, Workspace> workspaces = new ConcurrentHashMap<String, Workspace>();
+
+    public static class Entry {
+        private String name;
+        private String kind;
+        private String owner;
+        private String version;
+        private long modified; // of the state file
+        private long directoryModified;
+
+        Entry() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        /**
+         * @return The Restcomm user that owns the project or null if the project is freely accessible.
+         */
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public long getModified() {
+            return modified;
+        }
+    }
+
+    private ProjectCatalog() {
+    }
+
+    public static ProjectCatalog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the projects of the workspace, the most recently modified first.
+     */
+    public List<Entry> list(WorkspaceStorage storage) throws StorageException {
+        Workspace workspace = workspaces.get(storage.rootPath);
+        if (workspace == null) {
+            workspace = new Workspace(storage);
+            Workspace existing = workspaces.putIfAbsent(storage.rootPath, workspace);
+            if (existing != null)
+                workspace = existing;
+        }
+        return workspace.list();
+    }
+
+    // The updates only apply to the workspaces already listed, the others are checked when first listed.
+
+    public void update(String projectName, StateHeader header, WorkspaceStorage storage) {
+        Workspace workspace = workspaces.get(storage.rootPath);
+        if (workspace != null)
+            workspace.update(projectName, header);
+    }
+
+    public void rename(String projectName, String newProjectName, WorkspaceStorage storage) {
+        Workspace workspace = workspaces.get(storage.rootPath);
+        if (workspace != null)
+            workspace.rename(projectName, newProjectName);
+    }
+
+    public void remove(String projectName, WorkspaceStorage storage) {
+        Workspace workspace = workspaces.get(storage.rootPath);
+        if (workspace != null)
+            workspace.remove(projectName);
+    }
+
+    /**
+     * Makes the next listing read the project again, for writes that do not go through a {@link StateHeader}.
+     */
+    public void invalidate(String projectName, WorkspaceStorage storage) {
+        Workspace workspace = workspaces.get(storage.rootPath);
+        if (workspace != null)
+            workspace.invalidate(projectName);
+    }
+
+    private static final class Workspace {
+        private final WorkspaceStorage storage;
+        private final File directory;
+        private final File file;
+        private final Gson gson = new Gson();
+        private final Map<String, Entry> entries = new HashMap<String, Entry>();
+        private boolean loaded;
+        private boolean dirty;
+        private boolean checked;
+        private long checkedModified;
+
+        private Workspace(WorkspaceStorage storage) {
+            this.storage = storage;
+            this.directory = new File(storage.rootPath);
+            this.file = new File(directory, RvdConfiguration.PROJECT_CATALOG_FILENAME);
+        }
+
+        private synchronized List<Entry> list() throws StorageException {
+            if (!directory.exists())
+                throw new BadWorkspaceDirectoryStructure();
+            load();
+            long modified = directory.lastModified();
+            if (!checked || modified != checkedModified) {
+                checked = repair();
+                checkedModified = modified;
+                if (dirty)
+                    save();
+            }
+            List<Entry> items = new ArrayList<Entry>(entries.values());
+            Collections.sort(items, new Comparator<Entry>() {
+                public int compare(Entry e1, Entry e2) {
+                    return Long.valueOf(e2.modified).compareTo(e1.modified);
+                }
+            });
+            return items;
+        }
+
+        private synchronized void update(String projectName, StateHeader header) {
+            load();
+            File projectDirectory = new File(directory, projectName);
+            Entry entry = new Entry();
+            entry.name = projectName;
+            entry.kind = header.getProjectKind() == null ? "voice" : header.getProjectKind();
+            entry.owner = header.getOwner();
+            entry.version = header.getVersion();
+            entry.modified = new File(projectDirectory, "state").lastModified();
+            entry.directoryModified = projectDirectory.lastModified();
+            entries.put(projectName, entry);
+            save();
+        }
+
+        private synchronized void rename(String projectName, String newProjectName) {
+            load();
+            Entry entry = entries.remove(projectName);
+            if (entry != null) {
+                File projectDirectory = new File(directory, newProjectName);
+                entry.name = newProjectName;
+                entry.modified = new File(projectDirectory, "state").lastModified();
+                entry.directoryModified = projectDirectory.lastModified();
+                entries.put(newProjectName, entry);
+            }
+            save();
+        }
+
+        private synchronized void remove(String projectName) {
+            load();
+            entries.remove(projectName);
+            save();
+        }
+
+        private synchronized void invalidate(String projectName) {
+            load();
+            entries.remove(projectName);
+            checked = false;
+        }
+
+        private void load() {
+            if (loaded)
+                return;
+            loaded = true;
+            if (!file.exists())
+                return;
+            try {
+                List<Entry> items = gson.fromJson(FileUtils.readFileToString(file, "UTF-8"),
+                        new TypeToken<List<Entry>>(){}.getType());
+                if (items != null) {
+                    for (Entry entry : items)
+                        entries.put(entry.name, entry);
+                }
+            } catch (Exception e) {
+                // the projects are read again
+                logger.warn("Cannot load the project catalog " + file, e);
+                entries.clear();
+            }
+        }
+
+        /**
+         * Brings the entries in line with the project directories.
+         *
+         * @return false if some project could not be read yet and the workspace has to be checked again
+         */
+        private boolean repair() throws StorageException {
+            File[] projectDirectories = directory.listFiles(new FileFilter() {
+                @Override
+                public boolean accept(File anyfile) {
+                    return anyfile.isDirectory() && !anyfile.getName().startsWith(RvdConfiguration.PROTO_DIRECTORY_PREFIX)
+                            && !anyfile.getName().equals(RvdConfiguration.USERS_DIRECTORY_NAME);
+                }
+            });
+            if (projectDirectories == null)
+                throw new BadWorkspaceDirectoryStructure();
+
+            boolean complete = true;
+            Set<String> names = new HashSet<String>();
+            for (File projectDirectory : projectDirectories) {
+                String projectName = projectDirectory.getName();
+                names.add(projectName);
+                long modified = new File(projectDirectory, "state").lastModified();
+                long directoryModified = projectDirectory.lastModified();
+                Entry entry = entries.get(projectName);
+                if (entry != null && entry.modified == modified && entry.directoryModified == directoryModified)
+                    continue;
+                entry = read(projectName, modified, directoryModified);
+                if (entry == null) {
+                    entries.remove(projectName);
+                    complete = false;
+                } else
+                    entries.put(projectName, entry);
+                dirty = true;
+            }
+            if (entries.keySet().retainAll(names))
+                dirty = true;
+            return complete;
+        }
+
+        private Entry read(String projectName, long modified, long directoryModified) throws StorageException {
+            Entry entry = new Entry();
+            entry.name = projectName;
+            entry.kind = "voice";
+            entry.modified = modified;
+            entry.directoryModified = directoryModified;
+            try {
+                StateHeader header = FsProjectStorage.loadStateHeader(projectName, storage);
+                if (header.getProjectKind() != null)
+                    entry.kind = header.getProjectKind();
+                entry.owner = header.getOwner();
+                entry.version = header.getVersion();
+            } catch (BadProjectHeader e) {
+                // for old projects
+                JsonElement projectKind = new JsonParser().parse(FsProjectStorage.loadProjectString(projectName, storage))
+                        .getAsJsonObject().get("projectKind");
+                if (projectKind != null)
+                    entry.kind = projectKind.getAsString();
+            } catch (StorageEntityNotFound e) {
+                // a project still being created
+                logger.debug("Project " + projectName + " has no state yet");
+                return null;
+            }
+            return entry;
+        }
+
+        // The catalog only saves work, a failure to store it is not reported to the caller.
+        private void save() {
+            boolean current = checked && directory.lastModified() == checkedModified;
+            dirty = false;
+            File temporary = new File(directory, RvdConfiguration.PROJECT_CATALOG_FILENAME + ".tmp");
+            try {
+                FileUtils.writeStringToFile(temporary, gson.toJson(new ArrayList<Entry>(entries.values())), "UTF-8");
+                if (!temporary.renameTo(file)) {
+                    FileUtils.copyFile(temporary, file);
+                    temporary.delete();
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot store the project catalog " + file, e);
+            }
+            // writing the catalog is not a change to the projects
+            if (current)
+                checkedModified = directory.lastModified();
+        }
+    }
+}
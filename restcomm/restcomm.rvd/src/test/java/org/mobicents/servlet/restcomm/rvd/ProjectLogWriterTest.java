@@ -0,0 +1,68 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ProjectLogWriterTest {
+
+    @Test
+    public void logIsRotatedAndOldBackupsRemoved() throws IOException {
+        File workspaceDir = TestUtils.createTempWorkspace();
+        try {
+            String path = workspaceDir.getPath() + File.separator + RvdConfiguration.PROJECT_LOG_FILENAME;
+            ProjectLogWriter writer = new ProjectLogWriter(100, 2);
+            for (int i = 0; i < 10; i ++)
+                writer.write(path, "entry " + i + " ..............................\n");
+            writer.stop();
+
+            // the log goes over the maximum size with its third entry of 39 bytes and is rotated
+            Assert.assertTrue(new File(path + ".1").exists());
+            Assert.assertTrue(new File(path + ".2").exists());
+            Assert.assertFalse("Too many logs were kept", new File(path + ".3").exists());
+            Assert.assertTrue(FileUtils.readFileToString(new File(path + ".1"), "UTF-8").startsWith("entry 6 "));
+            Assert.assertEquals("entry 9 ..............................\n", FileUtils.readFileToString(new File(path), "UTF-8"));
+        } finally {
+            TestUtils.removeTempWorkspace(workspaceDir.getPath());
+        }
+    }
+
+    @Test
+    public void tailReturnsWholeLines() throws IOException {
+        File workspaceDir = TestUtils.createTempWorkspace();
+        try {
+            File log = new File(workspaceDir, RvdConfiguration.PROJECT_LOG_FILENAME);
+            FileUtils.writeStringToFile(log, "first\nsecond\nthird\n", "UTF-8");
+
+            Assert.assertEquals("second\nthird\n", ProjectLogWriter.tail(log.getPath(), 1000, 2));
+            Assert.assertEquals("third\n", ProjectLogWriter.tail(log.getPath(), 10, 0));
+            Assert.assertEquals("second\nthird\n", ProjectLogWriter.tail(log.getPath(), 13, 0));
+            Assert.assertEquals("first\nsecond\nthird\n", ProjectLogWriter.tail(log.getPath(), 1000, 0));
+        } finally {
+            TestUtils.removeTempWorkspace(workspaceDir.getPath());
+        }
+    }
+}
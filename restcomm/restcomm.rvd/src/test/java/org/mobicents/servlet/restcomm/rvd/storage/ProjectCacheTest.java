@@ -0,0 +1,78 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.rvd.TestUtils;
+import org.mobicents.servlet.restcomm.rvd.model.ModelMarshaler;
+import org.mobicents.servlet.restcomm.rvd.model.client.Node;
+import org.mobicents.servlet.restcomm.rvd.model.server.CompiledProject;
+import org.mobicents.servlet.restcomm.rvd.model.server.NodeName;
+import org.mobicents.servlet.restcomm.rvd.model.server.ProjectOptions;
+import org.mobicents.servlet.restcomm.rvd.model.steps.say.SayStep;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProjectCacheTest {
+
+    private void storeProject(String phrase, WorkspaceStorage storage) throws StorageException {
+        Node node = Node.createDefault("voice", "start", "Welcome");
+        SayStep step = SayStep.createDefault("step1", phrase);
+        node.getSteps().add(step);
+        FsProjectStorage.storeNodeStep(step, node, "app", storage);
+        FsProjectStorage.storeNodeStepnames(node, "app", storage);
+
+        NodeName nodeName = new NodeName();
+        nodeName.setName("start");
+        List<NodeName> nodeNames = new ArrayList<NodeName>();
+        nodeNames.add(nodeName);
+        ProjectOptions options = new ProjectOptions();
+        options.setDefaultTarget("start");
+        options.setNodeNames(nodeNames);
+        FsProjectStorage.storeProjectOptions(options, "app", storage);
+    }
+
+    @Test
+    public void projectIsCompiledOnceAndRecompiledAfterWrites() throws StorageException {
+        File workspaceDir = TestUtils.createTempWorkspace();
+        try {
+            WorkspaceStorage storage = new WorkspaceStorage(workspaceDir.getPath(), new ModelMarshaler());
+            FsProjectStorage.createProjectSlot("app", storage);
+            storeProject("hello", storage);
+
+            CompiledProject project = ProjectCache.getInstance().getProject("app", storage);
+            Assert.assertEquals("start", project.getDefaultTarget());
+            Assert.assertEquals("hello", ((SayStep) project.getNode("start").getStep("step1")).getPhrase());
+            Assert.assertSame("Project was compiled twice", project, ProjectCache.getInstance().getProject("app", storage));
+
+            storeProject("goodbye", storage);
+            CompiledProject rebuilt = ProjectCache.getInstance().getProject("app", storage);
+            Assert.assertNotSame("Project was not dropped from the cache", project, rebuilt);
+            Assert.assertEquals("goodbye", ((SayStep) rebuilt.getNode("start").getStep("step1")).getPhrase());
+        } finally {
+            TestUtils.removeTempWorkspace(workspaceDir.getPath());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2016, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+
+package org.mobicents.servlet.restcomm.rvd.storage;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.rvd.RvdConfiguration;
+import org.mobicents.servlet.restcomm.rvd.TestUtils;
+import org.mobicents.servlet.restcomm.rvd.model.ModelMarshaler;
+import org.mobicents.servlet.restcomm.rvd.model.client.ProjectState;
+import org.mobicents.servlet.restcomm.rvd.storage.exceptions.StorageException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class ProjectCatalogTest {
+
+    private void createProject(String projectName, ProjectState state, WorkspaceStorage storage) throws StorageException {
+        FsProjectStorage.createProjectSlot(projectName, storage);
+        FsProjectStorage.storeProject(true, state, projectName, storage);
+    }
+
+    private ProjectCatalog.Entry find(String projectName, List<ProjectCatalog.Entry> entries) {
+        for (ProjectCatalog.Entry entry : entries) {
+            if (entry.getName().equals(projectName))
+                return entry;
+        }
+        return null;
+    }
+
+    @Test
+    public void projectsAreListedWithoutReadingTheirState() throws StorageException, IOException {
+        File workspaceDir = TestUtils.createTempWorkspace();
+        try {
+            TestUtils.createUsersDirectory(workspaceDir.getPath());
+            WorkspaceStorage storage = new WorkspaceStorage(workspaceDir.getPath(), new ModelMarshaler());
+            createProject("voiceApp", ProjectState.createEmptyVoice("alice@company.com"), storage);
+
+            List<ProjectCatalog.Entry> entries = ProjectCatalog.getInstance().list(storage);
+            Assert.assertEquals(1, entries.size());
+            ProjectCatalog.Entry entry = entries.get(0);
+            Assert.assertEquals("voiceApp", entry.getName());
+            Assert.assertEquals("voice", entry.getKind());
+            Assert.assertEquals("alice@company.com", entry.getOwner());
+            Assert.assertEquals(RvdConfiguration.getRvdProjectVersion(), entry.getVersion());
+
+            createProject("smsApp", ProjectState.createEmptySms(null), storage);
+            FsProjectStorage.renameProject("voiceApp", "renamedApp", storage);
+            // Garbage in the state file goes unnoticed as long as its modification time does not change
+            File state = new File(workspaceDir, "smsApp" + File.separator + "state");
+            long modified = state.lastModified();
+            FileUtils.writeStringToFile(state, "not a project", "UTF-8");
+            state.setLastModified(modified);
+
+            entries = ProjectCatalog.getInstance().list(storage);
+            Assert.assertEquals(2, entries.size());
+            Assert.assertEquals("sms", find("smsApp", entries).getKind());
+            Assert.assertNull(find("smsApp", entries).getOwner());
+            Assert.assertEquals("alice@company.com", find("renamedApp", entries).getOwner());
+            Assert.assertNull(find("voiceApp", entries));
+
+            FsProjectStorage.deleteProject("renamedApp", storage);
+            entries = ProjectCatalog.getInstance().list(storage);
+            Assert.assertEquals(1, entries.size());
+            Assert.assertEquals("smsApp", entries.get(0).getName());
+            Assert.assertTrue(new File(workspaceDir, RvdConfiguration.PROJECT_CATALOG_FILENAME).exists());
+        } finally {
+            TestUtils.removeTempWorkspace(workspaceDir.getPath());
+        }
+    }
+
+    @Test
+    public void changesMadeOutsideRvdArePickedUp() throws StorageException, IOException {
+        File workspaceDir = TestUtils.createTempWorkspace();
+        try {
+            WorkspaceStorage storage = new WorkspaceStorage(workspaceDir.getPath(), new ModelMarshaler());
+            createProject("app", ProjectState.createEmptyUssd("bob@company.com"), storage);
+            Assert.assertEquals(1, ProjectCatalog.getInstance().list(storage).size());
+
+            FileUtils.copyDirectory(new File(workspaceDir, "app"), new File(workspaceDir, "copy"));
+            FileUtils.deleteDirectory(new File(workspaceDir, "app"));
+            // file systems with a coarse modification time could otherwise hide the change
+            workspaceDir.setLastModified(workspaceDir.lastModified() + 2000);
+
+            List<ProjectCatalog.Entry> entries = ProjectCatalog.getInstance().list(storage);
+            Assert.assertEquals(1, entries.size());
+            Assert.assertEquals("copy", entries.get(0).getName());
+            Assert.assertEquals("ussd", entries.get(0).getKind());
+            Assert.assertEquals("bob@company.com", entries.get(0).getOwner());
+        } finally {
+            TestUtils.removeTempWorkspace(workspaceDir.getPath());
+        }
+    }
+}
@@ -39,6 +39,7 @@ import javax.servlet.sip.SipURI;
 
 import org.apache.commons.configuration.Configuration;
 import org.joda.time.DateTime;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
 import org.mobicents.servlet.restcomm.dao.AccountsDao;
 import org.mobicents.servlet.restcomm.dao.ApplicationsDao;
 import org.mobicents.servlet.restcomm.dao.ClientsDao;
@@ -378,8 +379,7 @@ public final class SmsService extends UntypedActor {
 
             @Override
             public UntypedActor create() throws Exception {
-                Configuration smsConfiguration = configuration.subset("sms-aggregator");
-                return new SmsSession(smsConfiguration, sipFactory, outboundInterface(), storage, monitoringService);
+                return new SmsSession(sipFactory, outboundInterface(), storage, monitoringService);
             }
         }));
     }
@@ -408,7 +408,7 @@ public final class SmsService extends UntypedActor {
     }
 
     private Notification notification(final int log, final int error, final String message) {
-        String version = configuration.subset("runtime-settings").getString("api-version");
+        String version = RestcommConfiguration.getInstance().getRuntime().getApiVersion();
         Sid accountId = new Sid("ACae6e420f425248d6a26948c17a9e2acf");
 //        Sid callSid = new Sid("CA00000000000000000000000000000000");
         final Notification.Builder builder = Notification.builder();
@@ -420,7 +420,7 @@ public final class SmsService extends UntypedActor {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        final String base = configuration.subset("runtime-settings").getString("error-dictionary-uri");
+        final String base = RestcommConfiguration.getInstance().getRuntime().getErrorDictionaryUri();
         StringBuilder buffer = new StringBuilder();
         buffer.append(base);
         if (!base.endsWith("/")) {
@@ -33,6 +33,10 @@ import javax.servlet.sip.SipServletResponse;
 import org.apache.commons.configuration.Configuration;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 
+import com.telestax.servlet.ExtensionController;
+import com.telestax.servlet.ExtensionResponse;
+import com.telestax.servlet.ExtensionType;
+
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
@@ -57,6 +61,14 @@ public final class SmsServiceProxy extends SipServlet implements SipServletListe
 
     @Override
     protected void doRequest(final SipServletRequest request) throws ServletException, IOException {
+        if ("MESSAGE".equals(request.getMethod())) {
+            final ExtensionResponse rejection = ExtensionController.getInstance().executePreInboundAction(request,
+                    ExtensionType.SmsSession);
+            if (rejection != null) {
+                ExtensionController.reject(request, rejection);
+                return;
+            }
+        }
         service.tell(request, null);
     }
 
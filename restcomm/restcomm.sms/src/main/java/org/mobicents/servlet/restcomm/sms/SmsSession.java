@@ -34,7 +34,8 @@ import javax.servlet.sip.SipServletResponse;
 import javax.servlet.sip.SipSession;
 import javax.servlet.sip.SipURI;
 
-import org.apache.commons.configuration.Configuration;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.SmsConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.ClientsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.RegistrationsDao;
@@ -59,7 +60,6 @@ public final class SmsSession extends UntypedActor {
     // Logger
     private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
     // Runtime stuff.
-    private final Configuration configuration;
     private final SipFactory factory;
     private final List<ActorRef> observers;
     private final SipURI transport;
@@ -76,10 +76,9 @@ public final class SmsSession extends UntypedActor {
 
     private final ActorRef monitoringService;
 
-    public SmsSession(final Configuration configuration, final SipFactory factory, final SipURI transport,
-            final DaoManager storage, final ActorRef monitoringService) {
+    public SmsSession(final SipFactory factory, final SipURI transport, final DaoManager storage,
+            final ActorRef monitoringService) {
         super();
-        this.configuration = configuration;
         this.factory = factory;
         this.observers = new ArrayList<ActorRef>();
         this.transport = transport;
@@ -185,8 +184,9 @@ public final class SmsSession extends UntypedActor {
         final String from = last.from();
         final String to = last.to();
         final String body = last.body();
-        final String prefix = configuration.getString("outbound-prefix");
-        final String service = configuration.getString("outbound-endpoint");
+        final SmsConfigurationSet configuration = RestcommConfiguration.getInstance().getSms();
+        final String prefix = configuration.getOutboundPrefix();
+        final String service = configuration.getOutboundEndpoint();
         if (service == null) {
             return;
         }
@@ -0,0 +1,42 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony;
+
+/**
+ * Tells the creator of an outbound call that the call was not allowed, for instance because the account placed too
+ * many calls, and when the call may be tried again.
+ */
+public final class CallRejectedException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfter;
+
+    public CallRejectedException(final String message, final int retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return The number of seconds after which the call may be tried again, 0 if unknown.
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+}
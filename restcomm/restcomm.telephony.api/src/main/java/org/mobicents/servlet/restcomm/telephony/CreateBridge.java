@@ -30,8 +30,22 @@ import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
 @Immutable
 public final class CreateBridge {
 
+    private final String affinity;
+
     public CreateBridge() {
+        this(null);
+    }
+
+    /**
+     * @param affinity The key used to place the bridge on the same media gateway as the calls it joins, may be null.
+     */
+    public CreateBridge(final String affinity) {
         super();
+        this.affinity = affinity;
+    }
+
+    public String affinity() {
+        return affinity;
     }
 
 }
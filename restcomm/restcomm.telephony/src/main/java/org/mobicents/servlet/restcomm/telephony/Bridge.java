@@ -72,6 +72,7 @@ public class Bridge extends UntypedActor {
 
     // Media Server Controller
     private final ActorRef mscontroller;
+    private final String affinity;
 
     // Call bridging
     private ActorRef inboundCall;
@@ -81,10 +82,15 @@ public class Bridge extends UntypedActor {
     private final List<ActorRef> observers;
 
     public Bridge(final ActorRef mscontroller) {
+        this(mscontroller, null);
+    }
+
+    public Bridge(final ActorRef mscontroller, final String affinity) {
         final ActorRef source = self();
 
         // Media Server Controller
         this.mscontroller = mscontroller;
+        this.affinity = affinity;
 
         // States for the FSM
         this.uninitialized = new State("uninitialized", null, null);
@@ -267,7 +273,7 @@ public class Bridge extends UntypedActor {
             mscontroller.tell(observe, super.source);
 
             // Initialize the MS Controller
-            final CreateMediaSession createMediaSession = new CreateMediaSession();
+            final CreateMediaSession createMediaSession = new CreateMediaSession("", "", false, false, affinity);
             mscontroller.tell(createMediaSession, super.source);
         }
 
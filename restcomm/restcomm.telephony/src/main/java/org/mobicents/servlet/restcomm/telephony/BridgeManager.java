@@ -42,13 +42,13 @@ public class BridgeManager extends UntypedActor {
         this.factory = factory;
     }
 
-    private ActorRef createBridge() {
+    private ActorRef createBridge(final String affinity) {
         return getContext().actorOf(new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public UntypedActor create() throws Exception {
-                return new Bridge(factory.provideBridgeController());
+                return new Bridge(factory.provideBridgeController(), affinity);
             }
         }));
     }
@@ -72,7 +72,7 @@ public class BridgeManager extends UntypedActor {
 
     private void onCreateBridge(CreateBridge message, ActorRef self, ActorRef sender) {
         // Create a new bridge
-        ActorRef bridge = createBridge();
+        ActorRef bridge = createBridge(message.affinity());
 
         // Observe state changes in the bridge for termination purposes
         bridge.tell(new Observe(self), self);
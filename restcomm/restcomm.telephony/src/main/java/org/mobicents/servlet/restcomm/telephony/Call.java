@@ -28,7 +28,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Currency;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -62,7 +61,7 @@ import org.mobicents.servlet.restcomm.entities.Sid;
 import org.mobicents.servlet.restcomm.fsm.Action;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.fsm.TransitionFailedException;
 import org.mobicents.servlet.restcomm.fsm.TransitionNotFoundException;
 import org.mobicents.servlet.restcomm.fsm.TransitionRollbackException;
@@ -120,6 +119,8 @@ public final class Call extends UntypedActor {
 
     // Finite State Machine
     private final FiniteStateMachine fsm;
+    // The transitions are the same for every call, built once from the states of the first one.
+    private static volatile TransitionTable transitionTable;
     private final State uninitialized;
     private final State initializing;
     private final State queued;
@@ -217,55 +218,8 @@ public final class Call extends UntypedActor {
         this.completed = new State("completed", new Completed(source), null);
         this.failed = new State("failed", new Failed(source), null);
 
-        // Transitions for the FSM
-        final Set<Transition> transitions = new HashSet<Transition>();
-        transitions.add(new Transition(this.uninitialized, this.ringing));
-        transitions.add(new Transition(this.uninitialized, this.queued));
-        transitions.add(new Transition(this.queued, this.canceled));
-        transitions.add(new Transition(this.queued, this.initializing));
-        transitions.add(new Transition(this.ringing, this.busy));
-        transitions.add(new Transition(this.ringing, this.notFound));
-        transitions.add(new Transition(this.ringing, this.canceling));
-        transitions.add(new Transition(this.ringing, this.canceled));
-        transitions.add(new Transition(this.ringing, this.failingNoAnswer));
-        transitions.add(new Transition(this.ringing, this.failingBusy));
-        transitions.add(new Transition(this.ringing, this.noAnswer));
-        transitions.add(new Transition(this.ringing, this.initializing));
-        transitions.add(new Transition(this.ringing, this.updatingMediaSession));
-        transitions.add(new Transition(this.ringing, this.completed));
-        transitions.add(new Transition(this.ringing, this.stopping));
-        transitions.add(new Transition(this.ringing, this.failed));
-        transitions.add(new Transition(this.initializing, this.canceling));
-        transitions.add(new Transition(this.initializing, this.dialing));
-        transitions.add(new Transition(this.initializing, this.failed));
-        transitions.add(new Transition(this.initializing, this.inProgress));
-        transitions.add(new Transition(this.initializing, this.stopping));
-        transitions.add(new Transition(this.dialing, this.canceling));
-        transitions.add(new Transition(this.dialing, this.stopping));
-        transitions.add(new Transition(this.dialing, this.failingBusy));
-        transitions.add(new Transition(this.dialing, this.ringing));
-        transitions.add(new Transition(this.dialing, this.updatingMediaSession));
-        transitions.add(new Transition(this.inProgress, this.stopping));
-        transitions.add(new Transition(this.inProgress, this.joining));
-        transitions.add(new Transition(this.inProgress, this.leaving));
-        transitions.add(new Transition(this.joining, this.inProgress));
-        transitions.add(new Transition(this.joining, this.stopping));
-        transitions.add(new Transition(this.joining, this.failed));
-        transitions.add(new Transition(this.leaving, this.inProgress));
-        transitions.add(new Transition(this.leaving, this.stopping));
-        transitions.add(new Transition(this.leaving, this.failed));
-        transitions.add(new Transition(this.canceling, this.canceled));
-        transitions.add(new Transition(this.canceling, this.completed));
-        transitions.add(new Transition(this.failingBusy, this.busy));
-        transitions.add(new Transition(this.failingNoAnswer, this.noAnswer));
-        transitions.add(new Transition(this.failingNoAnswer, this.canceling));
-        transitions.add(new Transition(this.updatingMediaSession, this.inProgress));
-        transitions.add(new Transition(this.updatingMediaSession, this.failed));
-        transitions.add(new Transition(this.stopping, this.completed));
-        transitions.add(new Transition(this.stopping, this.failed));
-
         // FSM
-        this.fsm = new FiniteStateMachine(this.uninitialized, transitions);
+        this.fsm = new FiniteStateMachine(this.uninitialized, transitions());
 
         // SIP runtime stuff.
         this.factory = factory;
@@ -288,6 +242,60 @@ public final class Call extends UntypedActor {
         this.recording = false;
     }
 
+    private TransitionTable transitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            transitions.add(this.uninitialized, this.ringing);
+            transitions.add(this.uninitialized, this.queued);
+            transitions.add(this.queued, this.canceled);
+            transitions.add(this.queued, this.initializing);
+            transitions.add(this.ringing, this.busy);
+            transitions.add(this.ringing, this.notFound);
+            transitions.add(this.ringing, this.canceling);
+            transitions.add(this.ringing, this.canceled);
+            transitions.add(this.ringing, this.failingNoAnswer);
+            transitions.add(this.ringing, this.failingBusy);
+            transitions.add(this.ringing, this.noAnswer);
+            transitions.add(this.ringing, this.initializing);
+            transitions.add(this.ringing, this.updatingMediaSession);
+            transitions.add(this.ringing, this.completed);
+            transitions.add(this.ringing, this.stopping);
+            transitions.add(this.ringing, this.failed);
+            transitions.add(this.initializing, this.canceling);
+            transitions.add(this.initializing, this.dialing);
+            transitions.add(this.initializing, this.failed);
+            transitions.add(this.initializing, this.inProgress);
+            transitions.add(this.initializing, this.stopping);
+            transitions.add(this.dialing, this.canceling);
+            transitions.add(this.dialing, this.stopping);
+            transitions.add(this.dialing, this.failingBusy);
+            transitions.add(this.dialing, this.ringing);
+            transitions.add(this.dialing, this.updatingMediaSession);
+            transitions.add(this.inProgress, this.stopping);
+            transitions.add(this.inProgress, this.joining);
+            transitions.add(this.inProgress, this.leaving);
+            transitions.add(this.joining, this.inProgress);
+            transitions.add(this.joining, this.stopping);
+            transitions.add(this.joining, this.failed);
+            transitions.add(this.leaving, this.inProgress);
+            transitions.add(this.leaving, this.stopping);
+            transitions.add(this.leaving, this.failed);
+            transitions.add(this.canceling, this.canceled);
+            transitions.add(this.canceling, this.completed);
+            transitions.add(this.failingBusy, this.busy);
+            transitions.add(this.failingNoAnswer, this.noAnswer);
+            transitions.add(this.failingNoAnswer, this.canceling);
+            transitions.add(this.updatingMediaSession, this.inProgress);
+            transitions.add(this.updatingMediaSession, this.failed);
+            transitions.add(this.stopping, this.completed);
+            transitions.add(this.stopping, this.failed);
+            table = transitions.build();
+            transitionTable = table;
+        }
+        return table;
+    }
+
     private boolean is(State state) {
         return this.fsm.state().equals(state);
     }
@@ -915,7 +923,7 @@ public final class Call extends UntypedActor {
             // Initialize the MS Controller
             CreateMediaSession command = null;
             if (isOutbound()) {
-                command = new CreateMediaSession("sendrecv", "", true, webrtc);
+                command = new CreateMediaSession("sendrecv", "", true, webrtc, affinity());
             } else {
                 if (!liveCallModification) {
                     command = generateRequest(invite);
@@ -933,7 +941,12 @@ public final class Call extends UntypedActor {
             final String externalIp = sipMessage.getInitialRemoteAddr();
             final byte[] sdp = sipMessage.getRawContent();
             final String offer = SdpUtils.patch(sipMessage.getContentType(), sdp, externalIp);
-            return new CreateMediaSession("sendrecv", offer, false, webrtc);
+            return new CreateMediaSession("sendrecv", offer, false, webrtc, affinity());
+        }
+
+        // The outbound leg of a dialed call is placed on the same media gateway as the call that dialed it.
+        private String affinity() {
+            return parentCallSid != null ? parentCallSid.toString() : id.toString();
         }
     }
 
@@ -20,10 +20,12 @@
 package org.mobicents.servlet.restcomm.telephony;
 
 import static akka.pattern.Patterns.ask;
+import static akka.pattern.Patterns.pipe;
 import static javax.servlet.sip.SipServlet.OUTBOUND_INTERFACES;
 import static javax.servlet.sip.SipServletResponse.SC_BAD_REQUEST;
 import static javax.servlet.sip.SipServletResponse.SC_NOT_FOUND;
 import static javax.servlet.sip.SipServletResponse.SC_OK;
+import static javax.servlet.sip.SipServletResponse.SC_SERVER_INTERNAL_ERROR;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -52,13 +54,13 @@ import javax.sip.message.Response;
 
 import org.apache.commons.configuration.Configuration;
 import org.joda.time.DateTime;
-import org.mobicents.servlet.restcomm.dao.AccountsDao;
-import org.mobicents.servlet.restcomm.dao.ApplicationsDao;
-import org.mobicents.servlet.restcomm.dao.ClientsDao;
+import org.mobicents.servlet.restcomm.configuration.RestcommConfiguration;
+import org.mobicents.servlet.restcomm.configuration.sets.OutboundProxyConfigurationSet;
+import org.mobicents.servlet.restcomm.configuration.sets.RuntimeConfigurationSet;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
-import org.mobicents.servlet.restcomm.dao.IncomingPhoneNumbersDao;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
 import org.mobicents.servlet.restcomm.dao.RegistrationsDao;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.entities.Account;
 import org.mobicents.servlet.restcomm.entities.Application;
 import org.mobicents.servlet.restcomm.entities.Client;
@@ -75,9 +77,9 @@ import org.mobicents.servlet.restcomm.telephony.util.B2BUAHelper;
 import org.mobicents.servlet.restcomm.telephony.util.CallControlHelper;
 import org.mobicents.servlet.restcomm.util.UriUtils;
 
-import com.google.i18n.phonenumbers.NumberParseException;
-import com.google.i18n.phonenumbers.PhoneNumberUtil;
-import com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberFormat;
+import com.telestax.servlet.ExtensionController;
+import com.telestax.servlet.ExtensionResponse;
+import com.telestax.servlet.ExtensionType;
 import com.telestax.servlet.MonitoringService;
 
 import akka.actor.ActorContext;
@@ -88,10 +90,12 @@ import akka.actor.ReceiveTimeout;
 import akka.actor.UntypedActor;
 import akka.actor.UntypedActorContext;
 import akka.actor.UntypedActorFactory;
+import akka.dispatch.Futures;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import akka.util.Timeout;
 import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
 import scala.concurrent.Future;
 import scala.concurrent.duration.Duration;
 
@@ -120,30 +124,15 @@ public final class CallManager extends UntypedActor {
     private final DaoManager storage;
     private final ActorRef monitoring;
 
-    // configurable switch whether to use the To field in a SIP header to determine the callee address
-    // alternatively the Request URI can be used
-    private boolean useTo;
-    private boolean authenticateUsers;
-
+    // The runtime settings and the outbound proxies are read from the current configuration snapshot, only the
+    // choice between the primary and the fallback proxy is kept here.
     private AtomicInteger numberOfFailedCalls;
     private AtomicBoolean useFallbackProxy;
-    private boolean allowFallback;
-    private boolean allowFallbackToPrimary;
-    private int maxNumberOfFailedCalls;
-
-    private String primaryProxyUri;
-    private String primaryProxyUsername, primaryProxyPassword;
-    private String fallBackProxyUri;
-    private String fallBackProxyUsername, fallBackProxyPassword;
-    private String activeProxy;
-    private String activeProxyUsername, activeProxyPassword;
+
     private String mediaExternalIp;
     private String myHostIp;
     private String proxyIp;
 
-    //Control whether Restcomm will patch Request-URI and SDP for B2BUA calls
-    private boolean patchForNatB2BUASessions;
-
     // used for sending warning and error logs to notification engine and to the console
     private void sendNotification(String errMessage, int errCode, String errType, boolean createNotification) {
         NotificationsDao notifications = storage.getNotificationsDao();
@@ -185,7 +174,6 @@ public final class CallManager extends UntypedActor {
         this.sipFactory = factory;
         this.storage = storage;
         final Configuration runtime = configuration.subset("runtime-settings");
-        final Configuration outboundProxyConfig = runtime.subset("outbound-proxy");
         SipURI outboundIntf = outboundInterface("udp");
         if (outboundIntf != null) {
             myHostIp = ((SipURI) outboundIntf).getHost().toString();
@@ -197,8 +185,7 @@ public final class CallManager extends UntypedActor {
                 errMsg = "SipServlet context is null";
             sendNotification(errMsg, 14002, "error", false);
         }
-        Configuration mediaConf = configuration.subset("media-server-manager");
-        mediaExternalIp = mediaConf.getString("mgcp-server.external-address");
+        mediaExternalIp = RestcommConfiguration.getInstance().getMedia().getExternalAddress();
         proxyIp = runtime.subset("telestax-proxy").getString("uri").replaceAll("http://", "").replaceAll(":2080", "");
 
         if (mediaExternalIp == null || mediaExternalIp.isEmpty())
@@ -207,34 +194,11 @@ public final class CallManager extends UntypedActor {
         if (proxyIp == null || proxyIp.isEmpty())
             proxyIp = myHostIp;
 
-        this.useTo = runtime.getBoolean("use-to");
-        this.authenticateUsers = runtime.getBoolean("authenticate");
-
-        this.primaryProxyUri = outboundProxyConfig.getString("outbound-proxy-uri");
-        this.primaryProxyUsername = outboundProxyConfig.getString("outbound-proxy-user");
-        this.primaryProxyPassword = outboundProxyConfig.getString("outbound-proxy-password");
-
-        this.fallBackProxyUri = outboundProxyConfig.getString("fallback-outbound-proxy-uri");
-        this.fallBackProxyUsername = outboundProxyConfig.getString("fallback-outbound-proxy-user");
-        this.fallBackProxyPassword = outboundProxyConfig.getString("fallback-outbound-proxy-password");
-
-        this.activeProxy = primaryProxyUri;
-        this.activeProxyUsername = primaryProxyUsername;
-        this.activeProxyPassword = primaryProxyPassword;
-
         numberOfFailedCalls = new AtomicInteger();
         numberOfFailedCalls.set(0);
         useFallbackProxy = new AtomicBoolean();
         useFallbackProxy.set(false);
 
-        allowFallback = outboundProxyConfig.getBoolean("allow-fallback", false);
-
-        maxNumberOfFailedCalls = outboundProxyConfig.getInt("max-failed-calls", 20);
-
-        allowFallbackToPrimary = outboundProxyConfig.getBoolean("allow-fallback-to-primary", false);
-
-        patchForNatB2BUASessions = runtime.getBoolean("patch-for-nat-b2bua-sessions", true);
-
         //Monitoring Service
         this.monitoring = (ActorRef) context.getAttribute(MonitoringService.class.getName());
     }
@@ -250,14 +214,16 @@ public final class CallManager extends UntypedActor {
         }));
     }
 
-    private void check(final Object message) throws IOException {
+    private boolean check(final Object message) throws IOException {
         final SipServletRequest request = (SipServletRequest) message;
         String content = new String(request.getRawContent());
         if (request.getContentLength() == 0
                 || !("application/sdp".equals(request.getContentType()) || content.contains("application/sdp"))) {
             final SipServletResponse response = request.createResponse(SC_BAD_REQUEST);
             response.send();
+            return false;
         }
+        return true;
     }
 
     private void destroy(final Object message) throws Exception {
@@ -270,8 +236,7 @@ public final class CallManager extends UntypedActor {
         }
     }
 
-    private void invite(final Object message) throws IOException, NumberParseException, ServletParseException {
-        final ActorRef self = self();
+    private void invite(final Object message) throws IOException {
         final SipServletRequest request = (SipServletRequest) message;
         // Make sure we handle re-invites properly.
         if (!request.isInitial()) {
@@ -279,22 +244,35 @@ public final class CallManager extends UntypedActor {
             okay.send();
             return;
         }
-        //Run proInboundAction Extensions here
+        // Resolve the clients, phone number and applications for this INVITE off the mailbox. The result comes back to
+        // this actor as an InviteRoute message.
+        final ExecutionContext dispatcher = RestcommDispatchers.lookup(system, RestcommDispatchers.DB);
+        final Future<InviteRoute> route = Futures.future(new InviteRouteResolver(request, storage, runtime().isUseTo()), dispatcher);
+        pipe(route, dispatcher).to(self());
+    }
+
+    private void route(final InviteRoute route) throws IOException, ServletParseException {
+        final ActorRef self = self();
+        final SipServletRequest request = route.request();
+        if (SipSession.State.TERMINATED.equals(request.getSession().getState())) {
+            logger.info("The INVITE from " + request.getFrom() + " was cancelled before it could be routed");
+            return;
+        }
+        if (route.failed()) {
+            logger.error(route.failure(), "Could not route the INVITE from " + request.getFrom());
+            final SipServletResponse response = request.createResponse(SC_SERVER_INTERNAL_ERROR);
+            response.send();
+            return;
+        }
         // If it's a new invite lets try to handle it.
-        final AccountsDao accounts = storage.getAccountsDao();
-        final ApplicationsDao applications = storage.getApplicationsDao();
-        // Try to find an application defined for the client.
-        final SipURI fromUri = (SipURI) request.getFrom().getURI();
-        String fromUser = fromUri.getUser();
-        final ClientsDao clients = storage.getClientsDao();
-        final Client client = clients.getClient(fromUser);
+        final Client client = route.client();
         if (client != null) {
             // Make sure we force clients to authenticate.
-            if (!authenticateUsers // https://github.com/Mobicents/RestComm/issues/29 Allow disabling of SIP authentication
+            if (!runtime().isAuthenticate() // https://github.com/Mobicents/RestComm/issues/29 Allow disabling of SIP authentication
                     || CallControlHelper.checkAuthentication(request, storage)) {
                 // if the client has authenticated, try to redirect to the Client VoiceURL app
                 // otherwise continue trying to process the Client invite
-                if (redirectToClientVoiceApp(self, request, accounts, applications, client)) {
+                if (redirectToClientVoiceApp(self, request, client, route.clientAccount(), route.clientApplication())) {
                     return;
                 } // else continue trying other ways to handle the request
             } else {
@@ -305,10 +283,10 @@ public final class CallManager extends UntypedActor {
         // TODO Enforce some kind of security check for requests coming from outside SIP UAs such as ITSPs that are not
         // registered
 
-        final String toUser = CallControlHelper.getUserSipId(request, useTo);
+        final String toUser = route.toUser();
         final String ruri = ((SipURI) request.getRequestURI()).getHost();
         final String toHost = ((SipURI) request.getTo().getURI()).getHost();
-        final String toHostIpAddress = InetAddress.getByName(toHost).getHostAddress();
+        final String toHostIpAddress = route.toHostIpAddress();
         final String toPort = String.valueOf(((SipURI) request.getTo().getURI()).getPort()).equalsIgnoreCase("-1") ? "5060"
                 : String.valueOf(((SipURI) request.getTo().getURI()).getHost());
         final String transport = ((SipURI) request.getTo().getURI()).getTransportParam() == null ? "udp" : ((SipURI) request
@@ -322,10 +300,10 @@ public final class CallManager extends UntypedActor {
         logger.info("proxyIp: " + proxyIp);
 
         if (client != null) { // make sure the caller is a registered client and not some external SIP agent that we have little control over
-            Client toClient = clients.getClient(toUser);
+            final Client toClient = route.toClient();
             if (toClient != null) { // looks like its a p2p attempt between two valid registered clients, lets redirect to the b2bua
                 logger.info("Client is not null: " + client.getLogin() + " will try to proxy to client: "+ toClient);
-                if (B2BUAHelper.redirectToB2BUA(request, client, toClient, storage, sipFactory, patchForNatB2BUASessions)) {
+                if (B2BUAHelper.redirectToB2BUA(request, client, toClient, storage, sipFactory, runtime().isPatchForNatB2BUASessions())) {
                     logger.info("Call to CLIENT.  myHostIp: " + myHostIp + " mediaExternalIp: " + mediaExternalIp + " toHost: "
                             + toHost + " fromClient: " + client.getUri() + " toClient: " + toClient.getUri());
                     // if all goes well with proxying the invitation on to the next client
@@ -341,7 +319,7 @@ public final class CallManager extends UntypedActor {
             } else {
                 // toClient is null or we couldn't make the b2bua call to another client. check if this call is for a registered
                 // DID (application)
-                if (redirectToHostedVoiceApp(self, request, accounts, applications, toUser)) {
+                if (redirectToHostedVoiceApp(self, request, route)) {
                     // This is a call to a registered DID (application)
                     return;
                 }
@@ -351,20 +329,20 @@ public final class CallManager extends UntypedActor {
                 sendNotification(errMsg, 11002, "warning", true);
 
                 // https://telestax.atlassian.net/browse/RESTCOMM-335
-                final String proxyURI = activeProxy;
-                final String proxyUsername = activeProxyUsername;
-                final String proxyPassword = activeProxyPassword;
+                final OutboundProxyConfigurationSet proxy = outboundProxy();
+                final String proxyURI = activeProxy(proxy);
+                final String proxyUsername = activeProxyUsername(proxy);
+                final String proxyPassword = activeProxyPassword(proxy);
                 SipURI from = null;
                 SipURI to = null;
                 boolean callToSipUri = false;
                 // proxy DID or number if the outbound proxy fields are not empty in the restcomm.xml
                 if (proxyURI != null && !proxyURI.isEmpty()) {
-                    final Configuration runtime = configuration.subset("runtime-settings");
-                    final boolean useLocalAddressAtFromHeader = runtime.getBoolean("use-local-address", false);
-                    final boolean outboudproxyUserAtFromHeader = runtime.subset("outbound-proxy").getBoolean(
-                            "outboudproxy-user-at-from-header", true);
+                    final boolean useLocalAddressAtFromHeader = runtime().isUseLocalAddress();
+                    final boolean outboudproxyUserAtFromHeader = proxy.isUserAtFromHeader();
                     if ((myHostIp.equalsIgnoreCase(toHost) || mediaExternalIp.equalsIgnoreCase(toHost)) ||
-                            (myHostIp.equalsIgnoreCase(toHostIpAddress) || mediaExternalIp.equalsIgnoreCase(toHostIpAddress))) {
+                            (toHostIpAddress != null && (myHostIp.equalsIgnoreCase(toHostIpAddress) || mediaExternalIp
+                                    .equalsIgnoreCase(toHostIpAddress)))) {
                         logger.info("Call to NUMBER.  myHostIp: " + myHostIp + " mediaExternalIp: " + mediaExternalIp
                                 + " toHost: " + toHost + " proxyUri: " + proxyURI);
                         try {
@@ -398,7 +376,7 @@ public final class CallManager extends UntypedActor {
                         callToSipUri = true;
                     }
                     if (B2BUAHelper.redirectToB2BUA(request, client, from, to, proxyUsername, proxyPassword, storage,
-                            sipFactory, callToSipUri, patchForNatB2BUASessions)) {
+                            sipFactory, callToSipUri, runtime().isPatchForNatB2BUASessions())) {
                         return;
                     }
                 } else {
@@ -408,7 +386,7 @@ public final class CallManager extends UntypedActor {
             }
         } else {
             // Client is null, check if this call is for a registered DID (application)
-            if (redirectToHostedVoiceApp(self, request, accounts, applications, toUser)) {
+            if (redirectToHostedVoiceApp(self, request, route)) {
                 // This is a call to a registered DID (application)
                 return;
             }
@@ -445,7 +423,7 @@ public final class CallManager extends UntypedActor {
                 infoRURI = InetAddress.getByName(((SipURI) clonedInfo.getRequestURI()).getHost());
             } catch (UnknownHostException e) {
             }
-            if (patchForNatB2BUASessions) {
+            if (runtime().isPatchForNatB2BUASessions()) {
                 if (toInetUri != null && infoRURI == null) {
                     logger.info("Using the real ip address of the sip client " + toInetUri.toString()
                     + " as a request uri of the CloneBye request");
@@ -475,32 +453,12 @@ public final class CallManager extends UntypedActor {
      *
      * @param self
      * @param request
-     * @param accounts
-     * @param applications
-     * @param phone
+     * @param route The phone number and application the callee resolved to.
      */
-    private boolean redirectToHostedVoiceApp(final ActorRef self, final SipServletRequest request, final AccountsDao accounts,
-            final ApplicationsDao applications, String phone) {
+    private boolean redirectToHostedVoiceApp(final ActorRef self, final SipServletRequest request, final InviteRoute route) {
         boolean isFoundHostedApp = false;
-        // Format the destination to an E.164 phone number.
-        final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
-        String formatedPhone = null;
+        final IncomingPhoneNumber number = route.number();
         try {
-            formatedPhone = phoneNumberUtil.format(phoneNumberUtil.parse(phone, "US"), PhoneNumberFormat.E164);
-        } catch (Exception e) {
-        }
-        IncomingPhoneNumber number = null;
-        try {
-            // Try to find an application defined for the phone number.
-            final IncomingPhoneNumbersDao numbers = storage.getIncomingPhoneNumbersDao();
-            number = numbers.getIncomingPhoneNumber(formatedPhone);
-            if (number == null) {
-                number = numbers.getIncomingPhoneNumber(phone);
-            }
-            if (number == null) {
-                // https://github.com/Mobicents/RestComm/issues/84 using wildcard as default application
-                number = numbers.getIncomingPhoneNumber("*");
-            }
             if (number != null) {
                 final VoiceInterpreterBuilder builder = new VoiceInterpreterBuilder(system);
                 builder.setConfiguration(configuration);
@@ -511,11 +469,11 @@ public final class CallManager extends UntypedActor {
                 builder.setSmsService(sms);
                 builder.setAccount(number.getAccountSid());
                 builder.setVersion(number.getApiVersion());
-                final Account account = accounts.getAccount(number.getAccountSid());
+                final Account account = route.numberAccount();
                 builder.setEmailAddress(account.getEmailAddress());
                 final Sid sid = number.getVoiceApplicationSid();
                 if (sid != null) {
-                    final Application application = applications.getApplication(sid);
+                    final Application application = route.numberApplication();
                     builder.setUrl(UriUtils.resolve(application.getRcmlUrl()));
                 } else {
                     builder.setUrl(UriUtils.resolve(number.getVoiceUrl()));
@@ -557,12 +515,12 @@ public final class CallManager extends UntypedActor {
      *
      * @param self
      * @param request
-     * @param accounts
-     * @param applications
      * @param client
+     * @param account The account the client belongs to.
+     * @param application The application bound to the client, if any.
      */
-    private boolean redirectToClientVoiceApp(final ActorRef self, final SipServletRequest request, final AccountsDao accounts,
-            final ApplicationsDao applications, final Client client) {
+    private boolean redirectToClientVoiceApp(final ActorRef self, final SipServletRequest request, final Client client,
+            final Account account, final Application application) {
         URI clientAppVoiceUril = client.getVoiceUrl();
         boolean isClientManaged = (clientAppVoiceUril != null);
         if (isClientManaged) {
@@ -575,11 +533,9 @@ public final class CallManager extends UntypedActor {
             builder.setSmsService(sms);
             builder.setAccount(client.getAccountSid());
             builder.setVersion(client.getApiVersion());
-            final Account account = accounts.getAccount(client.getAccountSid());
             builder.setEmailAddress(account.getEmailAddress());
             final Sid sid = client.getVoiceApplicationSid();
             if (sid != null) {
-                final Application application = applications.getApplication(sid);
                 builder.setUrl(UriUtils.resolve(application.getRcmlUrl()));
             } else {
                 URI url = UriUtils.resolve(clientAppVoiceUril);
@@ -595,8 +551,8 @@ public final class CallManager extends UntypedActor {
             builder.setMonitoring(monitoring);
             final ActorRef interpreter = builder.build();
             final ActorRef call = call();
-            final SipApplicationSession application = request.getApplicationSession();
-            application.setAttribute(Call.class.getName(), call);
+            final SipApplicationSession applicationSession = request.getApplicationSession();
+            applicationSession.setAttribute(Call.class.getName(), call);
             call.tell(request, self);
             interpreter.tell(new StartInterpreter(call), self);
         }
@@ -620,8 +576,9 @@ public final class CallManager extends UntypedActor {
             final SipServletRequest request = (SipServletRequest) message;
             final String method = request.getMethod();
             if ("INVITE".equals(method)) {
-                check(request);
-                invite(request);
+                if (check(request)) {
+                    invite(request);
+                }
             } else if ("OPTIONS".equals(method)) {
                 pong(request);
             } else if ("ACK".equals(method)) {
@@ -633,9 +590,18 @@ public final class CallManager extends UntypedActor {
             } else if ("INFO".equals(method)) {
                 info(request);
             }
+        } else if (InviteRoute.class.equals(klass)) {
+            route((InviteRoute) message);
         } else if (CreateCall.class.equals(klass)) {
             try {
                 this.createCallRequest = (CreateCall) message;
+                final ExtensionResponse rejection = ExtensionController.getInstance().executePreOutboundAction(
+                        createCallRequest, ExtensionType.CallManager);
+                if (rejection != null) {
+                    sender.tell(new CallManagerResponse<ActorRef>(new CallRejectedException("Too many calls",
+                            rejection.getRetryAfter())), self);
+                    return;
+                }
                 sender.tell(new CallManagerResponse<ActorRef>(outbound(message)), self);
             } catch (final Exception exception) {
                 sender.tell(new CallManagerResponse<ActorRef>(exception), self);
@@ -672,7 +638,7 @@ public final class CallManager extends UntypedActor {
         // if this is an ACK that belongs to a B2BUA session, then we proxy it to the other client
         if (response != null) {
             SipServletRequest ack = response.createAck();
-            if (!ack.getHeaders("Route").hasNext() && patchForNatB2BUASessions) {
+            if (!ack.getHeaders("Route").hasNext() && runtime().isPatchForNatB2BUASessions()) {
                 InetAddress ackRURI = null;
                 try {
                     ackRURI = InetAddress.getByName(((SipURI) ack.getRequestURI()).getHost());
@@ -828,12 +794,12 @@ public final class CallManager extends UntypedActor {
 
     private ActorRef outbound(final Object message) throws ServletParseException {
         final CreateCall request = (CreateCall) message;
-        final Configuration runtime = configuration.subset("runtime-settings");
-        final boolean useLocalAddressAtFromHeader = runtime.getBoolean("use-local-address", false);
-        // final String uri = runtime.getString("outbound-proxy-uri");
-        final String uri = activeProxy;
-        final String proxyUsername = (request.username() != null) ? request.username() : activeProxyUsername;
-        final String proxyPassword = (request.password() != null) ? request.password() : activeProxyPassword;
+        final RuntimeConfigurationSet runtime = runtime();
+        final OutboundProxyConfigurationSet proxy = outboundProxy();
+        final boolean useLocalAddressAtFromHeader = runtime.isUseLocalAddress();
+        final String uri = activeProxy(proxy);
+        final String proxyUsername = (request.username() != null) ? request.username() : activeProxyUsername(proxy);
+        final String proxyPassword = (request.password() != null) ? request.password() : activeProxyPassword(proxy);
         SipURI from = null;
         SipURI to = null;
         boolean webRTC = false;
@@ -874,8 +840,7 @@ public final class CallManager extends UntypedActor {
                     to = sipFactory.createSipURI(request.to(), uri);
                     String transport = (to.getTransportParam() != null) ? to.getTransportParam() : "udp";
                     SipURI outboundIntf = outboundInterface(transport);
-                    final boolean outboudproxyUserAtFromHeader = runtime.subset("outbound-proxy").getBoolean(
-                            "outboudproxy-user-at-from-header");
+                    final boolean outboudproxyUserAtFromHeader = proxy.isUserAtFromHeader();
                     if (request.from() != null && request.from().contains("@")) {
                         // https://github.com/Mobicents/RestComm/issues/150 if it contains @ it means this is a sip uri and we allow
                         // to use it directly
@@ -929,14 +894,14 @@ public final class CallManager extends UntypedActor {
         }
         final ActorRef call = call();
         final ActorRef self = self();
-        final boolean userAtDisplayedName = runtime.subset("outbound-proxy").getBoolean("user-at-displayed-name");
+        final boolean userAtDisplayedName = proxy.isUserAtDisplayedName();
         InitializeOutbound init;
         if (request.from() != null && !request.from().contains("@") && userAtDisplayedName) {
             init = new InitializeOutbound(request.from(), from, to, proxyUsername, proxyPassword, request.timeout(),
-                    request.isFromApi(), runtime.getString("api-version"), request.accountId(), request.type(), storage, webRTC);
+                    request.isFromApi(), runtime.getApiVersion(), request.accountId(), request.type(), storage, webRTC);
         } else {
             init = new InitializeOutbound(null, from, to, proxyUsername, proxyPassword, request.timeout(), request.isFromApi(),
-                    runtime.getString("api-version"), request.accountId(), request.type(), storage, webRTC);
+                    runtime.getApiVersion(), request.accountId(), request.type(), storage, webRTC);
         }
         if (request.parentCallSid() != null) {
             init.setParentCallSid(request.parentCallSid());
@@ -979,7 +944,9 @@ public final class CallManager extends UntypedActor {
             // originalRequest.createCancel().send();
         } else {
             final ActorRef call = (ActorRef) application.getAttribute(Call.class.getName());
-            call.tell(request, self);
+            // The INVITE may have been cancelled while it was still being routed.
+            if (call != null)
+                call.tell(request, self);
         }
     }
 
@@ -1001,7 +968,7 @@ public final class CallManager extends UntypedActor {
             SipServletRequest clonedBye = linkedB2BUASession.createRequest("BYE");
             linkedB2BUASession.setAttribute(B2BUAHelper.B2BUA_LAST_REQUEST, clonedBye);
 
-            if (!clonedBye.getHeaders("Route").hasNext() && patchForNatB2BUASessions) {
+            if (!clonedBye.getHeaders("Route").hasNext() && runtime().isPatchForNatB2BUASessions()) {
                 // Issue #307: https://telestax.atlassian.net/browse/RESTCOMM-307
                 SipURI toInetUri = (SipURI) request.getSession().getAttribute("toInetUri");
                 SipURI fromInetUri = (SipURI) request.getSession().getAttribute("fromInetUri");
@@ -1045,7 +1012,7 @@ public final class CallManager extends UntypedActor {
         final SipServletResponse response = (SipServletResponse) message;
 
         // If Allow-Falback is true, check for error reponses and switch proxy if needed
-        if (allowFallback)
+        if (outboundProxy().isAllowFallback())
             checkErrorResponse(response);
 
         final SipApplicationSession application = response.getApplicationSession();
@@ -1062,7 +1029,8 @@ public final class CallManager extends UntypedActor {
                 }
                 String tempRealm = authHeader.substring(authHeader.indexOf("realm=\"") + "realm=\"".length());
                 String realm = tempRealm.substring(0, tempRealm.indexOf("\""));
-                authInfo.addAuthInfo(response.getStatus(), realm, activeProxyUsername, activeProxyPassword);
+                final OutboundProxyConfigurationSet proxy = outboundProxy();
+                authInfo.addAuthInfo(response.getStatus(), realm, activeProxyUsername(proxy), activeProxyPassword(proxy));
                 SipServletRequest challengeRequest = response.getSession().createRequest(response.getRequest().getMethod());
                 response.getSession().setAttribute(B2BUAHelper.B2BUA_LAST_FINAL_RESPONSE, response);
                 challengeRequest.addAuthHeader(response, authInfo);
@@ -1071,7 +1039,7 @@ public final class CallManager extends UntypedActor {
                 invite = challengeRequest;
                 challengeRequest.send();
             } else {
-                B2BUAHelper.forwardResponse(response, patchForNatB2BUASessions);
+                B2BUAHelper.forwardResponse(response, runtime().isPatchForNatB2BUASessions());
             }
         } else {
             if (application.isValid()) {
@@ -1114,7 +1082,7 @@ public final class CallManager extends UntypedActor {
                 int failures = numberOfFailedCalls.incrementAndGet();
                 logger.info("A total number of " + failures + " failures have now been counted.");
 
-                if (failures >= maxNumberOfFailedCalls) {
+                if (failures >= outboundProxy().getMaxFailedCalls()) {
                     logger.info("Max number of failed calls has been reached trying to switch over proxy.");
                     logger.info("Current proxy: " + getActiveProxy().get("ActiveProxy"));
                     switchProxy();
@@ -1125,22 +1093,36 @@ public final class CallManager extends UntypedActor {
         }
     }
 
+    private RuntimeConfigurationSet runtime() {
+        return RestcommConfiguration.getInstance().getRuntime();
+    }
+
+    private OutboundProxyConfigurationSet outboundProxy() {
+        return RestcommConfiguration.getInstance().getOutboundProxy();
+    }
+
+    private String activeProxy(final OutboundProxyConfigurationSet proxy) {
+        return useFallbackProxy.get() ? proxy.getFallbackUri() : proxy.getUri();
+    }
+
+    private String activeProxyUsername(final OutboundProxyConfigurationSet proxy) {
+        return useFallbackProxy.get() ? proxy.getFallbackUser() : proxy.getUser();
+    }
+
+    private String activeProxyPassword(final OutboundProxyConfigurationSet proxy) {
+        return useFallbackProxy.get() ? proxy.getFallbackPassword() : proxy.getPassword();
+    }
+
     public Map<String, String> getActiveProxy() {
         Map<String, String> activeProxyMap = new ConcurrentHashMap<String, String>();
-        activeProxyMap.put("ActiveProxy", this.activeProxy);
+        activeProxyMap.put("ActiveProxy", activeProxy(outboundProxy()));
         return activeProxyMap;
     }
 
     public Map<String, String> switchProxy() {
-        if (activeProxy.equalsIgnoreCase(primaryProxyUri)) {
-            activeProxy = fallBackProxyUri;
-            activeProxyUsername = fallBackProxyUsername;
-            activeProxyPassword = fallBackProxyPassword;
+        if (!useFallbackProxy.get()) {
             useFallbackProxy.set(true);
-        } else if (allowFallbackToPrimary) {
-            activeProxy = primaryProxyUri;
-            activeProxyUsername = primaryProxyUsername;
-            activeProxyPassword = primaryProxyPassword;
+        } else if (outboundProxy().isAllowFallbackToPrimary()) {
             useFallbackProxy.set(false);
         }
         final Notification notification = notification(WARNING_NOTIFICATION, 14110,
@@ -1153,17 +1135,18 @@ public final class CallManager extends UntypedActor {
     public Map<String, String> getProxies(final Object message) {
         Map<String, String> proxies = new ConcurrentHashMap<String, String>();
 
-        proxies.put("ActiveProxy", activeProxy);
+        final OutboundProxyConfigurationSet proxy = outboundProxy();
+        proxies.put("ActiveProxy", activeProxy(proxy));
         proxies.put("UsingFallBackProxy", useFallbackProxy.toString());
-        proxies.put("AllowFallbackToPrimary", String.valueOf(allowFallbackToPrimary));
-        proxies.put("PrimaryProxy", primaryProxyUri);
-        proxies.put("FallbackProxy", fallBackProxyUri);
+        proxies.put("AllowFallbackToPrimary", String.valueOf(proxy.isAllowFallbackToPrimary()));
+        proxies.put("PrimaryProxy", proxy.getUri());
+        proxies.put("FallbackProxy", proxy.getFallbackUri());
 
         return proxies;
     }
 
     private Notification notification(final int log, final int error, final String message) {
-        String version = configuration.subset("runtime-settings").getString("api-version");
+        String version = runtime().getApiVersion();
         Sid accountId = null;
         // Sid callSid = new Sid("CA00000000000000000000000000000000");
         if (createCallRequest != null) {
@@ -1182,7 +1165,7 @@ public final class CallManager extends UntypedActor {
         builder.setApiVersion(version);
         builder.setLog(log);
         builder.setErrorCode(error);
-        final String base = configuration.subset("runtime-settings").getString("error-dictionary-uri");
+        final String base = runtime().getErrorDictionaryUri();
         StringBuilder buffer = new StringBuilder();
         buffer.append(base);
         if (!base.endsWith("/")) {
@@ -38,6 +38,10 @@ import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.mscontrol.MediaServerControllerFactory;
 import org.mobicents.servlet.restcomm.ussd.telephony.UssdCallManager;
 
+import com.telestax.servlet.ExtensionController;
+import com.telestax.servlet.ExtensionResponse;
+import com.telestax.servlet.ExtensionType;
+
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
@@ -74,7 +78,17 @@ public final class CallManagerProxy extends SipServlet implements SipServletList
 
     @Override
     protected void doRequest(final SipServletRequest request) throws ServletException, IOException {
-        if (isUssdMessage(request)) {
+        final boolean ussd = isUssdMessage(request);
+        // New calls are admitted before any actor or database work is done for them.
+        if (request.isInitial() && "INVITE".equals(request.getMethod())) {
+            final ExtensionType type = ussd ? ExtensionType.UssdCallManager : ExtensionType.CallManager;
+            final ExtensionResponse rejection = ExtensionController.getInstance().executePreInboundAction(request, type);
+            if (rejection != null) {
+                ExtensionController.reject(request, rejection);
+                return;
+            }
+        }
+        if (ussd) {
             ussdManager.tell(request, null);
         } else {
             manager.tell(request, null);
@@ -22,15 +22,13 @@ package org.mobicents.servlet.restcomm.telephony;
 import jain.protocol.ip.mgcp.message.parms.ConnectionMode;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
 import org.mobicents.servlet.restcomm.fsm.Action;
 import org.mobicents.servlet.restcomm.fsm.FiniteStateMachine;
 import org.mobicents.servlet.restcomm.fsm.State;
-import org.mobicents.servlet.restcomm.fsm.Transition;
+import org.mobicents.servlet.restcomm.fsm.TransitionTable;
 import org.mobicents.servlet.restcomm.mscontrol.messages.CreateMediaSession;
 import org.mobicents.servlet.restcomm.mscontrol.messages.JoinCall;
 import org.mobicents.servlet.restcomm.mscontrol.messages.JoinComplete;
@@ -64,6 +62,8 @@ public final class Conference extends UntypedActor {
 
     // Finite state machine
     private final FiniteStateMachine fsm;
+    // The transitions are the same for every conference, built once from the states of the first one.
+    private static volatile TransitionTable transitionTable;
     private final State uninitialized;
     private final State initializing;
     private final State waiting;
@@ -95,21 +95,8 @@ public final class Conference extends UntypedActor {
         this.stopped = new State("stopped", new Stopped(source));
         this.failed = new State("failed", new Failed(source));
 
-        // State transitions
-        final Set<Transition> transitions = new HashSet<Transition>();
-        transitions.add(new Transition(uninitialized, initializing));
-        transitions.add(new Transition(initializing, waiting));
-        transitions.add(new Transition(initializing, stopping));
-        transitions.add(new Transition(initializing, failed));
-        transitions.add(new Transition(waiting, running));
-        transitions.add(new Transition(waiting, evicting));
-        transitions.add(new Transition(running, evicting));
-        transitions.add(new Transition(evicting, stopping));
-        transitions.add(new Transition(stopping, stopped));
-        transitions.add(new Transition(stopping, failed));
-
         // Finite state machine
-        this.fsm = new FiniteStateMachine(uninitialized, transitions);
+        this.fsm = new FiniteStateMachine(uninitialized, transitions());
 
         // Runtime stuff
         this.name = name;
@@ -118,6 +105,26 @@ public final class Conference extends UntypedActor {
         this.observers = new ArrayList<ActorRef>();
     }
 
+    private TransitionTable transitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            final TransitionTable.Builder transitions = TransitionTable.builder();
+            transitions.add(uninitialized, initializing);
+            transitions.add(initializing, waiting);
+            transitions.add(initializing, stopping);
+            transitions.add(initializing, failed);
+            transitions.add(waiting, running);
+            transitions.add(waiting, evicting);
+            transitions.add(running, evicting);
+            transitions.add(evicting, stopping);
+            transitions.add(stopping, stopped);
+            transitions.add(stopping, failed);
+            table = transitions.build();
+            transitionTable = table;
+        }
+        return table;
+    }
+
     private boolean is(State state) {
         return this.fsm.state().equals(state);
     }
@@ -203,8 +210,8 @@ public final class Conference extends UntypedActor {
             final Observe observe = new Observe(super.source);
             mscontroller.tell(observe, super.source);
 
-            // Initialize the MS Controller
-            final CreateMediaSession createMediaSession = new CreateMediaSession();
+            // Initialize the MS Controller, the conference is pinned to a media server by its name
+            final CreateMediaSession createMediaSession = new CreateMediaSession("", "", false, false, "conference:" + name);
             mscontroller.tell(createMediaSession, super.source);
         }
 
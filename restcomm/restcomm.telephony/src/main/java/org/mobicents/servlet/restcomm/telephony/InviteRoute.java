@@ -0,0 +1,136 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony;
+
+import javax.servlet.sip.SipServletRequest;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.Immutable;
+import org.mobicents.servlet.restcomm.entities.Account;
+import org.mobicents.servlet.restcomm.entities.Application;
+import org.mobicents.servlet.restcomm.entities.Client;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumber;
+
+/**
+ * The clients, phone number and applications an initial INVITE resolves to. Built by {@link InviteRouteResolver} off
+ * the CallManager mailbox and sent back to the CallManager to continue the call setup.
+ */
+@Immutable
+final class InviteRoute {
+    private final SipServletRequest request;
+    private final String toUser;
+    private final Client client;
+    private final Account clientAccount;
+    private final Application clientApplication;
+    private final Client toClient;
+    private final IncomingPhoneNumber number;
+    private final Account numberAccount;
+    private final Application numberApplication;
+    private final String toHostIpAddress;
+    private final Exception failure;
+
+    InviteRoute(final SipServletRequest request, final String toUser, final Client client, final Account clientAccount,
+            final Application clientApplication, final Client toClient, final IncomingPhoneNumber number,
+            final Account numberAccount, final Application numberApplication, final String toHostIpAddress) {
+        super();
+        this.request = request;
+        this.toUser = toUser;
+        this.client = client;
+        this.clientAccount = clientAccount;
+        this.clientApplication = clientApplication;
+        this.toClient = toClient;
+        this.number = number;
+        this.numberAccount = numberAccount;
+        this.numberApplication = numberApplication;
+        this.toHostIpAddress = toHostIpAddress;
+        this.failure = null;
+    }
+
+    InviteRoute(final SipServletRequest request, final Exception failure) {
+        super();
+        this.request = request;
+        this.toUser = null;
+        this.client = null;
+        this.clientAccount = null;
+        this.clientApplication = null;
+        this.toClient = null;
+        this.number = null;
+        this.numberAccount = null;
+        this.numberApplication = null;
+        this.toHostIpAddress = null;
+        this.failure = failure;
+    }
+
+    SipServletRequest request() {
+        return request;
+    }
+
+    String toUser() {
+        return toUser;
+    }
+
+    /**
+     * @return The registered client that sent the INVITE or null if the caller is not a RestComm client.
+     */
+    Client client() {
+        return client;
+    }
+
+    Account clientAccount() {
+        return clientAccount;
+    }
+
+    Application clientApplication() {
+        return clientApplication;
+    }
+
+    /**
+     * @return The registered client being called or null if the callee is not a RestComm client.
+     */
+    Client toClient() {
+        return toClient;
+    }
+
+    /**
+     * @return The incoming phone number the callee resolved to or null if it is not hosted by RestComm.
+     */
+    IncomingPhoneNumber number() {
+        return number;
+    }
+
+    Account numberAccount() {
+        return numberAccount;
+    }
+
+    Application numberApplication() {
+        return numberApplication;
+    }
+
+    String toHostIpAddress() {
+        return toHostIpAddress;
+    }
+
+    Exception failure() {
+        return failure;
+    }
+
+    boolean failed() {
+        return failure != null;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+
+import javax.servlet.sip.SipServletRequest;
+import javax.servlet.sip.SipURI;
+
+import org.mobicents.servlet.restcomm.dao.AccountsDao;
+import org.mobicents.servlet.restcomm.dao.ApplicationsDao;
+import org.mobicents.servlet.restcomm.dao.ClientsDao;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dao.IncomingPhoneNumbersDao;
+import org.mobicents.servlet.restcomm.entities.Account;
+import org.mobicents.servlet.restcomm.entities.Application;
+import org.mobicents.servlet.restcomm.entities.Client;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumber;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.telephony.util.CallControlHelper;
+
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberFormat;
+
+/**
+ * Does the data store and DNS lookups needed to route an initial INVITE. It runs on the db dispatcher so that a slow
+ * database or name server does not hold up the CallManager mailbox; no SIP message is sent from here.
+ */
+final class InviteRouteResolver implements Callable<InviteRoute> {
+    private final SipServletRequest request;
+    private final DaoManager storage;
+    private final boolean useTo;
+
+    InviteRouteResolver(final SipServletRequest request, final DaoManager storage, final boolean useTo) {
+        super();
+        this.request = request;
+        this.storage = storage;
+        this.useTo = useTo;
+    }
+
+    @Override
+    public InviteRoute call() {
+        try {
+            final AccountsDao accounts = storage.getAccountsDao();
+            final ApplicationsDao applications = storage.getApplicationsDao();
+            final ClientsDao clients = storage.getClientsDao();
+            final String fromUser = ((SipURI) request.getFrom().getURI()).getUser();
+            final String toUser = CallControlHelper.getUserSipId(request, useTo);
+            // Try to find an application defined for the client.
+            final Client client = clients.getClient(fromUser);
+            Account clientAccount = null;
+            Application clientApplication = null;
+            Client toClient = null;
+            if (client != null) {
+                if (client.getVoiceUrl() != null) {
+                    clientAccount = accounts.getAccount(client.getAccountSid());
+                    clientApplication = application(applications, client.getVoiceApplicationSid());
+                }
+                toClient = clients.getClient(toUser);
+            }
+            // Try to find an application defined for the phone number.
+            IncomingPhoneNumber number = null;
+            Account numberAccount = null;
+            Application numberApplication = null;
+            String toHostIpAddress = null;
+            if (toClient == null) {
+                number = number(toUser);
+                if (number != null) {
+                    numberAccount = accounts.getAccount(number.getAccountSid());
+                    numberApplication = application(applications, number.getVoiceApplicationSid());
+                }
+                if (client != null) {
+                    // Only needed to decide how to proxy calls made by clients to numbers that are not hosted here.
+                    toHostIpAddress = resolve(((SipURI) request.getTo().getURI()).getHost());
+                }
+            }
+            return new InviteRoute(request, toUser, client, clientAccount, clientApplication, toClient, number,
+                    numberAccount, numberApplication, toHostIpAddress);
+        } catch (final Exception exception) {
+            return new InviteRoute(request, exception);
+        }
+    }
+
+    private Application application(final ApplicationsDao applications, final Sid sid) {
+        if (sid == null) {
+            return null;
+        }
+        return applications.getApplication(sid);
+    }
+
+    private IncomingPhoneNumber number(final String phone) {
+        // Format the destination to an E.164 phone number.
+        final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
+        String formatedPhone = null;
+        try {
+            formatedPhone = phoneNumberUtil.format(phoneNumberUtil.parse(phone, "US"), PhoneNumberFormat.E164);
+        } catch (Exception e) {
+        }
+        final IncomingPhoneNumbersDao numbers = storage.getIncomingPhoneNumbersDao();
+        IncomingPhoneNumber number = null;
+        if (formatedPhone != null) {
+            number = numbers.getIncomingPhoneNumber(formatedPhone);
+        }
+        if (number == null) {
+            number = numbers.getIncomingPhoneNumber(phone);
+        }
+        if (number == null) {
+            // https://github.com/Mobicents/RestComm/issues/84 using wildcard as default application
+            number = numbers.getIncomingPhoneNumber("*");
+        }
+        return number;
+    }
+
+    private String resolve(final String host) {
+        try {
+            return InetAddress.getByName(host).getHostAddress();
+        } catch (final UnknownHostException exception) {
+            return null;
+        }
+    }
+}
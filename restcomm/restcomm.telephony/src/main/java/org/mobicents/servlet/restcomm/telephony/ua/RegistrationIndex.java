@@ -0,0 +1,177 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony.ua;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.mobicents.servlet.restcomm.annotations.concurrency.NotThreadSafe;
+import org.mobicents.servlet.restcomm.entities.Registration;
+import org.mobicents.servlet.restcomm.util.TimingWheel;
+
+/**
+ * The registrations handled by the {@link UserAgentManager}, indexed by address of record and location, along with
+ * when they expire and when their next keep alive is due. Kept up to date by the user agent manager as it writes the
+ * registrations to the data store, so that expiring registrations and sending the keep alives only looks at the
+ * registrations that are due instead of reading the whole registrations table.
+ *
+ * Keep alives are sent once per ping interval per registration. A registration is first pinged one ping interval
+ * after it registered, the ones loaded at start up are spread at random over the first interval, so the pings are spread
+ * over the interval as evenly as the registrations are instead of all being sent at once.
+ */
+@NotThreadSafe
+final class RegistrationIndex {
+    private static final long TICK = 1000;
+    // Registrations can not last longer than an hour.
+    private static final int EXPIRY_SLOTS = 3600;
+
+    private final long pingInterval;
+    private final Map<String, Map<String, Entry>> registrations;
+    private final TimingWheel<Entry> expiries;
+    private final TimingWheel<Entry> keepAlives;
+    private final Random random;
+    private int size;
+
+    private static final class Entry {
+        private final Registration registration;
+        private TimingWheel.Timeout<Entry> expiry;
+        private TimingWheel.Timeout<Entry> keepAlive;
+
+        private Entry(final Registration registration) {
+            super();
+            this.registration = registration;
+        }
+    }
+
+    /**
+     * @param pingInterval The time between two keep alives of a registration in milliseconds.
+     * @param now The current time in milliseconds.
+     */
+    RegistrationIndex(final long pingInterval, final long now) {
+        super();
+        this.pingInterval = pingInterval;
+        this.registrations = new HashMap<String, Map<String, Entry>>();
+        this.expiries = new TimingWheel<Entry>(TICK, EXPIRY_SLOTS, now);
+        this.keepAlives = new TimingWheel<Entry>(TICK, (int) Math.max(1, pingInterval / TICK), now);
+        this.random = new Random();
+    }
+
+    private static String key(final String addressOfRecord) {
+        return addressOfRecord.toLowerCase();
+    }
+
+    /**
+     * Adds a registration or replaces the one with the same address of record and location.
+     *
+     * @param spread True to send the first keep alive at a random time within the ping interval, for registrations that
+     *        did not just register.
+     */
+    void put(final Registration registration, final long now, final boolean spread) {
+        final String key = key(registration.getAddressOfRecord());
+        Map<String, Entry> locations = registrations.get(key);
+        if (locations == null) {
+            locations = new HashMap<String, Entry>();
+            registrations.put(key, locations);
+        }
+        final Entry entry = new Entry(registration);
+        final Entry previous = locations.put(registration.getLocation(), entry);
+        if (previous != null) {
+            cancel(previous);
+        } else {
+            size++;
+        }
+        entry.expiry = expiries.schedule(entry, registration.getDateExpires().getMillis());
+        final long delay = spread ? (long) (random.nextDouble() * pingInterval) : pingInterval;
+        entry.keepAlive = keepAlives.schedule(entry, now + delay);
+    }
+
+    Registration remove(final String addressOfRecord, final String location) {
+        final String key = key(addressOfRecord);
+        final Map<String, Entry> locations = registrations.get(key);
+        if (locations == null) {
+            return null;
+        }
+        final Entry entry = locations.remove(location);
+        if (locations.isEmpty()) {
+            registrations.remove(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        cancel(entry);
+        size--;
+        return entry.registration;
+    }
+
+    /**
+     * @return The registrations of an address of record, compared ignoring case.
+     */
+    List<Registration> get(final String addressOfRecord) {
+        final Map<String, Entry> locations = registrations.get(key(addressOfRecord));
+        if (locations == null) {
+            return Collections.emptyList();
+        }
+        final List<Registration> result = new ArrayList<Registration>(locations.size());
+        for (final Entry entry : locations.values()) {
+            result.add(entry.registration);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the registrations that expired.
+     */
+    List<Registration> expire(final long now) {
+        final List<Entry> entries = expiries.advance(now);
+        final List<Registration> expired = new ArrayList<Registration>(entries.size());
+        for (final Entry entry : entries) {
+            final Registration registration = entry.registration;
+            remove(registration.getAddressOfRecord(), registration.getLocation());
+            expired.add(registration);
+        }
+        return expired;
+    }
+
+    /**
+     * @return The registrations whose keep alive is due, their next one is scheduled one ping interval later.
+     */
+    List<Registration> keepAlive(final long now) {
+        final List<Entry> entries = keepAlives.advance(now);
+        final List<Registration> due = new ArrayList<Registration>(entries.size());
+        for (final Entry entry : entries) {
+            entry.keepAlive = keepAlives.schedule(entry, now + pingInterval);
+            due.add(entry.registration);
+        }
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cancel(final Entry entry) {
+        expiries.cancel(entry.expiry);
+        keepAlives.cancel(entry.keepAlive);
+    }
+}
@@ -29,8 +29,8 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -61,11 +61,12 @@ import org.mobicents.servlet.restcomm.util.DigestAuthentication;
 import com.telestax.servlet.MonitoringService;
 
 import akka.actor.ActorRef;
-import akka.actor.ReceiveTimeout;
+import akka.actor.Cancellable;
 import akka.actor.UntypedActor;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -78,6 +79,9 @@ public final class UserAgentManager extends UntypedActor {
     private final DaoManager storage;
     private final ServletContext servletContext;
     private ActorRef monitoringService;
+    private final RegistrationIndex index;
+    private final FiniteDuration tick;
+    private Cancellable ticks;
 
     public UserAgentManager(final Configuration configuration, final SipFactory factory, final DaoManager storage,
             final ServletContext servletContext) {
@@ -90,22 +94,65 @@ public final class UserAgentManager extends UntypedActor {
         this.factory = factory;
         this.storage = storage;
         int pingInterval = runtime.getInt("ping-interval", 60);
-        getContext().setReceiveTimeout(Duration.create(pingInterval, TimeUnit.SECONDS));
+        this.index = new RegistrationIndex(TimeUnit.SECONDS.toMillis(pingInterval), System.currentTimeMillis());
+        this.tick = Duration.create(1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void preStart() {
+        // Registrations are read from the data store once, the index is kept up to date from then on.
+        final long now = System.currentTimeMillis();
+        final RegistrationsDao registrations = storage.getRegistrationsDao();
+        for (final Registration registration : registrations.getRegistrations()) {
+            if (registration.getDateExpires().getMillis() <= now) {
+                expired(registration);
+            } else {
+                index.put(registration, now, true);
+            }
+        }
+        logger.info("The user agent manager loaded " + index.size() + " registrations");
+        ticks = getContext().system().scheduler().schedule(tick, tick, self(), Tick.INSTANCE, getContext().dispatcher());
+    }
+
+    @Override
+    public void postStop() {
+        if (ticks != null) {
+            ticks.cancel();
+        }
     }
 
     private void clean() {
+        final long now = System.currentTimeMillis();
         final RegistrationsDao registrations = storage.getRegistrationsDao();
-        final List<Registration> results = registrations.getRegistrations();
-        for (final Registration result : results) {
-            final DateTime expires = result.getDateExpires();
-            if (expires.isBeforeNow() || expires.isEqualNow()) {
-                logger.info("Registration: "+result.getAddressOfRecord()+" expired and will remove it now");
-                registrations.removeRegistration(result);
-                monitoringService.tell(new UserRegistration(result.getUserName(), result.getLocation(), false), self());
+        for (final Registration registration : index.expire(now)) {
+            // Another instance sharing the data store may have refreshed it.
+            final Registration stored = find(registrations.getRegistrations(registration.getUserName()), registration);
+            if (stored != null && stored.getDateExpires().getMillis() > now) {
+                index.put(stored, now, false);
+            } else {
+                expired(registration);
             }
         }
     }
 
+    private void expired(final Registration registration) {
+        logger.info("Registration: " + registration.getAddressOfRecord() + " expired and will remove it now");
+        storage.getRegistrationsDao().removeRegistration(registration);
+        monitoringService.tell(new UserRegistration(registration.getUserName(), registration.getLocation(), false), self());
+    }
+
+    private Registration find(final List<Registration> registrations, final Registration registration) {
+        if (registrations != null) {
+            for (final Registration candidate : registrations) {
+                if (candidate.getLocation().equals(registration.getLocation())
+                        && candidate.getAddressOfRecord().equalsIgnoreCase(registration.getAddressOfRecord())) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
     private String header(final String nonce, final String realm, final String scheme) {
         final StringBuilder buffer = new StringBuilder();
         buffer.append(scheme).append(" ");
@@ -126,11 +173,8 @@ public final class UserAgentManager extends UntypedActor {
     }
 
     private void keepAlive() throws Exception {
-        final RegistrationsDao registrations = storage.getRegistrationsDao();
-        final List<Registration> results = registrations.getRegistrations();
-        for (final Registration result : results) {
-            final String to = result.getLocation();
-            ping(to);
+        for (final Registration registration : index.keepAlive(System.currentTimeMillis())) {
+            ping(registration.getLocation());
         }
     }
 
@@ -142,7 +186,7 @@ public final class UserAgentManager extends UntypedActor {
 
     @Override
     public void onReceive(final Object message) throws Exception {
-        if (message instanceof ReceiveTimeout) {
+        if (message instanceof Tick) {
             clean();
             keepAlive();
         } else if (message instanceof SipServletRequest) {
@@ -176,21 +220,26 @@ public final class UserAgentManager extends UntypedActor {
         String port = String.valueOf(((SipURI)sipServletMessage.getTo().getURI()).getPort());
         logger.debug("Error response for the OPTIONS to: "+sipServletMessage.getFrom().toString()+" will remove registration");
         final RegistrationsDao regDao = storage.getRegistrationsDao();
-        List<Registration> registrations = regDao.getRegistrations(user);
-        if (registrations != null) {
-            Iterator<Registration> iter = registrations.iterator();
-            while (iter.hasNext()) {
-                Registration reg = iter.next();
-                String locationToRemove = "sip:" + user + "@" + host + ":" + port;
-
-                if (reg.getAddressOfRecord().equalsIgnoreCase(locationToRemove)) {
-                    logger.info("Registration: " + reg.getLocation() + " failed to response to OPTIONS and will be removed");
-                    regDao.removeRegistration(reg);
-                    monitoringService.tell(new UserRegistration(reg.getUserName(), reg.getLocation(), false), self());
+        String locationToRemove = "sip:" + user + "@" + host + ":" + port;
+        List<Registration> registrations = index.get(locationToRemove);
+        if (registrations.isEmpty()) {
+            // The registrations written by other instances sharing the data store are not in the index.
+            registrations = new ArrayList<Registration>();
+            final List<Registration> stored = regDao.getRegistrations(user);
+            if (stored != null) {
+                for (final Registration reg : stored) {
+                    if (reg.getAddressOfRecord().equalsIgnoreCase(locationToRemove)) {
+                        registrations.add(reg);
+                    }
                 }
-
             }
         }
+        for (final Registration reg : registrations) {
+            logger.info("Registration: " + reg.getLocation() + " failed to response to OPTIONS and will be removed");
+            regDao.removeRegistration(reg);
+            index.remove(reg.getAddressOfRecord(), reg.getLocation());
+            monitoringService.tell(new UserRegistration(reg.getUserName(), reg.getLocation(), false), self());
+        }
     }
 
     private void patch(final SipURI uri, final String address, final int port) throws UnknownHostException {
@@ -340,6 +389,7 @@ public final class UserAgentManager extends UntypedActor {
         if (ttl == 0) {
             // Remove Registration if ttl=0
             registrations.removeRegistration(registration);
+            index.remove(aor, address);
             response.setHeader("Expires", "0");
             monitoringService.tell(new UserRegistration(user, address, false), self());
             logger.info("The user agent manager unregistered " + user + " at address "+address);
@@ -354,6 +404,7 @@ public final class UserAgentManager extends UntypedActor {
                 registrations.addRegistration(registration);
                 logger.info("The user agent manager registered " + user + " at address " + address);
             }
+            index.put(registration, now.getMillis(), false);
             response.setHeader("Contact", contact(uri, ttl));
         }
         // Success
@@ -405,4 +456,9 @@ public final class UserAgentManager extends UntypedActor {
         }
         return map;
     }
+
+    // Drives the expiry of the registrations and the keep alives.
+    private static final class Tick {
+        private static final Tick INSTANCE = new Tick();
+    }
 }
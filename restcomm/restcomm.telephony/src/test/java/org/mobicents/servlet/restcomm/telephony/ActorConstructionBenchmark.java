@@ -0,0 +1,109 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import akka.actor.Actor;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActorFactory;
+import akka.testkit.TestActorRef;
+
+/**
+ * Measures the cost of creating the actors started for every call. Run with -prof gc to see the allocation rate.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.mobicents.servlet.restcomm.telephony.ActorConstructionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActorConstructionBenchmark {
+    private ActorSystem system;
+    private Props calls;
+    private Props conferences;
+    private long counter;
+
+    @Setup
+    public void setup() {
+        system = ActorSystem.create("benchmark");
+        calls = new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                return new Call(null, null);
+            }
+        });
+        conferences = new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                return new Conference("benchmark", null);
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @Benchmark
+    public Actor call() {
+        // The test actor ref creates the actor on the calling thread.
+        final TestActorRef<Call> call = TestActorRef.create(system, calls, "call-" + counter++);
+        final Call actor = call.underlyingActor();
+        system.stop(call);
+        return actor;
+    }
+
+    @Benchmark
+    public Actor conference() {
+        final TestActorRef<Conference> conference = TestActorRef.create(system, conferences, "conference-" + counter++);
+        final Conference actor = conference.underlyingActor();
+        system.stop(conference);
+        return actor;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ActorConstructionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.sip.Address;
+import javax.servlet.sip.SipServletRequest;
+import javax.servlet.sip.SipURI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.dao.AccountsDao;
+import org.mobicents.servlet.restcomm.dao.ApplicationsDao;
+import org.mobicents.servlet.restcomm.dao.ClientsDao;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dao.IncomingPhoneNumbersDao;
+import org.mobicents.servlet.restcomm.entities.Account;
+import org.mobicents.servlet.restcomm.entities.Application;
+import org.mobicents.servlet.restcomm.entities.Client;
+import org.mobicents.servlet.restcomm.entities.IncomingPhoneNumber;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+public final class InviteRouteResolverTest {
+    private Map<String, Object> clients;
+    private Map<String, Object> numbers;
+    private Map<String, Object> accounts;
+    private Map<String, Object> applications;
+    private DaoManager storage;
+
+    public InviteRouteResolverTest() {
+        super();
+    }
+
+    // Answers the calls to an interface from the map, by method name and first argument, anything else returns null.
+    private static <T> T fake(final Class<T> type, final Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] arguments) throws Throwable {
+                final String key = arguments == null ? method.getName() : method.getName() + " " + arguments[0];
+                final Object answer = answers.containsKey(key) ? answers.get(key) : answers.get(method.getName());
+                if (answer instanceof Exception) {
+                    throw (Exception) answer;
+                }
+                return answer;
+            }
+        }));
+    }
+
+    private static SipServletRequest invite(final String from, final String to, final String toHost) {
+        final Map<String, Object> fromUri = new HashMap<String, Object>();
+        fromUri.put("getUser", from);
+        final Map<String, Object> toUri = new HashMap<String, Object>();
+        toUri.put("getUser", to);
+        toUri.put("getHost", toHost);
+        final Map<String, Object> fromAddress = new HashMap<String, Object>();
+        fromAddress.put("getURI", fake(SipURI.class, fromUri));
+        final Map<String, Object> toAddress = new HashMap<String, Object>();
+        toAddress.put("getURI", fake(SipURI.class, toUri));
+        final Map<String, Object> request = new HashMap<String, Object>();
+        request.put("getFrom", fake(Address.class, fromAddress));
+        request.put("getTo", fake(Address.class, toAddress));
+        return fake(SipServletRequest.class, request);
+    }
+
+    private Account account() {
+        final Account.Builder builder = Account.builder();
+        final Sid sid = Sid.generate(Sid.Type.ACCOUNT);
+        builder.setSid(sid);
+        final Account account = builder.build();
+        accounts.put("getAccount " + sid, account);
+        return account;
+    }
+
+    private Application application(final Account account) {
+        final Application.Builder builder = Application.builder();
+        final Sid sid = Sid.generate(Sid.Type.APPLICATION);
+        builder.setSid(sid);
+        builder.setAccountSid(account.getSid());
+        builder.setRcmlUrl(URI.create("http://127.0.0.1/app.xml"));
+        final Application application = builder.build();
+        applications.put("getApplication " + sid, application);
+        return application;
+    }
+
+    private Client client(final String login, final Account account, final Application application) {
+        final Client.Builder builder = Client.builder();
+        builder.setSid(Sid.generate(Sid.Type.CLIENT));
+        builder.setAccountSid(account.getSid());
+        builder.setLogin(login);
+        if (application != null) {
+            builder.setVoiceUrl(application.getRcmlUrl());
+            builder.setVoiceApplicationSid(application.getSid());
+        }
+        final Client client = builder.build();
+        clients.put("getClient " + login, client);
+        return client;
+    }
+
+    @Before
+    public void before() {
+        clients = new HashMap<String, Object>();
+        numbers = new HashMap<String, Object>();
+        accounts = new HashMap<String, Object>();
+        applications = new HashMap<String, Object>();
+        final Map<String, Object> daos = new HashMap<String, Object>();
+        daos.put("getClientsDao", fake(ClientsDao.class, clients));
+        daos.put("getIncomingPhoneNumbersDao", fake(IncomingPhoneNumbersDao.class, numbers));
+        daos.put("getAccountsDao", fake(AccountsDao.class, accounts));
+        daos.put("getApplicationsDao", fake(ApplicationsDao.class, applications));
+        storage = fake(DaoManager.class, daos);
+    }
+
+    @Test
+    public void testClientRoute() {
+        final Account account = account();
+        final Application application = application(account);
+        final Client alice = client("alice", account, application);
+        final Client bob = client("bob", account, null);
+        final InviteRoute route = new InviteRouteResolver(invite("alice", "bob", "127.0.0.1"), storage, true).call();
+        assertFalse(route.failed());
+        assertEquals("bob", route.toUser());
+        assertSame(alice, route.client());
+        assertSame(account, route.clientAccount());
+        assertSame(application, route.clientApplication());
+        assertSame(bob, route.toClient());
+        assertNull(route.number());
+        assertNull(route.toHostIpAddress());
+    }
+
+    @Test
+    public void testNumberRoute() {
+        final Account account = account();
+        final Application application = application(account);
+        final IncomingPhoneNumber.Builder builder = IncomingPhoneNumber.builder();
+        builder.setSid(Sid.generate(Sid.Type.PHONE_NUMBER));
+        builder.setAccountSid(account.getSid());
+        builder.setPhoneNumber("+15559876543");
+        builder.setVoiceApplicationSid(application.getSid());
+        final IncomingPhoneNumber number = builder.build();
+        numbers.put("getIncomingPhoneNumber +15559876543", number);
+        // The callee is formatted to E.164 before looking the number up.
+        final InviteRoute route = new InviteRouteResolver(invite("+15551234567", "5559876543", "127.0.0.1"), storage,
+                true).call();
+        assertFalse(route.failed());
+        assertNull(route.client());
+        assertNull(route.toClient());
+        assertSame(number, route.number());
+        assertSame(account, route.numberAccount());
+        assertSame(application, route.numberApplication());
+        assertNull(route.toHostIpAddress());
+    }
+
+    @Test
+    public void testUnknownRoute() {
+        final Account account = account();
+        final Client alice = client("alice", account, null);
+        final InviteRoute route = new InviteRouteResolver(invite("alice", "carol", "127.0.0.1"), storage, true).call();
+        assertFalse(route.failed());
+        assertSame(alice, route.client());
+        // The client has no voice application of its own.
+        assertNull(route.clientAccount());
+        assertNull(route.clientApplication());
+        assertNull(route.toClient());
+        assertNull(route.number());
+        assertNull(route.numberAccount());
+        // Clients calling destinations that are not hosted here are proxied to the host of the To header.
+        assertEquals("127.0.0.1", route.toHostIpAddress());
+    }
+
+    @Test
+    public void testFailedLookup() {
+        clients.put("getClient", new IllegalStateException("The data store is down."));
+        final InviteRoute route = new InviteRouteResolver(invite("alice", "bob", "127.0.0.1"), storage, true).call();
+        assertTrue(route.failed());
+        assertTrue(route.failure() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony.ua;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.entities.Registration;
+import org.mobicents.servlet.restcomm.entities.Sid;
+
+public class RegistrationIndexTest {
+    private static final long PING_INTERVAL = 60000;
+
+    public RegistrationIndexTest() {
+        super();
+    }
+
+    private Registration registration(final String user, final String location, final long expires) {
+        final DateTime now = new DateTime(0);
+        return new Registration(Sid.generate(Sid.Type.REGISTRATION), now, now, new DateTime(expires), "sip:" + user
+                + "@127.0.0.1:5080", user, user, "GenericUA", 3600, location, false);
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        final RegistrationIndex index = new RegistrationIndex(PING_INTERVAL, 0);
+        final Registration alice = registration("alice", "sip:alice@192.168.1.10:5060", 3600000);
+        final Registration phone = registration("alice", "sip:alice@192.168.1.11:5060", 3600000);
+        index.put(alice, 0, false);
+        index.put(phone, 0, false);
+        assertEquals(2, index.size());
+        // Addresses of record are compared ignoring case.
+        assertEquals(2, index.get("SIP:Alice@127.0.0.1:5080").size());
+        // A new registration of the same location replaces the previous one.
+        final Registration again = registration("alice", "sip:alice@192.168.1.10:5060", 3600000);
+        index.put(again, 0, false);
+        assertEquals(2, index.size());
+        assertTrue(index.get("sip:alice@127.0.0.1:5080").contains(again));
+        assertFalse(index.get("sip:alice@127.0.0.1:5080").contains(alice));
+        assertEquals(phone, index.remove("sip:alice@127.0.0.1:5080", "sip:alice@192.168.1.11:5060"));
+        assertNull(index.remove("sip:alice@127.0.0.1:5080", "sip:alice@192.168.1.11:5060"));
+        assertNull(index.remove("sip:bob@127.0.0.1:5080", "sip:bob@192.168.1.12:5060"));
+        assertEquals(1, index.size());
+        assertTrue(index.get("sip:bob@127.0.0.1:5080").isEmpty());
+    }
+
+    @Test
+    public void testExpire() {
+        final RegistrationIndex index = new RegistrationIndex(PING_INTERVAL, 0);
+        final Registration alice = registration("alice", "sip:alice@192.168.1.10:5060", 30000);
+        final Registration bob = registration("bob", "sip:bob@192.168.1.12:5060", 30000);
+        index.put(alice, 0, false);
+        index.put(bob, 0, false);
+        // Bob registered again before expiring.
+        index.put(registration("bob", "sip:bob@192.168.1.12:5060", 90000), 20000, false);
+        assertTrue(index.expire(29000).isEmpty());
+        final List<Registration> expired = index.expire(30000);
+        assertEquals(1, expired.size());
+        assertEquals(alice, expired.get(0));
+        assertTrue(index.get("sip:alice@127.0.0.1:5080").isEmpty());
+        assertEquals(1, index.size());
+        assertTrue(index.expire(89000).isEmpty());
+        assertEquals(1, index.expire(90000).size());
+        assertEquals(0, index.size());
+        // A removed registration does not expire.
+        index.put(alice, 90000, false);
+        index.remove(alice.getAddressOfRecord(), alice.getLocation());
+        assertTrue(index.expire(3600000).isEmpty());
+    }
+
+    @Test
+    public void testKeepAlive() {
+        final RegistrationIndex index = new RegistrationIndex(PING_INTERVAL, 0);
+        final Registration alice = registration("alice", "sip:alice@192.168.1.10:5060", 3600000);
+        index.put(alice, 0, false);
+        // The first keep alive is one ping interval after registering.
+        assertTrue(index.keepAlive(PING_INTERVAL - 1000).isEmpty());
+        assertEquals(1, index.keepAlive(PING_INTERVAL).size());
+        assertTrue(index.keepAlive(2 * PING_INTERVAL - 1000).isEmpty());
+        assertEquals(1, index.keepAlive(2 * PING_INTERVAL).size());
+        // The registrations loaded at start up are pinged within the first interval.
+        final RegistrationIndex loaded = new RegistrationIndex(PING_INTERVAL, 0);
+        for (int user = 0; user < 100; user++) {
+            loaded.put(registration("user" + user, "sip:user" + user + "@192.168.1.10:5060", 3600000), 0, true);
+        }
+        assertEquals(100, loaded.keepAlive(PING_INTERVAL).size());
+        assertEquals(100, loaded.keepAlive(2 * PING_INTERVAL).size());
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.mobicents.servlet.restcomm.telephony.ua;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.sip.Address;
+import javax.servlet.sip.SipFactory;
+import javax.servlet.sip.SipServletResponse;
+import javax.servlet.sip.SipURI;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mobicents.servlet.restcomm.dao.DaoManager;
+import org.mobicents.servlet.restcomm.dao.RegistrationsDao;
+import org.mobicents.servlet.restcomm.entities.Registration;
+import org.mobicents.servlet.restcomm.entities.Sid;
+import org.mobicents.servlet.restcomm.telephony.UserRegistration;
+
+import scala.concurrent.duration.FiniteDuration;
+import akka.actor.Actor;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActorFactory;
+import akka.testkit.JavaTestKit;
+import akka.testkit.TestActorRef;
+
+import com.telestax.servlet.MonitoringService;
+
+public class UserAgentManagerTest {
+    private ActorSystem system;
+    private MemoryRegistrations registrations;
+
+    public UserAgentManagerTest() {
+        super();
+    }
+
+    // Answers the calls to an interface from the map by method name, anything else returns null.
+    private static <T> T fake(final Class<T> type, final Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] arguments) throws Throwable {
+                if (Object.class.equals(method.getDeclaringClass())) {
+                    return method.invoke(this, arguments);
+                }
+                if (arguments != null && answers.containsKey(method.getName() + " " + arguments[0])) {
+                    return answers.get(method.getName() + " " + arguments[0]);
+                }
+                return answers.get(method.getName());
+            }
+        }));
+    }
+
+    private static Registration registration(final String user, final String location, final DateTime expires) {
+        final DateTime now = DateTime.now();
+        return new Registration(Sid.generate(Sid.Type.REGISTRATION), now, now, expires, "sip:" + user + "@127.0.0.1:5080",
+                user, user, "GenericUA", 3600, location, false);
+    }
+
+    private TestActorRef<UserAgentManager> manager(final JavaTestKit monitoring) {
+        final Configuration configuration = new BaseConfiguration();
+        configuration.addProperty("runtime-settings.authenticate", true);
+        configuration.addProperty("runtime-settings.ping-interval", 60);
+        // The keep alives are not sent to WebSocket clients.
+        final Map<String, Object> uri = new HashMap<String, Object>();
+        uri.put("getTransportParam", "ws");
+        final Map<String, Object> sip = new HashMap<String, Object>();
+        sip.put("createURI", fake(SipURI.class, uri));
+        final SipFactory factory = fake(SipFactory.class, sip);
+        final Map<String, Object> daos = new HashMap<String, Object>();
+        daos.put("getRegistrationsDao", registrations);
+        final DaoManager storage = fake(DaoManager.class, daos);
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("getAttribute " + MonitoringService.class.getName(), monitoring.getRef());
+        final ServletContext context = fake(ServletContext.class, attributes);
+        return TestActorRef.create(system, new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                return new UserAgentManager(configuration, factory, storage, context);
+            }
+        }), "user-agent-manager");
+    }
+
+    @Before
+    public void before() {
+        system = ActorSystem.create();
+        registrations = new MemoryRegistrations();
+    }
+
+    @After
+    public void after() {
+        system.shutdown();
+    }
+
+    @Test
+    public void testExpiry() {
+        new JavaTestKit(system) {
+            {
+                final DateTime expires = DateTime.now().plusMillis(1500);
+                final Registration alice = registration("alice", "sip:alice@192.168.1.10:5060", expires);
+                final Registration bob = registration("bob", "sip:bob@192.168.1.12:5060", expires);
+                registrations.addRegistration(alice);
+                registrations.addRegistration(bob);
+                manager(this);
+                // Another instance sharing the data store refreshed bob.
+                final Registration refreshed = registration("bob", bob.getLocation(), DateTime.now().plusHours(1));
+                registrations.updateRegistration(refreshed);
+                final FiniteDuration timeout = FiniteDuration.create(5, TimeUnit.SECONDS);
+                final UserRegistration expired = expectMsgClass(timeout, UserRegistration.class);
+                assertEquals("alice", expired.getUser());
+                assertEquals(alice.getLocation(), expired.getAddress());
+                assertFalse(expired.getRegistered());
+                assertTrue(registrations.getRegistrations("alice").isEmpty());
+                assertEquals(refreshed, registrations.getRegistration("bob"));
+                expectNoMsg(FiniteDuration.create(1, TimeUnit.SECONDS));
+            }
+        };
+    }
+
+    @Test
+    public void testFailedKeepAliveOfAnotherInstance() {
+        new JavaTestKit(system) {
+            {
+                final TestActorRef<UserAgentManager> manager = manager(this);
+                // Written by another instance sharing the data store, so not in the index of this one.
+                final Registration carol = registration("carol", "sip:carol@192.168.1.14:5060", DateTime.now()
+                        .plusHours(1));
+                registrations.addRegistration(carol);
+                final Map<String, Object> uri = new HashMap<String, Object>();
+                uri.put("getUser", "carol");
+                uri.put("getHost", "127.0.0.1");
+                uri.put("getPort", 5080);
+                final Map<String, Object> to = new HashMap<String, Object>();
+                to.put("getURI", fake(SipURI.class, uri));
+                final Map<String, Object> response = new HashMap<String, Object>();
+                response.put("getStatus", SipServletResponse.SC_REQUEST_TIMEOUT);
+                response.put("getMethod", "OPTIONS");
+                response.put("getTo", fake(Address.class, to));
+                response.put("getFrom", fake(Address.class, new HashMap<String, Object>()));
+                manager.tell(fake(SipServletResponse.class, response), getRef());
+                final UserRegistration removed = expectMsgClass(UserRegistration.class);
+                assertEquals("carol", removed.getUser());
+                assertFalse(removed.getRegistered());
+                assertTrue(registrations.getRegistrations().isEmpty());
+            }
+        };
+    }
+
+    private static final class MemoryRegistrations implements RegistrationsDao {
+        private final List<Registration> registrations;
+
+        private MemoryRegistrations() {
+            super();
+            this.registrations = new CopyOnWriteArrayList<Registration>();
+        }
+
+        private Registration find(final Registration registration) {
+            for (final Registration candidate : registrations) {
+                if (candidate.getLocation().equals(registration.getLocation())
+                        && candidate.getAddressOfRecord().equalsIgnoreCase(registration.getAddressOfRecord())) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void addRegistration(final Registration registration) {
+            registrations.add(registration);
+        }
+
+        @Override
+        public Registration getRegistration(final String user) {
+            final List<Registration> result = getRegistrations(user);
+            return result.isEmpty() ? null : result.get(0);
+        }
+
+        @Override
+        public List<Registration> getRegistrations(final String user) {
+            final List<Registration> result = new ArrayList<Registration>();
+            for (final Registration registration : registrations) {
+                if (registration.getUserName().equals(user)) {
+                    result.add(registration);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Registration> getRegistrations() {
+            return new ArrayList<Registration>(registrations);
+        }
+
+        @Override
+        public boolean hasRegistration(final Registration registration) {
+            return find(registration) != null;
+        }
+
+        @Override
+        public void removeRegistration(final Registration registration) {
+            registrations.remove(find(registration));
+        }
+
+        @Override
+        public void updateRegistration(final Registration registration) {
+            removeRegistration(registration);
+            addRegistration(registration);
+        }
+    }
+}
@@ -39,10 +39,10 @@ import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.mobicents.servlet.restcomm.cache.HashGenerator;
+import org.mobicents.servlet.restcomm.http.HttpClientPool;
 import org.mobicents.servlet.restcomm.tts.api.GetSpeechSynthesizerInfo;
 import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerException;
 import org.mobicents.servlet.restcomm.tts.api.SpeechSynthesizerInfo;
@@ -170,7 +170,7 @@ public final class VoiceRSSSpeechSynthesizer extends UntypedActor {
         final HttpPost post = new HttpPost(service);
         final UrlEncodedFormEntity entity = new UrlEncodedFormEntity(query, "UTF-8");
         post.setEntity(entity);
-        final HttpClient client = new DefaultHttpClient();
+        final HttpClient client = HttpClientPool.getClient();
         final HttpResponse response = client.execute(post);
         final StatusLine line = response.getStatusLine();
         final int status = line.getStatusCode();
@@ -188,22 +188,29 @@ public final class VoiceRSSSpeechSynthesizer extends UntypedActor {
             }
 
             logger.info("VoiceRSSSpeechSynthesizer success!");
+            // Closing the content stream releases the connection back to the pool.
             InputStream is = response.getEntity().getContent();
-            File file = new File(System.getProperty("java.io.tmpdir") + File.separator + hash + ".wav");
-            final OutputStream ostream = new FileOutputStream(file);
-
-            final byte[] buffer = new byte[1024 * 8];
-            while (true) {
-                final int len = is.read(buffer);
-                if (len <= 0) {
-                    break;
+            try {
+                File file = new File(System.getProperty("java.io.tmpdir") + File.separator + hash + ".wav");
+                final OutputStream ostream = new FileOutputStream(file);
+                try {
+                    final byte[] buffer = new byte[1024 * 8];
+                    while (true) {
+                        final int len = is.read(buffer);
+                        if (len <= 0) {
+                            break;
+                        }
+                        ostream.write(buffer, 0, len);
+                    }
+                } finally {
+                    ostream.close();
                 }
-                ostream.write(buffer, 0, len);
+                return file.toURI();
+            } finally {
+                is.close();
             }
-            ostream.close();
-            is.close();
-            return file.toURI();
         } else {
+            EntityUtils.consume(response.getEntity());
             logger.info("VoiceRSSSpeechSynthesizer error, status code: " + line.getStatusCode() + (" reason phrase: ")
                     + line.getReasonPhrase());
             final StringBuilder buffer = new StringBuilder();
@@ -50,6 +50,7 @@ import org.joda.time.DateTime;
 import org.mobicents.servlet.restcomm.dao.CallDetailRecordsDao;
 import org.mobicents.servlet.restcomm.dao.DaoManager;
 import org.mobicents.servlet.restcomm.dao.NotificationsDao;
+import org.mobicents.servlet.restcomm.dispatch.RestcommDispatchers;
 import org.mobicents.servlet.restcomm.email.EmailService;
 import org.mobicents.servlet.restcomm.api.EmailRequest;
 import org.mobicents.servlet.restcomm.api.Mail;
@@ -64,6 +65,7 @@ import org.mobicents.servlet.restcomm.http.client.Downloader;
 import org.mobicents.servlet.restcomm.http.client.DownloaderResponse;
 import org.mobicents.servlet.restcomm.http.client.HttpRequestDescriptor;
 import org.mobicents.servlet.restcomm.http.client.HttpResponseDescriptor;
+import org.mobicents.servlet.restcomm.interpreter.NotificationDigests;
 import org.mobicents.servlet.restcomm.interpreter.StartInterpreter;
 import org.mobicents.servlet.restcomm.interpreter.StopInterpreter;
 import org.mobicents.servlet.restcomm.interpreter.rcml.Attribute;
@@ -288,26 +290,28 @@ public class UssdInterpreter extends UntypedActor {
 
     ActorRef mailer(final Configuration configuration) {
         final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public Actor create() throws Exception {
                 return new EmailService(configuration);
             }
-        }));
+        });
+        return context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
     }
 
     ActorRef downloader() {
         final UntypedActorContext context = getContext();
-        return context.actorOf(new Props(new UntypedActorFactory() {
+        final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public UntypedActor create() throws Exception {
                 return new Downloader();
             }
-        }));
+        });
+        return context.actorOf(RestcommDispatchers.withDispatcher(context.system(), props, RestcommDispatchers.BLOCKING_IO));
     }
 
     ActorRef parser(final String xml) {
@@ -383,37 +387,14 @@ public class UssdInterpreter extends UntypedActor {
         if (emailAddress == null || emailAddress.isEmpty()) {
             return;
         }
-        final String EMAIL_SUBJECT = "RestComm Error Notification - Attention Required";
-        final StringBuilder buffer = new StringBuilder();
-        buffer.append("<strong>").append("Sid: ").append("</strong></br>");
-        buffer.append(notification.getSid().toString()).append("</br>");
-        buffer.append("<strong>").append("Account Sid: ").append("</strong></br>");
-        buffer.append(notification.getAccountSid().toString()).append("</br>");
-        buffer.append("<strong>").append("Call Sid: ").append("</strong></br>");
-        buffer.append(notification.getCallSid().toString()).append("</br>");
-        buffer.append("<strong>").append("API Version: ").append("</strong></br>");
-        buffer.append(notification.getApiVersion()).append("</br>");
-        buffer.append("<strong>").append("Log: ").append("</strong></br>");
-        buffer.append(notification.getLog() == ERROR_NOTIFICATION ? "ERROR" : "WARNING").append("</br>");
-        buffer.append("<strong>").append("Error Code: ").append("</strong></br>");
-        buffer.append(notification.getErrorCode()).append("</br>");
-        buffer.append("<strong>").append("More Information: ").append("</strong></br>");
-        buffer.append(notification.getMoreInfo().toString()).append("</br>");
-        buffer.append("<strong>").append("Message Text: ").append("</strong></br>");
-        buffer.append(notification.getMessageText()).append("</br>");
-        buffer.append("<strong>").append("Message Date: ").append("</strong></br>");
-        buffer.append(notification.getMessageDate().toString()).append("</br>");
-        buffer.append("<strong>").append("Request URL: ").append("</strong></br>");
-        buffer.append(notification.getRequestUrl().toString()).append("</br>");
-        buffer.append("<strong>").append("Request Method: ").append("</strong></br>");
-        buffer.append(notification.getRequestMethod()).append("</br>");
-        buffer.append("<strong>").append("Request Variables: ").append("</strong></br>");
-        buffer.append(notification.getRequestVariables()).append("</br>");
-        buffer.append("<strong>").append("Response Headers: ").append("</strong></br>");
-        buffer.append(notification.getResponseHeaders()).append("</br>");
-        buffer.append("<strong>").append("Response Body: ").append("</strong></br>");
-        buffer.append(notification.getResponseBody()).append("</br>");
-        final Mail emailMsg = new Mail(EMAIL_SENDER,emailAddress,EMAIL_SUBJECT, buffer.toString());
+        // A failing application raises the same error on every call, the notifications can be sent in digests.
+        final ActorRef digest = NotificationDigests.get(getContext().system()).lookup();
+        if (digest != null) {
+            digest.tell(new NotificationDigests.Add(EMAIL_SENDER, emailAddress, notification), self());
+            return;
+        }
+        final Mail emailMsg = new Mail(EMAIL_SENDER, emailAddress, NotificationDigests.SUBJECT,
+                NotificationDigests.describe(notification));
         if (mailerNotify == null){
             mailerNotify = mailer(configuration.subset("smtp-notify"));
         }